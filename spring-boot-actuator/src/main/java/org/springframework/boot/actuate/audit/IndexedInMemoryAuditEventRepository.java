@@ -0,0 +1,264 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.audit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory {@link AuditEventRepository} implementation suited to applications that
+ * record a large number of events. Unlike {@link InMemoryAuditEventRepository}, adding
+ * an event never blocks and finding events does not scan every stored event.
+ * <p>
+ * Events are stored in fixed size segments, in the order in which they were added. Each
+ * segment indexes its events by principal and by type and tracks the latest timestamp
+ * that it contains, so a query only visits the matching events of the segments that can
+ * contain a match. Once the capacity is reached the oldest segment is discarded, along
+ * with its indexes.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class IndexedInMemoryAuditEventRepository implements AuditEventRepository {
+
+	private static final int DEFAULT_CAPACITY = 4000;
+
+	private static final int DEFAULT_SEGMENT_SIZE = 256;
+
+	private final int capacity;
+
+	private final int segmentSize;
+
+	private final int maxSegments;
+
+	private final AtomicReference<Segment> current;
+
+	public IndexedInMemoryAuditEventRepository() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IndexedInMemoryAuditEventRepository(int capacity) {
+		this(capacity, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Create a new {@link IndexedInMemoryAuditEventRepository} instance.
+	 * @param capacity the maximum number of events to keep
+	 * @param segmentSize the number of events stored in each segment
+	 */
+	public IndexedInMemoryAuditEventRepository(int capacity, int segmentSize) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		Assert.isTrue(segmentSize > 0, "SegmentSize must be positive");
+		this.capacity = capacity;
+		this.segmentSize = Math.min(segmentSize, capacity);
+		this.maxSegments = (capacity + this.segmentSize - 1) / this.segmentSize + 1;
+		this.current = new AtomicReference<Segment>(
+				new Segment(0, this.segmentSize, null));
+	}
+
+	@Override
+	public void add(AuditEvent event) {
+		Assert.notNull(event, "AuditEvent must not be null");
+		while (true) {
+			Segment segment = this.current.get();
+			if (segment.add(event)) {
+				return;
+			}
+			Segment next = new Segment(segment.base + this.segmentSize,
+					this.segmentSize, segment);
+			if (this.current.compareAndSet(segment, next)) {
+				next.truncate(this.maxSegments);
+			}
+		}
+	}
+
+	@Override
+	public List<AuditEvent> find(Date after) {
+		return find(null, after, null);
+	}
+
+	@Override
+	public List<AuditEvent> find(String principal, Date after) {
+		return find(principal, after, null);
+	}
+
+	@Override
+	public List<AuditEvent> find(String principal, Date after, String type) {
+		LinkedList<AuditEvent> events = new LinkedList<AuditEvent>();
+		Segment segment = this.current.get();
+		long oldest = segment.base + segment.size() - this.capacity;
+		while (segment != null && segment.base + this.segmentSize > oldest) {
+			if (after == null || segment.getLatestTimestamp() >= after.getTime()) {
+				List<AuditEvent> matches = segment.find(principal, after, type, oldest);
+				for (int i = matches.size() - 1; i >= 0; i--) {
+					events.addFirst(matches.get(i));
+				}
+			}
+			segment = segment.previous;
+		}
+		return events;
+	}
+
+	/**
+	 * A fixed size, append-only block of events with its own indexes.
+	 */
+	private static final class Segment {
+
+		private final long base;
+
+		private final AtomicReferenceArray<AuditEvent> events;
+
+		private final AtomicInteger claimed = new AtomicInteger();
+
+		private final AtomicLong latestTimestamp = new AtomicLong(Long.MIN_VALUE);
+
+		private final ConcurrentMap<String, Queue<Integer>> byPrincipal = new ConcurrentHashMap<String, Queue<Integer>>();
+
+		private final ConcurrentMap<String, Queue<Integer>> byType = new ConcurrentHashMap<String, Queue<Integer>>();
+
+		private volatile Segment previous;
+
+		Segment(long base, int size, Segment previous) {
+			this.base = base;
+			this.events = new AtomicReferenceArray<AuditEvent>(size);
+			this.previous = previous;
+		}
+
+		boolean add(AuditEvent event) {
+			int index = this.claimed.getAndIncrement();
+			if (index >= this.events.length()) {
+				return false;
+			}
+			this.events.set(index, event);
+			index(this.byPrincipal, event.getPrincipal(), index);
+			index(this.byType, event.getType(), index);
+			long timestamp = event.getTimestamp().getTime();
+			long latest = this.latestTimestamp.get();
+			while (timestamp > latest
+					&& !this.latestTimestamp.compareAndSet(latest, timestamp)) {
+				latest = this.latestTimestamp.get();
+			}
+			return true;
+		}
+
+		private void index(ConcurrentMap<String, Queue<Integer>> index, String key,
+				int position) {
+			Queue<Integer> positions = index.get(key);
+			if (positions == null) {
+				positions = new ConcurrentLinkedQueue<Integer>();
+				Queue<Integer> existing = index.putIfAbsent(key, positions);
+				if (existing != null) {
+					positions = existing;
+				}
+			}
+			positions.add(position);
+		}
+
+		int size() {
+			return Math.min(this.claimed.get(), this.events.length());
+		}
+
+		long getLatestTimestamp() {
+			return this.latestTimestamp.get();
+		}
+
+		List<AuditEvent> find(String principal, Date after, String type, long oldest) {
+			int[] positions = getCandidates(principal, type);
+			List<AuditEvent> matches = new ArrayList<AuditEvent>(positions.length);
+			for (int position : positions) {
+				AuditEvent event = this.events.get(position);
+				if (event != null && this.base + position >= oldest
+						&& isMatch(principal, after, type, event)) {
+					matches.add(event);
+				}
+			}
+			return matches;
+		}
+
+		private int[] getCandidates(String principal, String type) {
+			Queue<Integer> candidates = null;
+			if (principal != null) {
+				candidates = this.byPrincipal.get(principal);
+				if (candidates == null) {
+					return new int[0];
+				}
+			}
+			if (type != null) {
+				Queue<Integer> byType = this.byType.get(type);
+				if (byType == null) {
+					return new int[0];
+				}
+				if (candidates == null || byType.size() < candidates.size()) {
+					candidates = byType;
+				}
+			}
+			if (candidates == null) {
+				int[] all = new int[size()];
+				for (int i = 0; i < all.length; i++) {
+					all[i] = i;
+				}
+				return all;
+			}
+			List<Integer> positions = new ArrayList<Integer>(candidates);
+			int[] sorted = new int[positions.size()];
+			for (int i = 0; i < sorted.length; i++) {
+				sorted[i] = positions.get(i);
+			}
+			Arrays.sort(sorted);
+			return sorted;
+		}
+
+		private boolean isMatch(String principal, Date after, String type,
+				AuditEvent event) {
+			boolean match = true;
+			match = match && (principal == null || event.getPrincipal().equals(principal));
+			match = match
+					&& (after == null || event.getTimestamp().compareTo(after) >= 0);
+			match = match && (type == null || event.getType().equals(type));
+			return match;
+		}
+
+		/**
+		 * Drop the segments beyond the given number, counting this one.
+		 * @param segments the number of segments to keep
+		 */
+		void truncate(int segments) {
+			Segment segment = this;
+			for (int i = 1; i < segments && segment != null; i++) {
+				segment = segment.previous;
+			}
+			if (segment != null) {
+				segment.previous = null;
+			}
+		}
+
+	}
+
+}
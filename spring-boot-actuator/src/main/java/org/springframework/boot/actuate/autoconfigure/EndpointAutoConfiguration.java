@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,12 +19,19 @@ package org.springframework.boot.actuate.autoconfigure;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import liquibase.integration.spring.SpringLiquibase;
 import org.flywaydb.core.Flyway;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.endpoint.AutoConfigurationReportEndpoint;
 import org.springframework.boot.actuate.endpoint.BeansEndpoint;
@@ -45,9 +52,10 @@ import org.springframework.boot.actuate.endpoint.ShutdownEndpoint;
 import org.springframework.boot.actuate.endpoint.TraceEndpoint;
 import org.springframework.boot.actuate.health.HealthAggregator;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicatorScheduler;
 import org.springframework.boot.actuate.health.OrderedHealthAggregator;
 import org.springframework.boot.actuate.info.InfoContributor;
-import org.springframework.boot.actuate.trace.InMemoryTraceRepository;
+import org.springframework.boot.actuate.trace.RingBufferTraceRepository;
 import org.springframework.boot.actuate.trace.TraceRepository;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -63,6 +71,7 @@ import org.springframework.boot.logging.LoggingSystem;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.servlet.handler.AbstractHandlerMethodMapping;
 
 /**
@@ -77,11 +86,12 @@ import org.springframework.web.servlet.handler.AbstractHandlerMethodMapping;
  * @author Eddú Meléndez
  * @author Meang Akira Tanaka
  * @author Ben Hale
+ * @author Jon Ellis
  */
 @Configuration
 @AutoConfigureAfter({ FlywayAutoConfiguration.class, LiquibaseAutoConfiguration.class })
 @EnableConfigurationProperties(EndpointProperties.class)
-public class EndpointAutoConfiguration {
+public class EndpointAutoConfiguration implements DisposableBean {
 
 	private final HealthAggregator healthAggregator;
 
@@ -93,6 +103,8 @@ public class EndpointAutoConfiguration {
 
 	private final TraceRepository traceRepository;
 
+	private ThreadPoolExecutor healthIndicatorExecutor;
+
 	public EndpointAutoConfiguration(ObjectProvider<HealthAggregator> healthAggregator,
 			ObjectProvider<Map<String, HealthIndicator>> healthIndicators,
 			ObjectProvider<List<InfoContributor>> infoContributors,
@@ -113,13 +125,76 @@ public class EndpointAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public HealthEndpoint healthEndpoint() {
-		return new HealthEndpoint(
+	public HealthEndpoint healthEndpoint(
+			ObjectProvider<HealthIndicatorProperties> healthIndicatorProperties,
+			ObjectProvider<HealthIndicatorScheduler> healthIndicatorScheduler) {
+		HealthIndicatorProperties properties = healthIndicatorProperties
+				.getIfAvailable();
+		HealthIndicatorScheduler scheduler = healthIndicatorScheduler.getIfAvailable();
+		Map<String, HealthIndicator> healthIndicators = (this.healthIndicators == null
+				? Collections.<String, HealthIndicator>emptyMap()
+				: this.healthIndicators);
+		if (scheduler != null && properties != null) {
+			healthIndicators = scheduleHealthIndicators(healthIndicators, scheduler,
+					properties.getRefresh());
+		}
+		HealthIndicatorProperties.Parallel parallel = (properties == null ? null
+				: properties.getParallel());
+		boolean enabled = (scheduler == null && parallel != null
+				&& parallel.isEnabled());
+		if (enabled) {
+			this.healthIndicatorExecutor = createHealthIndicatorExecutor(parallel);
+		}
+		HealthEndpoint endpoint = new HealthEndpoint(
 				this.healthAggregator == null ? new OrderedHealthAggregator()
 						: this.healthAggregator,
-				this.healthIndicators == null
-						? Collections.<String, HealthIndicator>emptyMap()
-						: this.healthIndicators);
+				healthIndicators, this.healthIndicatorExecutor,
+				enabled ? parallel.getTimeout() : 0);
+		if (scheduler != null) {
+			// The results are already refreshed in the background
+			endpoint.setTimeToLive(0);
+		}
+		return endpoint;
+	}
+
+	private Map<String, HealthIndicator> scheduleHealthIndicators(
+			Map<String, HealthIndicator> healthIndicators,
+			HealthIndicatorScheduler scheduler,
+			HealthIndicatorProperties.Refresh refresh) {
+		Map<String, HealthIndicator> scheduled = new LinkedHashMap<String, HealthIndicator>();
+		for (Map.Entry<String, HealthIndicator> entry : healthIndicators.entrySet()) {
+			String name = getHealthIndicatorName(entry.getKey());
+			scheduled.put(entry.getKey(), scheduler.schedule(name, entry.getValue(),
+					refresh.getInterval(name), refresh.getJitter()));
+		}
+		return scheduled;
+	}
+
+	private String getHealthIndicatorName(String beanName) {
+		int index = beanName.toLowerCase().indexOf("healthindicator");
+		return (index > 0 ? beanName.substring(0, index) : beanName);
+	}
+
+	private ThreadPoolExecutor createHealthIndicatorExecutor(
+			HealthIndicatorProperties.Parallel parallel) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"health-indicator-");
+		threadFactory.setDaemon(true);
+		// Calls that do not fit in the queue are rejected and reported as UNKNOWN
+		BlockingQueue<Runnable> queue = (parallel.getQueueCapacity() > 0
+				? new ArrayBlockingQueue<Runnable>(parallel.getQueueCapacity())
+				: new SynchronousQueue<Runnable>());
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(parallel.getThreads(),
+				parallel.getThreads(), 60, TimeUnit.SECONDS, queue, threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	@Override
+	public void destroy() {
+		if (this.healthIndicatorExecutor != null) {
+			this.healthIndicatorExecutor.shutdown();
+		}
 	}
 
 	@Bean
@@ -157,7 +232,7 @@ public class EndpointAutoConfiguration {
 	@ConditionalOnMissingBean
 	public TraceEndpoint traceEndpoint() {
 		return new TraceEndpoint(this.traceRepository == null
-				? new InMemoryTraceRepository() : this.traceRepository);
+				? new RingBufferTraceRepository() : this.traceRepository);
 	}
 
 	@Bean
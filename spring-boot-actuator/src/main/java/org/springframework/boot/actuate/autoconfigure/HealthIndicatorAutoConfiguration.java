@@ -34,10 +34,12 @@ import org.springframework.boot.actuate.health.ApplicationHealthIndicator;
 import org.springframework.boot.actuate.health.CassandraHealthIndicator;
 import org.springframework.boot.actuate.health.CouchbaseHealthIndicator;
 import org.springframework.boot.actuate.health.DataSourceHealthIndicator;
+import org.springframework.boot.actuate.health.DataSourceHealthIndicatorProperties;
 import org.springframework.boot.actuate.health.DiskSpaceHealthIndicator;
 import org.springframework.boot.actuate.health.DiskSpaceHealthIndicatorProperties;
 import org.springframework.boot.actuate.health.HealthAggregator;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicatorScheduler;
 import org.springframework.boot.actuate.health.JmsHealthIndicator;
 import org.springframework.boot.actuate.health.LdapHealthIndicator;
 import org.springframework.boot.actuate.health.MailHealthIndicator;
@@ -54,6 +56,7 @@ import org.springframework.boot.autoconfigure.cassandra.CassandraAutoConfigurati
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.cassandra.CassandraDataAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.couchbase.CouchbaseDataAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchAutoConfiguration;
@@ -91,6 +94,7 @@ import org.springframework.mail.javamail.JavaMailSenderImpl;
  * @author Phillip Webb
  * @author Tommy Ludwig
  * @author Eddú Meléndez
+ * @author Jon Ellis
  * @since 1.1.0
  */
 @Configuration
@@ -125,6 +129,14 @@ public class HealthIndicatorAutoConfiguration {
 		return healthAggregator;
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "management.health.status.refresh", name = "enabled")
+	public HealthIndicatorScheduler healthIndicatorScheduler() {
+		HealthIndicatorProperties.Refresh refresh = this.properties.getRefresh();
+		return new HealthIndicatorScheduler(refresh.getThreads(), refresh.getTimeout());
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(HealthIndicator.class)
 	public ApplicationHealthIndicator applicationHealthIndicator() {
@@ -179,6 +191,7 @@ public class HealthIndicatorAutoConfiguration {
 	@ConditionalOnClass({ JdbcTemplate.class, AbstractRoutingDataSource.class })
 	@ConditionalOnBean(DataSource.class)
 	@ConditionalOnEnabledHealthIndicator("db")
+	@EnableConfigurationProperties(DataSourceHealthIndicatorProperties.class)
 	public static class DataSourcesHealthIndicatorConfiguration extends
 			CompositeHealthIndicatorConfiguration<DataSourceHealthIndicator, DataSource>
 			implements InitializingBean {
@@ -187,13 +200,17 @@ public class HealthIndicatorAutoConfiguration {
 
 		private final Collection<DataSourcePoolMetadataProvider> metadataProviders;
 
+		private final DataSourceHealthIndicatorProperties properties;
+
 		private DataSourcePoolMetadataProvider poolMetadataProvider;
 
 		public DataSourcesHealthIndicatorConfiguration(
 				ObjectProvider<Map<String, DataSource>> dataSources,
-				ObjectProvider<Collection<DataSourcePoolMetadataProvider>> metadataProviders) {
+				ObjectProvider<Collection<DataSourcePoolMetadataProvider>> metadataProviders,
+				DataSourceHealthIndicatorProperties properties) {
 			this.dataSources = filterDataSources(dataSources.getIfAvailable());
 			this.metadataProviders = metadataProviders.getIfAvailable();
+			this.properties = properties;
 		}
 
 		private Map<String, DataSource> filterDataSources(
@@ -224,13 +241,13 @@ public class HealthIndicatorAutoConfiguration {
 
 		@Override
 		protected DataSourceHealthIndicator createHealthIndicator(DataSource source) {
-			return new DataSourceHealthIndicator(source, getValidationQuery(source));
-		}
-
-		private String getValidationQuery(DataSource source) {
 			DataSourcePoolMetadata poolMetadata = this.poolMetadataProvider
 					.getDataSourcePoolMetadata(source);
-			return (poolMetadata == null ? null : poolMetadata.getValidationQuery());
+			DataSourceHealthIndicator indicator = new DataSourceHealthIndicator(source,
+					(poolMetadata == null ? null : poolMetadata.getValidationQuery()));
+			indicator.setPoolMetadata(poolMetadata);
+			indicator.setValidationTimeout(this.properties.getValidationTimeout());
+			return indicator;
 		}
 
 	}
@@ -16,7 +16,9 @@
 
 package org.springframework.boot.actuate.autoconfigure;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -24,6 +26,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * Configuration properties for some health properties.
  *
  * @author Christian Dupuis
+ * @author Jon Ellis
  * @since 1.2.0
  */
 @ConfigurationProperties(prefix = "management.health.status")
@@ -34,6 +37,10 @@ public class HealthIndicatorProperties {
 	 */
 	private List<String> order = null;
 
+	private final Parallel parallel = new Parallel();
+
+	private final Refresh refresh = new Refresh();
+
 	public List<String> getOrder() {
 		return this.order;
 	}
@@ -44,4 +51,172 @@ public class HealthIndicatorProperties {
 		}
 	}
 
+	public Parallel getParallel() {
+		return this.parallel;
+	}
+
+	public Refresh getRefresh() {
+		return this.refresh;
+	}
+
+	/**
+	 * Parallel evaluation of the health indicators.
+	 */
+	public static class Parallel {
+
+		/**
+		 * Call the health indicators in parallel rather than one after the other.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of health indicators called concurrently.
+		 */
+		private int threads = 4;
+
+		/**
+		 * Maximum number of health indicator calls waiting for a thread. Calls beyond
+		 * this limit are reported as UNKNOWN.
+		 */
+		private int queueCapacity = 100;
+
+		/**
+		 * Maximum time in milliseconds to wait for each health indicator before reporting
+		 * it as UNKNOWN. A value of zero or less waits indefinitely.
+		 */
+		private long timeout = 10000;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getThreads() {
+			return this.threads;
+		}
+
+		public void setThreads(int threads) {
+			this.threads = threads;
+		}
+
+		public int getQueueCapacity() {
+			return this.queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public long getTimeout() {
+			return this.timeout;
+		}
+
+		public void setTimeout(long timeout) {
+			this.timeout = timeout;
+		}
+
+	}
+
+	/**
+	 * Background refresh of the health indicators.
+	 */
+	public static class Refresh {
+
+		/**
+		 * Check the health indicators periodically in the background and serve the latest
+		 * results rather than checking them when health is requested.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Delay in milliseconds between the checks of each health indicator.
+		 */
+		private long interval = 10000;
+
+		/**
+		 * Maximum random delay in milliseconds added to the interval to spread the checks
+		 * out.
+		 */
+		private long jitter = 1000;
+
+		/**
+		 * Number of threads used to schedule the checks.
+		 */
+		private int threads = 2;
+
+		/**
+		 * Maximum time in milliseconds to wait for each check before reporting the
+		 * health indicator as UNKNOWN. A value of zero or less waits indefinitely.
+		 */
+		private long timeout = 10000;
+
+		/**
+		 * Delay in milliseconds between checks for specific health indicators, keyed by
+		 * health indicator name.
+		 */
+		private Map<String, Long> intervals = new LinkedHashMap<String, Long>();
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public long getInterval() {
+			return this.interval;
+		}
+
+		public void setInterval(long interval) {
+			this.interval = interval;
+		}
+
+		public long getJitter() {
+			return this.jitter;
+		}
+
+		public void setJitter(long jitter) {
+			this.jitter = jitter;
+		}
+
+		public int getThreads() {
+			return this.threads;
+		}
+
+		public void setThreads(int threads) {
+			this.threads = threads;
+		}
+
+		public long getTimeout() {
+			return this.timeout;
+		}
+
+		public void setTimeout(long timeout) {
+			this.timeout = timeout;
+		}
+
+		public Map<String, Long> getIntervals() {
+			return this.intervals;
+		}
+
+		public void setIntervals(Map<String, Long> intervals) {
+			this.intervals = intervals;
+		}
+
+		/**
+		 * Return the interval to use for the named health indicator.
+		 * @param name the health indicator name
+		 * @return the interval in milliseconds
+		 */
+		public long getInterval(String name) {
+			Long interval = this.intervals.get(name);
+			return (interval == null ? this.interval : interval);
+		}
+
+	}
+
 }
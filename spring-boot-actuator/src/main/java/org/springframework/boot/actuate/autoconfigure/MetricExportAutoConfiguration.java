@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.boot.actuate.autoconfigure;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +25,8 @@ import java.util.Map;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.endpoint.MetricsEndpointMetricReader;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.export.Exporter;
 import org.springframework.boot.actuate.metrics.export.MetricExportProperties;
 import org.springframework.boot.actuate.metrics.export.MetricExporters;
@@ -47,6 +50,7 @@ import org.springframework.util.CollectionUtils;
  *
  * @author Dave Syer
  * @author Simon Buettner
+ * @author Jon Ellis
  * @since 1.3.0
  */
 @Configuration
@@ -100,6 +104,13 @@ public class MetricExportAutoConfiguration {
 		return exporters;
 	}
 
+	@Bean
+	@ConditionalOnMissingBean(name = "metricExportersPublicMetrics")
+	public static PublicMetrics metricExportersPublicMetrics(
+			ObjectProvider<MetricExporters> exporters) {
+		return new MetricExportersPublicMetrics(exporters);
+	}
+
 	@Configuration
 	static class StatsdConfiguration {
 
@@ -136,6 +147,28 @@ public class MetricExportAutoConfiguration {
 
 	}
 
+	/**
+	 * {@link PublicMetrics} exposing the statistics of the {@link MetricExporters}.
+	 */
+	private static class MetricExportersPublicMetrics implements PublicMetrics {
+
+		private final ObjectProvider<MetricExporters> exporters;
+
+		MetricExportersPublicMetrics(ObjectProvider<MetricExporters> exporters) {
+			this.exporters = exporters;
+		}
+
+		@Override
+		public Collection<Metric<?>> metrics() {
+			MetricExporters exporters = this.exporters.getIfUnique();
+			if (exporters == null) {
+				return Collections.emptySet();
+			}
+			return exporters.getStatistics();
+		}
+
+	}
+
 	private static class NoOpSchedulingConfigurer implements SchedulingConfigurer {
 
 		@Override
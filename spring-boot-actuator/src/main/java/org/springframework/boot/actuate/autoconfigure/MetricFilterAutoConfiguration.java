@@ -19,8 +19,10 @@ package org.springframework.boot.actuate.autoconfigure;
 import javax.servlet.Servlet;
 import javax.servlet.ServletRegistration;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -34,12 +36,15 @@ import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} that records Servlet interactions
- * with a {@link CounterService} and {@link GaugeService}.
+ * with a {@link CounterService} and {@link GaugeService}. If
+ * {@code endpoints.metrics.filter.histogram} is enabled and the default metric services
+ * are in use then response times are recorded in their {@link HistogramBuffers} instead.
  *
  * @author Dave Syer
  * @author Phillip Webb
  * @author Andy Wilkinson
  * @author Sebastian Kirsch
+ * @author Jon Ellis
  */
 @Configuration
 @ConditionalOnBean({ CounterService.class, GaugeService.class })
@@ -56,16 +61,22 @@ public class MetricFilterAutoConfiguration {
 
 	private final MetricFilterProperties properties;
 
+	private final HistogramBuffers histograms;
+
 	public MetricFilterAutoConfiguration(CounterService counterService,
-			GaugeService gaugeService, MetricFilterProperties properties) {
+			GaugeService gaugeService, MetricFilterProperties properties,
+			ObjectProvider<HistogramBuffers> histograms) {
 		this.counterService = counterService;
 		this.gaugeService = gaugeService;
 		this.properties = properties;
+		this.histograms = (properties.isHistogram() ? histograms.getIfAvailable()
+				: null);
 	}
 
 	@Bean
 	public MetricsFilter metricsFilter() {
-		return new MetricsFilter(this.counterService, this.gaugeService, this.properties);
+		return new MetricsFilter(this.counterService, this.gaugeService, this.properties,
+				this.histograms);
 	}
 
 }
@@ -27,6 +27,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *
  * @author Sebastian Kirsch
  * @author Phillip Webb
+ * @author Jon Ellis
  * @since 1.4.0
  */
 @ConfigurationProperties(prefix = "endpoints.metrics.filter")
@@ -42,6 +43,20 @@ public class MetricFilterProperties {
 	 */
 	private Set<MetricsFilterSubmission> counterSubmissions;
 
+	/**
+	 * Maximum number of distinct routes for which resolved metric names are cached.
+	 * Requests for routes beyond this limit, such as many distinct unmapped paths, are
+	 * still recorded but have their metric names resolved on every request.
+	 */
+	private int routeCacheSize = 1000;
+
+	/**
+	 * Record response times in a histogram so that percentiles are available as well as
+	 * the latest response time. The histogram keeps values for
+	 * "spring.metrics.histogram.window".
+	 */
+	private boolean histogram;
+
 	public MetricFilterProperties() {
 		this.gaugeSubmissions = new HashSet<MetricsFilterSubmission>(
 				EnumSet.of(MetricsFilterSubmission.MERGED));
@@ -65,6 +80,22 @@ public class MetricFilterProperties {
 		this.counterSubmissions = counterSubmissions;
 	}
 
+	public int getRouteCacheSize() {
+		return this.routeCacheSize;
+	}
+
+	public void setRouteCacheSize(int routeCacheSize) {
+		this.routeCacheSize = routeCacheSize;
+	}
+
+	public boolean isHistogram() {
+		return this.histogram;
+	}
+
+	public void setHistogram(boolean histogram) {
+		this.histogram = histogram;
+	}
+
 	boolean shouldSubmitToGauge(MetricsFilterSubmission submission) {
 		return shouldSubmit(this.gaugeSubmissions, submission);
 	}
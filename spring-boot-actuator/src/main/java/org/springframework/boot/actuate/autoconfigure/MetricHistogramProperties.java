@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.autoconfigure;
+
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the {@link HistogramBuffers} used by the default metric
+ * services.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+@ConfigurationProperties(prefix = "spring.metrics.histogram")
+public class MetricHistogramProperties {
+
+	/**
+	 * Record values submitted to the default gauge service with "timer.*" or
+	 * "histogram.*" names in a histogram so that percentiles are available as well as
+	 * the latest value.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Length of time, in milliseconds, that recorded values are kept for when
+	 * calculating percentiles. Set to 0 to keep every value.
+	 */
+	private long window = 60000;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getWindow() {
+		return this.window;
+	}
+
+	public void setWindow(long window) {
+		this.window = window;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,12 +25,14 @@ import org.springframework.boot.actuate.metrics.buffer.BufferGaugeService;
 import org.springframework.boot.actuate.metrics.buffer.BufferMetricReader;
 import org.springframework.boot.actuate.metrics.buffer.CounterBuffers;
 import org.springframework.boot.actuate.metrics.buffer.GaugeBuffers;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.boot.actuate.metrics.export.Exporter;
 import org.springframework.boot.actuate.metrics.export.MetricCopyExporter;
 import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
 import org.springframework.boot.actuate.metrics.writer.MetricWriter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.MessageChannel;
@@ -44,7 +46,11 @@ import org.springframework.messaging.MessageChannel;
  * recommended to use in-memory storage to buffer metric updates locally as is done by the
  * default {@link CounterBuffers} and {@link GaugeBuffers}. The values can be exported
  * (e.g. on a periodic basis) using an {@link Exporter}, most implementations of which
- * have optimizations for sending data to remote repositories.
+ * have optimizations for sending data to remote repositories. If
+ * {@code spring.metrics.histogram.enabled} is set, values submitted to the default
+ * {@link GaugeService} with "timer.*" or "histogram.*" names are recorded in
+ * {@link HistogramBuffers} so that percentiles are available as well as the most recent
+ * value.
  * <p>
  * If Spring Messaging is on the classpath and a {@link MessageChannel} called
  * "metricsChannel" is also available, all metric update events are published additionally
@@ -68,14 +74,22 @@ import org.springframework.messaging.MessageChannel;
  * @see InMemoryMetricRepository
  * @see Exporter
  * @author Dave Syer
+ * @author Jon Ellis
  */
 @Configuration
 public class MetricRepositoryAutoConfiguration {
 
 	@Configuration
 	@ConditionalOnMissingBean(GaugeService.class)
+	@EnableConfigurationProperties(MetricHistogramProperties.class)
 	static class FastMetricServicesConfiguration {
 
+		private final MetricHistogramProperties histogramProperties;
+
+		FastMetricServicesConfiguration(MetricHistogramProperties histogramProperties) {
+			this.histogramProperties = histogramProperties;
+		}
+
 		@Bean
 		@ConditionalOnMissingBean
 		public CounterBuffers counterBuffers() {
@@ -88,12 +102,18 @@ public class MetricRepositoryAutoConfiguration {
 			return new GaugeBuffers();
 		}
 
+		@Bean
+		@ConditionalOnMissingBean
+		public HistogramBuffers histogramBuffers() {
+			return new HistogramBuffers(this.histogramProperties.getWindow());
+		}
+
 		@Bean
 		@ExportMetricReader
 		@ConditionalOnMissingBean
 		public BufferMetricReader actuatorMetricReader(CounterBuffers counters,
-				GaugeBuffers gauges) {
-			return new BufferMetricReader(counters, gauges);
+				GaugeBuffers gauges, HistogramBuffers histograms) {
+			return new BufferMetricReader(counters, gauges, histograms);
 		}
 
 		@Bean
@@ -104,8 +124,10 @@ public class MetricRepositoryAutoConfiguration {
 
 		@Bean
 		@ConditionalOnMissingBean(GaugeService.class)
-		public BufferGaugeService gaugeService(GaugeBuffers writer) {
-			return new BufferGaugeService(writer);
+		public BufferGaugeService gaugeService(GaugeBuffers writer,
+				HistogramBuffers histograms) {
+			return new BufferGaugeService(writer,
+					(this.histogramProperties.isEnabled() ? histograms : null));
 		}
 
 	}
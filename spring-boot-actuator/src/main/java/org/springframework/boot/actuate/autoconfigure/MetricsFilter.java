@@ -17,9 +17,12 @@
 package org.springframework.boot.actuate.autoconfigure;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import javax.servlet.FilterChain;
@@ -32,6 +35,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
@@ -42,7 +46,12 @@ import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.util.UrlPathHelper;
 
 /**
- * Filter that counts requests and measures processing times.
+ * Filter that counts requests and measures processing times. The metric names for each
+ * distinct route, HTTP method and status are resolved once and then cached (up to
+ * {@link MetricFilterProperties#getRouteCacheSize() a limit}) so that steady-state
+ * requests do not need to rework them. If {@link HistogramBuffers} are provided then
+ * response times are recorded in them, under the same "gauge.response.*" names, rather
+ * than being submitted to the {@link GaugeService}.
  */
 @Order(Ordered.HIGHEST_PRECEDENCE)
 final class MetricsFilter extends OncePerRequestFilter {
@@ -56,12 +65,24 @@ final class MetricsFilter extends OncePerRequestFilter {
 
 	private static final Log logger = LogFactory.getLog(MetricsFilter.class);
 
+	private static final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	private static final int MAX_CACHED_METHODS = 16;
+
+	private static final int MAX_CACHED_STATUSES = 32;
+
 	private final CounterService counterService;
 
 	private final GaugeService gaugeService;
 
 	private final MetricFilterProperties properties;
 
+	private final HistogramBuffers histograms;
+
+	private final ConcurrentMap<String, RouteMetricKeys> patternRoutes = new ConcurrentHashMap<String, RouteMetricKeys>();
+
+	private final ConcurrentMap<String, RouteMetricKeys> pathRoutes = new ConcurrentHashMap<String, RouteMetricKeys>();
+
 	private static final Set<PatternReplacer> STATUS_REPLACERS;
 
 	static {
@@ -85,9 +106,15 @@ final class MetricsFilter extends OncePerRequestFilter {
 
 	MetricsFilter(CounterService counterService, GaugeService gaugeService,
 			MetricFilterProperties properties) {
+		this(counterService, gaugeService, properties, null);
+	}
+
+	MetricsFilter(CounterService counterService, GaugeService gaugeService,
+			MetricFilterProperties properties, HistogramBuffers histograms) {
 		this.counterService = counterService;
 		this.gaugeService = gaugeService;
 		this.properties = properties;
+		this.histograms = histograms;
 	}
 
 	@Override
@@ -100,7 +127,7 @@ final class MetricsFilter extends OncePerRequestFilter {
 			HttpServletResponse response, FilterChain chain)
 					throws ServletException, IOException {
 		StopWatch stopWatch = createStopWatchIfNecessary(request);
-		String path = new UrlPathHelper().getPathWithinApplication(request);
+		String path = urlPathHelper.getPathWithinApplication(request);
 		int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
 		try {
 			chain.doFilter(request, response);
@@ -139,28 +166,47 @@ final class MetricsFilter extends OncePerRequestFilter {
 
 	private void recordMetrics(HttpServletRequest request, String path, int status,
 			long time) {
-		String suffix = determineMetricNameSuffix(request, path, status);
-		submitMetrics(MetricsFilterSubmission.MERGED, request, status, time, suffix);
-		submitMetrics(MetricsFilterSubmission.PER_HTTP_METHOD, request, status, time,
-				suffix);
+		RouteMetricKeys routeKeys = getRouteMetricKeys(request, path, status);
+		submitMetrics(MetricsFilterSubmission.MERGED, routeKeys.getMergedKeys(), status,
+				time);
+		if (shouldSubmit(MetricsFilterSubmission.PER_HTTP_METHOD)) {
+			submitMetrics(MetricsFilterSubmission.PER_HTTP_METHOD,
+					routeKeys.getMethodKeys(request.getMethod()), status, time);
+		}
 	}
 
-	private String determineMetricNameSuffix(HttpServletRequest request, String path,
+	private RouteMetricKeys getRouteMetricKeys(HttpServletRequest request, String path,
 			int status) {
 		Object bestMatchingPattern = request
 				.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
 		if (bestMatchingPattern != null) {
-			return fixSpecialCharacters(bestMatchingPattern.toString());
+			return getRouteMetricKeys(this.patternRoutes, bestMatchingPattern.toString(),
+					true);
 		}
 		Series series = getSeries(status);
 		if (Series.CLIENT_ERROR.equals(series) || Series.SERVER_ERROR.equals(series)
 				|| Series.REDIRECTION.equals(series)) {
-			return UNKNOWN_PATH_SUFFIX;
+			return getRouteMetricKeys(this.pathRoutes, UNKNOWN_PATH_SUFFIX, false);
+		}
+		return getRouteMetricKeys(this.pathRoutes, path, false);
+	}
+
+	private RouteMetricKeys getRouteMetricKeys(
+			ConcurrentMap<String, RouteMetricKeys> routes, String route,
+			boolean pattern) {
+		RouteMetricKeys routeKeys = routes.get(route);
+		if (routeKeys == null) {
+			routeKeys = new RouteMetricKeys(
+					pattern ? fixSpecialCharacters(route) : route);
+			if (routes.size() < this.properties.getRouteCacheSize()) {
+				RouteMetricKeys existing = routes.putIfAbsent(route, routeKeys);
+				routeKeys = (existing != null ? existing : routeKeys);
+			}
 		}
-		return path;
+		return routeKeys;
 	}
 
-	private String fixSpecialCharacters(String value) {
+	private static String fixSpecialCharacters(String value) {
 		String result = value;
 		for (PatternReplacer replacer : STATUS_REPLACERS) {
 			result = replacer.apply(result);
@@ -183,21 +229,27 @@ final class MetricsFilter extends OncePerRequestFilter {
 		}
 	}
 
-	private void submitMetrics(MetricsFilterSubmission submission,
-			HttpServletRequest request, int status, long time, String suffix) {
-		String prefix = "";
-		if (submission == MetricsFilterSubmission.PER_HTTP_METHOD) {
-			prefix = request.getMethod() + ".";
-		}
+	private boolean shouldSubmit(MetricsFilterSubmission submission) {
+		return this.properties.shouldSubmitToGauge(submission)
+				|| this.properties.shouldSubmitToCounter(submission);
+	}
+
+	private void submitMetrics(MetricsFilterSubmission submission, MetricKeys keys,
+			int status, long time) {
 		if (this.properties.shouldSubmitToGauge(submission)) {
-			submitToGauge(getKey("response." + prefix + suffix), time);
+			if (this.histograms != null) {
+				this.histograms.record(keys.getHistogramKey(), time);
+			}
+			else {
+				submitToGauge(keys.getGaugeKey(), time);
+			}
 		}
 		if (this.properties.shouldSubmitToCounter(submission)) {
-			incrementCounter(getKey("status." + prefix + status + suffix));
+			incrementCounter(keys.getCounterKey(status));
 		}
 	}
 
-	private String getKey(String string) {
+	private static String getKey(String string) {
 		// graphite compatible metric names
 		String key = string;
 		for (PatternReplacer replacer : KEY_REPLACERS) {
@@ -230,6 +282,131 @@ final class MetricsFilter extends OncePerRequestFilter {
 		}
 	}
 
+	/**
+	 * Metric keys for a single route, resolved lazily for each HTTP method.
+	 */
+	private static final class RouteMetricKeys {
+
+		private final String suffix;
+
+		private final MetricKeys mergedKeys;
+
+		private final ConcurrentMap<String, MetricKeys> methodKeys = new ConcurrentHashMap<String, MetricKeys>();
+
+		RouteMetricKeys(String suffix) {
+			this.suffix = suffix;
+			this.mergedKeys = new MetricKeys("", suffix);
+		}
+
+		MetricKeys getMergedKeys() {
+			return this.mergedKeys;
+		}
+
+		MetricKeys getMethodKeys(String method) {
+			MetricKeys keys = this.methodKeys.get(method);
+			if (keys == null) {
+				keys = new MetricKeys(method + ".", this.suffix);
+				if (this.methodKeys.size() < MAX_CACHED_METHODS) {
+					MetricKeys existing = this.methodKeys.putIfAbsent(method, keys);
+					keys = (existing != null ? existing : keys);
+				}
+			}
+			return keys;
+		}
+
+	}
+
+	/**
+	 * The gauge key and per-status counter keys for a route and an optional HTTP method
+	 * prefix. Counter keys are held in a small copy-on-write table since a route only
+	 * ever sees a handful of distinct statuses.
+	 */
+	private static final class MetricKeys {
+
+		private final String prefix;
+
+		private final String suffix;
+
+		private final String gaugeKey;
+
+		private final String histogramKey;
+
+		private volatile StatusKeys statusKeys = new StatusKeys(new int[0],
+				new String[0]);
+
+		MetricKeys(String prefix, String suffix) {
+			this.prefix = prefix;
+			this.suffix = suffix;
+			this.gaugeKey = getKey("response." + prefix + suffix);
+			this.histogramKey = "gauge." + this.gaugeKey;
+		}
+
+		String getGaugeKey() {
+			return this.gaugeKey;
+		}
+
+		String getHistogramKey() {
+			return this.histogramKey;
+		}
+
+		String getCounterKey(int status) {
+			String key = this.statusKeys.get(status);
+			if (key != null) {
+				return key;
+			}
+			synchronized (this) {
+				StatusKeys statusKeys = this.statusKeys;
+				key = statusKeys.get(status);
+				if (key == null) {
+					key = getKey("status." + this.prefix + status + this.suffix);
+					if (statusKeys.size() < MAX_CACHED_STATUSES) {
+						this.statusKeys = statusKeys.with(status, key);
+					}
+				}
+				return key;
+			}
+		}
+
+	}
+
+	/**
+	 * Immutable table of HTTP statuses and their counter keys.
+	 */
+	private static final class StatusKeys {
+
+		private final int[] statuses;
+
+		private final String[] keys;
+
+		StatusKeys(int[] statuses, String[] keys) {
+			this.statuses = statuses;
+			this.keys = keys;
+		}
+
+		String get(int status) {
+			for (int i = 0; i < this.statuses.length; i++) {
+				if (this.statuses[i] == status) {
+					return this.keys[i];
+				}
+			}
+			return null;
+		}
+
+		int size() {
+			return this.statuses.length;
+		}
+
+		StatusKeys with(int status, String key) {
+			int size = this.statuses.length;
+			int[] statuses = Arrays.copyOf(this.statuses, size + 1);
+			String[] keys = Arrays.copyOf(this.keys, size + 1);
+			statuses[size] = status;
+			keys[size] = key;
+			return new StatusKeys(statuses, keys);
+		}
+
+	}
+
 	private static class PatternReplacer {
 
 		private final Pattern pattern;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,11 +27,13 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.cache.CacheStatisticsProvider;
 import org.springframework.boot.actuate.endpoint.CachePublicMetrics;
 import org.springframework.boot.actuate.endpoint.DataSourcePublicMetrics;
+import org.springframework.boot.actuate.endpoint.HealthIndicatorSchedulerPublicMetrics;
 import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
 import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.actuate.endpoint.RichGaugeReaderPublicMetrics;
 import org.springframework.boot.actuate.endpoint.SystemPublicMetrics;
 import org.springframework.boot.actuate.endpoint.TomcatPublicMetrics;
+import org.springframework.boot.actuate.health.HealthIndicatorScheduler;
 import org.springframework.boot.actuate.metrics.integration.SpringIntegrationMetricReader;
 import org.springframework.boot.actuate.metrics.reader.CompositeMetricReader;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
@@ -61,13 +63,14 @@ import org.springframework.integration.support.management.IntegrationManagementC
  * @author Phillip Webb
  * @author Johannes Edmeier
  * @author Artem Bilan
+ * @author Jon Ellis
  * @since 1.2.0
  */
 @Configuration
 @AutoConfigureBefore(EndpointAutoConfiguration.class)
 @AutoConfigureAfter({ DataSourceAutoConfiguration.class, CacheAutoConfiguration.class,
 		MetricRepositoryAutoConfiguration.class, CacheStatisticsAutoConfiguration.class,
-		IntegrationAutoConfiguration.class })
+		IntegrationAutoConfiguration.class, HealthIndicatorAutoConfiguration.class })
 public class PublicMetricsAutoConfiguration {
 
 	private final List<MetricReader> metricReaders;
@@ -97,6 +100,13 @@ public class PublicMetricsAutoConfiguration {
 		return new RichGaugeReaderPublicMetrics(richGaugeReader);
 	}
 
+	@Bean
+	@ConditionalOnBean(HealthIndicatorScheduler.class)
+	public HealthIndicatorSchedulerPublicMetrics healthIndicatorSchedulerPublicMetrics(
+			HealthIndicatorScheduler healthIndicatorScheduler) {
+		return new HealthIndicatorSchedulerPublicMetrics(healthIndicatorScheduler);
+	}
+
 	@Configuration
 	@ConditionalOnClass(DataSource.class)
 	@ConditionalOnBean(DataSource.class)
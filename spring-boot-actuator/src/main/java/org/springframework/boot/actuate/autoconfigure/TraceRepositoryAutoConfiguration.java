@@ -16,7 +16,7 @@
 
 package org.springframework.boot.actuate.autoconfigure;
 
-import org.springframework.boot.actuate.trace.InMemoryTraceRepository;
+import org.springframework.boot.actuate.trace.RingBufferTraceRepository;
 import org.springframework.boot.actuate.trace.TraceRepository;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -33,8 +33,8 @@ public class TraceRepositoryAutoConfiguration {
 
 	@ConditionalOnMissingBean(TraceRepository.class)
 	@Bean
-	public InMemoryTraceRepository traceRepository() {
-		return new InMemoryTraceRepository();
+	public RingBufferTraceRepository traceRepository() {
+		return new RingBufferTraceRepository();
 	}
 
 }
@@ -16,29 +16,38 @@
 
 package org.springframework.boot.actuate.endpoint;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.boot.json.JsonParser;
-import org.springframework.boot.json.JsonParserFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.LiveBeansView;
 import org.springframework.core.env.Environment;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * Exposes JSON view of Spring beans. If the {@link Environment} contains a key setting
  * the {@link LiveBeansView#MBEAN_DOMAIN_PROPERTY_NAME} then all application contexts in
  * the JVM will be shown (and the corresponding MBeans will be registered per the standard
  * behavior of LiveBeansView). Otherwise only the current application context hierarchy.
+ * <p>
+ * The snapshot is built directly as the structure that is serialized to the response
+ * rather than being rendered to a JSON string and parsed again.
  *
  * @author Dave Syer
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 @ConfigurationProperties(prefix = "endpoints.beans")
 public class BeansEndpoint extends AbstractEndpoint<List<Object>>
@@ -46,8 +55,6 @@ public class BeansEndpoint extends AbstractEndpoint<List<Object>>
 
 	private final HierarchyAwareLiveBeansView liveBeansView = new HierarchyAwareLiveBeansView();
 
-	private final JsonParser parser = JsonParserFactory.getJsonParser();
-
 	public BeansEndpoint() {
 		super("beans");
 	}
@@ -62,7 +69,7 @@ public class BeansEndpoint extends AbstractEndpoint<List<Object>>
 
 	@Override
 	public List<Object> invoke() {
-		return this.parser.parseList(this.liveBeansView.getSnapshotAsJson());
+		return this.liveBeansView.getSnapshot();
 	}
 
 	private static class HierarchyAwareLiveBeansView extends LiveBeansView {
@@ -81,6 +88,54 @@ public class BeansEndpoint extends AbstractEndpoint<List<Object>>
 			return generateJson(getContextHierarchy());
 		}
 
+		/**
+		 * Return the same information as {@link #getSnapshotAsJson()} as a list of
+		 * maps.
+		 * @return the snapshot
+		 */
+		public List<Object> getSnapshot() {
+			Set<ConfigurableApplicationContext> contexts = (this.leafContext == null
+					? findApplicationContexts() : getContextHierarchy());
+			List<Object> result = new ArrayList<Object>(contexts.size());
+			for (ConfigurableApplicationContext context : contexts) {
+				Map<String, Object> description = new LinkedHashMap<String, Object>();
+				description.put("context", context.getId());
+				description.put("parent", (context.getParent() == null ? null
+						: context.getParent().getId()));
+				description.put("beans", getBeans(context.getBeanFactory()));
+				result.add(description);
+			}
+			return result;
+		}
+
+		private List<Object> getBeans(ConfigurableListableBeanFactory beanFactory) {
+			String[] beanNames = beanFactory.getBeanDefinitionNames();
+			List<Object> beans = new ArrayList<Object>(beanNames.length);
+			for (String beanName : beanNames) {
+				BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+				if (isBeanEligible(beanName, definition, beanFactory)) {
+					beans.add(describeBean(beanName, definition, beanFactory));
+				}
+			}
+			return beans;
+		}
+
+		private Map<String, Object> describeBean(String beanName,
+				BeanDefinition definition, ConfigurableListableBeanFactory beanFactory) {
+			Map<String, Object> bean = new LinkedHashMap<String, Object>();
+			bean.put("bean", beanName);
+			bean.put("aliases", Arrays.asList(beanFactory.getAliases(beanName)));
+			String scope = definition.getScope();
+			bean.put("scope", (StringUtils.hasText(scope) ? scope
+					: BeanDefinition.SCOPE_SINGLETON));
+			Class<?> type = beanFactory.getType(beanName);
+			bean.put("type", (type == null ? null : type.getName()));
+			bean.put("resource", definition.getResourceDescription());
+			bean.put("dependencies",
+					Arrays.asList(beanFactory.getDependenciesForBean(beanName)));
+			return bean;
+		}
+
 		private ConfigurableApplicationContext asConfigurableContext(
 				ApplicationContext applicationContext) {
 			Assert.isTrue(applicationContext instanceof ConfigurableApplicationContext,
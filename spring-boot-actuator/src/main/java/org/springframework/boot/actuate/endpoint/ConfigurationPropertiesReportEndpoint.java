@@ -54,9 +54,13 @@ import org.springframework.util.StringUtils;
  * if their names end with a set of configurable values (default "password" and "secret").
  * Configure property names by using {@code endpoints.configprops.keys_to_sanitize} in
  * your Spring Boot application configuration.
+ * <p>
+ * The {@link ObjectMapper} used to serialize the beans is configured on first use and
+ * reused for subsequent invocations so that its serializer caches are retained.
  *
  * @author Christian Dupuis
  * @author Dave Syer
+ * @author Jon Ellis
  */
 @ConfigurationProperties(prefix = "endpoints.configprops")
 public class ConfigurationPropertiesReportEndpoint
@@ -68,6 +72,8 @@ public class ConfigurationPropertiesReportEndpoint
 
 	private ApplicationContext context;
 
+	private volatile ObjectMapper objectMapper;
+
 	public ConfigurationPropertiesReportEndpoint() {
 		super("configprops");
 	}
@@ -94,9 +100,22 @@ public class ConfigurationPropertiesReportEndpoint
 	 */
 	protected Map<String, Object> extract(ApplicationContext context) {
 		// Serialize beans into map structure and sanitize values
-		ObjectMapper mapper = new ObjectMapper();
-		configureObjectMapper(mapper);
-		return extract(context, mapper);
+		return extract(context, getObjectMapper());
+	}
+
+	private ObjectMapper getObjectMapper() {
+		ObjectMapper mapper = this.objectMapper;
+		if (mapper == null) {
+			synchronized (this) {
+				mapper = this.objectMapper;
+				if (mapper == null) {
+					mapper = new ObjectMapper();
+					configureObjectMapper(mapper);
+					this.objectMapper = mapper;
+				}
+			}
+		}
+		return mapper;
 	}
 
 	private Map<String, Object> extract(ApplicationContext context, ObjectMapper mapper) {
@@ -154,9 +173,8 @@ public class ConfigurationPropertiesReportEndpoint
 			String prefix) {
 		try {
 			@SuppressWarnings("unchecked")
-			Map<String, Object> result = new HashMap<String, Object>(
-					mapper.convertValue(bean, Map.class));
-			return result;
+			Map<String, Object> result = mapper.convertValue(bean, Map.class);
+			return (result == null ? new HashMap<String, Object>() : result);
 		}
 		catch (Exception ex) {
 			return new HashMap<String, Object>(Collections.<String, Object>singletonMap(
@@ -166,7 +184,8 @@ public class ConfigurationPropertiesReportEndpoint
 
 	/**
 	 * Configure Jackson's {@link ObjectMapper} to be used to serialize the
-	 * {@link ConfigurationProperties} objects into a {@link Map} structure.
+	 * {@link ConfigurationProperties} objects into a {@link Map} structure. Called once,
+	 * the first time that the endpoint is invoked.
 	 * @param mapper the object mapper
 	 */
 	protected void configureObjectMapper(ObjectMapper mapper) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,19 +18,43 @@ package org.springframework.boot.actuate.endpoint;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.Assert;
 
 /**
  * {@link Endpoint} to expose thread info.
+ * <p>
+ * In addition to a full thread dump, the endpoint can {@link #sample(int, long) sample}
+ * the stacks of all threads a number of times and aggregate identical stacks. Sampling
+ * does not collect lock information, which makes each sample considerably cheaper than a
+ * full dump.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
 @ConfigurationProperties(prefix = "endpoints.dump")
 public class DumpEndpoint extends AbstractEndpoint<List<ThreadInfo>> {
 
+	/**
+	 * Include the monitors locked by each thread in the dump.
+	 */
+	private boolean lockedMonitors = true;
+
+	/**
+	 * Include the ownable synchronizers locked by each thread in the dump.
+	 */
+	private boolean lockedSynchronizers = true;
+
 	/**
 	 * Create a new {@link DumpEndpoint} instance.
 	 */
@@ -38,10 +62,92 @@ public class DumpEndpoint extends AbstractEndpoint<List<ThreadInfo>> {
 		super("dump");
 	}
 
+	public boolean isLockedMonitors() {
+		return this.lockedMonitors;
+	}
+
+	public void setLockedMonitors(boolean lockedMonitors) {
+		this.lockedMonitors = lockedMonitors;
+	}
+
+	public boolean isLockedSynchronizers() {
+		return this.lockedSynchronizers;
+	}
+
+	public void setLockedSynchronizers(boolean lockedSynchronizers) {
+		this.lockedSynchronizers = lockedSynchronizers;
+	}
+
 	@Override
 	public List<ThreadInfo> invoke() {
-		return Arrays
-				.asList(ManagementFactory.getThreadMXBean().dumpAllThreads(true, true));
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		return Arrays.asList(threadMXBean.dumpAllThreads(
+				this.lockedMonitors && threadMXBean.isObjectMonitorUsageSupported(),
+				this.lockedSynchronizers && threadMXBean.isSynchronizerUsageSupported()));
+	}
+
+	/**
+	 * Sample the stacks of all live threads and aggregate identical stacks. Each stack is
+	 * rendered in the collapsed format used by flame graph tools: the frames, outermost
+	 * first, separated by {@code ;}. The result is ordered by descending count.
+	 * @param samples the number of samples to take
+	 * @param interval the time in milliseconds between samples
+	 * @return the number of times each stack was seen
+	 * @throws InterruptedException if interrupted while waiting for the next sample
+	 * @since 2.0.0
+	 */
+	public Map<String, Integer> sample(int samples, long interval)
+			throws InterruptedException {
+		Assert.isTrue(samples > 0, "Samples must be positive");
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		for (int i = 0; i < samples; i++) {
+			if (i > 0 && interval > 0) {
+				Thread.sleep(interval);
+			}
+			ThreadInfo[] threads = threadMXBean
+					.getThreadInfo(threadMXBean.getAllThreadIds(), Integer.MAX_VALUE);
+			for (ThreadInfo thread : threads) {
+				if (thread != null && thread.getStackTrace().length > 0) {
+					String stack = collapse(thread.getStackTrace());
+					Integer count = counts.get(stack);
+					counts.put(stack, (count == null ? 1 : count + 1));
+				}
+			}
+		}
+		return sortByCount(counts);
+	}
+
+	private String collapse(StackTraceElement[] stackTrace) {
+		StringBuilder stack = new StringBuilder();
+		for (int i = stackTrace.length - 1; i >= 0; i--) {
+			StackTraceElement element = stackTrace[i];
+			stack.append(element.getClassName()).append('.')
+					.append(element.getMethodName());
+			if (i > 0) {
+				stack.append(';');
+			}
+		}
+		return stack.toString();
+	}
+
+	private Map<String, Integer> sortByCount(Map<String, Integer> counts) {
+		List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>(
+				counts.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>() {
+
+			@Override
+			public int compare(Map.Entry<String, Integer> o1,
+					Map.Entry<String, Integer> o2) {
+				return o2.getValue().compareTo(o1.getValue());
+			}
+
+		});
+		Map<String, Integer> result = new LinkedHashMap<String, Integer>();
+		for (Map.Entry<String, Integer> entry : entries) {
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.boot.actuate.endpoint;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.springframework.boot.actuate.health.CompositeHealthIndicator;
 import org.springframework.boot.actuate.health.Health;
@@ -31,6 +32,7 @@ import org.springframework.util.Assert;
  * @author Dave Syer
  * @author Christian Dupuis
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 @ConfigurationProperties(prefix = "endpoints.health")
 public class HealthEndpoint extends AbstractEndpoint<Health> {
@@ -49,6 +51,24 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 	 */
 	public HealthEndpoint(HealthAggregator healthAggregator,
 			Map<String, HealthIndicator> healthIndicators) {
+		this(healthAggregator, healthIndicators, null, 0);
+	}
+
+	/**
+	 * Create a new {@link HealthEndpoint} instance that calls the health indicators in
+	 * parallel.
+	 * @param healthAggregator the health aggregator
+	 * @param healthIndicators the health indicators
+	 * @param executor the executor used to call the health indicators or {@code null} to
+	 * call them sequentially
+	 * @param timeout the maximum time in milliseconds to wait for each health indicator
+	 * (zero or less to wait indefinitely)
+	 * @since 2.0.0
+	 * @see CompositeHealthIndicator#setExecutor(Executor)
+	 */
+	public HealthEndpoint(HealthAggregator healthAggregator,
+			Map<String, HealthIndicator> healthIndicators, Executor executor,
+			long timeout) {
 		super("health", false);
 		Assert.notNull(healthAggregator, "HealthAggregator must not be null");
 		Assert.notNull(healthIndicators, "HealthIndicators must not be null");
@@ -57,6 +77,8 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 		for (Map.Entry<String, HealthIndicator> entry : healthIndicators.entrySet()) {
 			healthIndicator.addHealthIndicator(getKey(entry.getKey()), entry.getValue());
 		}
+		healthIndicator.setExecutor(executor);
+		healthIndicator.setTimeout(timeout);
 		this.healthIndicator = healthIndicator;
 	}
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.springframework.boot.actuate.health.HealthIndicatorScheduler;
+import org.springframework.boot.actuate.health.ScheduledHealthIndicator;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link PublicMetrics} implementation that provides the age of the latest result and
+ * the duration of the last check of each health indicator refreshed by a
+ * {@link HealthIndicatorScheduler}.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class HealthIndicatorSchedulerPublicMetrics implements PublicMetrics {
+
+	private final HealthIndicatorScheduler scheduler;
+
+	public HealthIndicatorSchedulerPublicMetrics(HealthIndicatorScheduler scheduler) {
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		Collection<Metric<?>> metrics = new LinkedHashSet<Metric<?>>();
+		for (Map.Entry<String, ScheduledHealthIndicator> entry : this.scheduler
+				.getIndicators().entrySet()) {
+			ScheduledHealthIndicator indicator = entry.getValue();
+			long age = indicator.getAge();
+			if (age >= 0) {
+				String prefix = "health." + entry.getKey();
+				metrics.add(new Metric<Long>(prefix + ".age", age));
+				metrics.add(new Metric<Long>(prefix + ".duration",
+						indicator.getLastCheckDuration()));
+			}
+		}
+		return metrics;
+	}
+
+}
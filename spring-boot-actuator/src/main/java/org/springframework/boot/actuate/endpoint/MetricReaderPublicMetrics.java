@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,15 @@ public class MetricReaderPublicMetrics implements PublicMetrics {
 		this.metricReader = metricReader;
 	}
 
+	/**
+	 * Return the {@link MetricReader} that provides the metrics.
+	 * @return the metric reader
+	 * @since 2.0.0
+	 */
+	public MetricReader getMetricReader() {
+		return this.metricReader;
+	}
+
 	@Override
 	public Collection<Metric<?>> metrics() {
 		List<Metric<?>> result = new ArrayList<Metric<?>>();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -67,6 +67,17 @@ public class MetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
 		this.publicMetrics.remove(metrics);
 	}
 
+	/**
+	 * Return the registered {@link PublicMetrics} in the order in which they are
+	 * evaluated.
+	 * @return the public metrics
+	 * @since 2.0.0
+	 */
+	public List<PublicMetrics> getPublicMetrics() {
+		return Collections.unmodifiableList(
+				new ArrayList<PublicMetrics>(this.publicMetrics));
+	}
+
 	@Override
 	public Map<String, Object> invoke() {
 		Map<String, Object> result = new LinkedHashMap<String, Object>();
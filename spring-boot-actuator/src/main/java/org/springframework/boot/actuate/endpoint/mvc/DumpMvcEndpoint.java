@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.actuate.endpoint.DumpEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Adapter to expose {@link DumpEndpoint} as an {@link MvcEndpoint}. Only one thread dump
+ * or sampling request is processed at a time. When a request arrives while another is
+ * in progress it waits for a short period before a {@code 429 Too Many Requests}
+ * response is returned.
+ * <p>
+ * A {@code samples} request parameter switches to sampling mode: the stacks of all
+ * threads are captured {@code samples} times, {@code interval} milliseconds apart, and
+ * identical stacks are aggregated. The result is returned as plain text with one
+ * collapsed stack and its count per line, ready to be used to render a flame graph.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+@ConfigurationProperties(prefix = "endpoints.dump")
+public class DumpMvcEndpoint extends EndpointMvcAdapter {
+
+	private final long timeout;
+
+	private final Lock lock = new ReentrantLock();
+
+	/**
+	 * Maximum number of samples that can be requested.
+	 */
+	private int maxSamples = 100;
+
+	/**
+	 * Maximum interval in milliseconds between samples that can be requested.
+	 */
+	private long maxInterval = 1000;
+
+	public DumpMvcEndpoint(DumpEndpoint delegate) {
+		this(delegate, TimeUnit.SECONDS.toMillis(10));
+	}
+
+	protected DumpMvcEndpoint(DumpEndpoint delegate, long timeout) {
+		super(delegate);
+		this.timeout = timeout;
+	}
+
+	public int getMaxSamples() {
+		return this.maxSamples;
+	}
+
+	public void setMaxSamples(int maxSamples) {
+		this.maxSamples = maxSamples;
+	}
+
+	public long getMaxInterval() {
+		return this.maxInterval;
+	}
+
+	public void setMaxInterval(long maxInterval) {
+		this.maxInterval = maxInterval;
+	}
+
+	@Override
+	@ActuatorGetMapping
+	@ResponseBody
+	public Object invoke() {
+		if (!getDelegate().isEnabled()) {
+			return getDisabledResponse();
+		}
+		try {
+			if (this.lock.tryLock(this.timeout, TimeUnit.MILLISECONDS)) {
+				try {
+					return super.invoke();
+				}
+				finally {
+					this.lock.unlock();
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		return new ResponseEntity<Void>(HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	@GetMapping(params = "samples", produces = MediaType.TEXT_PLAIN_VALUE)
+	@ResponseBody
+	public ResponseEntity<String> sample(@RequestParam int samples,
+			@RequestParam(defaultValue = "100") long interval) {
+		if (!getDelegate().isEnabled()) {
+			return new ResponseEntity<String>(HttpStatus.NOT_FOUND);
+		}
+		if (samples <= 0 || interval < 0) {
+			return new ResponseEntity<String>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			if (this.lock.tryLock(this.timeout, TimeUnit.MILLISECONDS)) {
+				try {
+					Map<String, Integer> stacks = ((DumpEndpoint) getDelegate()).sample(
+							Math.min(samples, this.maxSamples),
+							Math.min(interval, this.maxInterval));
+					return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN)
+							.body(collapse(stacks));
+				}
+				finally {
+					this.lock.unlock();
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		return new ResponseEntity<String>(HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	private String collapse(Map<String, Integer> stacks) {
+		StringBuilder result = new StringBuilder();
+		for (Map.Entry<String, Integer> entry : stacks.entrySet()) {
+			result.append(entry.getKey()).append(' ').append(entry.getValue())
+					.append('\n');
+		}
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Compresses a file to a GZip stream. When more than one thread is used, the file is
+ * split into fixed size blocks that are compressed concurrently and written, in order, as
+ * consecutive GZip members. Standard GZip readers decompress such a stream as if it had
+ * been written as a single member. Only a few blocks are held in memory at a time and
+ * nothing is written to disk.
+ *
+ * @author Jon Ellis
+ */
+final class GzipCompressor {
+
+	private static final int BLOCK_SIZE = 1024 * 1024;
+
+	private final int level;
+
+	private final int threads;
+
+	/**
+	 * Create a new {@link GzipCompressor} instance.
+	 * @param level the compression level ({@code 0-9} or {@code -1} for the default)
+	 * @param threads the number of threads used to compress
+	 */
+	GzipCompressor(int level, int threads) {
+		this.level = level;
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * Compress the source file to the given output stream. The stream is flushed but not
+	 * closed.
+	 * @param source the file to compress
+	 * @param out the stream to write the compressed content to
+	 * @throws IOException on IO error
+	 * @throws InterruptedException if interrupted while waiting for a block
+	 */
+	void compress(File source, OutputStream out)
+			throws IOException, InterruptedException {
+		if (this.threads == 1) {
+			compressSerially(source, out);
+		}
+		else {
+			compressInParallel(source, out);
+		}
+		out.flush();
+	}
+
+	private void compressSerially(File source, OutputStream out) throws IOException {
+		InputStream in = new FileInputStream(source);
+		try {
+			OutputStream gzip = new LevelGzipOutputStream(StreamUtils.nonClosing(out),
+					this.level);
+			try {
+				StreamUtils.copy(in, gzip);
+			}
+			finally {
+				gzip.close();
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private void compressInParallel(File source, OutputStream out)
+			throws IOException, InterruptedException {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"heapdump-compression-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads,
+				threadFactory);
+		FileChannel in = new FileInputStream(source).getChannel();
+		try {
+			Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+			long position = 0;
+			long size = in.size();
+			while (position < size) {
+				byte[] block = read(in, position,
+						(int) Math.min(BLOCK_SIZE, size - position));
+				position += block.length;
+				pending.add(executor.submit(new CompressBlock(block, this.level)));
+				if (pending.size() >= this.threads * 2) {
+					write(out, pending.remove());
+				}
+			}
+			while (!pending.isEmpty()) {
+				write(out, pending.remove());
+			}
+		}
+		finally {
+			in.close();
+			executor.shutdownNow();
+		}
+	}
+
+	private byte[] read(FileChannel channel, long position, int length)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				return Arrays.copyOf(buffer.array(), buffer.position());
+			}
+		}
+		return buffer.array();
+	}
+
+	private void write(OutputStream out, Future<byte[]> block)
+			throws IOException, InterruptedException {
+		try {
+			out.write(block.get());
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IOException) {
+				throw (IOException) ex.getCause();
+			}
+			throw new IllegalStateException("Failed to compress block", ex.getCause());
+		}
+	}
+
+	/**
+	 * Compresses a single block to a complete GZip member.
+	 */
+	private static final class CompressBlock implements Callable<byte[]> {
+
+		private final byte[] block;
+
+		private final int level;
+
+		CompressBlock(byte[] block, int level) {
+			this.block = block;
+			this.level = level;
+		}
+
+		@Override
+		public byte[] call() throws IOException {
+			ByteArrayOutputStream result = new ByteArrayOutputStream(
+					this.block.length / 4);
+			OutputStream out = new LevelGzipOutputStream(result, this.level);
+			out.write(this.block);
+			out.close();
+			return result.toByteArray();
+		}
+
+	}
+
+	/**
+	 * {@link GZIPOutputStream} that uses a specific compression level.
+	 */
+	private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+		LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+			super(out, StreamUtils.BUFFER_SIZE);
+			this.def.setLevel(level);
+		}
+
+	}
+
+}
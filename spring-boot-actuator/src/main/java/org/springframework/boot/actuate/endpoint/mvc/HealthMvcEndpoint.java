@@ -16,6 +16,7 @@
 
 package org.springframework.boot.actuate.endpoint.mvc;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,11 +33,16 @@ import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
 /**
- * Adapter to expose {@link HealthEndpoint} as an {@link MvcEndpoint}.
+ * Adapter to expose {@link HealthEndpoint} as an {@link MvcEndpoint}. When the health is
+ * cached, responses carry a strong {@code ETag} derived from it so that a conditional
+ * request for an unchanged health receives a {@code 304 Not Modified} response without a
+ * body.
  *
  * @author Christian Dupuis
  * @author Dave Syer
@@ -44,6 +50,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
  * @author Phillip Webb
  * @author Eddú Meléndez
  * @author Madhura Bhave
+ * @author Jon Ellis
  * @since 1.1.0
  */
 @ConfigurationProperties(prefix = "endpoints.health")
@@ -56,9 +63,7 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 
 	private RelaxedPropertyResolver securityPropertyResolver;
 
-	private long lastAccess = 0;
-
-	private Health cached;
+	private volatile CachedHealth cached;
 
 	public HealthMvcEndpoint(HealthEndpoint delegate) {
 		this(delegate, true);
@@ -121,18 +126,28 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 		this.statusMapping.put(statusCode, httpStatus);
 	}
 
+	public Object invoke(HttpServletRequest request) {
+		return invoke(request, null);
+	}
+
 	@ActuatorGetMapping
 	@ResponseBody
-	public Object invoke(HttpServletRequest request) {
+	public Object invoke(HttpServletRequest request, ServletWebRequest webRequest) {
 		if (!getDelegate().isEnabled()) {
 			// Shouldn't happen because the request mapping should not be registered
 			return getDisabledResponse();
 		}
-		Health health = getHealth(request);
+		CachedHealth cached = getCachedHealth();
+		boolean exposeDetails = exposeHealthDetails(request);
+		Health health = (exposeDetails ? cached.getHealth() : cached.getStatusOnly());
 		HttpStatus status = getStatus(health);
 		if (status != null) {
 			return new ResponseEntity<Health>(health, status);
 		}
+		if (webRequest != null && getDelegate().getTimeToLive() > 0
+				&& webRequest.checkNotModified(cached.getETag(exposeDetails))) {
+			return null;
+		}
 		return health;
 	}
 
@@ -150,23 +165,14 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 		return null;
 	}
 
-	private Health getHealth(HttpServletRequest request) {
+	private CachedHealth getCachedHealth() {
 		long accessTime = System.currentTimeMillis();
-		if (isCacheStale(accessTime)) {
-			this.lastAccess = accessTime;
-			this.cached = getDelegate().invoke();
-		}
-		if (exposeHealthDetails(request)) {
-			return this.cached;
-		}
-		return Health.status(this.cached.getStatus()).build();
-	}
-
-	private boolean isCacheStale(long accessTime) {
-		if (this.cached == null) {
-			return true;
+		CachedHealth cached = this.cached;
+		if (cached == null || cached.isStale(accessTime, getDelegate().getTimeToLive())) {
+			cached = new CachedHealth(getDelegate().invoke(), accessTime);
+			this.cached = cached;
 		}
-		return (accessTime - this.lastAccess) >= getDelegate().getTimeToLive();
+		return cached;
 	}
 
 	protected boolean exposeHealthDetails(HttpServletRequest request) {
@@ -184,4 +190,60 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 		return false;
 	}
 
+	/**
+	 * A {@link Health}, the time at which it was created and the entity tags of its
+	 * representations.
+	 */
+	private static class CachedHealth {
+
+		private final Health health;
+
+		private final long creationTime;
+
+		private final Health statusOnly;
+
+		private volatile String etag;
+
+		private volatile String statusOnlyETag;
+
+		CachedHealth(Health health, long creationTime) {
+			this.health = health;
+			this.creationTime = creationTime;
+			this.statusOnly = Health.status(health.getStatus()).build();
+		}
+
+		public boolean isStale(long accessTime, long timeToLive) {
+			return (accessTime - this.creationTime) >= timeToLive;
+		}
+
+		public Health getHealth() {
+			return this.health;
+		}
+
+		public Health getStatusOnly() {
+			return this.statusOnly;
+		}
+
+		public String getETag(boolean details) {
+			if (details) {
+				if (this.etag == null) {
+					this.etag = createETag(this.health);
+				}
+				return this.etag;
+			}
+			if (this.statusOnlyETag == null) {
+				this.statusOnlyETag = createETag(this.statusOnly);
+			}
+			return this.statusOnlyETag;
+		}
+
+		private String createETag(Health health) {
+			String content = health.getStatus().getCode() + ":"
+					+ health.getStatus().getDescription() + ":" + health.getDetails();
+			return "\"" + DigestUtils
+					.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+		}
+
+	}
+
 }
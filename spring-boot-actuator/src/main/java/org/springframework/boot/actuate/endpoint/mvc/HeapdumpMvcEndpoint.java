@@ -17,10 +17,7 @@
 package org.springframework.boot.actuate.endpoint.mvc;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.lang.management.PlatformManagedObject;
 import java.lang.reflect.Method;
@@ -29,18 +26,20 @@ import java.util.Date;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.Deflater;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -48,21 +47,40 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * {@link MvcEndpoint} to expose heap dumps.
+ * <p>
+ * The heap is dumped to a temporary file which is compressed straight into the response
+ * and then deleted. Compression uses a single thread unless
+ * {@link #setCompressionThreads(int) more threads} are configured.
  *
  * @author Lari Hotari
  * @author Phillip Webb
+ * @author Jon Ellis
  * @since 1.4.0
  */
 @ConfigurationProperties(prefix = "endpoints.heapdump")
 @HypermediaDisabled
 public class HeapdumpMvcEndpoint extends AbstractNamedMvcEndpoint {
 
+	private static final Log logger = LogFactory.getLog(HeapdumpMvcEndpoint.class);
+
 	private final long timeout;
 
 	private final Lock lock = new ReentrantLock();
 
 	private HeapDumper heapDumper;
 
+	/**
+	 * GZip compression level (0-9) used to compress the heap dump.
+	 */
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * Number of threads used to compress the heap dump. Set to more than 1 to compress
+	 * blocks of the heap dump in parallel, at the cost of taking CPU from the
+	 * application while the heap dump is downloaded.
+	 */
+	private int compressionThreads = 1;
+
 	public HeapdumpMvcEndpoint() {
 		this(TimeUnit.SECONDS.toMillis(10));
 	}
@@ -72,6 +90,22 @@ public class HeapdumpMvcEndpoint extends AbstractNamedMvcEndpoint {
 		this.timeout = timeout;
 	}
 
+	public int getCompressionLevel() {
+		return this.compressionLevel;
+	}
+
+	public void setCompressionLevel(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+
+	public int getCompressionThreads() {
+		return this.compressionThreads;
+	}
+
+	public void setCompressionThreads(int compressionThreads) {
+		this.compressionThreads = compressionThreads;
+	}
+
 	@RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
 	public void invoke(@RequestParam(defaultValue = "true") boolean live,
 			HttpServletRequest request, HttpServletResponse response)
@@ -105,7 +139,11 @@ public class HeapdumpMvcEndpoint extends AbstractNamedMvcEndpoint {
 		}
 		File file = createTempFile(live);
 		try {
+			long start = System.currentTimeMillis();
 			this.heapDumper.dumpHeap(file, live);
+			long duration = System.currentTimeMillis() - start;
+			response.setHeader("X-Heapdump-Size", String.valueOf(file.length()));
+			response.setHeader("X-Heapdump-Duration", String.valueOf(duration));
 			handle(file, request, response);
 		}
 		finally {
@@ -131,8 +169,8 @@ public class HeapdumpMvcEndpoint extends AbstractNamedMvcEndpoint {
 	}
 
 	/**
-	 * Handle the heap dump file and respond. By default this method will return the
-	 * response as a GZip stream.
+	 * Handle the heap dump file and respond. By default this method will compress the
+	 * file straight into the response as a GZip stream.
 	 * @param heapDumpFile the generated dump file
 	 * @param request the HTTP request
 	 * @param response the HTTP response
@@ -144,24 +182,20 @@ public class HeapdumpMvcEndpoint extends AbstractNamedMvcEndpoint {
 		response.setContentType("application/octet-stream");
 		response.setHeader("Content-Disposition",
 				"attachment; filename=\"" + (heapDumpFile.getName() + ".gz") + "\"");
+		long start = System.currentTimeMillis();
 		try {
-			InputStream in = new FileInputStream(heapDumpFile);
-			try {
-				GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream());
-				StreamUtils.copy(in, out);
-				out.finish();
-			}
-			catch (NullPointerException ex) {
-			}
-			finally {
-				try {
-					in.close();
-				}
-				catch (Throwable ex) {
-				}
-			}
+			new GzipCompressor(this.compressionLevel, this.compressionThreads)
+					.compress(heapDumpFile, response.getOutputStream());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing the heap dump", ex);
 		}
-		catch (FileNotFoundException ex) {
+		if (logger.isDebugEnabled()) {
+			long duration = Math.max(System.currentTimeMillis() - start, 1);
+			logger.debug("Compressed " + heapDumpFile.length() + " byte heap dump in "
+					+ duration + "ms (" + (heapDumpFile.length() * 1000 / duration)
+					+ " bytes per second)");
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,21 @@ package org.springframework.boot.actuate.endpoint.mvc;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -27,36 +42,76 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.logging.LogFile;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 
 /**
  * Controller that provides an API for logfiles, i.e. downloading the main logfile
  * configured in environment property 'logging.file' that is standard, but optional
  * property for spring-boot applications.
+ * <p>
+ * Rather than the whole file, the last bytes or lines can be requested using the
+ * {@code tail} or {@code lines} parameters, which are located by seeking from the end of
+ * the file. With {@code follow=true} the response stays open and bytes appended to the
+ * file are streamed as they are written, continuing with the new file when the log is
+ * rolled over or truncated. Followed files are polled by a small shared scheduler and
+ * written asynchronously, so no request thread is held while waiting for new content.
  *
  * @author Johannes Edmeier
  * @author Phillip Webb
+ * @author Jon Ellis
  * @since 1.3.0
  */
 @ConfigurationProperties(prefix = "endpoints.logfile")
-public class LogFileMvcEndpoint extends AbstractNamedMvcEndpoint {
+public class LogFileMvcEndpoint extends AbstractNamedMvcEndpoint
+		implements DisposableBean {
 
 	private static final Log logger = LogFactory.getLog(LogFileMvcEndpoint.class);
 
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_ATTRIBUTE_PREFIX = "org.apache.tomcat.sendfile.";
+
+	private static final int TAIL_BUFFER_SIZE = 8192;
+
+	private static final long FOLLOW_POLL_INTERVAL = 500;
+
+	private static final int FOLLOW_THREADS = 2;
+
 	/**
 	 * External Logfile to be accessed. Can be used if the logfile is written by output
 	 * redirect and not by the logging-system itself.
 	 */
 	private File externalFile;
 
+	/**
+	 * Maximum time in milliseconds that a request following the log file is kept open.
+	 */
+	private long followTimeout = 60000;
+
+	/**
+	 * Maximum number of requests that can follow the log file at the same time. Further
+	 * requests are rejected with a 503 response.
+	 */
+	private int maxFollowers = 10;
+
+	private final AtomicInteger followers = new AtomicInteger();
+
+	private ScheduledExecutorService followScheduler;
+
 	public LogFileMvcEndpoint() {
 		super("logfile", "/logfile", true);
 	}
@@ -69,6 +124,22 @@ public class LogFileMvcEndpoint extends AbstractNamedMvcEndpoint {
 		this.externalFile = externalFile;
 	}
 
+	public long getFollowTimeout() {
+		return this.followTimeout;
+	}
+
+	public void setFollowTimeout(long followTimeout) {
+		this.followTimeout = followTimeout;
+	}
+
+	public int getMaxFollowers() {
+		return this.maxFollowers;
+	}
+
+	public void setMaxFollowers(int maxFollowers) {
+		this.maxFollowers = maxFollowers;
+	}
+
 	@RequestMapping(method = { RequestMethod.GET, RequestMethod.HEAD })
 	public void invoke(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
@@ -76,15 +147,203 @@ public class LogFileMvcEndpoint extends AbstractNamedMvcEndpoint {
 			response.setStatus(HttpStatus.NOT_FOUND.value());
 			return;
 		}
+		Resource resource = getExistingLogFileResource();
+		if (resource != null && isPartialRequest(request)) {
+			handlePartialRequest(resource.getFile().toPath(), request, response);
+			return;
+		}
+		Handler handler = new Handler(resource, request.getServletContext());
+		handler.handleRequest(request, response);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, params = "follow=true")
+	public ResponseEntity<ResponseBodyEmitter> follow(HttpServletRequest request)
+			throws IOException {
+		if (!isEnabled()) {
+			return ResponseEntity.notFound().build();
+		}
+		Resource resource = getExistingLogFileResource();
+		if (resource == null) {
+			return ResponseEntity.notFound().build();
+		}
+		Path path = resource.getFile().toPath();
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		boolean following = false;
+		try {
+			long start;
+			try {
+				start = getStart(channel, channel.size(), request);
+			}
+			catch (IllegalArgumentException ex) {
+				return ResponseEntity.badRequest().build();
+			}
+			if (this.followers.incrementAndGet() > this.maxFollowers) {
+				this.followers.decrementAndGet();
+				return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+			}
+			// Leave time for the last poll to complete the response
+			ResponseBodyEmitter emitter = new ResponseBodyEmitter(
+					this.followTimeout + 2 * FOLLOW_POLL_INTERVAL);
+			new Follower(path, channel, start, emitter).start(getFollowScheduler());
+			following = true;
+			return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(emitter);
+		}
+		finally {
+			if (!following) {
+				channel.close();
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		synchronized (this.followers) {
+			if (this.followScheduler != null) {
+				this.followScheduler.shutdownNow();
+			}
+		}
+	}
+
+	private ScheduledExecutorService getFollowScheduler() {
+		synchronized (this.followers) {
+			if (this.followScheduler == null) {
+				CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+						"logfile-follow-");
+				threadFactory.setDaemon(true);
+				ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+						FOLLOW_THREADS, threadFactory);
+				scheduler.setRemoveOnCancelPolicy(true);
+				this.followScheduler = scheduler;
+			}
+			return this.followScheduler;
+		}
+	}
+
+	private boolean isPartialRequest(HttpServletRequest request) {
+		return StringUtils.hasText(request.getParameter("tail"))
+				|| StringUtils.hasText(request.getParameter("lines"))
+				|| Boolean.parseBoolean(request.getParameter("follow"));
+	}
+
+	private void handlePartialRequest(Path path, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		boolean follow = Boolean.parseBoolean(request.getParameter("follow"));
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			long start;
+			try {
+				start = getStart(channel, size, request);
+			}
+			catch (IllegalArgumentException ex) {
+				response.setStatus(HttpStatus.BAD_REQUEST.value());
+				return;
+			}
+			response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+			if (!follow) {
+				response.setContentLengthLong(size - start);
+			}
+			if (HttpMethod.HEAD.matches(request.getMethod())) {
+				return;
+			}
+			if (!follow && Boolean.TRUE
+					.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+				// Let the container send the file using zero-copy
+				request.setAttribute(SENDFILE_ATTRIBUTE_PREFIX + "filename",
+						path.toAbsolutePath().toString());
+				request.setAttribute(SENDFILE_ATTRIBUTE_PREFIX + "start", start);
+				request.setAttribute(SENDFILE_ATTRIBUTE_PREFIX + "end", size);
+				return;
+			}
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			transfer(channel, start, size, out);
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	private long getStart(FileChannel channel, long size, HttpServletRequest request)
+			throws IOException {
+		String tail = request.getParameter("tail");
+		if (StringUtils.hasText(tail)) {
+			long bytes = Long.parseLong(tail.trim());
+			if (bytes < 0) {
+				throw new IllegalArgumentException("Tail must not be negative");
+			}
+			return Math.max(size - bytes, 0);
+		}
+		String lines = request.getParameter("lines");
+		if (StringUtils.hasText(lines)) {
+			int count = Integer.parseInt(lines.trim());
+			if (count < 0) {
+				throw new IllegalArgumentException("Lines must not be negative");
+			}
+			return findStartOfLastLines(channel, size, count);
+		}
+		return size;
+	}
+
+	private long findStartOfLastLines(FileChannel channel, long size, int lines)
+			throws IOException {
+		if (lines == 0) {
+			return size;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(TAIL_BUFFER_SIZE);
+		// A line feed at the very end terminates the last line rather than starting one
+		long end = size - 1;
+		int found = 0;
+		while (end > 0) {
+			long blockStart = Math.max(end - TAIL_BUFFER_SIZE, 0);
+			buffer.clear();
+			buffer.limit((int) (end - blockStart));
+			channel.read(buffer, blockStart);
+			for (int i = buffer.position() - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n' && ++found == lines) {
+					return blockStart + i + 1;
+				}
+			}
+			end = blockStart;
+		}
+		return 0;
+	}
+
+	private long transfer(FileChannel channel, long position, long end,
+			WritableByteChannel out) throws IOException {
+		long transferred = 0;
+		while (position + transferred < end) {
+			long count = channel.transferTo(position + transferred,
+					end - position - transferred, out);
+			if (count <= 0) {
+				break;
+			}
+			transferred += count;
+		}
+		return transferred;
+	}
+
+	private Object getIdentity(Path path) throws IOException {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(path,
+					BasicFileAttributes.class);
+			Object fileKey = attributes.fileKey();
+			return (fileKey != null ? fileKey : attributes.creationTime());
+		}
+		catch (NoSuchFileException ex) {
+			// Between the rename and the creation of the new file
+			return null;
+		}
+	}
+
+	private Resource getExistingLogFileResource() {
 		Resource resource = getLogFileResource();
 		if (resource != null && !resource.exists()) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Log file '" + resource + "' does not exist");
 			}
-			resource = null;
+			return null;
 		}
-		Handler handler = new Handler(resource, request.getServletContext());
-		handler.handleRequest(request, response);
+		return resource;
 	}
 
 	private Resource getLogFileResource() {
@@ -99,6 +358,118 @@ public class LogFileMvcEndpoint extends AbstractNamedMvcEndpoint {
 		return new FileSystemResource(logFile.toString());
 	}
 
+	/**
+	 * Polls a followed log file on the follow scheduler and sends the bytes appended to
+	 * it through a {@link ResponseBodyEmitter}.
+	 */
+	private final class Follower implements Runnable {
+
+		private final Path path;
+
+		private final ResponseBodyEmitter emitter;
+
+		private final long deadline;
+
+		private final ByteBuffer buffer = ByteBuffer.allocate(TAIL_BUFFER_SIZE);
+
+		private FileChannel channel;
+
+		private Object identity;
+
+		private long position;
+
+		private ScheduledFuture<?> future;
+
+		private boolean finished;
+
+		Follower(Path path, FileChannel channel, long position,
+				ResponseBodyEmitter emitter) throws IOException {
+			this.path = path;
+			this.channel = channel;
+			this.position = position;
+			this.emitter = emitter;
+			this.identity = getIdentity(path);
+			this.deadline = System.currentTimeMillis()
+					+ LogFileMvcEndpoint.this.followTimeout;
+		}
+
+		synchronized void start(ScheduledExecutorService scheduler) {
+			this.emitter.onCompletion(new Runnable() {
+
+				@Override
+				public void run() {
+					release();
+				}
+
+			});
+			this.future = scheduler.scheduleWithFixedDelay(this, 0,
+					FOLLOW_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public synchronized void run() {
+			if (this.finished) {
+				return;
+			}
+			try {
+				Object currentIdentity = getIdentity(this.path);
+				if (currentIdentity != null && !currentIdentity.equals(this.identity)) {
+					// Rolled over: drain the old file and continue with the new one
+					send(this.channel.size());
+					this.channel.close();
+					this.channel = FileChannel.open(this.path, StandardOpenOption.READ);
+					this.identity = currentIdentity;
+					this.position = 0;
+				}
+				long size = this.channel.size();
+				if (size < this.position) {
+					// Truncated in place
+					this.position = 0;
+				}
+				send(size);
+				if (System.currentTimeMillis() >= this.deadline) {
+					this.emitter.complete();
+					release();
+				}
+			}
+			catch (Exception ex) {
+				logger.debug("Stopped following log file '" + this.path + "'", ex);
+				this.emitter.complete();
+				release();
+			}
+		}
+
+		private void send(long end) throws IOException {
+			while (this.position < end) {
+				this.buffer.clear();
+				this.buffer.limit((int) Math.min(end - this.position, TAIL_BUFFER_SIZE));
+				int count = this.channel.read(this.buffer, this.position);
+				if (count <= 0) {
+					return;
+				}
+				this.emitter.send(Arrays.copyOf(this.buffer.array(), count),
+						MediaType.TEXT_PLAIN);
+				this.position += count;
+			}
+		}
+
+		synchronized void release() {
+			if (this.finished) {
+				return;
+			}
+			this.finished = true;
+			this.future.cancel(false);
+			try {
+				this.channel.close();
+			}
+			catch (IOException ex) {
+				// Ignore
+			}
+			LogFileMvcEndpoint.this.followers.decrementAndGet();
+		}
+
+	}
+
 	/**
 	 * {@link ResourceHttpRequestHandler} to send the log file.
 	 */
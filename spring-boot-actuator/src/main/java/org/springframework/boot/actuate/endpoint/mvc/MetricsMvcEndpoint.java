@@ -16,32 +16,72 @@
 
 package org.springframework.boot.actuate.endpoint.mvc;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
- * Adapter to expose {@link MetricsEndpoint} as an {@link MvcEndpoint}.
+ * Adapter to expose {@link MetricsEndpoint} as an {@link MvcEndpoint}. The metrics can
+ * optionally be cached for a configurable {@link #setTimeToLive(long) time to live} so
+ * that frequent scrapes do not read every metric each time. Responses for cached metrics
+ * carry a strong {@code ETag} so that a conditional request for unchanged metrics is
+ * answered with {@code 304 Not Modified}.
  *
  * @author Dave Syer
  * @author Andy Wilkinson
  * @author Sergei Egorov
+ * @author Jon Ellis
  */
 @ConfigurationProperties(prefix = "endpoints.metrics")
 public class MetricsMvcEndpoint extends EndpointMvcAdapter {
 
 	private final MetricsEndpoint delegate;
 
+	/**
+	 * Time to live for cached metrics, in milliseconds. Metrics are read on every
+	 * request when set to 0.
+	 */
+	private long timeToLive = 0;
+
+	private volatile CachedMetrics cached;
+
 	public MetricsMvcEndpoint(MetricsEndpoint delegate) {
 		super(delegate);
 		this.delegate = delegate;
 	}
 
+	public long getTimeToLive() {
+		return this.timeToLive;
+	}
+
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	@ActuatorGetMapping
+	@ResponseBody
+	public Object invoke() {
+		if (!this.delegate.isEnabled()) {
+			return getDisabledResponse();
+		}
+		if (this.timeToLive <= 0) {
+			return this.delegate.invoke();
+		}
+		CachedMetrics cached = getCachedMetrics();
+		return ResponseEntity.ok().eTag(cached.getETag(null, cached.getMetrics()))
+				.body(cached.getMetrics());
+	}
+
 	@ActuatorGetMapping("/{name:.*}")
 	@ResponseBody
 	@HypermediaDisabled
@@ -51,7 +91,60 @@ public class MetricsMvcEndpoint extends EndpointMvcAdapter {
 			// disabled
 			return getDisabledResponse();
 		}
-		return new NamePatternMapFilter(this.delegate.invoke()).getResults(name);
+		if (this.timeToLive <= 0) {
+			return new NamePatternMapFilter(this.delegate.invoke()).getResults(name);
+		}
+		CachedMetrics cached = getCachedMetrics();
+		Object result = new NamePatternMapFilter(cached.getMetrics()).getResults(name);
+		return ResponseEntity.ok().eTag(cached.getETag(name, result)).body(result);
+	}
+
+	private CachedMetrics getCachedMetrics() {
+		long accessTime = System.currentTimeMillis();
+		CachedMetrics cached = this.cached;
+		if (cached == null || cached.isStale(accessTime, this.timeToLive)) {
+			cached = new CachedMetrics(this.delegate.invoke(), accessTime);
+			this.cached = cached;
+		}
+		return cached;
+	}
+
+	/**
+	 * Metrics, the time at which they were read and the entity tags of the responses
+	 * created from them.
+	 */
+	private static class CachedMetrics {
+
+		private final Map<String, Object> metrics;
+
+		private final long creationTime;
+
+		private final Map<String, String> etags = new ConcurrentHashMap<String, String>();
+
+		CachedMetrics(Map<String, Object> metrics, long creationTime) {
+			this.metrics = metrics;
+			this.creationTime = creationTime;
+		}
+
+		public boolean isStale(long accessTime, long timeToLive) {
+			return (accessTime - this.creationTime) >= timeToLive;
+		}
+
+		public Map<String, Object> getMetrics() {
+			return this.metrics;
+		}
+
+		public String getETag(String name, Object content) {
+			String key = (name == null ? "" : "/" + name);
+			String etag = this.etags.get(key);
+			if (etag == null) {
+				etag = "\"" + DigestUtils.md5DigestAsHex(
+						String.valueOf(content).getBytes(StandardCharsets.UTF_8)) + "\"";
+				this.etags.put(key, etag);
+			}
+			return etag;
+		}
+
 	}
 
 	/**
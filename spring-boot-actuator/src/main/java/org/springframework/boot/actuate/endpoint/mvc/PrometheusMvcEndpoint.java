@@ -0,0 +1,203 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
+import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.web.bind.annotation.GetMapping;
+
+/**
+ * {@link MvcEndpoint} that exposes the {@link PublicMetrics} of a {@link MetricsEndpoint}
+ * in the Prometheus text exposition format. Metrics are written to the response as they
+ * are read rather than being collected into a map first, and the metrics of a
+ * {@link MetricReaderPublicMetrics} are streamed directly from its
+ * {@link MetricReaderPublicMetrics#getMetricReader() reader}.
+ * <p>
+ * Metric names are converted to valid Prometheus names by replacing any unsupported
+ * character with an underscore. The conversion is cached for each metric name. All
+ * metrics are exposed as gauges since a Spring Boot counter can be decremented. When two
+ * metrics have the same converted name, only the first that was seen is written.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+@ConfigurationProperties(prefix = "endpoints.prometheus")
+public class PrometheusMvcEndpoint extends AbstractNamedMvcEndpoint {
+
+	private static final Log logger = LogFactory.getLog(PrometheusMvcEndpoint.class);
+
+	private static final String CONTENT_TYPE = "text/plain;version=0.0.4;charset=utf-8";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final MetricsEndpoint delegate;
+
+	private final Map<String, Series> series = new ConcurrentReferenceHashMap<String, Series>();
+
+	/**
+	 * The metric name that is written for each exposed name, so that duplicates can be
+	 * skipped without tracking the names written by each scrape.
+	 */
+	private final ConcurrentMap<String, String> owners = new ConcurrentReferenceHashMap<String, String>();
+
+	public PrometheusMvcEndpoint(MetricsEndpoint delegate) {
+		super("prometheus", "/prometheus", true);
+		Assert.notNull(delegate, "Delegate must not be null");
+		this.delegate = delegate;
+	}
+
+	@GetMapping(produces = MediaType.TEXT_PLAIN_VALUE)
+	public void invoke(HttpServletResponse response) throws IOException {
+		if (!isEnabled() || !this.delegate.isEnabled()) {
+			response.setStatus(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		response.setContentType(CONTENT_TYPE);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(
+				response.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+		for (PublicMetrics publicMetrics : this.delegate.getPublicMetrics()) {
+			try {
+				for (Metric<?> metric : getMetrics(publicMetrics)) {
+					write(writer, metric);
+				}
+			}
+			catch (IOException ex) {
+				throw ex;
+			}
+			catch (Exception ex) {
+				// Could not evaluate metrics, continue with the others
+				logger.debug("Failed to read metrics from " + publicMetrics, ex);
+			}
+		}
+		writer.flush();
+	}
+
+	private Iterable<Metric<?>> getMetrics(PublicMetrics publicMetrics) {
+		if (publicMetrics instanceof MetricReaderPublicMetrics) {
+			return ((MetricReaderPublicMetrics) publicMetrics).getMetricReader()
+					.findAll();
+		}
+		return publicMetrics.metrics();
+	}
+
+	private void write(Writer writer, Metric<?> metric) throws IOException {
+		Number value = metric.getValue();
+		if (value == null) {
+			return;
+		}
+		Series series = getSeries(metric.getName());
+		if (!isOwner(series, metric.getName())) {
+			return;
+		}
+		writer.write(series.header);
+		writer.write(formatValue(value));
+		writer.write('\n');
+	}
+
+	private Series getSeries(String metricName) {
+		Series series = this.series.get(metricName);
+		if (series == null) {
+			series = new Series(metricName);
+			this.series.put(metricName, series);
+		}
+		return series;
+	}
+
+	private boolean isOwner(Series series, String metricName) {
+		String owner = this.owners.get(series.name);
+		if (owner == null) {
+			owner = this.owners.putIfAbsent(series.name, metricName);
+		}
+		return (owner == null || owner.equals(metricName));
+	}
+
+	private String formatValue(Number value) {
+		if (value instanceof Double || value instanceof Float) {
+			double number = value.doubleValue();
+			if (Double.isNaN(number)) {
+				return "NaN";
+			}
+			if (Double.isInfinite(number)) {
+				return (number > 0 ? "+Inf" : "-Inf");
+			}
+			return Double.toString(number);
+		}
+		return value.toString();
+	}
+
+	static String sanitize(String metricName) {
+		StringBuilder name = null;
+		for (int i = 0; i < metricName.length(); i++) {
+			char ch = metricName.charAt(i);
+			boolean valid = (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')
+					|| ch == '_' || ch == ':' || (i > 0 && ch >= '0' && ch <= '9');
+			if (!valid && name == null) {
+				name = new StringBuilder(metricName.length() + 1);
+				name.append(metricName, 0, i);
+			}
+			if (name != null) {
+				if (i == 0 && ch >= '0' && ch <= '9') {
+					name.append('_').append(ch);
+				}
+				else {
+					name.append(valid ? ch : '_');
+				}
+			}
+		}
+		if (name == null) {
+			return (metricName.isEmpty() ? "_" : metricName);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * The exposed name of a metric and the text that precedes each of its values.
+	 */
+	private static final class Series {
+
+		private final String name;
+
+		private final String header;
+
+		Series(String metricName) {
+			this.name = sanitize(metricName);
+			this.header = "# TYPE " + this.name + " gauge\n" + this.name + " ";
+		}
+
+	}
+
+}
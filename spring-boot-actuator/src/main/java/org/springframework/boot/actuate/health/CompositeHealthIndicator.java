@@ -18,15 +18,28 @@ package org.springframework.boot.actuate.health;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.util.Assert;
 
 /**
  * {@link HealthIndicator} that returns health indications from all registered delegates.
+ * Delegates are called in turn unless an {@link #setExecutor(Executor) executor} is set,
+ * in which case they are all submitted to it and their results collected, so the overall
+ * latency is that of the slowest delegate rather than the sum of all of them. A delegate
+ * that does not respond within the {@link #setTimeout(long) timeout}, or that the
+ * executor rejects, is reported as {@link Status#UNKNOWN UNKNOWN}.
  *
  * @author Tyler J. Frederick
  * @author Phillip Webb
  * @author Christian Dupuis
+ * @author Jon Ellis
  * @since 1.1.0
  */
 public class CompositeHealthIndicator implements HealthIndicator {
@@ -35,6 +48,10 @@ public class CompositeHealthIndicator implements HealthIndicator {
 
 	private final HealthAggregator healthAggregator;
 
+	private Executor executor;
+
+	private long timeout;
+
 	/**
 	 * Create a new {@link CompositeHealthIndicator}.
 	 * @param healthAggregator the health aggregator
@@ -61,13 +78,96 @@ public class CompositeHealthIndicator implements HealthIndicator {
 		this.indicators.put(name, indicator);
 	}
 
+	/**
+	 * Set the {@link Executor} used to call the delegates in parallel. If not set (the
+	 * default) the delegates are called sequentially by the calling thread.
+	 * @param executor the executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds to wait for each delegate when they are called
+	 * in parallel. A value of zero or less (the default) waits indefinitely.
+	 * @param timeout the timeout in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
 	@Override
 	public Health health() {
 		Map<String, Health> healths = new LinkedHashMap<String, Health>();
-		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
-			healths.put(entry.getKey(), entry.getValue().health());
+		if (this.executor == null || this.indicators.size() < 2) {
+			for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
+				healths.put(entry.getKey(), entry.getValue().health());
+			}
+		}
+		else {
+			Map<String, FutureTask<Health>> futures = submit();
+			long deadline = System.currentTimeMillis() + this.timeout;
+			for (Map.Entry<String, FutureTask<Health>> entry : futures.entrySet()) {
+				healths.put(entry.getKey(), getHealth(entry.getValue(), deadline));
+			}
 		}
 		return this.healthAggregator.aggregate(healths);
 	}
 
+	private Map<String, FutureTask<Health>> submit() {
+		Map<String, FutureTask<Health>> futures = new LinkedHashMap<String, FutureTask<Health>>();
+		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
+			final HealthIndicator indicator = entry.getValue();
+			FutureTask<Health> future = new FutureTask<Health>(new Callable<Health>() {
+
+				@Override
+				public Health call() throws Exception {
+					return indicator.health();
+				}
+
+			});
+			try {
+				this.executor.execute(future);
+			}
+			catch (RejectedExecutionException ex) {
+				future = null;
+			}
+			futures.put(entry.getKey(), future);
+		}
+		return futures;
+	}
+
+	private Health getHealth(FutureTask<Health> future, long deadline) {
+		if (future == null) {
+			return Health.unknown()
+					.withDetail("error", "Rejected by the health indicator executor")
+					.build();
+		}
+		try {
+			if (this.timeout <= 0) {
+				return future.get();
+			}
+			long remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+			return future.get(remaining, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException ex) {
+			future.cancel(true);
+			return Health.unknown()
+					.withDetail("error", "Timed out after " + this.timeout + "ms")
+					.build();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			return Health.down((Exception) cause).build();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			return Health.unknown().withException(ex).build();
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.List;
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetadata;
 import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.support.DataAccessUtils;
@@ -39,12 +40,21 @@ import org.springframework.util.StringUtils;
 /**
  * {@link HealthIndicator} that tests the status of a {@link DataSource} and optionally
  * runs a test query.
+ * <p>
+ * The database product name is only looked up once. When a
+ * {@link #setValidationTimeout(int) validation timeout} is set, the connection is
+ * validated using {@link Connection#isValid(int)} instead of a query. When
+ * {@link #setPoolMetadata(DataSourcePoolMetadata) pool metadata} is available, the
+ * active and maximum number of connections are added to the details and a saturated
+ * pool is reported without borrowing a connection, so that the health check never waits
+ * for a connection to become available.
  *
  * @author Dave Syer
  * @author Christian Dupuis
  * @author Andy Wilkinson
  * @author Stephane Nicoll
  * @author Arthur Kalimullin
+ * @author Jon Ellis
  * @since 1.1.0
  */
 public class DataSourceHealthIndicator extends AbstractHealthIndicator
@@ -58,6 +68,12 @@ public class DataSourceHealthIndicator extends AbstractHealthIndicator
 
 	private JdbcTemplate jdbcTemplate;
 
+	private DataSourcePoolMetadata poolMetadata;
+
+	private int validationTimeout;
+
+	private volatile String product;
+
 	/**
 	 * Create a new {@link DataSourceHealthIndicator} instance.
 	 */
@@ -102,8 +118,65 @@ public class DataSourceHealthIndicator extends AbstractHealthIndicator
 	}
 
 	private void doDataSourceHealthCheck(Health.Builder builder) throws Exception {
-		String product = getProduct();
-		builder.up().withDetail("database", product);
+		Float usage = (this.poolMetadata == null ? null : this.poolMetadata.getUsage());
+		boolean saturated = (usage != null && usage >= 1);
+		String product = (saturated ? this.product : getProduct());
+		builder.up();
+		if (product != null) {
+			builder.withDetail("database", product);
+		}
+		if (this.poolMetadata != null) {
+			addPoolDetails(builder, usage, saturated);
+		}
+		if (saturated) {
+			return;
+		}
+		if (this.validationTimeout > 0) {
+			validateConnection(builder);
+		}
+		else {
+			validateWithQuery(builder, product);
+		}
+	}
+
+	private void addPoolDetails(Health.Builder builder, Float usage, boolean saturated) {
+		Integer active = this.poolMetadata.getActive();
+		if (active != null) {
+			builder.withDetail("active", active);
+		}
+		Integer max = this.poolMetadata.getMax();
+		if (max != null) {
+			builder.withDetail("max", max);
+		}
+		if (usage != null) {
+			builder.withDetail("usage", usage);
+		}
+		builder.withDetail("saturated", saturated);
+	}
+
+	private void validateConnection(Health.Builder builder) {
+		try {
+			Boolean valid = this.jdbcTemplate.execute(new ConnectionCallback<Boolean>() {
+
+				@Override
+				public Boolean doInConnection(Connection connection)
+						throws SQLException, DataAccessException {
+					return connection
+							.isValid(DataSourceHealthIndicator.this.validationTimeout);
+				}
+
+			});
+			builder.withDetail("valid", valid);
+			if (!Boolean.TRUE.equals(valid)) {
+				builder.down();
+			}
+		}
+		catch (Exception ex) {
+			builder.down(ex);
+		}
+	}
+
+	private void validateWithQuery(Health.Builder builder, String product) {
 		String validationQuery = getValidationQuery(product);
 		if (StringUtils.hasText(validationQuery)) {
 			try {
@@ -120,13 +193,18 @@ public class DataSourceHealthIndicator extends AbstractHealthIndicator
 	}
 
 	private String getProduct() {
-		return this.jdbcTemplate.execute(new ConnectionCallback<String>() {
-			@Override
-			public String doInConnection(Connection connection)
-					throws SQLException, DataAccessException {
-				return connection.getMetaData().getDatabaseProductName();
-			}
-		});
+		String product = this.product;
+		if (product == null) {
+			product = this.jdbcTemplate.execute(new ConnectionCallback<String>() {
+				@Override
+				public String doInConnection(Connection connection)
+						throws SQLException, DataAccessException {
+					return connection.getMetaData().getDatabaseProductName();
+				}
+			});
+			this.product = product;
+		}
+		return product;
 	}
 
 	protected String getValidationQuery(String product) {
@@ -148,6 +226,7 @@ public class DataSourceHealthIndicator extends AbstractHealthIndicator
 	public void setDataSource(DataSource dataSource) {
 		this.dataSource = dataSource;
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.product = null;
 	}
 
 	/**
@@ -167,6 +246,28 @@ public class DataSourceHealthIndicator extends AbstractHealthIndicator
 		return this.query;
 	}
 
+	/**
+	 * Set the {@link DataSourcePoolMetadata} of the data source. When set, the pool's
+	 * usage is added to the details and no connection is borrowed while the pool is
+	 * saturated.
+	 * @param poolMetadata the pool metadata (can be {@code null})
+	 * @since 2.0.0
+	 */
+	public void setPoolMetadata(DataSourcePoolMetadata poolMetadata) {
+		this.poolMetadata = poolMetadata;
+	}
+
+	/**
+	 * Set the timeout, in seconds, used to validate a connection with
+	 * {@link Connection#isValid(int)}. When {@code 0} or less, a validation query is run
+	 * instead.
+	 * @param validationTimeout the validation timeout in seconds
+	 * @since 2.0.0
+	 */
+	public void setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
 	/**
 	 * {@link RowMapper} that expects and returns results from a single column.
 	 */
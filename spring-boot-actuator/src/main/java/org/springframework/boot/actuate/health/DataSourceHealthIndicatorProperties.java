@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * External configuration properties for {@link DataSourceHealthIndicator}.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+@ConfigurationProperties(prefix = "management.health.db")
+public class DataSourceHealthIndicatorProperties {
+
+	/**
+	 * Timeout in seconds used to validate a connection with Connection.isValid rather
+	 * than running a validation query. A validation query is used when set to 0.
+	 */
+	private int validationTimeout = 0;
+
+	public int getValidationTimeout() {
+		return this.validationTimeout;
+	}
+
+	public void setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+}
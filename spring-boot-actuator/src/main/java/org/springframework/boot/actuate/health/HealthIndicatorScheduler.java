@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs {@link ScheduledHealthIndicator ScheduledHealthIndicators} on a shared pool of
+ * daemon threads. The health indicators themselves are called on separate daemon
+ * threads, so that a hung call only ever holds up its own indicator, and each call is
+ * limited by a timeout. Closing the scheduler stops all of the checks.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class HealthIndicatorScheduler implements Closeable {
+
+	/**
+	 * Default maximum time in milliseconds to wait for a health indicator.
+	 */
+	public static final long DEFAULT_TIMEOUT = 10000;
+
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private final ThreadPoolExecutor executor;
+
+	private final long timeout;
+
+	private final Map<String, ScheduledHealthIndicator> indicators = new LinkedHashMap<String, ScheduledHealthIndicator>();
+
+	/**
+	 * Create a new {@link HealthIndicatorScheduler} instance that waits up to
+	 * {@link #DEFAULT_TIMEOUT} for each health indicator.
+	 * @param threads the number of threads used to run the checks
+	 */
+	public HealthIndicatorScheduler(int threads) {
+		this(threads, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Create a new {@link HealthIndicatorScheduler} instance.
+	 * @param threads the number of threads used to run the checks
+	 * @param timeout the maximum time in milliseconds to wait for each health indicator
+	 * or zero or less to wait indefinitely
+	 */
+	public HealthIndicatorScheduler(int threads, long timeout) {
+		CustomizableThreadFactory schedulerThreadFactory = new CustomizableThreadFactory(
+				"health-check-scheduler-");
+		schedulerThreadFactory.setDaemon(true);
+		this.scheduler = new ScheduledThreadPoolExecutor(Math.max(threads, 1),
+				schedulerThreadFactory);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"health-check-");
+		threadFactory.setDaemon(true);
+		// A new call is only made once the previous one has returned, so this pool
+		// never has more threads than there are indicators
+		this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60,
+				TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threadFactory);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Start checking the given indicator in the background.
+	 * @param name the name of the indicator
+	 * @param indicator the indicator to check
+	 * @param interval the delay in milliseconds between checks
+	 * @param jitter the maximum random delay in milliseconds added to the interval
+	 * @return a {@link ScheduledHealthIndicator} returning the latest result
+	 */
+	public synchronized ScheduledHealthIndicator schedule(String name,
+			HealthIndicator indicator, long interval, long jitter) {
+		ScheduledHealthIndicator scheduled = new ScheduledHealthIndicator(indicator,
+				this.scheduler, this.executor, interval, jitter, this.timeout);
+		this.indicators.put(name, scheduled);
+		scheduled.start();
+		return scheduled;
+	}
+
+	/**
+	 * Return the scheduled indicators keyed by name.
+	 * @return the scheduled indicators
+	 */
+	public synchronized Map<String, ScheduledHealthIndicator> getIndicators() {
+		return Collections.unmodifiableMap(
+				new LinkedHashMap<String, ScheduledHealthIndicator>(this.indicators));
+	}
+
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+		this.executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link HealthIndicator} that calls a delegate periodically in the background and
+ * returns the most recent result without waiting. The previous result continues to be
+ * returned while a check is running (stale-while-revalidate), so a slow or hung
+ * dependency never delays a caller. Until the first check has completed the health is
+ * {@link Status#UNKNOWN UNKNOWN}.
+ * <p>
+ * The delegate is called on a separate executor so that a hung call cannot hold on to a
+ * scheduler thread. A call that does not complete within the timeout is cancelled and
+ * reported as {@link Status#UNKNOWN UNKNOWN}, and no new call is made until the hung one
+ * returns. If no check has completed for {@value #STALE_INTERVALS} intervals (plus the
+ * jitter and timeout) the result is considered stale and is also reported as
+ * {@link Status#UNKNOWN UNKNOWN}, together with its age.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ * @see HealthIndicatorScheduler
+ */
+public class ScheduledHealthIndicator implements HealthIndicator {
+
+	/**
+	 * Number of missed intervals after which the latest result is considered stale.
+	 */
+	public static final int STALE_INTERVALS = 3;
+
+	private static final Log logger = LogFactory.getLog(ScheduledHealthIndicator.class);
+
+	private static final Health UNKNOWN = Health.unknown().build();
+
+	private final HealthIndicator delegate;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Executor executor;
+
+	private final long interval;
+
+	private final long jitter;
+
+	private final long timeout;
+
+	private final long maxAge;
+
+	private volatile Snapshot snapshot;
+
+	private volatile boolean calling;
+
+	/**
+	 * Create a new {@link ScheduledHealthIndicator} instance.
+	 * @param delegate the health indicator to call
+	 * @param scheduler the scheduler used to run the checks
+	 * @param executor the executor used to call the delegate
+	 * @param interval the delay in milliseconds between the end of one check and the
+	 * start of the next
+	 * @param jitter the maximum random delay in milliseconds added to the interval so
+	 * that checks sharing a scheduler are spread out
+	 * @param timeout the maximum time in milliseconds to wait for the delegate or zero
+	 * or less to wait indefinitely
+	 */
+	public ScheduledHealthIndicator(HealthIndicator delegate,
+			ScheduledExecutorService scheduler, Executor executor, long interval,
+			long jitter, long timeout) {
+		Assert.notNull(delegate, "Delegate must not be null");
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		Assert.notNull(executor, "Executor must not be null");
+		Assert.isTrue(interval > 0, "Interval must be positive");
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+		this.executor = executor;
+		this.interval = interval;
+		this.jitter = Math.max(jitter, 0);
+		this.timeout = timeout;
+		this.maxAge = STALE_INTERVALS * (this.interval + this.jitter)
+				+ Math.max(timeout, 0);
+	}
+
+	/**
+	 * Run the first check as soon as possible and schedule the following ones.
+	 */
+	public void start() {
+		schedule(0);
+	}
+
+	@Override
+	public Health health() {
+		Snapshot snapshot = this.snapshot;
+		if (snapshot == null) {
+			return UNKNOWN;
+		}
+		long age = System.currentTimeMillis() - snapshot.timestamp;
+		if (age > this.maxAge) {
+			return Health.unknown().withDetail("error", "Health check result is stale")
+					.withDetail("age", age).build();
+		}
+		return snapshot.health;
+	}
+
+	/**
+	 * Return the time in milliseconds since the last check completed, or {@code -1} if
+	 * no check has completed yet.
+	 * @return the age of the current health
+	 */
+	public long getAge() {
+		Snapshot snapshot = this.snapshot;
+		return (snapshot == null ? -1 : System.currentTimeMillis() - snapshot.timestamp);
+	}
+
+	/**
+	 * Return the time in milliseconds taken by the last completed check, or {@code -1}
+	 * if no check has completed yet.
+	 * @return the duration of the last check
+	 */
+	public long getLastCheckDuration() {
+		Snapshot snapshot = this.snapshot;
+		return (snapshot == null ? -1 : snapshot.duration);
+	}
+
+	private void check() {
+		if (this.calling) {
+			logger.debug("Health check skipped as the previous call has not returned");
+			return;
+		}
+		long start = System.currentTimeMillis();
+		FutureTask<Health> call = new FutureTask<Health>(new Callable<Health>() {
+
+			@Override
+			public Health call() throws Exception {
+				ScheduledHealthIndicator.this.calling = true;
+				try {
+					return ScheduledHealthIndicator.this.delegate.health();
+				}
+				finally {
+					ScheduledHealthIndicator.this.calling = false;
+				}
+			}
+
+		});
+		try {
+			this.executor.execute(call);
+		}
+		catch (RejectedExecutionException ex) {
+			logger.debug("Health check not run as the executor has been shut down");
+			return;
+		}
+		Health health;
+		try {
+			health = getHealth(call);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			call.cancel(true);
+			return;
+		}
+		long end = System.currentTimeMillis();
+		this.snapshot = new Snapshot(health, end, end - start);
+	}
+
+	private Health getHealth(FutureTask<Health> call) throws InterruptedException {
+		try {
+			if (this.timeout <= 0) {
+				return call.get();
+			}
+			return call.get(this.timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException ex) {
+			call.cancel(true);
+			return Health.unknown()
+					.withDetail("error", "Timed out after " + this.timeout + "ms")
+					.build();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			return Health.down((Exception) cause).build();
+		}
+	}
+
+	private void schedule(long delay) {
+		try {
+			this.scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						check();
+					}
+					finally {
+						schedule(nextDelay());
+					}
+				}
+
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			logger.debug("Health check not scheduled as the scheduler has been shut down");
+		}
+	}
+
+	private long nextDelay() {
+		if (this.jitter == 0) {
+			return this.interval;
+		}
+		return this.interval + ThreadLocalRandom.current().nextLong(this.jitter + 1);
+	}
+
+	/**
+	 * The result of a check.
+	 */
+	private static final class Snapshot {
+
+		private final Health health;
+
+		private final long timestamp;
+
+		private final long duration;
+
+		Snapshot(Health health, long timestamp, long duration) {
+			this.health = health;
+			this.timestamp = timestamp;
+			this.duration = duration;
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics;
+
+/**
+ * A counter that has been bound to a specific name by a {@link BoundCounterService}.
+ * Operations do not need to look up the underlying counter or allocate any objects so
+ * they are suitable for use in tight loops.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public interface BoundCounter {
+
+	/**
+	 * Return the name of the counter.
+	 * @return the name
+	 */
+	String getName();
+
+	/**
+	 * Increment the counter by 1.
+	 */
+	void increment();
+
+	/**
+	 * Increment the counter by the given delta.
+	 * @param delta the amount to add (may be negative)
+	 */
+	void increment(long delta);
+
+	/**
+	 * Decrement the counter by 1.
+	 */
+	void decrement();
+
+	/**
+	 * Reset the counter.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics;
+
+/**
+ * A gauge that has been bound to a specific name by a {@link BoundGaugeService}.
+ * Submitting a value does not need to look up the underlying gauge or box the value so
+ * it is suitable for use in tight loops.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public interface BoundGauge {
+
+	/**
+	 * Return the name of the gauge.
+	 * @return the name
+	 */
+	String getName();
+
+	/**
+	 * Set the gauge value.
+	 * @param value the value of the gauge
+	 */
+	void submit(double value);
+
+}
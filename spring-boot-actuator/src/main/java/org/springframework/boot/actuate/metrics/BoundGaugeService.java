@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics;
+
+/**
+ * A {@link GaugeService} that can also provide {@link BoundGauge gauges} bound to a
+ * specific name. Callers should obtain a bound gauge once and keep hold of it rather
+ * than calling {@link #gauge(String)} for every submission.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public interface BoundGaugeService extends GaugeService {
+
+	/**
+	 * Return a gauge bound to the specified name. The same naming rules as
+	 * {@link #submit(String, double)} apply, so values submitted through the returned
+	 * gauge and through this service with the same name affect the same value.
+	 * @param metricName the name of the gauge
+	 * @return the bound gauge
+	 */
+	BoundGauge gauge(String metricName);
+
+}
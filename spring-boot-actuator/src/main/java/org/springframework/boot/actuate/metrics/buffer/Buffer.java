@@ -17,7 +17,10 @@
 package org.springframework.boot.actuate.metrics.buffer;
 
 /**
- * Base class for a mutable buffer containing a timestamp and a value.
+ * Base class for a mutable buffer containing a timestamp and a value. Updates only mark
+ * the buffer as {@link #markUpdated() updated} and the timestamp is resolved lazily the
+ * next time it is read. This keeps the clock off the hot path and avoids every updating
+ * thread writing to the same timestamp field.
  *
  * @param <T> the value type
  * @author Dave Syer
@@ -27,18 +30,41 @@ abstract class Buffer<T extends Number> {
 
 	private volatile long timestamp;
 
+	private volatile boolean updated;
+
 	Buffer(long timestamp) {
 		this.timestamp = timestamp;
 	}
 
+	/**
+	 * Returns the time that the buffer was last updated. The returned value is never
+	 * earlier than the update and is no later than the first read that followed it. The
+	 * timestamp should be read before the {@link #getValue() value} so that any update
+	 * racing with the read is reflected by a later timestamp.
+	 * @return the timestamp
+	 */
 	public long getTimestamp() {
+		if (this.updated) {
+			this.updated = false;
+			this.timestamp = System.currentTimeMillis();
+		}
 		return this.timestamp;
 	}
 
 	public void setTimestamp(long timestamp) {
+		this.updated = false;
 		this.timestamp = timestamp;
 	}
 
+	/**
+	 * Mark the buffer as updated. Should be called after the value has been changed.
+	 */
+	final void markUpdated() {
+		if (!this.updated) {
+			this.updated = true;
+		}
+	}
+
 	/**
 	 * Returns the buffer value.
 	 * @return the value of the buffer
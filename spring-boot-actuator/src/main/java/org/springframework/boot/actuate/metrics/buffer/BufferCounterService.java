@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.boot.actuate.metrics.buffer;
 
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.boot.actuate.metrics.BoundCounter;
+import org.springframework.boot.actuate.metrics.BoundCounterService;
 import org.springframework.boot.actuate.metrics.CounterService;
 
 /**
@@ -26,7 +28,7 @@ import org.springframework.boot.actuate.metrics.CounterService;
  * @author Dave Syer
  * @since 1.3.0
  */
-public class BufferCounterService implements CounterService {
+public class BufferCounterService implements BoundCounterService {
 
 	private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<String, String>();
 
@@ -55,6 +57,12 @@ public class BufferCounterService implements CounterService {
 		this.buffers.reset(wrap(metricName));
 	}
 
+	@Override
+	public BoundCounter counter(String metricName) {
+		String name = wrap(metricName);
+		return new BufferBoundCounter(name, this.buffers.getOrCreate(name));
+	}
+
 	private String wrap(String metricName) {
 		String cached = this.names.get(metricName);
 		if (cached != null) {
@@ -68,4 +76,47 @@ public class BufferCounterService implements CounterService {
 		return name;
 	}
 
+	/**
+	 * {@link BoundCounter} that updates a {@link CounterBuffer} directly.
+	 */
+	private static final class BufferBoundCounter implements BoundCounter {
+
+		private final String name;
+
+		private final CounterBuffer buffer;
+
+		BufferBoundCounter(String name, CounterBuffer buffer) {
+			this.name = name;
+			this.buffer = buffer;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public void increment() {
+			increment(1L);
+		}
+
+		@Override
+		public void increment(long delta) {
+			this.buffer.add(delta);
+			this.buffer.markUpdated();
+		}
+
+		@Override
+		public void decrement() {
+			increment(-1L);
+		}
+
+		@Override
+		public void reset() {
+			this.buffer.setTimestamp(System.currentTimeMillis());
+			this.buffer.reset();
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,31 +18,70 @@ package org.springframework.boot.actuate.metrics.buffer;
 
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.boot.actuate.metrics.BoundGauge;
+import org.springframework.boot.actuate.metrics.BoundGaugeService;
 import org.springframework.boot.actuate.metrics.GaugeService;
 
 /**
- * Fast implementation of {@link GaugeService} using {@link GaugeBuffers}.
+ * Fast implementation of {@link GaugeService} using {@link GaugeBuffers}. If
+ * {@link HistogramBuffers} are provided then values for names starting with "timer" or
+ * "histogram" are recorded in a histogram so that percentiles are available as well as
+ * the most recent value.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  * @since 1.3.0
  */
-public class BufferGaugeService implements GaugeService {
+public class BufferGaugeService implements BoundGaugeService {
 
 	private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<String, String>();
 
 	private final GaugeBuffers buffers;
 
+	private final HistogramBuffers histograms;
+
 	/**
 	 * Create a {@link BufferGaugeService} instance.
 	 * @param buffers the underlying buffers used to store metrics
 	 */
 	public BufferGaugeService(GaugeBuffers buffers) {
+		this(buffers, null);
+	}
+
+	/**
+	 * Create a {@link BufferGaugeService} instance.
+	 * @param buffers the underlying buffers used to store metrics
+	 * @param histograms the underlying buffers used to store timer and histogram metrics
+	 * (may be {@code null} to store them as simple gauges)
+	 */
+	public BufferGaugeService(GaugeBuffers buffers, HistogramBuffers histograms) {
 		this.buffers = buffers;
+		this.histograms = histograms;
 	}
 
 	@Override
 	public void submit(String metricName, double value) {
-		this.buffers.set(wrap(metricName), value);
+		String name = wrap(metricName);
+		if (isHistogram(name)) {
+			this.histograms.record(name, value);
+		}
+		else {
+			this.buffers.set(name, value);
+		}
+	}
+
+	@Override
+	public BoundGauge gauge(String metricName) {
+		String name = wrap(metricName);
+		if (isHistogram(name)) {
+			return new BufferBoundHistogram(name, this.histograms.getOrCreate(name));
+		}
+		return new BufferBoundGauge(name, this.buffers.getOrCreate(name));
+	}
+
+	private boolean isHistogram(String name) {
+		return this.histograms != null
+				&& (name.startsWith("timer") || name.startsWith("histogram"));
 	}
 
 	private String wrap(String metricName) {
@@ -59,4 +98,58 @@ public class BufferGaugeService implements GaugeService {
 		return name;
 	}
 
+	/**
+	 * {@link BoundGauge} that updates a {@link GaugeBuffer} directly.
+	 */
+	private static final class BufferBoundGauge implements BoundGauge {
+
+		private final String name;
+
+		private final GaugeBuffer buffer;
+
+		BufferBoundGauge(String name, GaugeBuffer buffer) {
+			this.name = name;
+			this.buffer = buffer;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public void submit(double value) {
+			this.buffer.setValue(value);
+			this.buffer.markUpdated();
+		}
+
+	}
+
+	/**
+	 * {@link BoundGauge} that records into a {@link HistogramBuffer} directly.
+	 */
+	private static final class BufferBoundHistogram implements BoundGauge {
+
+		private final String name;
+
+		private final HistogramBuffer buffer;
+
+		BufferBoundHistogram(String name, HistogramBuffer buffer) {
+			this.name = name;
+			this.buffer = buffer;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public void submit(double value) {
+			this.buffer.record(value);
+			this.buffer.markUpdated();
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,23 +28,41 @@ import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.reader.PrefixMetricReader;
 
 /**
- * {@link MetricReader} implementation using {@link CounterBuffers} and
- * {@link GaugeBuffers}.
+ * {@link MetricReader} implementation using {@link CounterBuffers},
+ * {@link GaugeBuffers} and (optionally) {@link HistogramBuffers}. Each histogram is read
+ * as its most recent value together with {@code .count}, {@code .max}, {@code .p50},
+ * {@code .p90}, {@code .p99} and {@code .p999} metrics.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  * @since 1.3.0
  */
 public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 
 	private static final Predicate<String> ALL = Pattern.compile(".*").asPredicate();
 
+	private static final String[] PERCENTILE_SUFFIXES = { "p50", "p90", "p99", "p999" };
+
+	private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private static final int METRICS_PER_HISTOGRAM = 3 + PERCENTILES.length;
+
 	private final CounterBuffers counterBuffers;
 
 	private final GaugeBuffers gaugeBuffers;
 
+	private final HistogramBuffers histogramBuffers;
+
 	public BufferMetricReader(CounterBuffers counterBuffers, GaugeBuffers gaugeBuffers) {
+		this(counterBuffers, gaugeBuffers, null);
+	}
+
+	public BufferMetricReader(CounterBuffers counterBuffers, GaugeBuffers gaugeBuffers,
+			HistogramBuffers histogramBuffers) {
 		this.counterBuffers = counterBuffers;
 		this.gaugeBuffers = gaugeBuffers;
+		this.histogramBuffers = (histogramBuffers == null ? new HistogramBuffers()
+				: histogramBuffers);
 	}
 
 	@Override
@@ -53,7 +71,27 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 		if (buffer == null) {
 			buffer = this.gaugeBuffers.find(name);
 		}
-		return (buffer == null ? null : asMetric(name, buffer));
+		if (buffer == null) {
+			buffer = this.histogramBuffers.find(name);
+		}
+		return (buffer == null ? findHistogramMetric(name) : asMetric(name, buffer));
+	}
+
+	private Metric<?> findHistogramMetric(String name) {
+		int index = name.lastIndexOf('.');
+		if (index == -1) {
+			return null;
+		}
+		String histogramName = name.substring(0, index);
+		HistogramBuffer histogram = this.histogramBuffers.find(histogramName);
+		if (histogram != null) {
+			for (Metric<?> metric : asMetrics(histogramName, histogram)) {
+				if (metric.getName().equals(name)) {
+					return metric;
+				}
+			}
+		}
+		return null;
 	}
 
 	@Override
@@ -68,13 +106,23 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 
 	@Override
 	public long count() {
-		return this.counterBuffers.count() + this.gaugeBuffers.count();
+		return this.counterBuffers.count() + this.gaugeBuffers.count()
+				+ (long) this.histogramBuffers.count() * METRICS_PER_HISTOGRAM;
 	}
 
 	private Iterable<Metric<?>> findAll(Predicate<String> predicate) {
 		final List<Metric<?>> metrics = new ArrayList<Metric<?>>();
 		collectMetrics(this.gaugeBuffers, predicate, metrics);
 		collectMetrics(this.counterBuffers, predicate, metrics);
+		this.histogramBuffers.forEach(predicate,
+				new BiConsumer<String, HistogramBuffer>() {
+
+					@Override
+					public void accept(String name, HistogramBuffer value) {
+						metrics.addAll(asMetrics(name, value));
+					}
+
+				});
 		return metrics;
 	}
 
@@ -91,8 +139,23 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 		});
 	}
 
+	private List<Metric<?>> asMetrics(String name, HistogramBuffer buffer) {
+		Date timestamp = new Date(buffer.getTimestamp());
+		HistogramSnapshot snapshot = buffer.getSnapshot();
+		List<Metric<?>> metrics = new ArrayList<Metric<?>>(METRICS_PER_HISTOGRAM);
+		metrics.add(new Metric<Double>(name, buffer.getValue(), timestamp));
+		metrics.add(new Metric<Long>(name + ".count", snapshot.getCount(), timestamp));
+		metrics.add(new Metric<Double>(name + ".max", snapshot.getMax(), timestamp));
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			metrics.add(new Metric<Double>(name + "." + PERCENTILE_SUFFIXES[i],
+					snapshot.getPercentile(PERCENTILES[i]), timestamp));
+		}
+		return metrics;
+	}
+
 	private <T extends Number> Metric<T> asMetric(final String name, Buffer<T> buffer) {
-		return new Metric<T>(name, buffer.getValue(), new Date(buffer.getTimestamp()));
+		long timestamp = buffer.getTimestamp();
+		return new Metric<T>(name, buffer.getValue(), new Date(timestamp));
 	}
 
 }
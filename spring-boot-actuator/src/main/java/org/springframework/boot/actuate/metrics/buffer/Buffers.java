@@ -33,6 +33,15 @@ abstract class Buffers<B extends Buffer<?>> {
 
 	private final ConcurrentHashMap<String, B> buffers = new ConcurrentHashMap<String, B>();
 
+	private final Function<String, B> bufferFactory = new Function<String, B>() {
+
+		@Override
+		public B apply(String name) {
+			return createBuffer();
+		}
+
+	};
+
 	public void forEach(final Predicate<String> predicate,
 			final BiConsumer<String, B> consumer) {
 		this.buffers.forEach(new BiConsumer<String, B>() {
@@ -56,16 +65,22 @@ abstract class Buffers<B extends Buffer<?>> {
 	}
 
 	protected final void doWith(final String name, final Consumer<B> consumer) {
+		consumer.accept(getOrCreate(name));
+	}
+
+	/**
+	 * Return the buffer with the given name, creating it if necessary. Unlike
+	 * {@link #doWith(String, Consumer)} this does not require a callback to be
+	 * allocated and so is suitable for use on hot paths.
+	 * @param name the buffer name
+	 * @return the buffer
+	 */
+	protected final B getOrCreate(String name) {
 		B buffer = this.buffers.get(name);
 		if (buffer == null) {
-			buffer = this.buffers.computeIfAbsent(name, new Function<String, B>() {
-				@Override
-				public B apply(String name) {
-					return createBuffer();
-				}
-			});
+			buffer = this.buffers.computeIfAbsent(name, this.bufferFactory);
 		}
-		consumer.accept(buffer);
+		return buffer;
 	}
 
 	protected abstract B createBuffer();
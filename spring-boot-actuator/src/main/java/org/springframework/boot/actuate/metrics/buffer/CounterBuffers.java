@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,6 @@
 
 package org.springframework.boot.actuate.metrics.buffer;
 
-import java.util.function.Consumer;
-
 /**
  * Fast writes to in-memory metrics store using {@link CounterBuffer}.
  *
@@ -26,28 +24,16 @@ import java.util.function.Consumer;
  */
 public class CounterBuffers extends Buffers<CounterBuffer> {
 
-	public void increment(final String name, final long delta) {
-		doWith(name, new Consumer<CounterBuffer>() {
-
-			@Override
-			public void accept(CounterBuffer buffer) {
-				buffer.setTimestamp(System.currentTimeMillis());
-				buffer.add(delta);
-			}
-
-		});
+	public void increment(String name, long delta) {
+		CounterBuffer buffer = getOrCreate(name);
+		buffer.add(delta);
+		buffer.markUpdated();
 	}
 
-	public void reset(final String name) {
-		doWith(name, new Consumer<CounterBuffer>() {
-
-			@Override
-			public void accept(CounterBuffer buffer) {
-				buffer.setTimestamp(System.currentTimeMillis());
-				buffer.reset();
-			}
-
-		});
+	public void reset(String name) {
+		CounterBuffer buffer = getOrCreate(name);
+		buffer.setTimestamp(System.currentTimeMillis());
+		buffer.reset();
 	}
 
 	@Override
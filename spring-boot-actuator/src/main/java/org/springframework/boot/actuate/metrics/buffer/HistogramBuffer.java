@@ -0,0 +1,200 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mutable buffer that records values into a fixed-size, log-linear histogram (see
+ * {@link HistogramSnapshot}) as well as keeping the most recent value. Recording a value
+ * only performs atomic updates so many threads can record into the same buffer without
+ * locking.
+ * <p>
+ * By default the histogram covers every value recorded. If a window is given then values
+ * are recorded into a slice and a snapshot only covers the current and previous slices,
+ * so percentiles reflect recent values rather than the whole lifetime of the
+ * application. To keep the clock off the recording path, slices are only rotated when a
+ * {@link #getSnapshot() snapshot} is taken once the current slice is at least a window
+ * old. A snapshot therefore covers at least the last window and at most the values
+ * recorded since the rotation before last.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class HistogramBuffer extends Buffer<Double> {
+
+	private final long window;
+
+	private final Clock clock;
+
+	private final AtomicReference<Slices> slices;
+
+	private volatile double value;
+
+	public HistogramBuffer(long timestamp) {
+		this(timestamp, 0);
+	}
+
+	/**
+	 * Create a new {@link HistogramBuffer} instance.
+	 * @param timestamp the initial timestamp
+	 * @param window the length of time, in milliseconds, that recorded values are kept
+	 * for or {@code 0} to keep every value
+	 */
+	public HistogramBuffer(long timestamp, long window) {
+		this(timestamp, window, Clock.systemUTC());
+	}
+
+	HistogramBuffer(long timestamp, long window, Clock clock) {
+		super(timestamp);
+		this.window = window;
+		this.clock = clock;
+		long end = (window > 0 ? clock.millis() + window : Long.MAX_VALUE);
+		this.slices = new AtomicReference<Slices>(new Slices(new Slice(end), null));
+	}
+
+	/**
+	 * Record a value.
+	 * @param value the value
+	 */
+	public void record(double value) {
+		this.slices.get().current.record(value);
+		this.value = value;
+	}
+
+	/**
+	 * Add the values from the given snapshot to this buffer.
+	 * @param snapshot the snapshot to add
+	 */
+	public void merge(HistogramSnapshot snapshot) {
+		this.slices.get().current.merge(snapshot);
+	}
+
+	private Slices rotateIfNecessary() {
+		Slices slices = this.slices.get();
+		if (this.window > 0) {
+			long now = this.clock.millis();
+			while (now >= slices.current.end) {
+				Slices rotated = slices.rotate(now, this.window);
+				if (this.slices.compareAndSet(slices, rotated)) {
+					return rotated;
+				}
+				slices = this.slices.get();
+			}
+		}
+		return slices;
+	}
+
+	/**
+	 * Return a snapshot of the values recorded so far or, if this buffer has a window,
+	 * of the values recorded in the current and previous slices. The slices are rotated
+	 * first if the current slice has reached the end of its window.
+	 * @return the snapshot
+	 */
+	public HistogramSnapshot getSnapshot() {
+		Slices slices = rotateIfNecessary();
+		long[] counts = new long[HistogramSnapshot.BUCKETS];
+		double max = slices.current.addTo(counts);
+		if (slices.previous != null) {
+			max = Math.max(max, slices.previous.addTo(counts));
+		}
+		return new HistogramSnapshot(counts, max);
+	}
+
+	/**
+	 * Returns the most recently recorded value.
+	 * @return the last value
+	 */
+	@Override
+	public Double getValue() {
+		return this.value;
+	}
+
+	/**
+	 * The current slice of a buffer and the one before it, if it has not yet expired.
+	 */
+	private static final class Slices {
+
+		private final Slice current;
+
+		private final Slice previous;
+
+		Slices(Slice current, Slice previous) {
+			this.current = current;
+			this.previous = previous;
+		}
+
+		Slices rotate(long now, long window) {
+			// Values may have been recorded in the current slice at any time up to now
+			// so it is kept as the previous slice however long ago its window ended
+			return new Slices(new Slice(now + window), this.current);
+		}
+
+	}
+
+	/**
+	 * Bucket counts and maximum value for a single slice of time.
+	 */
+	private static final class Slice {
+
+		private final long end;
+
+		private final AtomicLongArray counts = new AtomicLongArray(
+				HistogramSnapshot.BUCKETS);
+
+		private final AtomicLong max = new AtomicLong(Double.doubleToLongBits(0));
+
+		Slice(long end) {
+			this.end = end;
+		}
+
+		void record(double value) {
+			this.counts.incrementAndGet(HistogramSnapshot.indexOf(value));
+			updateMax(value);
+		}
+
+		void merge(HistogramSnapshot snapshot) {
+			for (int i = 0; i < HistogramSnapshot.BUCKETS; i++) {
+				long count = snapshot.getCount(i);
+				if (count != 0) {
+					this.counts.addAndGet(i, count);
+				}
+			}
+			updateMax(snapshot.getMax());
+		}
+
+		private void updateMax(double value) {
+			long current = this.max.get();
+			while (value > Double.longBitsToDouble(current) && !this.max
+					.compareAndSet(current, Double.doubleToLongBits(value))) {
+				current = this.max.get();
+			}
+		}
+
+		double addTo(long[] counts) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += this.counts.get(i);
+			}
+			return Double.longBitsToDouble(this.max.get());
+		}
+
+	}
+
+}
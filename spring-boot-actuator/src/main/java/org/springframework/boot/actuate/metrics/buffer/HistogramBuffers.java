@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+/**
+ * Fast writes to in-memory histograms using {@link HistogramBuffer}.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class HistogramBuffers extends Buffers<HistogramBuffer> {
+
+	private final long window;
+
+	/**
+	 * Create a new {@link HistogramBuffers} instance whose histograms cover every
+	 * recorded value.
+	 */
+	public HistogramBuffers() {
+		this(0);
+	}
+
+	/**
+	 * Create a new {@link HistogramBuffers} instance whose histograms only cover values
+	 * recorded recently.
+	 * @param window the length of time, in milliseconds, that recorded values are kept
+	 * for or {@code 0} to keep every value
+	 * @see HistogramBuffer#HistogramBuffer(long, long)
+	 */
+	public HistogramBuffers(long window) {
+		this.window = window;
+	}
+
+	public void record(String name, double value) {
+		HistogramBuffer buffer = getOrCreate(name);
+		buffer.record(value);
+		buffer.markUpdated();
+	}
+
+	@Override
+	protected HistogramBuffer createBuffer() {
+		return new HistogramBuffer(0L, this.window);
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable point-in-time copy of the bucket counts of a {@link HistogramBuffer}.
+ * Values are placed in log-linear buckets: each power of two between
+ * {@code 2^-10} and {@code 2^41} is split into 16 equal sub-buckets, so any percentile
+ * is reported within about 3% of a recorded value while the memory used is the same for
+ * every histogram. Smaller values share a single bucket that reports as zero and larger
+ * values are clamped into the top bucket. Snapshots can be {@link #merge(HistogramSnapshot)
+ * merged}, for example to combine the same metric from several sources.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public final class HistogramSnapshot {
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKET_MASK = (1 << SUB_BUCKET_BITS) - 1;
+
+	private static final int MIN_EXPONENT = -10;
+
+	private static final int MAX_EXPONENT = 40;
+
+	private static final double MIN_VALUE = Math.scalb(1.0, MIN_EXPONENT);
+
+	private static final double MAX_VALUE = Math.scalb(1.0, MAX_EXPONENT + 1);
+
+	static final int BUCKETS = 1
+			+ ((MAX_EXPONENT - MIN_EXPONENT + 1) << SUB_BUCKET_BITS);
+
+	private final long[] counts;
+
+	private final long count;
+
+	private final double max;
+
+	HistogramSnapshot(long[] counts, double max) {
+		this.counts = counts;
+		long count = 0;
+		for (long bucketCount : counts) {
+			count += bucketCount;
+		}
+		this.count = count;
+		this.max = (count == 0 ? 0 : max);
+	}
+
+	/**
+	 * Return the number of values recorded.
+	 * @return the count
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Return the largest value recorded.
+	 * @return the maximum value or {@code 0} if no values have been recorded
+	 */
+	public double getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Return an estimate of the value below which the given fraction of recorded values
+	 * fall.
+	 * @param quantile the quantile, between {@code 0} and {@code 1} (for example
+	 * {@code 0.99} for the 99th percentile)
+	 * @return the estimated value or {@code 0} if no values have been recorded
+	 */
+	public double getPercentile(double quantile) {
+		Assert.isTrue(quantile >= 0 && quantile <= 1, "Quantile must be between 0 and 1");
+		if (this.count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * this.count));
+		if (rank >= this.count) {
+			return this.max;
+		}
+		long seen = 0;
+		for (int i = 0; i < this.counts.length; i++) {
+			seen += this.counts[i];
+			if (seen >= rank) {
+				if (i == 0) {
+					return 0;
+				}
+				double midpoint = (lowerBound(i) + lowerBound(i + 1)) / 2;
+				return Math.min(midpoint, this.max);
+			}
+		}
+		return this.max;
+	}
+
+	/**
+	 * Return a new snapshot containing the values of this snapshot and the given one.
+	 * @param other the snapshot to merge with
+	 * @return the merged snapshot
+	 */
+	public HistogramSnapshot merge(HistogramSnapshot other) {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.counts[i] + other.counts[i];
+		}
+		return new HistogramSnapshot(counts, Math.max(this.max, other.max));
+	}
+
+	long getCount(int bucket) {
+		return this.counts[bucket];
+	}
+
+	static int indexOf(double value) {
+		if (!(value >= MIN_VALUE)) {
+			return 0;
+		}
+		if (value >= MAX_VALUE) {
+			return BUCKETS - 1;
+		}
+		long bits = Double.doubleToRawLongBits(value);
+		int exponent = Math.getExponent(value);
+		int subBucket = (int) (bits >>> (52 - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+		return 1 + ((exponent - MIN_EXPONENT) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	private static double lowerBound(int index) {
+		int bucket = index - 1;
+		int exponent = (bucket >> SUB_BUCKET_BITS) + MIN_EXPONENT;
+		double fraction = (double) (bucket & SUB_BUCKET_MASK) / (1 << SUB_BUCKET_BITS);
+		return Math.scalb(1.0 + fraction, exponent);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.boot.actuate.metrics.dropwizard;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
@@ -26,9 +27,14 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
 import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.Timer;
 
+import org.springframework.boot.actuate.metrics.BoundCounter;
+import org.springframework.boot.actuate.metrics.BoundCounterService;
+import org.springframework.boot.actuate.metrics.BoundGauge;
+import org.springframework.boot.actuate.metrics.BoundGaugeService;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.core.ResolvableType;
@@ -48,12 +54,19 @@ import org.springframework.util.Assert;
  * <li>Other metrics are treated as simple {@link Gauge} values (single valued
  * measurements of type double)</li>
  * </ul>
+ * The same rules apply to {@link BoundCounter counters} and {@link BoundGauge gauges}
+ * obtained from {@link #counter(String)} and {@link #gauge(String)}, which hold a
+ * reference to the underlying Dropwizard metric. Handles resolve the metric again
+ * after any counter, meter, histogram or timer is removed from the registry, so they
+ * keep working after {@link #reset(String)}.
  *
  * @author Dave Syer
  * @author Jay Anderson
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
-public class DropwizardMetricServices implements CounterService, GaugeService {
+public class DropwizardMetricServices
+		implements BoundCounterService, BoundGaugeService {
 
 	private final MetricRegistry registry;
 
@@ -63,6 +76,8 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 
 	private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<String, String>();
 
+	private final AtomicInteger removals = new AtomicInteger();
+
 	/**
 	 * Create a new {@link DropwizardMetricServices} instance.
 	 * @param registry the underlying metric registry
@@ -82,6 +97,7 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 		this.registry = registry;
 		this.reservoirFactory = (reservoirFactory == null ? ReservoirFactory.NONE
 				: reservoirFactory);
+		this.registry.addListener(new RemovalListener());
 	}
 
 	@Override
@@ -153,7 +169,7 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 		}
 	}
 
-	private void setGaugeValue(String name, double value) {
+	private SimpleGauge setGaugeValue(String name, double value) {
 		// NOTE: Dropwizard provides no way to do this atomically
 		SimpleGauge gauge = this.gauges.get(name);
 		if (gauge == null) {
@@ -161,10 +177,11 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 			gauge = this.gauges.putIfAbsent(name, newGauge);
 			if (gauge == null) {
 				this.registry.register(name, newGauge);
-				return;
+				return newGauge;
 			}
 		}
 		gauge.setValue(value);
+		return gauge;
 	}
 
 	private String wrapGaugeName(String metricName) {
@@ -196,6 +213,25 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 		this.registry.remove(name);
 	}
 
+	@Override
+	public BoundCounter counter(String name) {
+		if (name.startsWith("meter")) {
+			return new BoundMeter(name);
+		}
+		return new BoundDropwizardCounter(wrapCounterName(name));
+	}
+
+	@Override
+	public BoundGauge gauge(String name) {
+		if (name.startsWith("histogram")) {
+			return new BoundHistogram(name);
+		}
+		if (name.startsWith("timer")) {
+			return new BoundTimer(name);
+		}
+		return new BoundSimpleGauge(wrapGaugeName(name));
+	}
+
 	/**
 	 * Simple {@link Gauge} implementation to {@literal double} value.
 	 */
@@ -276,4 +312,227 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 
 	}
 
+	/**
+	 * {@link MetricRegistryListener} that records the removal of metrics that bound
+	 * handles may be holding.
+	 */
+	private final class RemovalListener extends MetricRegistryListener.Base {
+
+		@Override
+		public void onCounterRemoved(String name) {
+			DropwizardMetricServices.this.removals.incrementAndGet();
+		}
+
+		@Override
+		public void onMeterRemoved(String name) {
+			DropwizardMetricServices.this.removals.incrementAndGet();
+		}
+
+		@Override
+		public void onHistogramRemoved(String name) {
+			DropwizardMetricServices.this.removals.incrementAndGet();
+		}
+
+		@Override
+		public void onTimerRemoved(String name) {
+			DropwizardMetricServices.this.removals.incrementAndGet();
+		}
+
+	}
+
+	/**
+	 * Base class for handles that hold a Dropwizard metric. The metric is resolved
+	 * again whenever a metric has been removed from the registry since it was last
+	 * resolved, so a handle never keeps updating a metric that is no longer
+	 * registered.
+	 * @param <T> the metric type
+	 */
+	private abstract class BoundMetric<T extends Metric> {
+
+		private final String name;
+
+		private volatile T metric;
+
+		private volatile int generation = -1;
+
+		BoundMetric(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		protected final T getMetric() {
+			int removals = DropwizardMetricServices.this.removals.get();
+			if (this.generation == removals) {
+				return this.metric;
+			}
+			T metric = resolve(DropwizardMetricServices.this.registry, this.name);
+			this.metric = metric;
+			this.generation = removals;
+			return metric;
+		}
+
+		protected final void remove() {
+			DropwizardMetricServices.this.registry.remove(this.name);
+		}
+
+		protected abstract T resolve(MetricRegistry registry, String name);
+
+	}
+
+	/**
+	 * {@link BoundCounter} backed by a Dropwizard {@link Counter}. Resetting removes the
+	 * counter from the registry, in the same way as {@link #reset(String)}.
+	 */
+	private final class BoundDropwizardCounter extends BoundMetric<Counter>
+			implements BoundCounter {
+
+		BoundDropwizardCounter(String name) {
+			super(name);
+			getMetric();
+		}
+
+		@Override
+		public void increment() {
+			getMetric().inc();
+		}
+
+		@Override
+		public void increment(long delta) {
+			getMetric().inc(delta);
+		}
+
+		@Override
+		public void decrement() {
+			getMetric().dec();
+		}
+
+		@Override
+		public void reset() {
+			remove();
+		}
+
+		@Override
+		protected Counter resolve(MetricRegistry registry, String name) {
+			return registry.counter(name);
+		}
+
+	}
+
+	/**
+	 * {@link BoundCounter} backed by a Dropwizard {@link Meter}.
+	 */
+	private final class BoundMeter extends BoundMetric<Meter> implements BoundCounter {
+
+		BoundMeter(String name) {
+			super(name);
+			getMetric();
+		}
+
+		@Override
+		public void increment() {
+			getMetric().mark();
+		}
+
+		@Override
+		public void increment(long delta) {
+			getMetric().mark(delta);
+		}
+
+		@Override
+		public void decrement() {
+			getMetric().mark(-1L);
+		}
+
+		@Override
+		public void reset() {
+			remove();
+		}
+
+		@Override
+		protected Meter resolve(MetricRegistry registry, String name) {
+			return registry.meter(name);
+		}
+
+	}
+
+	/**
+	 * {@link BoundGauge} backed by a {@link SimpleGauge}. The gauge is registered when
+	 * the first value is submitted.
+	 */
+	private final class BoundSimpleGauge implements BoundGauge {
+
+		private final String name;
+
+		private volatile SimpleGauge gauge;
+
+		BoundSimpleGauge(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public void submit(double value) {
+			SimpleGauge gauge = this.gauge;
+			if (gauge != null) {
+				gauge.setValue(value);
+			}
+			else {
+				this.gauge = setGaugeValue(this.name, value);
+			}
+		}
+
+	}
+
+	/**
+	 * {@link BoundGauge} backed by a Dropwizard {@link Histogram}.
+	 */
+	private final class BoundHistogram extends BoundMetric<Histogram>
+			implements BoundGauge {
+
+		BoundHistogram(String name) {
+			super(name);
+			getMetric();
+		}
+
+		@Override
+		public void submit(double value) {
+			getMetric().update((long) value);
+		}
+
+		@Override
+		protected Histogram resolve(MetricRegistry registry, String name) {
+			return register(name, new HistogramMetricRegistrar());
+		}
+
+	}
+
+	/**
+	 * {@link BoundGauge} backed by a Dropwizard {@link Timer}.
+	 */
+	private final class BoundTimer extends BoundMetric<Timer> implements BoundGauge {
+
+		BoundTimer(String name) {
+			super(name);
+			getMetric();
+		}
+
+		@Override
+		public void submit(double value) {
+			getMetric().update((long) value, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		protected Timer resolve(MetricRegistry registry, String name) {
+			return register(name, new TimerMetricRegistrar());
+		}
+
+	}
+
 }
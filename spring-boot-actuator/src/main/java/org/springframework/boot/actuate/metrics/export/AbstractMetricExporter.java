@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
@@ -34,9 +36,14 @@ import org.springframework.util.StringUtils;
 /**
  * Base class for metric exporters that have common features, principally a prefix for
  * exported metrics and filtering by timestamp (so only new values are included in the
- * export).
+ * export). When sending only the latest values the exporter remembers, per metric name,
+ * the earliest timestamp that indicates a value it has not yet sent. That is just after
+ * the timestamp last exported or, if it is earlier, the start of that export, so a value
+ * updated in the same millisecond as a read is not missed. Names that are no longer read
+ * are forgotten at the end of each export.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  * @since 1.3.0
  */
 public abstract class AbstractMetricExporter implements Exporter, Closeable, Flushable {
@@ -53,7 +60,15 @@ public abstract class AbstractMetricExporter implements Exporter, Closeable, Flu
 
 	private volatile AtomicBoolean processing = new AtomicBoolean(false);
 
-	private Date latestTimestamp = new Date(0L);
+	private Map<String, Long> exportedTimestamps = new HashMap<String, Long>();
+
+	private Map<String, Long> nextExportedTimestamps;
+
+	private long exportStart;
+
+	private volatile int lastExportCount;
+
+	private volatile long lastExportDuration;
 
 	public AbstractMetricExporter(String prefix) {
 		this.prefix = (!StringUtils.hasText(prefix) ? ""
@@ -87,55 +102,90 @@ public abstract class AbstractMetricExporter implements Exporter, Closeable, Flu
 	@Override
 	public void export() {
 		if (this.processing.compareAndSet(false, true)) {
-			long latestTimestamp = System.currentTimeMillis();
+			long start = System.currentTimeMillis();
+			int count = 0;
+			this.exportStart = start;
+			this.nextExportedTimestamps = new HashMap<String, Long>(
+					this.exportedTimestamps.size());
 			try {
-				exportGroups();
+				count = exportGroups();
+				this.exportedTimestamps = this.nextExportedTimestamps;
 			}
 			catch (Exception ex) {
 				logger.warn("Could not write to MetricWriter: " + ex.getClass() + ": "
 						+ ex.getMessage());
 			}
 			finally {
-				this.latestTimestamp = new Date(latestTimestamp);
+				this.nextExportedTimestamps = null;
 				flushQuietly();
+				this.lastExportCount = count;
+				this.lastExportDuration = System.currentTimeMillis() - start;
 				this.processing.set(false);
 			}
 		}
 	}
 
-	private void exportGroups() {
+	private int exportGroups() {
+		int count = 0;
 		for (String group : groups()) {
 			Collection<Metric<?>> values = new ArrayList<Metric<?>>();
 			for (Metric<?> metric : next(group)) {
-				Date timestamp = metric.getTimestamp();
-				if (canExportTimestamp(timestamp)) {
+				if (canExport(metric)) {
 					values.add(getPrefixedMetric(metric));
 				}
 			}
 			if (!values.isEmpty()) {
 				write(group, values);
+				count += values.size();
 			}
 		}
+		return count;
 	}
 
 	private Metric<?> getPrefixedMetric(Metric<?> metric) {
+		if (this.prefix.isEmpty()) {
+			return metric;
+		}
 		String name = this.prefix + metric.getName();
 		return new Metric<Number>(name, metric.getValue(), metric.getTimestamp());
 	}
 
-	private boolean canExportTimestamp(Date timestamp) {
+	private boolean canExport(Metric<?> metric) {
 		if (this.ignoreTimestamps) {
 			return true;
 		}
+		Date timestamp = metric.getTimestamp();
 		if (this.earliestTimestamp.after(timestamp)) {
 			return false;
 		}
-		if (this.sendLatest && this.latestTimestamp.after(timestamp)) {
-			return false;
+		if (this.sendLatest) {
+			long time = timestamp.getTime();
+			Long previous = this.exportedTimestamps.get(metric.getName());
+			boolean newer = (previous == null || time >= previous);
+			this.nextExportedTimestamps.put(metric.getName(),
+					newer ? Math.min(time + 1, this.exportStart) : previous);
+			return newer;
 		}
 		return true;
 	}
 
+	/**
+	 * Return the number of metrics written by the most recent export.
+	 * @return the number of metrics exported
+	 */
+	public int getLastExportCount() {
+		return this.lastExportCount;
+	}
+
+	/**
+	 * Return the time in milliseconds taken by the most recent export, including the
+	 * flush of the underlying writer.
+	 * @return the duration of the last export
+	 */
+	public long getLastExportDuration() {
+		return this.lastExportDuration;
+	}
+
 	private void flushQuietly() {
 		try {
 			flush();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,14 +49,20 @@ import org.springframework.util.ReflectionUtils;
  * counters, do not use the exporter concurrently in multiple threads (normally it will
  * only be used periodically and sequentially, even if it is in a background thread, and
  * this is fine).
+ * <p>
+ * The outcome of matching a metric name against the include and exclude patterns is
+ * cached, so the patterns are only evaluated once for each name.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  * @since 1.3.0
  */
 public class MetricCopyExporter extends AbstractMetricExporter {
 
 	private static final Log logger = LogFactory.getLog(MetricCopyExporter.class);
 
+	private static final int MAX_MATCH_CACHE_SIZE = 10000;
+
 	private final MetricReader reader;
 
 	private final GaugeWriter writer;
@@ -69,6 +75,8 @@ public class MetricCopyExporter extends AbstractMetricExporter {
 
 	private String[] excludes = new String[0];
 
+	private final ConcurrentMap<String, Boolean> matches = new ConcurrentHashMap<String, Boolean>();
+
 	/**
 	 * Create a new {@link MetricCopyExporter} instance.
 	 * @param reader the metric reader
@@ -103,6 +111,7 @@ public class MetricCopyExporter extends AbstractMetricExporter {
 	public void setIncludes(String... includes) {
 		if (includes != null) {
 			this.includes = includes;
+			this.matches.clear();
 		}
 	}
 
@@ -113,6 +122,7 @@ public class MetricCopyExporter extends AbstractMetricExporter {
 	public void setExcludes(String... excludes) {
 		if (excludes != null) {
 			this.excludes = excludes;
+			this.matches.clear();
 		}
 	}
 
@@ -222,9 +232,22 @@ public class MetricCopyExporter extends AbstractMetricExporter {
 		}
 
 		private boolean isMatch(Metric<?> metric) {
+			ConcurrentMap<String, Boolean> matches = MetricCopyExporter.this.matches;
+			String name = metric.getName();
+			Boolean match = matches.get(name);
+			if (match == null) {
+				match = isMatch(name);
+				if (matches.size() >= MAX_MATCH_CACHE_SIZE) {
+					matches.clear();
+				}
+				matches.put(name, match);
+			}
+			return match;
+		}
+
+		private boolean isMatch(String name) {
 			String[] includes = MetricCopyExporter.this.includes;
 			String[] excludes = MetricCopyExporter.this.excludes;
-			String name = metric.getName();
 			if (ObjectUtils.isEmpty(includes)
 					|| PatternMatchUtils.simpleMatch(includes, name)) {
 				return !PatternMatchUtils.simpleMatch(excludes, name);
@@ -46,6 +46,12 @@ public class MetricExportProperties extends TriggerProperties {
 
 	private Statsd statsd = new Statsd();
 
+	/**
+	 * Run each exporter on its own thread so that a slow destination does not delay the
+	 * export to the others.
+	 */
+	private boolean parallel = true;
+
 	@PostConstruct
 	public void setUpDefaults() {
 		TriggerProperties defaults = this;
@@ -106,6 +112,22 @@ public class MetricExportProperties extends TriggerProperties {
 		this.statsd = statsd;
 	}
 
+	/**
+	 * Return whether each exporter runs on its own thread.
+	 * @return {@code true} if exporters run in parallel
+	 */
+	public boolean isParallel() {
+		return this.parallel;
+	}
+
+	/**
+	 * Set whether each exporter runs on its own thread.
+	 * @param parallel {@code true} to run exporters in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
 	/**
 	 * Find a matching trigger configuration.
 	 * @param name the bean name to match
@@ -178,6 +200,13 @@ public class MetricExportProperties extends TriggerProperties {
 		 */
 		private String key = "keys.spring.metrics";
 
+		/**
+		 * Number of writes to buffer before sending them to redis in a single pipeline.
+		 * Buffered writes are also sent at the end of each export. Set to 0 to send each
+		 * write immediately.
+		 */
+		private int batchSize = 0;
+
 		public String getPrefix() {
 			return this.prefix;
 		}
@@ -194,6 +223,14 @@ public class MetricExportProperties extends TriggerProperties {
 			this.key = key;
 		}
 
+		public int getBatchSize() {
+			return this.batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
 		public String getAggregatePrefix() {
 			// The common case including a standalone aggregator would have a prefix that
 			// starts with the end of the key, so strip that bit off and call it the
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,24 @@ package org.springframework.boot.actuate.metrics.export;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.writer.GaugeWriter;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
@@ -31,13 +43,21 @@ import org.springframework.scheduling.config.IntervalTask;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 /**
- * {@link SchedulingConfigurer} to handle metrics {@link MetricCopyExporter export}.
+ * {@link SchedulingConfigurer} to handle metrics {@link MetricCopyExporter export}. When
+ * {@link MetricExportProperties#isParallel() parallel} export is enabled the scheduled
+ * tasks only hand each exporter to a dedicated pool, so a slow sink cannot delay the
+ * others (a tick is skipped for an exporter whose previous export is still running).
+ * Each exporter's last cycle time and exported count are available as
+ * {@link #getStatistics() statistics}.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  * @since 1.3.0
  */
 public class MetricExporters implements SchedulingConfigurer, Closeable {
 
+	private static final long SHUTDOWN_TIMEOUT = 5000;
+
 	private MetricReader reader;
 
 	private Map<String, GaugeWriter> writers = new HashMap<String, GaugeWriter>();
@@ -48,6 +68,10 @@ public class MetricExporters implements SchedulingConfigurer, Closeable {
 
 	private final Set<String> closeables = new HashSet<String>();
 
+	private final Map<String, ExportRunner> runners = new LinkedHashMap<String, ExportRunner>();
+
+	private volatile ExecutorService executor;
+
 	public MetricExporters(MetricExportProperties properties) {
 		this.properties = properties;
 	}
@@ -71,10 +95,7 @@ public class MetricExporters implements SchedulingConfigurer, Closeable {
 			Exporter exporter = entry.getValue();
 			TriggerProperties trigger = this.properties.findTrigger(name);
 			if (trigger != null) {
-				ExportRunner runner = new ExportRunner(exporter);
-				IntervalTask task = new IntervalTask(runner, trigger.getDelayMillis(),
-						trigger.getDelayMillis());
-				taskRegistrar.addFixedDelayTask(task);
+				addTask(taskRegistrar, name, exporter, trigger);
 			}
 		}
 		for (Entry<String, GaugeWriter> entry : this.writers.entrySet()) {
@@ -85,12 +106,37 @@ public class MetricExporters implements SchedulingConfigurer, Closeable {
 				MetricCopyExporter exporter = getExporter(writer, trigger);
 				this.exporters.put(name, exporter);
 				this.closeables.add(name);
-				ExportRunner runner = new ExportRunner(exporter);
-				IntervalTask task = new IntervalTask(runner, trigger.getDelayMillis(),
-						trigger.getDelayMillis());
-				taskRegistrar.addFixedDelayTask(task);
+				addTask(taskRegistrar, name, exporter, trigger);
 			}
 		}
+		if (this.properties.isParallel() && !this.runners.isEmpty()) {
+			this.executor = createExecutor(this.runners.size());
+		}
+	}
+
+	private void addTask(ScheduledTaskRegistrar taskRegistrar, String name,
+			Exporter exporter, TriggerProperties trigger) {
+		ExportRunner runner = new ExportRunner(exporter);
+		this.runners.put(name, runner);
+		IntervalTask task = new IntervalTask(runner, trigger.getDelayMillis(),
+				trigger.getDelayMillis());
+		taskRegistrar.addFixedDelayTask(task);
+	}
+
+	private ExecutorService createExecutor(int threads) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable,
+						"metrics-export-" + this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
 	}
 
 	private MetricCopyExporter getExporter(GaugeWriter writer,
@@ -106,8 +152,33 @@ public class MetricExporters implements SchedulingConfigurer, Closeable {
 		return this.exporters;
 	}
 
+	/**
+	 * Return statistics for the scheduled exporters that have completed at least one
+	 * export: {@code exporter.<name>.duration} is the time in milliseconds taken by the
+	 * last export and {@code exporter.<name>.count} the number of metrics it wrote (only
+	 * available for an {@link AbstractMetricExporter}).
+	 * @return the exporter statistics
+	 */
+	public Collection<Metric<?>> getStatistics() {
+		Collection<Metric<?>> statistics = new ArrayList<Metric<?>>();
+		for (Entry<String, ExportRunner> entry : this.runners.entrySet()) {
+			entry.getValue().addStatistics("exporter." + entry.getKey(), statistics);
+		}
+		return statistics;
+	}
+
 	@Override
 	public void close() throws IOException {
+		ExecutorService executor = this.executor;
+		if (executor != null) {
+			executor.shutdown();
+			try {
+				executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
 		for (String name : this.closeables) {
 			Exporter exporter = this.exporters.get(name);
 			if (exporter instanceof Closeable) {
@@ -116,17 +187,67 @@ public class MetricExporters implements SchedulingConfigurer, Closeable {
 		}
 	}
 
-	private static class ExportRunner implements Runnable {
+	private class ExportRunner implements Runnable {
 
 		private final Exporter exporter;
 
+		private final AtomicBoolean running = new AtomicBoolean();
+
+		private volatile Date lastExport;
+
+		private volatile long lastDuration;
+
 		ExportRunner(Exporter exporter) {
 			this.exporter = exporter;
 		}
 
 		@Override
 		public void run() {
+			ExecutorService executor = MetricExporters.this.executor;
+			if (executor == null) {
+				export();
+			}
+			else if (this.running.compareAndSet(false, true)) {
+				try {
+					executor.execute(new Runnable() {
+
+						@Override
+						public void run() {
+							try {
+								export();
+							}
+							finally {
+								ExportRunner.this.running.set(false);
+							}
+						}
+
+					});
+				}
+				catch (RejectedExecutionException ex) {
+					this.running.set(false);
+				}
+			}
+		}
+
+		private void export() {
+			long start = System.currentTimeMillis();
 			this.exporter.export();
+			this.lastDuration = System.currentTimeMillis() - start;
+			this.lastExport = new Date();
+		}
+
+		void addStatistics(String prefix, Collection<Metric<?>> statistics) {
+			Date timestamp = this.lastExport;
+			if (timestamp == null) {
+				return;
+			}
+			statistics.add(new Metric<Long>(prefix + ".duration", this.lastDuration,
+					timestamp));
+			if (this.exporter instanceof AbstractMetricExporter) {
+				statistics.add(new Metric<Integer>(prefix + ".count",
+						((AbstractMetricExporter) this.exporter).getLastExportCount(),
+						timestamp));
+			}
 		}
 
 	}
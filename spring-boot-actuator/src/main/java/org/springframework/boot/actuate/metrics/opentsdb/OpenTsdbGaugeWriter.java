@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,30 @@
 
 package org.springframework.boot.actuate.metrics.opentsdb;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.writer.GaugeWriter;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -33,6 +47,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
@@ -43,12 +58,23 @@ import org.springframework.web.client.RestTemplate;
  * the buffer size is reached. Users should either manually {@link #flush()} after writing
  * a batch of data if that makes sense, or consider adding a {@link Scheduled Scheduled}
  * task to flush periodically.
+ * <p>
+ * If the writer is {@link #setAsync(boolean) async} then data are sent by a background
+ * thread instead: writing and flushing never block, the buffer is also sent once it has
+ * been waiting for the {@link #setLingerTime(long) lingerTime}, and data that do not fit
+ * in the {@link #setQueueCapacity(int) queue} are dropped. In either mode failed
+ * requests can be {@link #setMaxRetries(int) retried} with an exponential backoff and
+ * request bodies can be {@link #setCompress(boolean) compressed}. The writer is also a
+ * {@link MetricReader} for counters of the points that have been sent
+ * ({@code opentsdb.sent}), dropped ({@code opentsdb.dropped}) and retried
+ * ({@code opentsdb.retries}).
  *
  * @author Dave Syer
  * @author Thomas Badie
+ * @author Jon Ellis
  * @since 1.3.0
  */
-public class OpenTsdbGaugeWriter implements GaugeWriter {
+public class OpenTsdbGaugeWriter implements GaugeWriter, MetricReader, Closeable {
 
 	private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
 
@@ -56,6 +82,12 @@ public class OpenTsdbGaugeWriter implements GaugeWriter {
 
 	private static final Log logger = LogFactory.getLog(OpenTsdbGaugeWriter.class);
 
+	private static final String SENT = "opentsdb.sent";
+
+	private static final String DROPPED = "opentsdb.dropped";
+
+	private static final String RETRIES = "opentsdb.retries";
+
 	private RestOperations restTemplate;
 
 	/**
@@ -74,11 +106,65 @@ public class OpenTsdbGaugeWriter implements GaugeWriter {
 	 */
 	private MediaType mediaType = MediaType.APPLICATION_JSON;
 
-	private final List<OpenTsdbData> buffer = new ArrayList<OpenTsdbData>(
-			this.bufferSize);
+	/**
+	 * Whether to post data from a background thread rather than the thread that writes
+	 * or flushes the metrics.
+	 */
+	private boolean async;
+
+	/**
+	 * Maximum number of data points waiting to be posted. Further points are dropped.
+	 */
+	private int queueCapacity = 10000;
+
+	/**
+	 * Maximum time in milliseconds that data wait before being posted when async.
+	 */
+	private long lingerTime = 1000;
+
+	/**
+	 * Whether to gzip request bodies.
+	 */
+	private boolean compress;
+
+	/**
+	 * Number of times to retry a failed post before dropping its data.
+	 */
+	private int maxRetries;
+
+	/**
+	 * Time in milliseconds to wait before the first retry. Doubled for each further
+	 * retry.
+	 */
+	private long retryBackoff = 100;
+
+	private BlockingQueue<OpenTsdbData> buffer = new LinkedBlockingQueue<OpenTsdbData>(
+			this.queueCapacity);
 
 	private OpenTsdbNamingStrategy namingStrategy = new DefaultOpenTsdbNamingStrategy();
 
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final AtomicLong sent = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong retries = new AtomicLong();
+
+	private final AtomicBoolean sendPending = new AtomicBoolean();
+
+	private final Runnable sender = new Runnable() {
+
+		@Override
+		public void run() {
+			OpenTsdbGaugeWriter.this.sendPending.set(false);
+			sendBuffer();
+		}
+
+	};
+
+	private ScheduledExecutorService executor;
+
 	/**
 	 * Creates a new {@code OpenTsdbGaugeWriter} with the default connect (10 seconds) and
 	 * read (30 seconds) timeouts.
@@ -124,47 +210,194 @@ public class OpenTsdbGaugeWriter implements GaugeWriter {
 		this.namingStrategy = namingStrategy;
 	}
 
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+		this.buffer = new LinkedBlockingQueue<OpenTsdbData>(queueCapacity);
+	}
+
+	public void setLingerTime(long lingerTime) {
+		this.lingerTime = lingerTime;
+	}
+
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	public void setRetryBackoff(long retryBackoff) {
+		this.retryBackoff = retryBackoff;
+	}
+
 	@Override
 	public void set(Metric<?> value) {
 		OpenTsdbData data = new OpenTsdbData(this.namingStrategy.getName(value.getName()),
 				value.getValue(), value.getTimestamp().getTime());
-		synchronized (this.buffer) {
-			this.buffer.add(data);
-			if (this.buffer.size() >= this.bufferSize) {
-				flush();
-			}
+		if (!this.buffer.offer(data)) {
+			this.dropped.incrementAndGet();
+			return;
+		}
+		if (this.buffer.size() >= this.bufferSize) {
+			flush();
 		}
 	}
 
 	/**
-	 * Flush the buffer without waiting for it to fill any further.
+	 * Flush the buffer without waiting for it to fill any further. If the writer is
+	 * {@link #setAsync(boolean) async} the data are posted by the background thread and
+	 * this method returns immediately.
 	 */
-	@SuppressWarnings("rawtypes")
 	public void flush() {
-		List<OpenTsdbData> snapshot = getBufferSnapshot();
-		if (snapshot.isEmpty()) {
-			return;
+		if (!this.async) {
+			sendBuffer();
+		}
+		else if (this.sendPending.compareAndSet(false, true)) {
+			getExecutor().execute(this.sender);
+		}
+	}
+
+	/**
+	 * Stop the background thread (if any) and post any data that are still buffered.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (this.executor != null) {
+				this.executor.shutdown();
+				try {
+					this.executor.awaitTermination(DEFAULT_READ_TIMEOUT,
+							TimeUnit.MILLISECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				this.executor = null;
+			}
+		}
+		sendBuffer();
+	}
+
+	private synchronized ScheduledExecutorService getExecutor() {
+		if (this.executor == null) {
+			this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "opentsdb-writer");
+					thread.setDaemon(true);
+					return thread;
+				}
+
+			});
+			this.executor.scheduleWithFixedDelay(this.sender, this.lingerTime,
+					this.lingerTime, TimeUnit.MILLISECONDS);
+		}
+		return this.executor;
+	}
+
+	private void sendBuffer() {
+		int batchSize = Math.max(1, this.bufferSize);
+		List<OpenTsdbData> batch = new ArrayList<OpenTsdbData>(batchSize);
+		while (this.buffer.drainTo(batch, batchSize) > 0) {
+			send(batch);
+			batch.clear();
+		}
+	}
+
+	private void send(List<OpenTsdbData> batch) {
+		for (int attempt = 0;; attempt++) {
+			String failure = post(batch);
+			if (failure == null) {
+				this.sent.addAndGet(batch.size());
+				return;
+			}
+			if (attempt >= this.maxRetries || !backoff(attempt)) {
+				this.dropped.addAndGet(batch.size());
+				logger.warn("Cannot write metrics (discarded " + batch.size()
+						+ " values): " + failure);
+				return;
+			}
+			this.retries.incrementAndGet();
 		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private String post(List<OpenTsdbData> batch) {
+		try {
+			ResponseEntity<Map> response = this.restTemplate.postForEntity(this.url,
+					createEntity(batch), Map.class);
+			if (response.getStatusCode().is2xxSuccessful()) {
+				return null;
+			}
+			return String.valueOf(response.getBody());
+		}
+		catch (RestClientException ex) {
+			return ex.getMessage();
+		}
+		catch (IOException ex) {
+			return ex.getMessage();
+		}
+	}
+
+	private HttpEntity<?> createEntity(List<OpenTsdbData> batch) throws IOException {
 		HttpHeaders headers = new HttpHeaders();
 		headers.setAccept(Arrays.asList(this.mediaType));
 		headers.setContentType(this.mediaType);
-		ResponseEntity<Map> response = this.restTemplate.postForEntity(this.url,
-				new HttpEntity<List<OpenTsdbData>>(snapshot, headers), Map.class);
-		if (!response.getStatusCode().is2xxSuccessful()) {
-			logger.warn("Cannot write metrics (discarded " + snapshot.size()
-					+ " values): " + response.getBody());
+		if (!this.compress) {
+			return new HttpEntity<List<OpenTsdbData>>(batch, headers);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+		try {
+			this.objectMapper.writeValue(gzip, batch);
+		}
+		finally {
+			gzip.close();
 		}
+		headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+		return new HttpEntity<byte[]>(bytes.toByteArray(), headers);
 	}
 
-	private List<OpenTsdbData> getBufferSnapshot() {
-		synchronized (this.buffer) {
-			if (this.buffer.isEmpty()) {
-				return Collections.emptyList();
-			}
-			List<OpenTsdbData> snapshot = new ArrayList<OpenTsdbData>(this.buffer);
-			this.buffer.clear();
-			return snapshot;
+	private boolean backoff(int attempt) {
+		try {
+			Thread.sleep(this.retryBackoff << Math.min(attempt, 16));
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
 		}
 	}
 
+	@Override
+	public Metric<?> findOne(String metricName) {
+		if (SENT.equals(metricName)) {
+			return new Metric<Long>(SENT, this.sent.get());
+		}
+		if (DROPPED.equals(metricName)) {
+			return new Metric<Long>(DROPPED, this.dropped.get());
+		}
+		if (RETRIES.equals(metricName)) {
+			return new Metric<Long>(RETRIES, this.retries.get());
+		}
+		return null;
+	}
+
+	@Override
+	public Iterable<Metric<?>> findAll() {
+		return Collections.<Metric<?>>unmodifiableList(Arrays.<Metric<?>>asList(
+				findOne(SENT), findOne(DROPPED), findOne(RETRIES)));
+	}
+
+	@Override
+	public long count() {
+		return 3;
+	}
+
 }
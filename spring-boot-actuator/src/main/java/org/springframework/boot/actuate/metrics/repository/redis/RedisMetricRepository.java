@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,24 @@
 
 package org.springframework.boot.actuate.metrics.repository.redis;
 
+import java.io.Flushable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.repository.MetricRepository;
 import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundZSetOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.util.Assert;
 
 /**
@@ -37,10 +43,17 @@ import org.springframework.util.Assert;
  * multiple metrics repositories all point at the same instance of Redis, it may be useful
  * to change the prefix to be unique (but not if you want them to contribute to the same
  * metrics).
+ * <p>
+ * By default every write is sent to Redis immediately. If a {@link #setBatchSize(int)
+ * batchSize} is set then writes are buffered and sent together in a single pipeline when
+ * the buffer is full or when the repository is {@link #flush() flushed} (a
+ * {@link org.springframework.boot.actuate.metrics.export.MetricCopyExporter} flushes its
+ * writer at the end of every export).
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
-public class RedisMetricRepository implements MetricRepository {
+public class RedisMetricRepository implements MetricRepository, Flushable {
 
 	private static final String DEFAULT_METRICS_PREFIX = "spring.metrics.";
 
@@ -54,6 +67,16 @@ public class RedisMetricRepository implements MetricRepository {
 
 	private final RedisOperations<String, String> redisOperations;
 
+	/**
+	 * Number of writes to buffer before sending them to Redis in a single pipeline. A
+	 * value of 0 or less sends each write immediately.
+	 */
+	private int batchSize = 0;
+
+	private final Object monitor = new Object();
+
+	private List<Write> writes = new ArrayList<Write>();
+
 	/**
 	 * Create a RedisMetricRepository with a default prefix to apply to all metric names.
 	 * If multiple repositories share a redis instance they will feed into the same global
@@ -119,22 +142,26 @@ public class RedisMetricRepository implements MetricRepository {
 
 	@Override
 	public Iterable<Metric<?>> findAll() {
-
-		// This set is sorted
-		Set<String> keys = this.zSetOperations.range(0, -1);
-		Iterator<String> keysIt = keys.iterator();
-
-		List<Metric<?>> result = new ArrayList<Metric<?>>(keys.size());
-		List<String> values = this.redisOperations.opsForValue().multiGet(keys);
-		for (String v : values) {
-			String key = keysIt.next();
-			Metric<?> value = deserialize(key, v, this.zSetOperations.score(key));
+		// This set is sorted and carries the values so only the timestamps are fetched
+		Set<TypedTuple<String>> tuples = this.zSetOperations.rangeWithScores(0, -1);
+		if (tuples.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> keys = new ArrayList<String>(tuples.size());
+		for (TypedTuple<String> tuple : tuples) {
+			keys.add(tuple.getValue());
+		}
+		List<String> timestamps = this.redisOperations.opsForValue().multiGet(keys);
+		List<Metric<?>> result = new ArrayList<Metric<?>>(tuples.size());
+		int index = 0;
+		for (TypedTuple<String> tuple : tuples) {
+			Metric<?> value = deserialize(tuple.getValue(), timestamps.get(index++),
+					tuple.getScore());
 			if (value != null) {
 				result.add(value);
 			}
 		}
 		return result;
-
 	}
 
 	@Override
@@ -142,29 +169,110 @@ public class RedisMetricRepository implements MetricRepository {
 		return this.zSetOperations.size();
 	}
 
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
 	@Override
 	public void increment(Delta<?> delta) {
-		String name = delta.getName();
-		String key = keyFor(name);
-		trackMembership(key);
-		double value = this.zSetOperations.incrementScore(key,
-				delta.getValue().doubleValue());
-		String raw = serialize(new Metric<Double>(name, value, delta.getTimestamp()));
-		this.redisOperations.opsForValue().set(key, raw);
+		String key = keyFor(delta.getName());
+		if (this.batchSize > 0) {
+			buffer(new Write(key, delta.getValue().doubleValue(),
+					delta.getTimestamp().getTime(), true));
+			return;
+		}
+		this.zSetOperations.incrementScore(key, delta.getValue().doubleValue());
+		this.redisOperations.opsForValue().set(key, serialize(delta));
 	}
 
 	@Override
 	public void set(Metric<?> value) {
-		String name = value.getName();
-		String key = keyFor(name);
-		trackMembership(key);
+		String key = keyFor(value.getName());
+		if (this.batchSize > 0) {
+			buffer(new Write(key, value.getValue().doubleValue(),
+					value.getTimestamp().getTime(), false));
+			return;
+		}
 		this.zSetOperations.add(key, value.getValue().doubleValue());
-		String raw = serialize(value);
-		this.redisOperations.opsForValue().set(key, raw);
+		this.redisOperations.opsForValue().set(key, serialize(value));
+	}
+
+	private void buffer(Write write) {
+		// Only swap the buffer under the lock so other writers never wait on Redis
+		List<Write> full = null;
+		synchronized (this.monitor) {
+			this.writes.add(write);
+			if (this.writes.size() >= this.batchSize) {
+				full = swapWrites();
+			}
+		}
+		if (full != null) {
+			send(full);
+		}
+	}
+
+	/**
+	 * Send any buffered writes to Redis in a single pipeline. The values and the key set
+	 * membership are updated with one command per metric and the timestamps with a
+	 * single multi-set.
+	 */
+	@Override
+	public void flush() {
+		List<Write> writes;
+		synchronized (this.monitor) {
+			writes = swapWrites();
+		}
+		send(writes);
+	}
+
+	private List<Write> swapWrites() {
+		List<Write> writes = this.writes;
+		if (writes.isEmpty()) {
+			return Collections.emptyList();
+		}
+		this.writes = new ArrayList<Write>();
+		return writes;
+	}
+
+	private void send(final List<Write> writes) {
+		if (writes.isEmpty()) {
+			return;
+		}
+		final Map<String, String> timestamps = new LinkedHashMap<String, String>();
+		for (Write write : writes) {
+			timestamps.put(write.key, String.valueOf(write.timestamp));
+		}
+		this.redisOperations.executePipelined(new SessionCallback<Object>() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public <K, V> Object execute(RedisOperations<K, V> operations)
+					throws DataAccessException {
+				write((RedisOperations<String, String>) operations, writes,
+						timestamps);
+				return null;
+			}
+
+		});
+	}
+
+	private void write(RedisOperations<String, String> operations, List<Write> writes,
+			Map<String, String> timestamps) {
+		BoundZSetOperations<String, String> zSet = operations.boundZSetOps(this.key);
+		for (Write write : writes) {
+			if (write.increment) {
+				zSet.incrementScore(write.key, write.value);
+			}
+			else {
+				zSet.add(write.key, write.value);
+			}
+		}
+		operations.opsForValue().multiSet(timestamps);
 	}
 
 	@Override
 	public void reset(String metricName) {
+		flush();
 		String key = keyFor(metricName);
 		if (this.zSetOperations.remove(key) == 1) {
 			this.redisOperations.delete(key);
@@ -191,8 +299,26 @@ public class RedisMetricRepository implements MetricRepository {
 		return redisKey.substring(this.prefix.length());
 	}
 
-	private void trackMembership(String redisKey) {
-		this.zSetOperations.incrementScore(redisKey, 0.0D);
+	/**
+	 * A buffered write.
+	 */
+	private static final class Write {
+
+		private final String key;
+
+		private final double value;
+
+		private final long timestamp;
+
+		private final boolean increment;
+
+		Write(String key, double value, long timestamp, boolean increment) {
+			this.key = key;
+			this.value = value;
+			this.timestamp = timestamp;
+			this.increment = increment;
+		}
+
 	}
 
 }
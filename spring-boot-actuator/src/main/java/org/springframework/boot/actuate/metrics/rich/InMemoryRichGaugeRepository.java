@@ -45,8 +45,7 @@ public class InMemoryRichGaugeRepository implements RichGaugeRepository {
 				if (current == null) {
 					return new RichGauge(delta.getName(), value);
 				}
-				current.set(current.getValue() + value);
-				return current;
+				return copy(current).set(current.getValue() + value);
 			}
 
 		});
@@ -63,13 +62,17 @@ public class InMemoryRichGaugeRepository implements RichGaugeRepository {
 				if (current == null) {
 					return new RichGauge(name, value);
 				}
-				current.set(value);
-				return current;
+				return copy(current).set(value);
 			}
 
 		});
 	}
 
+	private static RichGauge copy(RichGauge gauge) {
+		return new RichGauge(gauge.getName(), gauge.getValue(), gauge.getAlpha(),
+				gauge.getAverage(), gauge.getMax(), gauge.getMin(), gauge.getCount());
+	}
+
 	@Override
 	public void reset(String metricName) {
 		this.repository.remove(metricName);
@@ -18,10 +18,9 @@ package org.springframework.boot.actuate.metrics.util;
 
 import java.util.ArrayList;
 import java.util.NavigableMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiFunction;
 
 /**
  * Repository utility that stores stuff in memory with period-separated String keys.
@@ -34,28 +33,25 @@ public class SimpleInMemoryRepository<T> {
 
 	private ConcurrentNavigableMap<String, T> values = new ConcurrentSkipListMap<String, T>();
 
-	private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<String, Object>();
-
-	public T update(String name, Callback<T> callback) {
-		Object lock = getLock(name);
-		synchronized (lock) {
-			T current = this.values.get(name);
-			T value = callback.modify(current);
-			this.values.put(name, value);
-			return value;
-		}
-	}
+	/**
+	 * Atomically update the value stored against the given name. The update does not
+	 * take a lock: the callback is applied to the current value and the result is
+	 * published with a compare-and-set, retrying if another thread got there first. The
+	 * callback may therefore be invoked more than once and must not modify the value
+	 * that it is passed.
+	 * @param name the name of the value
+	 * @param callback the callback used to compute the new value
+	 * @return the updated value
+	 */
+	public T update(String name, final Callback<T> callback) {
+		return this.values.compute(name, new BiFunction<String, T, T>() {
 
-	private Object getLock(String name) {
-		Object lock = this.locks.get(name);
-		if (lock == null) {
-			Object newLock = new Object();
-			lock = this.locks.putIfAbsent(name, newLock);
-			if (lock == null) {
-				lock = newLock;
+			@Override
+			public T apply(String name, T current) {
+				return callback.modify(current);
 			}
-		}
-		return lock;
+
+		});
 	}
 
 	public void set(String name, T value) {
@@ -98,7 +94,9 @@ public class SimpleInMemoryRepository<T> {
 	}
 
 	/**
-	 * Callback used to update a value.
+	 * Callback used to update a value. Implementations may be called more than once for
+	 * a single update and should return a new value rather than modifying the current
+	 * one.
 	 *
 	 * @param <T> the value type
 	 */
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory implementation of {@link TraceRepository} backed by a fixed-capacity,
+ * lock-free ring buffer. Each {@link #add(Map) add} claims a sequence number with a
+ * single atomic increment and then publishes its trace, together with that sequence
+ * number, to the slot for the sequence. A snapshot taken by {@link #findAll()} only
+ * includes slots whose published sequence matches the one expected, so it never contains
+ * torn or duplicated traces but may omit a trace whose add is still in progress.
+ * <p>
+ * Changing the {@link #setCapacity(int) capacity} seals the current buffer, swaps in a
+ * new buffer with a single compare-and-set and then copies the most recent traces into
+ * it. An add that races with the change is retried against the new buffer, so no trace
+ * is lost.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class RingBufferTraceRepository implements TraceRepository {
+
+	private volatile boolean reverse = true;
+
+	private final AtomicReference<Buffer> buffer = new AtomicReference<Buffer>(
+			new Buffer(100, 0));
+
+	/**
+	 * Flag to say that the repository lists traces in reverse order.
+	 * @param reverse flag value (default true)
+	 */
+	public void setReverse(boolean reverse) {
+		this.reverse = reverse;
+	}
+
+	/**
+	 * Set the capacity of the in-memory repository. Changing the capacity retains the
+	 * most recent traces that fit within the new capacity.
+	 * @param capacity the capacity
+	 */
+	public void setCapacity(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		while (true) {
+			Buffer previous = this.buffer.get();
+			long end = previous.seal();
+			if (end == Buffer.SEALED) {
+				// Another thread is changing the capacity
+				Thread.yield();
+				continue;
+			}
+			int retained = (int) Math.min(end, Math.min(capacity, previous.capacity));
+			Buffer buffer = new Buffer(capacity, retained);
+			this.buffer.compareAndSet(previous, buffer);
+			buffer.copy(previous, end - retained, end);
+			return;
+		}
+	}
+
+	@Override
+	public List<Trace> findAll() {
+		List<Trace> traces = this.buffer.get().snapshot();
+		while (traces == null) {
+			// The buffer is being replaced
+			Thread.yield();
+			traces = this.buffer.get().snapshot();
+		}
+		if (this.reverse) {
+			Collections.reverse(traces);
+		}
+		return Collections.unmodifiableList(traces);
+	}
+
+	@Override
+	public void add(Map<String, Object> map) {
+		Trace trace = new Trace(new Date(), map);
+		while (!this.buffer.get().add(trace)) {
+			// The buffer is being replaced
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * A fixed-size ring of slots. Each slot records the sequence number it was written
+	 * with so that a snapshot only includes the trace that was last written to it. Once
+	 * sealed, a buffer accepts no more traces.
+	 */
+	private static final class Buffer {
+
+		static final long SEALED = Long.MAX_VALUE / 2;
+
+		private final int capacity;
+
+		private final AtomicLong sequence;
+
+		private final AtomicReferenceArray<Slot> slots;
+
+		/**
+		 * Create a new buffer.
+		 * @param capacity the capacity
+		 * @param reserved the number of leading sequence numbers that are reserved for
+		 * traces copied from a previous buffer
+		 */
+		Buffer(int capacity, int reserved) {
+			this.capacity = capacity;
+			this.sequence = new AtomicLong(reserved);
+			this.slots = new AtomicReferenceArray<Slot>(capacity);
+		}
+
+		boolean add(Trace trace) {
+			long sequence = this.sequence.getAndIncrement();
+			if (sequence >= SEALED) {
+				return false;
+			}
+			this.slots.set(index(sequence), new Slot(sequence, trace));
+			return true;
+		}
+
+		/**
+		 * Seal this buffer so that no more traces are added to it.
+		 * @return the number of sequence numbers that were claimed before the buffer was
+		 * sealed, or {@link #SEALED} if it was already sealed
+		 */
+		long seal() {
+			long end = this.sequence.getAndSet(SEALED);
+			return Math.min(end, SEALED);
+		}
+
+		/**
+		 * Copy the traces with the given sequence numbers, which must all be within the
+		 * capacity of the sealed buffer, into the reserved slots of this buffer. Waits
+		 * for any add that claimed one of them to publish its trace. A reserved slot that
+		 * has already been reused for a newer trace is left alone.
+		 */
+		void copy(Buffer sealed, long start, long end) {
+			for (long sequence = start; sequence < end; sequence++) {
+				Slot slot = sealed.slots.get(sealed.index(sequence));
+				while (slot == null || slot.sequence < sequence) {
+					Thread.yield();
+					slot = sealed.slots.get(sealed.index(sequence));
+				}
+				long target = sequence - start;
+				this.slots.compareAndSet(index(target), null,
+						new Slot(target, slot.trace));
+			}
+		}
+
+		List<Trace> snapshot() {
+			long end = this.sequence.get();
+			if (end >= SEALED) {
+				return null;
+			}
+			long start = Math.max(0, end - this.capacity);
+			List<Trace> traces = new ArrayList<Trace>((int) (end - start));
+			for (long sequence = start; sequence < end; sequence++) {
+				Slot slot = this.slots.get(index(sequence));
+				if (slot != null && slot.sequence == sequence) {
+					traces.add(slot.trace);
+				}
+			}
+			return traces;
+		}
+
+		private int index(long sequence) {
+			return (int) (sequence % this.capacity);
+		}
+
+	}
+
+	private static final class Slot {
+
+		private final long sequence;
+
+		private final Trace trace;
+
+		Slot(long sequence, Trace trace) {
+			this.sequence = sequence;
+			this.trace = trace;
+		}
+
+	}
+
+}
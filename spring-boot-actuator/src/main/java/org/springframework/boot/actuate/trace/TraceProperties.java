@@ -52,6 +52,23 @@ public class TraceProperties {
 	 */
 	private Set<Include> include = new HashSet<Include>(DEFAULT_INCLUDES);
 
+	/**
+	 * Whether to record only the raw request and response details while a request is
+	 * processed and build the trace information lazily when the trace is first read.
+	 */
+	private boolean deferred;
+
+	/**
+	 * Interval, in number of requests, at which requests are traced. For example, a
+	 * value of 10 traces one in every ten requests.
+	 */
+	private int samplingInterval = 1;
+
+	/**
+	 * Maximum number of requests traced per second. Zero or negative for no limit.
+	 */
+	private int maxTracesPerSecond = 0;
+
 	public Set<Include> getInclude() {
 		return this.include;
 	}
@@ -60,6 +77,30 @@ public class TraceProperties {
 		this.include = include;
 	}
 
+	public boolean isDeferred() {
+		return this.deferred;
+	}
+
+	public void setDeferred(boolean deferred) {
+		this.deferred = deferred;
+	}
+
+	public int getSamplingInterval() {
+		return this.samplingInterval;
+	}
+
+	public void setSamplingInterval(int samplingInterval) {
+		this.samplingInterval = samplingInterval;
+	}
+
+	public int getMaxTracesPerSecond() {
+		return this.maxTracesPerSecond;
+	}
+
+	public void setMaxTracesPerSecond(int maxTracesPerSecond) {
+		this.maxTracesPerSecond = maxTracesPerSecond;
+	}
+
 	/**
 	 * Include options for tracing.
 	 */
@@ -18,13 +18,17 @@ package org.springframework.boot.actuate.trace;
 
 import java.io.IOException;
 import java.security.Principal;
-import java.util.Collections;
+import java.time.Clock;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -45,7 +49,13 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
- * Servlet {@link Filter} that logs all requests to a {@link TraceRepository}.
+ * Servlet {@link Filter} that logs all requests to a {@link TraceRepository}. Requests
+ * can be sampled and, when {@link TraceProperties#isDeferred() deferred} capture is
+ * enabled, only the raw request and response details are recorded while the request is
+ * being processed and the trace information is built when it is first read. Deferred
+ * traces are still created by {@link #getTrace(HttpServletRequest)} and completed by
+ * {@link #enhanceTrace(Map, HttpServletResponse)}, so subclasses that override those
+ * methods see every trace.
  *
  * @author Dave Syer
  * @author Wallace Wadge
@@ -69,6 +79,14 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 
 	private final TraceProperties properties;
 
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicInteger tracesInCurrentSecond = new AtomicInteger();
+
+	private volatile long currentSecond;
+
+	private Clock clock = Clock.systemUTC();
+
 	/**
 	 * Create a new {@link WebRequestTraceFilter} instance.
 	 * @param repository the trace repository
@@ -97,10 +115,18 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		this.order = order;
 	}
 
+	void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request,
 			HttpServletResponse response, FilterChain filterChain)
 					throws ServletException, IOException {
+		if (!isSampled()) {
+			filterChain.doFilter(request, response);
+			return;
+		}
 		Map<String, Object> trace = getTrace(request);
 		logTrace(request, trace);
 		int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
@@ -109,13 +135,38 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 			status = response.getStatus();
 		}
 		finally {
-			enhanceTrace(trace, status == response.getStatus() ? response
-					: new CustomStatusResponseWrapper(response, status));
+			HttpServletResponse tracedResponse = (status == response.getStatus()
+					? response : new CustomStatusResponseWrapper(response, status));
+			enhanceTrace(trace, tracedResponse);
 			this.repository.add(trace);
 		}
 	}
 
+	private boolean isSampled() {
+		int interval = this.properties.getSamplingInterval();
+		if (interval > 1 && this.requestCount.getAndIncrement() % interval != 0) {
+			return false;
+		}
+		int maxTracesPerSecond = this.properties.getMaxTracesPerSecond();
+		if (maxTracesPerSecond <= 0) {
+			return true;
+		}
+		long second = this.clock.millis() / 1000;
+		if (second != this.currentSecond) {
+			synchronized (this.tracesInCurrentSecond) {
+				if (second != this.currentSecond) {
+					this.tracesInCurrentSecond.set(0);
+					this.currentSecond = second;
+				}
+			}
+		}
+		return this.tracesInCurrentSecond.incrementAndGet() <= maxTracesPerSecond;
+	}
+
 	protected Map<String, Object> getTrace(HttpServletRequest request) {
+		if (this.properties.isDeferred()) {
+			return new DeferredTrace(request);
+		}
 		HttpSession session = request.getSession(false);
 		Throwable exception = (Throwable) request
 				.getAttribute("javax.servlet.error.exception");
@@ -135,7 +186,7 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		add(trace, Include.USER_PRINCIPAL, "userPrincipal",
 				(userPrincipal == null ? null : userPrincipal.getName()));
 		if (isIncluded(Include.PARAMETERS)) {
-			trace.put("parameters", request.getParameterMap());
+			trace.put("parameters", copyParameters(request));
 		}
 		add(trace, Include.QUERY_STRING, "query", request.getQueryString());
 		add(trace, Include.AUTH_TYPE, "authType", request.getAuthType());
@@ -151,13 +202,24 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		return trace;
 	}
 
+	private Map<String, String[]> copyParameters(HttpServletRequest request) {
+		// Containers recycle requests, so the trace must not keep the live map
+		Map<String, String[]> parameters = new LinkedHashMap<String, String[]>();
+		for (Map.Entry<String, String[]> entry : request.getParameterMap().entrySet()) {
+			parameters.put(entry.getKey(), (entry.getValue() == null ? null
+					: entry.getValue().clone()));
+		}
+		return parameters;
+	}
+
 	private Map<String, Object> getRequestHeaders(HttpServletRequest request) {
 		Map<String, Object> headers = new LinkedHashMap<String, Object>();
-		Set<String> excludedHeaders = getExcludeHeaders();
+		boolean includeCookies = isIncluded(Include.COOKIES);
+		boolean includeAuthorization = isIncluded(Include.AUTHORIZATION_HEADER);
 		Enumeration<String> names = request.getHeaderNames();
 		while (names.hasMoreElements()) {
 			String name = names.nextElement();
-			if (!excludedHeaders.contains(name.toLowerCase())) {
+			if (isRequestHeaderIncluded(name, includeCookies, includeAuthorization)) {
 				headers.put(name, getHeaderValue(request, name));
 			}
 		}
@@ -165,26 +227,27 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		return headers;
 	}
 
-	private Set<String> getExcludeHeaders() {
-		Set<String> excludedHeaders = new HashSet<String>();
-		if (!isIncluded(Include.COOKIES)) {
-			excludedHeaders.add("cookie");
-		}
-		if (!isIncluded(Include.AUTHORIZATION_HEADER)) {
-			excludedHeaders.add("authorization");
-		}
-		return excludedHeaders;
+	private boolean isRequestHeaderIncluded(String name, boolean includeCookies,
+			boolean includeAuthorization) {
+		return (includeCookies || !"cookie".equalsIgnoreCase(name))
+				&& (includeAuthorization || !"authorization".equalsIgnoreCase(name));
 	}
 
 	private Object getHeaderValue(HttpServletRequest request, String name) {
-		List<String> value = Collections.list(request.getHeaders(name));
-		if (value.size() == 1) {
-			return value.get(0);
-		}
-		if (value.isEmpty()) {
+		Enumeration<String> values = request.getHeaders(name);
+		if (!values.hasMoreElements()) {
 			return "";
 		}
-		return value;
+		String value = values.nextElement();
+		if (!values.hasMoreElements()) {
+			return value;
+		}
+		List<String> multipleValues = new ArrayList<String>();
+		multipleValues.add(value);
+		while (values.hasMoreElements()) {
+			multipleValues.add(values.nextElement());
+		}
+		return multipleValues;
 	}
 
 	/**
@@ -197,6 +260,10 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 
 	@SuppressWarnings("unchecked")
 	protected void enhanceTrace(Map<String, Object> trace, HttpServletResponse response) {
+		if (trace instanceof DeferredTrace) {
+			((DeferredTrace) trace).captureResponse(response);
+			return;
+		}
 		if (isIncluded(Include.RESPONSE_HEADERS)) {
 			Map<String, Object> headers = (Map<String, Object>) trace.get("headers");
 			headers.put("response", getResponseHeaders(response));
@@ -241,6 +308,249 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		this.errorAttributes = errorAttributes;
 	}
 
+	/**
+	 * Trace {@link Map} that records the raw request and response details when the
+	 * request is processed and only builds the full trace information when it is first
+	 * read.
+	 */
+	private final class DeferredTrace extends AbstractMap<String, Object> {
+
+		private final String method;
+
+		private final String path;
+
+		private final String pathInfo;
+
+		private final String pathTranslated;
+
+		private final String contextPath;
+
+		private final String userPrincipal;
+
+		private final Map<String, String[]> parameters;
+
+		private final String query;
+
+		private final String authType;
+
+		private final String remoteAddress;
+
+		private final String sessionId;
+
+		private final String remoteUser;
+
+		private final Map<String, Object> error;
+
+		private final String[] requestHeaders;
+
+		private String[] responseHeaders;
+
+		private int status;
+
+		private volatile Map<String, Object> trace;
+
+		DeferredTrace(HttpServletRequest request) {
+			this.method = request.getMethod();
+			this.path = request.getRequestURI();
+			this.pathInfo = (isIncluded(Include.PATH_INFO) ? request.getPathInfo()
+					: null);
+			this.pathTranslated = (isIncluded(Include.PATH_TRANSLATED)
+					? request.getPathTranslated() : null);
+			this.contextPath = (isIncluded(Include.CONTEXT_PATH)
+					? request.getContextPath() : null);
+			this.userPrincipal = (isIncluded(Include.USER_PRINCIPAL)
+					? getUserPrincipal(request) : null);
+			this.parameters = (isIncluded(Include.PARAMETERS)
+					? copyParameters(request) : null);
+			this.query = (isIncluded(Include.QUERY_STRING) ? request.getQueryString()
+					: null);
+			this.authType = (isIncluded(Include.AUTH_TYPE) ? request.getAuthType()
+					: null);
+			this.remoteAddress = (isIncluded(Include.REMOTE_ADDRESS)
+					? request.getRemoteAddr() : null);
+			this.sessionId = (isIncluded(Include.SESSION_ID) ? getSessionId(request)
+					: null);
+			this.remoteUser = (isIncluded(Include.REMOTE_USER) ? request.getRemoteUser()
+					: null);
+			this.error = getError(request);
+			this.requestHeaders = (isIncluded(Include.REQUEST_HEADERS)
+					? captureRequestHeaders(request) : null);
+		}
+
+		private String getUserPrincipal(HttpServletRequest request) {
+			Principal userPrincipal = request.getUserPrincipal();
+			return (userPrincipal == null ? null : userPrincipal.getName());
+		}
+
+		private String getSessionId(HttpServletRequest request) {
+			HttpSession session = request.getSession(false);
+			return (session == null ? null : session.getId());
+		}
+
+		private Map<String, Object> getError(HttpServletRequest request) {
+			if (isIncluded(Include.ERRORS)
+					&& request.getAttribute("javax.servlet.error.exception") != null
+					&& WebRequestTraceFilter.this.errorAttributes != null) {
+				return WebRequestTraceFilter.this.errorAttributes
+						.getErrorAttributes(new ServletRequestAttributes(request), true);
+			}
+			return null;
+		}
+
+		private String[] captureRequestHeaders(HttpServletRequest request) {
+			boolean includeCookies = isIncluded(Include.COOKIES);
+			boolean includeAuthorization = isIncluded(Include.AUTHORIZATION_HEADER);
+			String[] headers = new String[16];
+			int size = 0;
+			Enumeration<String> names = request.getHeaderNames();
+			while (names.hasMoreElements()) {
+				String name = names.nextElement();
+				if (isRequestHeaderIncluded(name, includeCookies,
+						includeAuthorization)) {
+					Enumeration<String> values = request.getHeaders(name);
+					if (!values.hasMoreElements()) {
+						headers = add(headers, size, name, null);
+						size += 2;
+					}
+					while (values.hasMoreElements()) {
+						headers = add(headers, size, name, values.nextElement());
+						size += 2;
+					}
+				}
+			}
+			return Arrays.copyOf(headers, size);
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized void captureResponse(HttpServletResponse response) {
+			this.status = response.getStatus();
+			if (isIncluded(Include.RESPONSE_HEADERS)) {
+				boolean includeCookies = isIncluded(Include.COOKIES);
+				String[] headers = new String[16];
+				int size = 0;
+				for (String name : response.getHeaderNames()) {
+					if (includeCookies || !"Set-Cookie".equals(name)) {
+						headers = add(headers, size, name, response.getHeader(name));
+						size += 2;
+					}
+				}
+				this.responseHeaders = Arrays.copyOf(headers, size);
+				if (this.trace != null) {
+					// A subclass has already read the trace
+					((Map<String, Object>) this.trace.get("headers")).put("response",
+							createResponseHeaders());
+				}
+			}
+		}
+
+		private String[] add(String[] headers, int size, String name, String value) {
+			String[] result = (size + 2 > headers.length
+					? Arrays.copyOf(headers, headers.length * 2) : headers);
+			result[size] = name;
+			result[size + 1] = value;
+			return result;
+		}
+
+		@Override
+		public Object get(Object key) {
+			return getTrace().get(key);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			return getTrace().put(key, value);
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return getTrace().entrySet();
+		}
+
+		private Map<String, Object> getTrace() {
+			Map<String, Object> trace = this.trace;
+			if (trace == null) {
+				synchronized (this) {
+					trace = this.trace;
+					if (trace == null) {
+						trace = createTrace();
+						this.trace = trace;
+					}
+				}
+			}
+			return trace;
+		}
+
+		private Map<String, Object> createTrace() {
+			Map<String, Object> trace = new LinkedHashMap<String, Object>();
+			Map<String, Object> headers = new LinkedHashMap<String, Object>();
+			trace.put("method", this.method);
+			trace.put("path", this.path);
+			trace.put("headers", headers);
+			if (this.requestHeaders != null) {
+				headers.put("request", createRequestHeaders());
+			}
+			putIfNotNull(trace, "pathInfo", this.pathInfo);
+			putIfNotNull(trace, "pathTranslated", this.pathTranslated);
+			putIfNotNull(trace, "contextPath", this.contextPath);
+			putIfNotNull(trace, "userPrincipal", this.userPrincipal);
+			putIfNotNull(trace, "parameters", this.parameters);
+			putIfNotNull(trace, "query", this.query);
+			putIfNotNull(trace, "authType", this.authType);
+			putIfNotNull(trace, "remoteAddress", this.remoteAddress);
+			putIfNotNull(trace, "sessionId", this.sessionId);
+			putIfNotNull(trace, "remoteUser", this.remoteUser);
+			putIfNotNull(trace, "error", this.error);
+			if (this.responseHeaders != null) {
+				headers.put("response", createResponseHeaders());
+			}
+			return trace;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<String, Object> createRequestHeaders() {
+			Map<String, Object> headers = new LinkedHashMap<String, Object>();
+			for (int i = 0; i < this.requestHeaders.length; i += 2) {
+				String name = this.requestHeaders[i];
+				String value = this.requestHeaders[i + 1];
+				Object existing = headers.get(name);
+				if (value == null) {
+					headers.put(name, "");
+				}
+				else if (existing == null) {
+					headers.put(name, value);
+				}
+				else if (existing instanceof List) {
+					((List<String>) existing).add(value);
+				}
+				else {
+					List<String> values = new ArrayList<String>();
+					values.add((String) existing);
+					values.add(value);
+					headers.put(name, values);
+				}
+			}
+			postProcessRequestHeaders(headers);
+			return headers;
+		}
+
+		private Map<String, String> createResponseHeaders() {
+			Map<String, String> headers = new LinkedHashMap<String, String>();
+			for (int i = 0; i < this.responseHeaders.length; i += 2) {
+				headers.put(this.responseHeaders[i], this.responseHeaders[i + 1]);
+			}
+			headers.put("status", "" + this.status);
+			return headers;
+		}
+
+		private void putIfNotNull(Map<String, Object> trace, String name,
+				Object value) {
+			if (value != null) {
+				trace.put(name, value);
+			}
+		}
+
+	}
+
 	private static final class CustomStatusResponseWrapper
 			extends HttpServletResponseWrapper {
 
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.audit;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link IndexedInMemoryAuditEventRepository}.
+ *
+ * @author Jon Ellis
+ */
+public class IndexedInMemoryAuditEventRepositoryTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void lessThanCapacity() throws Exception {
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository();
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("dave", "b"));
+		List<AuditEvent> events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("a");
+		assertThat(events.get(1).getType()).isEqualTo("b");
+	}
+
+	@Test
+	public void capacity() throws Exception {
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository(
+				2);
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("dave", "b"));
+		repository.add(new AuditEvent("dave", "c"));
+		List<AuditEvent> events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("b");
+		assertThat(events.get(1).getType()).isEqualTo("c");
+	}
+
+	@Test
+	public void capacityAcrossSegments() throws Exception {
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository(
+				10, 3);
+		for (int i = 0; i < 25; i++) {
+			repository.add(new AuditEvent(i % 2 == 0 ? "dave" : "phil", "t" + i));
+		}
+		List<AuditEvent> events = repository.find(null);
+		assertThat(events.size()).isEqualTo(10);
+		assertThat(events.get(0).getType()).isEqualTo("t15");
+		assertThat(events.get(9).getType()).isEqualTo("t24");
+		events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(5);
+		assertThat(events.get(0).getType()).isEqualTo("t16");
+		assertThat(events.get(4).getType()).isEqualTo("t24");
+	}
+
+	@Test
+	public void addNullAuditEvent() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("AuditEvent must not be null");
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository();
+		repository.add(null);
+	}
+
+	@Test
+	public void findByPrincipal() throws Exception {
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository();
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("phil", "b"));
+		repository.add(new AuditEvent("dave", "c"));
+		repository.add(new AuditEvent("phil", "d"));
+		List<AuditEvent> events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("a");
+		assertThat(events.get(1).getType()).isEqualTo("c");
+		assertThat(repository.find("andy", null)).isEmpty();
+	}
+
+	@Test
+	public void findByPrincipalAndType() throws Exception {
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository();
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("phil", "b"));
+		repository.add(new AuditEvent("dave", "c"));
+		repository.add(new AuditEvent("phil", "d"));
+		List<AuditEvent> events = repository.find("dave", null, "a");
+		assertThat(events.size()).isEqualTo(1);
+		assertThat(events.get(0).getPrincipal()).isEqualTo("dave");
+		assertThat(events.get(0).getType()).isEqualTo("a");
+		assertThat(repository.find(null, null, "d")).hasSize(1);
+		assertThat(repository.find("dave", null, "d")).isEmpty();
+	}
+
+	@Test
+	public void findByDate() throws Exception {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2000, 1, 1, 0, 0, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		Map<String, Object> data = new HashMap<String, Object>();
+		IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository(
+				10, 2);
+		repository.add(new AuditEvent(calendar.getTime(), "dave", "a", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		repository.add(new AuditEvent(calendar.getTime(), "phil", "b", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		Date after = calendar.getTime();
+		repository.add(new AuditEvent(calendar.getTime(), "dave", "c", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		repository.add(new AuditEvent(calendar.getTime(), "phil", "d", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		List<AuditEvent> events = repository.find(after);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("c");
+		assertThat(events.get(1).getType()).isEqualTo("d");
+		events = repository.find("dave", after);
+		assertThat(events.size()).isEqualTo(1);
+		assertThat(events.get(0).getType()).isEqualTo("c");
+	}
+
+	@Test
+	public void concurrentAdd() throws Exception {
+		final IndexedInMemoryAuditEventRepository repository = new IndexedInMemoryAuditEventRepository(
+				100000, 64);
+		int threads = 8;
+		final int eventsPerThread = 5000;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			final String principal = "user" + i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						start.await();
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					for (int j = 0; j < eventsPerThread; j++) {
+						repository.add(new AuditEvent(principal, "type" + (j % 3)));
+					}
+				}
+
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(repository.find(null)).hasSize(threads * eventsPerThread);
+		assertThat(repository.find("user3", null)).hasSize(eventsPerThread);
+		assertThat(repository.find("user3", null, "type0"))
+				.hasSize((eventsPerThread + 2) / 3);
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import javax.sql.DataSource;
 
@@ -65,6 +66,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.env.PropertiesPropertySource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.validation.BindException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -80,6 +82,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * @author Eddú Meléndez
  * @author Meang Akira Tanaka
  * @author Ben Hale
+ * @author Jon Ellis
  */
 public class EndpointAutoConfigurationTests {
 
@@ -127,6 +130,24 @@ public class EndpointAutoConfigurationTests {
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	public void parallelHealthEndpointUsesBoundedExecutorThatIsShutDown() {
+		this.context = new AnnotationConfigApplicationContext();
+		this.context.register(EndpointAutoConfiguration.class,
+				HealthIndicatorAutoConfiguration.class);
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"management.health.status.parallel.enabled=true",
+				"management.health.status.parallel.queue-capacity=5");
+		this.context.refresh();
+		assertThat(this.context.getBean(HealthEndpoint.class).invoke()).isNotNull();
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(
+				this.context.getBean(EndpointAutoConfiguration.class),
+				"healthIndicatorExecutor");
+		assertThat(executor.getQueue().remainingCapacity()).isEqualTo(5);
+		this.context.close();
+		assertThat(executor.isShutdown()).isTrue();
+	}
+
 	@Test
 	public void loggersEndpointHasLoggers() throws Exception {
 		load(CustomLoggingConfig.class, EndpointAutoConfiguration.class);
@@ -443,9 +443,9 @@ public class EndpointWebMvcAutoConfigurationTests {
 		this.applicationContext.register(LoggingConfig.class, RootConfig.class,
 				BaseConfiguration.class, EndpointWebMvcAutoConfiguration.class);
 		this.applicationContext.refresh();
-		// /health, /metrics, /loggers, /env, /actuator, /heapdump, /auditevents
-		// (/shutdown is disabled by default)
-		assertThat(this.applicationContext.getBeansOfType(MvcEndpoint.class)).hasSize(7);
+		// /health, /metrics, /prometheus, /loggers, /env, /actuator, /dump, /heapdump,
+		// /auditevents (/shutdown is disabled by default)
+		assertThat(this.applicationContext.getBeansOfType(MvcEndpoint.class)).hasSize(9);
 	}
 
 	@Test
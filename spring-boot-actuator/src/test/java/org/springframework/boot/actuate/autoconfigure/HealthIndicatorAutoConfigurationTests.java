@@ -34,6 +34,7 @@ import org.springframework.boot.actuate.health.ElasticsearchHealthIndicator;
 import org.springframework.boot.actuate.health.ElasticsearchJestHealthIndicator;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicatorScheduler;
 import org.springframework.boot.actuate.health.JmsHealthIndicator;
 import org.springframework.boot.actuate.health.LdapHealthIndicator;
 import org.springframework.boot.actuate.health.MailHealthIndicator;
@@ -65,6 +66,7 @@ import org.springframework.data.cassandra.core.CassandraOperations;
 import org.springframework.data.couchbase.core.CouchbaseOperations;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 import org.springframework.ldap.core.LdapOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -76,6 +78,7 @@ import static org.mockito.Mockito.mock;
  * @author Stephane Nicoll
  * @author Andy Wilkinson
  * @author Eddú Meléndez
+ * @author Jon Ellis
  */
 public class HealthIndicatorAutoConfigurationTests {
 
@@ -102,6 +105,28 @@ public class HealthIndicatorAutoConfigurationTests {
 				.isEqualTo(ApplicationHealthIndicator.class);
 	}
 
+	@Test
+	public void healthIndicatorSchedulerNotCreatedByDefault() {
+		this.context.register(HealthIndicatorAutoConfiguration.class,
+				ManagementServerProperties.class);
+		this.context.refresh();
+		assertThat(this.context.getBeansOfType(HealthIndicatorScheduler.class))
+				.isEmpty();
+	}
+
+	@Test
+	public void healthIndicatorSchedulerCreatedWhenRefreshEnabled() {
+		this.context.register(HealthIndicatorAutoConfiguration.class,
+				ManagementServerProperties.class);
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"management.health.status.refresh.enabled:true",
+				"management.health.status.refresh.timeout:5000");
+		this.context.refresh();
+		HealthIndicatorScheduler scheduler = this.context
+				.getBean(HealthIndicatorScheduler.class);
+		assertThat(ReflectionTestUtils.getField(scheduler, "timeout")).isEqualTo(5000L);
+	}
+
 	@Test
 	public void defaultHealthIndicatorsDisabled() {
 		this.context.register(HealthIndicatorAutoConfiguration.class,
@@ -282,6 +307,23 @@ public class HealthIndicatorAutoConfigurationTests {
 		assertThat(dataSourceHealthIndicator.getQuery()).isEqualTo("SELECT from FOOBAR");
 	}
 
+	@Test
+	public void dataSourceHealthIndicatorWithValidationTimeout() {
+		this.context.register(EmbeddedDataSourceConfiguration.class,
+				ManagementServerProperties.class, HealthIndicatorAutoConfiguration.class);
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"management.health.db.validation-timeout:2",
+				"management.health.diskspace.enabled:false");
+		this.context.refresh();
+		Map<String, HealthIndicator> beans = this.context
+				.getBeansOfType(HealthIndicator.class);
+		assertThat(beans).hasSize(1);
+		HealthIndicator healthIndicator = beans.values().iterator().next();
+		assertThat(ReflectionTestUtils.getField(healthIndicator, "validationTimeout"))
+				.isEqualTo(2);
+		assertThat(healthIndicator.health().getDetails()).containsEntry("valid", true);
+	}
+
 	@Test
 	public void notDataSourceHealthIndicator() {
 		this.context.register(EmbeddedDataSourceConfiguration.class,
@@ -31,6 +31,11 @@ import org.mockito.stubbing.Answer;
 
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.buffer.BufferMetricReader;
+import org.springframework.boot.actuate.metrics.buffer.CounterBuffers;
+import org.springframework.boot.actuate.metrics.buffer.GaugeBuffers;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -79,6 +84,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author Phillip Webb
  * @author Andy Wilkinson
  * @author Stephane Nicoll
+ * @author Jon Ellis
  */
 public class MetricFilterAutoConfigurationTests {
 
@@ -410,6 +416,107 @@ public class MetricFilterAutoConfigurationTests {
 		context.close();
 	}
 
+	@Test
+	public void recordsRepeatedHttpInteractionsWithDistinctStatuses() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(Config.class, MetricFilterAutoConfiguration.class);
+		EnvironmentTestUtils.addEnvironment(context,
+				"endpoints.metrics.filter.counter-submissions=merged,per-http-method");
+		context.refresh();
+		Filter filter = context.getBean(Filter.class);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new MetricFilterTestController())
+				.addFilter(filter).build();
+		mvc.perform(get("/templateVarTest/foo")).andExpect(status().isOk());
+		mvc.perform(get("/templateVarTest/bar")).andExpect(status().isOk());
+		mvc.perform(post("/templateVarTest/baz")).andExpect(status().isOk());
+		mvc.perform(get("/knownPath/foo")).andExpect(status().isNotFound());
+		CounterService counterService = context.getBean(CounterService.class);
+		verify(counterService, times(3))
+				.increment("status.200.templateVarTest.someVariable");
+		verify(counterService, times(2))
+				.increment("status.GET.200.templateVarTest.someVariable");
+		verify(counterService).increment("status.POST.200.templateVarTest.someVariable");
+		verify(counterService).increment("status.404.knownPath.someVariable");
+		verify(counterService).increment("status.GET.404.knownPath.someVariable");
+		context.close();
+	}
+
+	@Test
+	public void recordsHttpInteractionsBeyondRouteCacheSize() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(Config.class, MetricFilterAutoConfiguration.class);
+		EnvironmentTestUtils.addEnvironment(context,
+				"endpoints.metrics.filter.route-cache-size=1");
+		context.refresh();
+		Filter filter = context.getBean(Filter.class);
+		for (String path : new String[] { "/test/one", "/test/two", "/test/two" }) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(request, response, mock(FilterChain.class));
+		}
+		CounterService counterService = context.getBean(CounterService.class);
+		verify(counterService).increment("status.200.test.one");
+		verify(counterService, times(2)).increment("status.200.test.two");
+		verify(context.getBean(GaugeService.class), times(2))
+				.submit(eq("response.test.two"), anyDouble());
+		context.close();
+	}
+
+	@Test
+	public void recordsResponseTimesInHistogramIfConfigured() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(Config.class, HistogramConfig.class,
+				MetricFilterAutoConfiguration.class);
+		EnvironmentTestUtils.addEnvironment(context,
+				"endpoints.metrics.filter.histogram=true");
+		context.refresh();
+		Filter filter = context.getBean(Filter.class);
+		for (int i = 0; i < 3; i++) {
+			filter.doFilter(new MockHttpServletRequest("GET", "/test/path"),
+					new MockHttpServletResponse(), mock(FilterChain.class));
+		}
+		verify(context.getBean(GaugeService.class), never()).submit(anyString(),
+				anyDouble());
+		BufferMetricReader reader = new BufferMetricReader(new CounterBuffers(),
+				new GaugeBuffers(), context.getBean(HistogramBuffers.class));
+		Metric<?> count = reader.findOne("gauge.response.test.path.count");
+		assertThat(count.getValue()).isEqualTo(3L);
+		assertThat(reader.findOne("gauge.response.test.path")).isNotNull();
+		assertThat(reader.findOne("gauge.response.test.path.p99")).isNotNull();
+		assertThat(context.getBeansOfType(BufferMetricReader.class)).isEmpty();
+		context.close();
+	}
+
+	@Test
+	public void recordsResponseTimesInGaugeIfNoHistogramBuffersAreAvailable()
+			throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(Config.class, MetricFilterAutoConfiguration.class);
+		EnvironmentTestUtils.addEnvironment(context,
+				"endpoints.metrics.filter.histogram=true");
+		context.refresh();
+		Filter filter = context.getBean(Filter.class);
+		filter.doFilter(new MockHttpServletRequest("GET", "/test/path"),
+				new MockHttpServletResponse(), mock(FilterChain.class));
+		verify(context.getBean(GaugeService.class))
+				.submit(eq("response.test.path"), anyDouble());
+		context.close();
+	}
+
+	@Test
+	public void doesNotRecordResponseTimesInHistogramByDefault() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, HistogramConfig.class,
+				MetricFilterAutoConfiguration.class);
+		Filter filter = context.getBean(Filter.class);
+		filter.doFilter(new MockHttpServletRequest("GET", "/test/path"),
+				new MockHttpServletResponse(), mock(FilterChain.class));
+		verify(context.getBean(GaugeService.class))
+				.submit(eq("response.test.path"), anyDouble());
+		assertThat(context.getBean(HistogramBuffers.class).count()).isEqualTo(0);
+		context.close();
+	}
+
 	@Test
 	public void whenExceptionIsThrownResponseStatusIsUsedWhenResponseHasBeenCommitted()
 			throws Exception {
@@ -456,6 +563,16 @@ public class MetricFilterAutoConfigurationTests {
 
 	}
 
+	@Configuration
+	public static class HistogramConfig {
+
+		@Bean
+		public HistogramBuffers histogramBuffers() {
+			return new HistogramBuffers();
+		}
+
+	}
+
 	@RestController
 	class MetricFilterTestController {
 
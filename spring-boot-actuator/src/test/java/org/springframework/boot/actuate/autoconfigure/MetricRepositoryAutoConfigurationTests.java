@@ -28,7 +28,9 @@ import org.springframework.boot.actuate.metrics.buffer.BufferGaugeService;
 import org.springframework.boot.actuate.metrics.dropwizard.DropwizardMetricServices;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.reader.PrefixMetricReader;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,6 +43,7 @@ import static org.mockito.Mockito.mock;
  *
  * @author Phillip Webb
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public class MetricRepositoryAutoConfigurationTests {
 
@@ -66,6 +69,30 @@ public class MetricRepositoryAutoConfigurationTests {
 		assertThat(bean.findOne("gauge.foo").getValue()).isEqualTo(2.7);
 	}
 
+	@Test
+	public void timersAreSimpleGaugesByDefault() throws Exception {
+		this.context = new AnnotationConfigApplicationContext(
+				MetricRepositoryAutoConfiguration.class);
+		this.context.getBean(GaugeService.class).submit("timer.foo", 2.7);
+		MetricReader reader = this.context.getBean(MetricReader.class);
+		assertThat(reader.findOne("timer.foo").getValue()).isEqualTo(2.7);
+		assertThat(reader.findOne("timer.foo.count")).isNull();
+		assertThat(this.context.getBean(HistogramBuffers.class).count()).isEqualTo(0);
+	}
+
+	@Test
+	public void timersAreRecordedInHistogramsIfEnabled() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.metrics.histogram.enabled=true");
+		this.context.register(MetricRepositoryAutoConfiguration.class);
+		this.context.refresh();
+		this.context.getBean(GaugeService.class).submit("timer.foo", 2.7);
+		MetricReader reader = this.context.getBean(MetricReader.class);
+		assertThat(reader.findOne("timer.foo").getValue()).isEqualTo(2.7);
+		assertThat(reader.findOne("timer.foo.count").getValue()).isEqualTo(1L);
+	}
+
 	@Test
 	public void dropwizardInstalledIfPresent() {
 		this.context = new AnnotationConfigApplicationContext(
@@ -31,6 +31,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Tests for {@link BeansEndpoint}.
  *
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 public class BeansEndpointTests extends AbstractEndpointTests<BeansEndpoint> {
 
@@ -45,6 +46,25 @@ public class BeansEndpointTests extends AbstractEndpointTests<BeansEndpoint> {
 		assertThat(result.get(0)).isInstanceOf(Map.class);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void beanDescription() throws Exception {
+		Map<String, Object> context = (Map<String, Object>) getEndpointBean().invoke()
+				.get(0);
+		assertThat(context).containsKeys("context", "parent", "beans");
+		Map<String, Object> endpoint = null;
+		for (Object bean : (List<Object>) context.get("beans")) {
+			if ("endpoint".equals(((Map<String, Object>) bean).get("bean"))) {
+				endpoint = (Map<String, Object>) bean;
+			}
+		}
+		assertThat(endpoint).isNotNull();
+		assertThat(endpoint.get("scope")).isEqualTo("singleton");
+		assertThat(endpoint.get("type")).isEqualTo(BeansEndpoint.class.getName());
+		assertThat((List<Object>) endpoint.get("aliases")).isEmpty();
+		assertThat(endpoint).containsKeys("resource", "dependencies");
+	}
+
 	@Configuration
 	@EnableConfigurationProperties
 	public static class Config {
@@ -21,7 +21,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -37,6 +39,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Tests for {@link ConfigurationPropertiesReportEndpoint}.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public class ConfigurationPropertiesReportEndpointTests
 		extends AbstractEndpointTests<ConfigurationPropertiesReportEndpoint> {
@@ -51,6 +54,26 @@ public class ConfigurationPropertiesReportEndpointTests
 		assertThat(getEndpointBean().invoke().size()).isGreaterThan(0);
 	}
 
+	@Test
+	public void objectMapperIsConfiguredOnce() throws Exception {
+		final AtomicInteger configured = new AtomicInteger();
+		ConfigurationPropertiesReportEndpoint report = new ConfigurationPropertiesReportEndpoint() {
+
+			@Override
+			protected void configureObjectMapper(ObjectMapper mapper) {
+				configured.incrementAndGet();
+				super.configureObjectMapper(mapper);
+			}
+
+		};
+		report.setApplicationContext(this.context);
+		Map<String, Object> first = report.invoke();
+		Map<String, Object> second = report.invoke();
+		assertThat(configured.get()).isEqualTo(1);
+		assertThat(second).isEqualTo(first);
+		assertThat(second).containsKey("testProperties");
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void testNaming() throws Exception {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.boot.actuate.endpoint;
 
 import java.lang.management.ThreadInfo;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -31,6 +32,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Tests for {@link DumpEndpoint}.
  *
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 public class DumpEndpointTests extends AbstractEndpointTests<DumpEndpoint> {
 
@@ -44,6 +46,40 @@ public class DumpEndpointTests extends AbstractEndpointTests<DumpEndpoint> {
 		assertThat(threadInfo.size()).isGreaterThan(0);
 	}
 
+	@Test
+	public void invokeWithoutLocks() throws Exception {
+		DumpEndpoint endpoint = getEndpointBean();
+		endpoint.setLockedMonitors(false);
+		endpoint.setLockedSynchronizers(false);
+		for (ThreadInfo info : endpoint.invoke()) {
+			assertThat(info.getLockedMonitors()).isEmpty();
+			assertThat(info.getLockedSynchronizers()).isEmpty();
+		}
+	}
+
+	@Test
+	public void sample() throws Exception {
+		Map<String, Integer> stacks = getEndpointBean().sample(3, 1);
+		assertThat(stacks).isNotEmpty();
+		int total = 0;
+		Integer previous = Integer.MAX_VALUE;
+		for (Map.Entry<String, Integer> entry : stacks.entrySet()) {
+			assertThat(entry.getValue()).isLessThanOrEqualTo(previous);
+			previous = entry.getValue();
+			total += entry.getValue();
+		}
+		assertThat(total).isGreaterThanOrEqualTo(3);
+		String current = getClass().getName() + ".sample";
+		boolean found = false;
+		for (String stack : stacks.keySet()) {
+			if (stack.contains(current)) {
+				found = true;
+				assertThat(stack).doesNotContain(" ");
+			}
+		}
+		assertThat(found).isTrue();
+	}
+
 	@Configuration
 	@EnableConfigurationProperties
 	public static class Config {
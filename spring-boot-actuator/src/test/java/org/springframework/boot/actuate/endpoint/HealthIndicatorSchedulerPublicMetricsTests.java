@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.health.ApplicationHealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicatorScheduler;
+import org.springframework.boot.actuate.health.ScheduledHealthIndicator;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HealthIndicatorSchedulerPublicMetrics}.
+ *
+ * @author Jon Ellis
+ */
+public class HealthIndicatorSchedulerPublicMetricsTests {
+
+	@Test
+	public void metrics() throws Exception {
+		HealthIndicatorScheduler scheduler = new HealthIndicatorScheduler(1);
+		try {
+			ScheduledHealthIndicator indicator = scheduler.schedule("application",
+					new ApplicationHealthIndicator(), 10000, 0);
+			while (indicator.getAge() < 0) {
+				Thread.sleep(10);
+			}
+			Map<String, Metric<?>> results = new HashMap<String, Metric<?>>();
+			for (Metric<?> metric : new HealthIndicatorSchedulerPublicMetrics(scheduler)
+					.metrics()) {
+				results.put(metric.getName(), metric);
+			}
+			assertThat(results).containsOnlyKeys("health.application.age",
+					"health.application.duration");
+			assertThat(results.get("health.application.age").getValue().longValue())
+					.isGreaterThanOrEqualTo(0);
+		}
+		finally {
+			scheduler.close();
+		}
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.AuditAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.EndpointWebMvcAutoConfiguration;
+import org.springframework.boot.actuate.endpoint.DumpEndpoint;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link DumpMvcEndpoint}.
+ *
+ * @author Jon Ellis
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@TestPropertySource(properties = "management.security.enabled=false")
+public class DumpMvcEndpointTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private TestDumpEndpoint endpoint;
+
+	private MockMvc mvc;
+
+	@Before
+	public void setup() {
+		this.endpoint.block = false;
+		this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void dump() throws Exception {
+		this.mvc.perform(get("/dump")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("\"threadName\":\""
+						+ Thread.currentThread().getName())));
+	}
+
+	@Test
+	public void sample() throws Exception {
+		String body = this.mvc.perform(get("/dump").param("samples", "2"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+				.andReturn().getResponse().getContentAsString();
+		assertThat(body).isEqualTo("a;b 2\n");
+		assertThat(this.endpoint.samples).isEqualTo(2);
+	}
+
+	@Test
+	public void sampleIsCapped() throws Exception {
+		this.mvc.perform(get("/dump").param("samples", "1000").param("interval",
+				"100000")).andExpect(status().isOk());
+		assertThat(this.endpoint.samples).isEqualTo(100);
+		assertThat(this.endpoint.interval).isEqualTo(1000);
+	}
+
+	@Test
+	public void sampleWithInvalidCount() throws Exception {
+		this.mvc.perform(get("/dump").param("samples", "0"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void concurrentRequestIsRejected() throws Exception {
+		this.endpoint.block = true;
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					DumpMvcEndpointTests.this.mvc
+							.perform(get("/dump").param("samples", "1"));
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+
+		});
+		thread.start();
+		try {
+			assertThat(this.endpoint.started.await(5, TimeUnit.SECONDS)).isTrue();
+			this.mvc.perform(get("/dump").param("samples", "1"))
+					.andExpect(status().isTooManyRequests());
+			this.mvc.perform(get("/dump")).andExpect(status().isTooManyRequests());
+		}
+		finally {
+			this.endpoint.release.countDown();
+			thread.join(5000);
+		}
+	}
+
+	@Import({ JacksonAutoConfiguration.class, AuditAutoConfiguration.class,
+			HttpMessageConvertersAutoConfiguration.class,
+			EndpointWebMvcAutoConfiguration.class, WebMvcAutoConfiguration.class })
+	@Configuration
+	public static class TestConfiguration {
+
+		@Bean
+		public TestDumpEndpoint endpoint() {
+			return new TestDumpEndpoint();
+		}
+
+		@Bean
+		public DumpMvcEndpoint dumpMvcEndpoint(DumpEndpoint endpoint) {
+			return new DumpMvcEndpoint(endpoint, 100);
+		}
+
+	}
+
+	static class TestDumpEndpoint extends DumpEndpoint {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private volatile boolean block;
+
+		private int samples;
+
+		private long interval;
+
+		@Override
+		public Map<String, Integer> sample(int samples, long interval)
+				throws InterruptedException {
+			this.samples = samples;
+			this.interval = interval;
+			if (this.block) {
+				this.started.countDown();
+				this.release.await(5, TimeUnit.SECONDS);
+			}
+			return Collections.singletonMap("a;b", samples);
+		}
+
+	}
+
+}
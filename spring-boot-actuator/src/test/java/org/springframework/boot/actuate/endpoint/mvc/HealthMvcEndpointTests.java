@@ -28,11 +28,14 @@ import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.Status;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.env.MockEnvironment;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -46,6 +49,7 @@ import static org.mockito.Mockito.mock;
  * @author Andy Wilkinson
  * @author Eddú Meléndez
  * @author Madhura Bhave
+ * @author Jon Ellis
  */
 public class HealthMvcEndpointTests {
 
@@ -233,4 +237,69 @@ public class HealthMvcEndpointTests {
 		Health health = ((ResponseEntity<Health>) result).getBody();
 		assertThat(health.getStatus() == Status.DOWN).isTrue();
 	}
+
+	@Test
+	public void notModifiedWhenETagMatches() {
+		given(this.endpoint.getTimeToLive()).willReturn(10000L);
+		given(this.endpoint.invoke())
+				.willReturn(new Health.Builder().up().withDetail("foo", "bar").build());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Object result = this.mvc.invoke(request,
+				new ServletWebRequest(request, response));
+		assertThat(result instanceof Health).isTrue();
+		String etag = response.getHeader(HttpHeaders.ETAG);
+		assertThat(etag).startsWith("\"");
+		request = new MockHttpServletRequest("GET", "/health");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+		response = new MockHttpServletResponse();
+		result = this.mvc.invoke(request, new ServletWebRequest(request, response));
+		assertThat(result).isNull();
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+	}
+
+	@Test
+	public void eTagDiffersBetweenDetailsAndStatusOnly() {
+		given(this.endpoint.getTimeToLive()).willReturn(10000L);
+		given(this.endpoint.invoke())
+				.willReturn(new Health.Builder().up().withDetail("foo", "bar").build());
+		MockHttpServletRequest actuator = (MockHttpServletRequest) this.actuator;
+		actuator.setMethod("GET");
+		MockHttpServletResponse details = new MockHttpServletResponse();
+		this.mvc.invoke(actuator, new ServletWebRequest(actuator, details));
+		MockHttpServletRequest user = (MockHttpServletRequest) this.user;
+		user.setMethod("GET");
+		MockHttpServletResponse statusOnly = new MockHttpServletResponse();
+		this.mvc.invoke(user, new ServletWebRequest(user, statusOnly));
+		assertThat(details.getHeader(HttpHeaders.ETAG)).isNotNull();
+		assertThat(details.getHeader(HttpHeaders.ETAG))
+				.isNotEqualTo(statusOnly.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	public void noETagWhenTimeToLiveIsZero() {
+		given(this.endpoint.getTimeToLive()).willReturn(0L);
+		given(this.endpoint.invoke()).willReturn(new Health.Builder().up().build());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Object result = this.mvc.invoke(request,
+				new ServletWebRequest(request, response));
+		assertThat(result instanceof Health).isTrue();
+		assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+	}
+
+	@Test
+	public void notModifiedIsNotUsedForMappedStatus() {
+		given(this.endpoint.getTimeToLive()).willReturn(10000L);
+		given(this.endpoint.invoke()).willReturn(new Health.Builder().down().build());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"*\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Object result = this.mvc.invoke(request,
+				new ServletWebRequest(request, response));
+		assertThat(result instanceof ResponseEntity).isTrue();
+		assertThat(((ResponseEntity<?>) result).getStatusCode())
+				.isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
 }
@@ -46,14 +46,17 @@ import org.springframework.util.FileCopyUtils;
 import org.springframework.web.context.WebApplicationContext;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Tests for {@link HeapdumpMvcEndpoint}.
  *
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -109,6 +112,42 @@ public class HeapdumpMvcEndpointTests {
 		assertThat(uncompressed).isEqualTo("HEAPDUMP".getBytes());
 	}
 
+	@Test
+	public void invokeShouldReturnHeaders() throws Exception {
+		this.mvc.perform(get("/heapdump")).andExpect(status().isOk())
+				.andExpect(header().string("X-Heapdump-Size", "8"))
+				.andExpect(header().string("X-Heapdump-Duration", notNullValue()));
+	}
+
+	@Test
+	public void invokeShouldDeleteDumpFile() throws Exception {
+		this.mvc.perform(get("/heapdump")).andExpect(status().isOk());
+		assertThat(this.endpoint.getDumpFile()).isNotNull();
+		assertThat(this.endpoint.getDumpFile()).doesNotExist();
+	}
+
+	@Test
+	public void compressionIsSingleThreadedByDefault() {
+		assertThat(new HeapdumpMvcEndpoint().getCompressionThreads()).isEqualTo(1);
+	}
+
+	@Test
+	public void invokeWithParallelCompressionShouldReturnGzipContent()
+			throws Exception {
+		char[] content = new char[3 * 1024 * 1024 + 17];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (char) ('a' + (i % 7 == 0 ? i % 26 : 0));
+		}
+		this.endpoint.setHeapDump(new String(content));
+		this.endpoint.setCompressionThreads(3);
+		MvcResult result = this.mvc.perform(get("/heapdump")).andExpect(status().isOk())
+				.andReturn();
+		byte[] bytes = result.getResponse().getContentAsByteArray();
+		GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+		byte[] uncompressed = FileCopyUtils.copyToByteArray(stream);
+		assertThat(uncompressed).isEqualTo(new String(content).getBytes());
+	}
+
 	@Test
 	public void invokeOptionsShouldReturnSize() throws Exception {
 		this.mvc.perform(options("/heapdump")).andExpect(status().isOk());
@@ -135,6 +174,8 @@ public class HeapdumpMvcEndpointTests {
 
 		private String heapDump;
 
+		private File dumpFile;
+
 		TestHeapdumpMvcEndpoint() {
 			super(TimeUnit.SECONDS.toMillis(1));
 			reset();
@@ -144,6 +185,8 @@ public class HeapdumpMvcEndpointTests {
 			this.available = true;
 			this.locked = false;
 			this.heapDump = "HEAPDUMP";
+			this.dumpFile = null;
+			setCompressionThreads(1);
 		}
 
 		@Override
@@ -162,6 +205,7 @@ public class HeapdumpMvcEndpointTests {
 					if (file.exists()) {
 						throw new IOException("File exists");
 					}
+					TestHeapdumpMvcEndpoint.this.dumpFile = file;
 					FileCopyUtils.copy(TestHeapdumpMvcEndpoint.this.heapDump.getBytes(),
 							file);
 				}
@@ -177,6 +221,14 @@ public class HeapdumpMvcEndpointTests {
 			this.locked = locked;
 		}
 
+		public void setHeapDump(String heapDump) {
+			this.heapDump = heapDump;
+		}
+
+		public File getDumpFile() {
+			return this.dumpFile;
+		}
+
 	}
 
 }
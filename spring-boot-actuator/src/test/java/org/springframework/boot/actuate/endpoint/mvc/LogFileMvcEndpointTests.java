@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,27 +17,43 @@
 package org.springframework.boot.actuate.endpoint.mvc;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Collections;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.env.MockEnvironment;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.util.FileCopyUtils;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Tests for {@link LogFileMvcEndpoint}.
  *
  * @author Johannes Edmeier
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 public class LogFileMvcEndpointTests {
 
@@ -50,6 +66,8 @@ public class LogFileMvcEndpointTests {
 
 	private File logFile;
 
+	private GenericWebApplicationContext context;
+
 	@Before
 	public void before() throws IOException {
 		this.logFile = this.temp.newFile();
@@ -59,6 +77,14 @@ public class LogFileMvcEndpointTests {
 		this.mvc.setEnvironment(this.environment);
 	}
 
+	@After
+	public void after() {
+		if (this.context != null) {
+			this.context.close();
+		}
+		this.mvc.destroy();
+	}
+
 	@Test
 	public void notAvailableWithoutLogFile() throws Exception {
 		MockHttpServletResponse response = new MockHttpServletResponse();
@@ -121,4 +147,174 @@ public class LogFileMvcEndpointTests {
 		assertThat("--TEST--").isEqualTo(response.getContentAsString());
 	}
 
+	@Test
+	public void invokeGetsTailBytes() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setParameter("tail", "5");
+		this.mvc.invoke(request, response);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(response.getContentLength()).isEqualTo(5);
+		assertThat(response.getContentAsString()).isEqualTo("EST--");
+	}
+
+	@Test
+	public void invokeGetsTailLines() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			content.append("line ").append(i).append("\n");
+		}
+		FileCopyUtils.copy(content.toString().getBytes(), this.logFile);
+		this.mvc.setExternalFile(this.logFile);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setParameter("lines", "2");
+		this.mvc.invoke(request, response);
+		assertThat(response.getContentAsString()).isEqualTo("line 4998\nline 4999\n");
+	}
+
+	@Test
+	public void invokeGetsTailLinesMoreThanFile() throws Exception {
+		FileCopyUtils.copy("one\ntwo".getBytes(), this.logFile);
+		this.mvc.setExternalFile(this.logFile);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setParameter("lines", "10");
+		this.mvc.invoke(request, response);
+		assertThat(response.getContentAsString()).isEqualTo("one\ntwo");
+	}
+
+	@Test
+	public void invokeWithInvalidTail() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setParameter("tail", "all");
+		this.mvc.invoke(request, response);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+	}
+
+	@Test
+	public void invokeWithNegativeTail() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setParameter("tail", "-5");
+		this.mvc.invoke(request, response);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+	}
+
+	@Test
+	public void followWithNegativeTail() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		MockMvc mockMvc = createMockMvc();
+		mockMvc.perform(get("/logfile").param("tail", "-5").param("follow", "true"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void invokeUsesSendfileWhenSupported() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setAttribute("org.apache.tomcat.sendfile.support", true);
+		request.setParameter("tail", "5");
+		this.mvc.invoke(request, response);
+		assertThat(response.getContentAsString()).isEmpty();
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.start"))
+				.isEqualTo(3L);
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.end"))
+				.isEqualTo(8L);
+	}
+
+	@Test
+	public void invokeFollowsAppendedAndRolledContent() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		this.mvc.setFollowTimeout(3000);
+		final File rolled = this.temp.newFile();
+		rolled.delete();
+		Thread writer = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(700);
+					append("one");
+					Thread.sleep(700);
+					append("two");
+					LogFileMvcEndpointTests.this.logFile.renameTo(rolled);
+					FileCopyUtils.copy("three".getBytes(),
+							LogFileMvcEndpointTests.this.logFile);
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+
+		};
+		writer.start();
+		MockMvc mockMvc = createMockMvc();
+		MvcResult result = mockMvc
+				.perform(get("/logfile").param("tail", "2").param("follow", "true"))
+				.andExpect(request().asyncStarted()).andReturn();
+		result.getAsyncResult(10000);
+		writer.join();
+		assertThat(result.getResponse().getContentType()).startsWith("text/plain");
+		assertThat(result.getResponse().getContentAsString())
+				.isEqualTo("--onetwothree");
+	}
+
+	@Test
+	public void followRejectedWhenTooManyFollowers() throws Exception {
+		this.mvc.setExternalFile(this.logFile);
+		this.mvc.setFollowTimeout(1000);
+		this.mvc.setMaxFollowers(1);
+		MockMvc mockMvc = createMockMvc();
+		MvcResult result = mockMvc.perform(get("/logfile").param("follow", "true"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(get("/logfile").param("follow", "true"))
+				.andExpect(status().isServiceUnavailable());
+		result.getAsyncResult(10000);
+		mockMvc.perform(get("/logfile").param("follow", "true"))
+				.andExpect(request().asyncStarted());
+	}
+
+	private MockMvc createMockMvc() {
+		this.context = new GenericWebApplicationContext(new MockServletContext());
+		this.context.getBeanFactory().registerSingleton("logFileMvcEndpoint", this.mvc);
+		new AnnotatedBeanDefinitionReader(this.context)
+				.register(FollowConfiguration.class);
+		this.context.refresh();
+		return MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	private void append(String content) throws IOException {
+		FileOutputStream out = new FileOutputStream(this.logFile, true);
+		try {
+			out.write(content.getBytes());
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	@Configuration
+	@EnableWebMvc
+	static class FollowConfiguration {
+
+		@Bean
+		public EndpointHandlerMapping endpointHandlerMapping(
+				LogFileMvcEndpoint endpoint) {
+			return new EndpointHandlerMapping(Collections.singleton(endpoint));
+		}
+
+	}
+
 }
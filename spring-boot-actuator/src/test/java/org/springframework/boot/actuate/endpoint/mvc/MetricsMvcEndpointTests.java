@@ -19,7 +19,9 @@ package org.springframework.boot.actuate.endpoint.mvc;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -43,11 +45,14 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -58,6 +63,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *
  * @author Andy Wilkinson
  * @author Sergei Egorov
+ * @author Jon Ellis
  */
 @RunWith(SpringRunner.class)
 @DirtiesContext
@@ -76,6 +82,11 @@ public class MetricsMvcEndpointTests {
 		this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
 	}
 
+	@After
+	public void reset() {
+		this.context.getBean(MetricsMvcEndpoint.class).setTimeToLive(0);
+	}
+
 	@Test
 	public void home() throws Exception {
 		this.mvc.perform(get("/metrics")).andExpect(status().isOk())
@@ -162,18 +173,64 @@ public class MetricsMvcEndpointTests {
 				.andExpect(content().string(containsString("1")));
 	}
 
+	@Test
+	public void noETagWhenNotCached() throws Exception {
+		this.mvc.perform(get("/metrics")).andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+	}
+
+	@Test
+	public void homeNotModified() throws Exception {
+		this.context.getBean(MetricsMvcEndpoint.class).setTimeToLive(10000);
+		MvcResult result = this.mvc.perform(get("/metrics"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+				.andReturn();
+		String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+		this.mvc.perform(get("/metrics").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	public void specificMetricNotModified() throws Exception {
+		this.context.getBean(MetricsMvcEndpoint.class).setTimeToLive(10000);
+		MvcResult result = this.mvc.perform(get("/metrics/foo"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+				.andReturn();
+		String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+		this.mvc.perform(get("/metrics/foo").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		this.mvc.perform(get("/metrics/group1.a").header(HttpHeaders.IF_NONE_MATCH,
+				etag)).andExpect(status().isOk());
+	}
+
+	@Test
+	public void metricsAreCachedForTimeToLive() throws Exception {
+		this.context.getBean(MetricsMvcEndpoint.class).setTimeToLive(10000);
+		this.mvc.perform(get("/metrics")).andExpect(status().isOk());
+		int reads = TestConfiguration.reads.get();
+		this.mvc.perform(get("/metrics")).andExpect(status().isOk());
+		this.mvc.perform(get("/metrics/foo")).andExpect(status().isOk());
+		assertThat(TestConfiguration.reads.get()).isEqualTo(reads);
+	}
+
 	@Import({ JacksonAutoConfiguration.class, AuditAutoConfiguration.class,
 			HttpMessageConvertersAutoConfiguration.class,
 			EndpointWebMvcAutoConfiguration.class, WebMvcAutoConfiguration.class })
 	@Configuration
 	public static class TestConfiguration {
 
+		static final AtomicInteger reads = new AtomicInteger();
+
 		@Bean
 		public MetricsEndpoint endpoint() {
 			return new MetricsEndpoint(new PublicMetrics() {
 
 				@Override
 				public Collection<Metric<?>> metrics() {
+					reads.incrementAndGet();
 					ArrayList<Metric<?>> metrics = new ArrayList<Metric<?>>();
 					metrics.add(new Metric<Integer>("foo", 1));
 					metrics.add(new Metric<Integer>("group1.a", 1));
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.AuditAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.EndpointWebMvcAutoConfiguration;
+import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
+import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link PrometheusMvcEndpoint}.
+ *
+ * @author Jon Ellis
+ */
+@RunWith(SpringRunner.class)
+@DirtiesContext
+@SpringBootTest
+@TestPropertySource(properties = "management.security.enabled=false")
+public class PrometheusMvcEndpointTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mvc;
+
+	@Before
+	public void setUp() {
+		this.context.getBean(MetricsEndpoint.class).setEnabled(true);
+		this.context.getBean(PrometheusMvcEndpoint.class).setEnabled(true);
+		this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void countersAreExposedAsGauges() throws Exception {
+		this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+				.andExpect(content().string(containsString(
+						"# TYPE counter_status_200_root gauge\n"
+								+ "counter_status_200_root 20\n")))
+				.andExpect(content().string(containsString(
+						"# TYPE gauge_response_root gauge\n"
+								+ "gauge_response_root 2.5\n")));
+	}
+
+	@Test
+	public void namesAreSanitized() throws Exception {
+		this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("\n_5xx_rate_min 1\n")));
+	}
+
+	@Test
+	public void metricReaderIsStreamed() throws Exception {
+		this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("\nreader_value 3\n")));
+	}
+
+	@Test
+	public void nullValuesAreSkipped() throws Exception {
+		this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(not(containsString("baz"))));
+	}
+
+	@Test
+	public void duplicateNamesAreWrittenOnce() throws Exception {
+		String body = this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertThat(body).containsOnlyOnce("# TYPE group_a gauge");
+		assertThat(body).contains("\ngroup_a 1\n");
+		body = this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertThat(body).containsOnlyOnce("# TYPE group_a gauge");
+		assertThat(body).contains("\ngroup_a 1\n");
+	}
+
+	@Test
+	public void specialValues() throws Exception {
+		this.mvc.perform(get("/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("\nnan NaN\n")))
+				.andExpect(content().string(containsString("\ninfinite +Inf\n")));
+	}
+
+	@Test
+	public void disabled() throws Exception {
+		this.context.getBean(PrometheusMvcEndpoint.class).setEnabled(false);
+		this.mvc.perform(get("/prometheus")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void metricsEndpointDisabled() throws Exception {
+		this.context.getBean(MetricsEndpoint.class).setEnabled(false);
+		this.mvc.perform(get("/prometheus")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void sanitize() {
+		assertThat(PrometheusMvcEndpoint.sanitize("valid_name:total"))
+				.isEqualTo("valid_name:total");
+		assertThat(PrometheusMvcEndpoint.sanitize("gauge.response.star-star"))
+				.isEqualTo("gauge_response_star_star");
+		assertThat(PrometheusMvcEndpoint.sanitize("9lives")).isEqualTo("_9lives");
+		assertThat(PrometheusMvcEndpoint.sanitize("")).isEqualTo("_");
+	}
+
+	@Import({ JacksonAutoConfiguration.class, AuditAutoConfiguration.class,
+			HttpMessageConvertersAutoConfiguration.class,
+			EndpointWebMvcAutoConfiguration.class, WebMvcAutoConfiguration.class })
+	@Configuration
+	public static class TestConfiguration {
+
+		@Bean
+		public MetricsEndpoint endpoint() {
+			InMemoryMetricRepository repository = new InMemoryMetricRepository();
+			repository.set(new Metric<Integer>("reader.value", 3));
+			return new MetricsEndpoint(Arrays.<PublicMetrics>asList(new PublicMetrics() {
+
+				@Override
+				public Collection<Metric<?>> metrics() {
+					ArrayList<Metric<?>> metrics = new ArrayList<Metric<?>>();
+					metrics.add(new Metric<Integer>("counter.status.200.root", 20));
+					metrics.add(new Metric<Double>("gauge.response.root", 2.5));
+					metrics.add(new Metric<Integer>("5xx.rate-min", 1));
+					metrics.add(new Metric<Integer>("group.a", 1));
+					metrics.add(new Metric<Integer>("group_a", 2));
+					metrics.add(new Metric<Double>("nan", Double.NaN));
+					metrics.add(new Metric<Double>("infinite",
+							Double.POSITIVE_INFINITY));
+					metrics.add(new Metric<Integer>("baz", null));
+					return Collections.unmodifiableList(metrics);
+				}
+
+			}, new MetricReaderPublicMetrics(repository)));
+		}
+
+	}
+
+}
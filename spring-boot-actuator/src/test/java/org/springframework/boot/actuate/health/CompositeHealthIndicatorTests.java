@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,15 @@ package org.springframework.boot.actuate.health;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -27,6 +34,8 @@ import org.mockito.MockitoAnnotations;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link CompositeHealthIndicator}
@@ -34,11 +43,14 @@ import static org.mockito.BDDMockito.given;
  * @author Tyler J. Frederick
  * @author Phillip Webb
  * @author Christian Dupuis
+ * @author Jon Ellis
  */
 public class CompositeHealthIndicatorTests {
 
 	private HealthAggregator healthAggregator;
 
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
 	@Mock
 	private HealthIndicator one;
 
@@ -61,6 +73,11 @@ public class CompositeHealthIndicatorTests {
 		this.healthAggregator = new OrderedHealthAggregator();
 	}
 
+	@After
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
 	@Test
 	public void createWithIndicators() throws Exception {
 		Map<String, HealthIndicator> indicators = new HashMap<String, HealthIndicator>();
@@ -126,4 +143,95 @@ public class CompositeHealthIndicatorTests {
 						+ "\"db2\":{\"status\":\"UNKNOWN\",\"2\":\"2\"}}}");
 	}
 
+	@Test
+	public void parallelCallsIndicatorsConcurrently() throws Exception {
+		CountDownLatch latch = new CountDownLatch(2);
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.addHealthIndicator("one", new LatchHealthIndicator(latch));
+		composite.addHealthIndicator("two", new LatchHealthIndicator(latch));
+		composite.setExecutor(this.executor);
+		composite.setTimeout(10000);
+		Health result = composite.health();
+		assertThat(result.getStatus()).isEqualTo(Status.UP);
+		assertThat(result.getDetails()).containsOnlyKeys("one", "two");
+	}
+
+	@Test
+	public void parallelReportsUnknownWhenIndicatorTimesOut() throws Exception {
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("hung",
+				new LatchHealthIndicator(new CountDownLatch(2)));
+		composite.setExecutor(this.executor);
+		composite.setTimeout(100);
+		Health result = composite.health();
+		assertThat(result.getDetails()).containsEntry("one",
+				new Health.Builder().unknown().withDetail("1", "1").build());
+		Health hung = (Health) result.getDetails().get("hung");
+		assertThat(hung.getStatus()).isEqualTo(Status.UNKNOWN);
+		assertThat(hung.getDetails()).containsEntry("error", "Timed out after 100ms");
+	}
+
+	@Test
+	public void parallelReportsDownWhenIndicatorFails() throws Exception {
+		given(this.two.health()).willThrow(new IllegalStateException("Failed"));
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("two", this.two);
+		composite.setExecutor(this.executor);
+		Health result = composite.health();
+		assertThat(result.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(((Health) result.getDetails().get("two")).getDetails())
+				.containsEntry("error", "java.lang.IllegalStateException: Failed");
+	}
+
+	@Test
+	public void parallelReportsUnknownWhenExecutorRejectsIndicator() throws Exception {
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("two", this.two);
+		composite.setExecutor(new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+
+		});
+		Health result = composite.health();
+		assertThat(result.getStatus()).isEqualTo(Status.UNKNOWN);
+		assertThat(((Health) result.getDetails().get("one")).getDetails())
+				.containsEntry("error", "Rejected by the health indicator executor");
+		verify(this.one, never()).health();
+	}
+
+	private static class LatchHealthIndicator implements HealthIndicator {
+
+		private final CountDownLatch latch;
+
+		LatchHealthIndicator(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Health health() {
+			this.latch.countDown();
+			try {
+				if (!this.latch.await(5, TimeUnit.SECONDS)) {
+					return Health.down().build();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return Health.down().build();
+			}
+			return Health.up().build();
+		}
+
+	}
+
 }
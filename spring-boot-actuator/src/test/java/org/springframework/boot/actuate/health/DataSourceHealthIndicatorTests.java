@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,12 +25,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.boot.autoconfigure.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetadata;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -38,6 +40,7 @@ import static org.mockito.Mockito.verify;
  * Tests for {@link DataSourceHealthIndicator}.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public class DataSourceHealthIndicatorTests {
 
@@ -103,4 +106,74 @@ public class DataSourceHealthIndicatorTests {
 		verify(connection, times(2)).close();
 	}
 
+	@Test
+	public void productIsCached() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		given(connection.getMetaData())
+				.willReturn(this.dataSource.getConnection().getMetaData());
+		given(dataSource.getConnection()).willReturn(connection);
+		this.indicator.setDataSource(dataSource);
+		this.indicator.health();
+		this.indicator.health();
+		verify(connection, times(1)).getMetaData();
+	}
+
+	@Test
+	public void connectionValidation() throws Exception {
+		this.indicator.setDataSource(this.dataSource);
+		this.indicator.setValidationTimeout(1);
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails().get("database")).isNotNull();
+		assertThat(health.getDetails()).containsEntry("valid", true)
+				.doesNotContainKey("hello");
+	}
+
+	@Test
+	public void invalidConnection() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		given(connection.getMetaData())
+				.willReturn(this.dataSource.getConnection().getMetaData());
+		given(connection.isValid(1)).willReturn(false);
+		given(dataSource.getConnection()).willReturn(connection);
+		this.indicator.setDataSource(dataSource);
+		this.indicator.setValidationTimeout(1);
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(health.getDetails()).containsEntry("valid", false);
+	}
+
+	@Test
+	public void poolDetails() {
+		this.indicator.setDataSource(this.dataSource);
+		this.indicator.setPoolMetadata(mockPoolMetadata(2, 10));
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("active", 2)
+				.containsEntry("max", 10).containsEntry("usage", 0.2f)
+				.containsEntry("saturated", false).containsKey("hello");
+	}
+
+	@Test
+	public void saturatedPoolDoesNotBorrowConnection() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		this.indicator.setDataSource(dataSource);
+		this.indicator.setPoolMetadata(mockPoolMetadata(10, 10));
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("saturated", true)
+				.doesNotContainKeys("database", "hello");
+		verify(dataSource, never()).getConnection();
+	}
+
+	private DataSourcePoolMetadata mockPoolMetadata(int active, int max) {
+		DataSourcePoolMetadata poolMetadata = mock(DataSourcePoolMetadata.class);
+		given(poolMetadata.getActive()).willReturn(active);
+		given(poolMetadata.getMax()).willReturn(max);
+		given(poolMetadata.getUsage()).willReturn((float) active / max);
+		return poolMetadata;
+	}
+
 }
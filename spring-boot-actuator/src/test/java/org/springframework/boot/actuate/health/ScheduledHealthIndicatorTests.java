@@ -0,0 +1,238 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ScheduledHealthIndicator} and {@link HealthIndicatorScheduler}.
+ *
+ * @author Jon Ellis
+ */
+public class ScheduledHealthIndicatorTests {
+
+	private final HealthIndicatorScheduler scheduler = new HealthIndicatorScheduler(2);
+
+	@After
+	public void close() {
+		this.scheduler.close();
+	}
+
+	@Test
+	public void unknownBeforeFirstCheck() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		ScheduledHealthIndicator indicator = this.scheduler.schedule("test",
+				new BlockingHealthIndicator(latch, 0), 10000, 0);
+		assertThat(indicator.health().getStatus()).isEqualTo(Status.UNKNOWN);
+		assertThat(indicator.getAge()).isEqualTo(-1);
+		assertThat(indicator.getLastCheckDuration()).isEqualTo(-1);
+		latch.countDown();
+		waitForCheck(indicator);
+		assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+		assertThat(indicator.getAge()).isGreaterThanOrEqualTo(0);
+		assertThat(indicator.getLastCheckDuration()).isGreaterThanOrEqualTo(0);
+	}
+
+	@Test
+	public void servesPreviousResultWhileChecking() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		BlockingHealthIndicator delegate = new BlockingHealthIndicator(latch, 1);
+		ScheduledHealthIndicator indicator = this.scheduler.schedule("test", delegate,
+				10, 0);
+		waitForCheck(indicator);
+		while (delegate.calls.get() < 2) {
+			Thread.sleep(10);
+		}
+		Health health = indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("call", 1);
+		latch.countDown();
+	}
+
+	@Test
+	public void downWhenCheckFails() throws Exception {
+		ScheduledHealthIndicator indicator = this.scheduler.schedule("test",
+				new HealthIndicator() {
+
+					@Override
+					public Health health() {
+						throw new IllegalStateException("Failed");
+					}
+
+				}, 10000, 0);
+		waitForCheck(indicator);
+		assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+		assertThat(indicator.health().getDetails()).containsEntry("error",
+				"java.lang.IllegalStateException: Failed");
+	}
+
+	@Test
+	public void rechecksPeriodically() throws Exception {
+		BlockingHealthIndicator delegate = new BlockingHealthIndicator(
+				new CountDownLatch(0), 0);
+		this.scheduler.schedule("test", delegate, 10, 5);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (delegate.calls.get() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(delegate.calls.get()).isGreaterThanOrEqualTo(3);
+		assertThat(this.scheduler.getIndicators()).containsOnlyKeys("test");
+	}
+
+	@Test
+	public void unknownWhenCheckTimesOut() throws Exception {
+		HealthIndicatorScheduler scheduler = new HealthIndicatorScheduler(1, 100);
+		try {
+			ScheduledHealthIndicator indicator = scheduler.schedule("test",
+					new BlockingHealthIndicator(new CountDownLatch(1), 0), 10000, 0);
+			waitForCheck(indicator);
+			Health health = indicator.health();
+			assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+			assertThat(health.getDetails()).containsEntry("error",
+					"Timed out after 100ms");
+		}
+		finally {
+			scheduler.close();
+		}
+	}
+
+	@Test
+	public void hungCheckDoesNotBlockOtherIndicators() throws Exception {
+		HealthIndicatorScheduler scheduler = new HealthIndicatorScheduler(1, 50);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			UninterruptibleHealthIndicator hung = new UninterruptibleHealthIndicator(
+					latch);
+			ScheduledHealthIndicator hungIndicator = scheduler.schedule("hung", hung,
+					10, 0);
+			BlockingHealthIndicator healthy = new BlockingHealthIndicator(
+					new CountDownLatch(0), 0);
+			scheduler.schedule("healthy", healthy, 10, 0);
+			long deadline = System.currentTimeMillis() + 5000;
+			while (healthy.calls.get() < 5 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(healthy.calls.get()).isGreaterThanOrEqualTo(5);
+			assertThat(hung.calls.get()).isEqualTo(1);
+			assertThat(hungIndicator.health().getDetails()).containsEntry("error",
+					"Timed out after 50ms");
+			latch.countDown();
+			while (hung.calls.get() < 2 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(hung.calls.get()).isGreaterThanOrEqualTo(2);
+		}
+		finally {
+			latch.countDown();
+			scheduler.close();
+		}
+	}
+
+	@Test
+	public void unknownWhenResultIsStale() throws Exception {
+		HealthIndicatorScheduler scheduler = new HealthIndicatorScheduler(1, 20);
+		ScheduledHealthIndicator indicator = scheduler.schedule("test",
+				new BlockingHealthIndicator(new CountDownLatch(0), 0), 10, 0);
+		waitForCheck(indicator);
+		scheduler.close();
+		long maxAge = ScheduledHealthIndicator.STALE_INTERVALS * 10 + 20;
+		while (indicator.getAge() <= maxAge) {
+			Thread.sleep(10);
+		}
+		Health health = indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+		assertThat(health.getDetails()).containsEntry("error",
+				"Health check result is stale");
+		assertThat((Long) health.getDetails().get("age")).isGreaterThan(maxAge);
+	}
+
+	private void waitForCheck(ScheduledHealthIndicator indicator)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (indicator.getAge() < 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(indicator.getAge()).isGreaterThanOrEqualTo(0);
+	}
+
+	private static class UninterruptibleHealthIndicator implements HealthIndicator {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private final CountDownLatch latch;
+
+		UninterruptibleHealthIndicator(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Health health() {
+			this.calls.incrementAndGet();
+			boolean interrupted = false;
+			while (this.latch.getCount() > 0) {
+				try {
+					this.latch.await();
+				}
+				catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return Health.up().build();
+		}
+
+	}
+
+	private static class BlockingHealthIndicator implements HealthIndicator {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private final CountDownLatch latch;
+
+		private final int blockAfter;
+
+		BlockingHealthIndicator(CountDownLatch latch, int blockAfter) {
+			this.latch = latch;
+			this.blockAfter = blockAfter;
+		}
+
+		@Override
+		public Health health() {
+			int call = this.calls.incrementAndGet();
+			if (call > this.blockAfter) {
+				try {
+					this.latch.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return Health.up().withDetail("call", call).build();
+		}
+
+	}
+
+}
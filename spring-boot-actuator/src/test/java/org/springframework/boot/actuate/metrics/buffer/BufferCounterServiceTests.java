@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.BoundCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BufferCounterService}.
+ *
+ * @author Jon Ellis
+ */
+public class BufferCounterServiceTests {
+
+	private final CounterBuffers buffers = new CounterBuffers();
+
+	private final BufferCounterService service = new BufferCounterService(this.buffers);
+
+	@Test
+	public void incrementAddsCounterPrefix() {
+		this.service.increment("foo");
+		this.service.increment("foo");
+		assertThat(this.buffers.find("counter.foo").getValue()).isEqualTo(2L);
+	}
+
+	@Test
+	public void boundCounterSharesServiceBuffer() {
+		BoundCounter counter = this.service.counter("foo");
+		assertThat(counter.getName()).isEqualTo("counter.foo");
+		counter.increment();
+		counter.increment(3);
+		counter.decrement();
+		this.service.increment("foo");
+		assertThat(this.buffers.find("counter.foo").getValue()).isEqualTo(4L);
+	}
+
+	@Test
+	public void boundCounterUpdatesTimestamp() {
+		long before = System.currentTimeMillis();
+		this.service.counter("meter.foo").increment();
+		assertThat(this.buffers.find("meter.foo").getTimestamp())
+				.isGreaterThanOrEqualTo(before);
+	}
+
+	@Test
+	public void boundCounterReset() {
+		BoundCounter counter = this.service.counter("foo");
+		counter.increment(5);
+		this.service.reset("foo");
+		counter.increment();
+		assertThat(this.buffers.find("counter.foo").getValue()).isEqualTo(1L);
+		counter.reset();
+		assertThat(this.buffers.find("counter.foo").getValue()).isEqualTo(0L);
+	}
+
+}
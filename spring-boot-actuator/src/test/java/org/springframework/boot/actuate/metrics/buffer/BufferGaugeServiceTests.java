@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.BoundGauge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BufferGaugeService}.
+ *
+ * @author Jon Ellis
+ */
+public class BufferGaugeServiceTests {
+
+	private final GaugeBuffers buffers = new GaugeBuffers();
+
+	private final HistogramBuffers histograms = new HistogramBuffers();
+
+	private final BufferGaugeService service = new BufferGaugeService(this.buffers,
+			this.histograms);
+
+	@Test
+	public void submitAddsGaugePrefix() {
+		this.service.submit("foo", 2.5);
+		assertThat(this.buffers.find("gauge.foo").getValue()).isEqualTo(2.5);
+	}
+
+	@Test
+	public void boundGaugeSharesServiceBuffer() {
+		BoundGauge gauge = this.service.gauge("foo");
+		assertThat(gauge.getName()).isEqualTo("gauge.foo");
+		gauge.submit(1.5);
+		assertThat(this.buffers.find("gauge.foo").getValue()).isEqualTo(1.5);
+		this.service.submit("foo", 3.5);
+		assertThat(this.buffers.find("gauge.foo").getValue()).isEqualTo(3.5);
+	}
+
+	@Test
+	public void boundGaugeUpdatesTimestamp() {
+		long before = System.currentTimeMillis();
+		this.service.gauge("timer.foo").submit(12);
+		assertThat(this.histograms.find("timer.foo").getTimestamp())
+				.isGreaterThanOrEqualTo(before);
+	}
+
+	@Test
+	public void timerRecordedAsHistogram() {
+		this.service.submit("timer.foo", 10);
+		this.service.gauge("timer.foo").submit(20);
+		assertThat(this.buffers.find("timer.foo")).isNull();
+		HistogramBuffer histogram = this.histograms.find("timer.foo");
+		assertThat(histogram.getValue()).isEqualTo(20.0);
+		assertThat(histogram.getSnapshot().getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void timerRecordedAsGaugeWithoutHistograms() {
+		BufferGaugeService service = new BufferGaugeService(this.buffers);
+		service.submit("timer.foo", 10);
+		assertThat(this.buffers.find("timer.foo").getValue()).isEqualTo(10.0);
+	}
+
+}
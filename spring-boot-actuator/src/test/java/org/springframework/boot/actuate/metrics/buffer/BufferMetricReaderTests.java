@@ -16,8 +16,13 @@
 
 package org.springframework.boot.actuate.metrics.buffer;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
+import org.springframework.boot.actuate.metrics.Metric;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -31,8 +36,10 @@ public class BufferMetricReaderTests {
 
 	private GaugeBuffers gauges = new GaugeBuffers();
 
+	private HistogramBuffers histograms = new HistogramBuffers();
+
 	private BufferMetricReader reader = new BufferMetricReader(this.counters,
-			this.gauges);
+			this.gauges, this.histograms);
 
 	@Test
 	public void countReflectsNumberOfMetrics() {
@@ -55,4 +62,30 @@ public class BufferMetricReaderTests {
 		assertThat(this.reader.count()).isEqualTo(1);
 	}
 
+	@Test
+	public void findHistogram() {
+		for (int i = 1; i <= 100; i++) {
+			this.histograms.record("timer.foo", i);
+		}
+		assertThat(this.reader.findOne("timer.foo").getValue()).isEqualTo(100.0);
+		assertThat(this.reader.findOne("timer.foo.count").getValue()).isEqualTo(100L);
+		assertThat(this.reader.findOne("timer.foo.max").getValue()).isEqualTo(100.0);
+		assertThat(this.reader.findOne("timer.foo.p50").getValue().doubleValue())
+				.isBetween(48.0, 52.0);
+		assertThat(this.reader.findOne("timer.foo.bar")).isNull();
+		assertThat(this.reader.count()).isEqualTo(7);
+	}
+
+	@Test
+	public void findAllExpandsHistograms() {
+		this.gauges.set("foo", 1);
+		this.histograms.record("timer.foo", 1);
+		Set<String> names = new HashSet<String>();
+		for (Metric<?> metric : this.reader.findAll("timer")) {
+			names.add(metric.getName());
+		}
+		assertThat(names).containsOnly("timer.foo", "timer.foo.count", "timer.foo.max",
+				"timer.foo.p50", "timer.foo.p90", "timer.foo.p99", "timer.foo.p999");
+	}
+
 }
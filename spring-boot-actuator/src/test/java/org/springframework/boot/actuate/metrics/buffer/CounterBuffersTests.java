@@ -56,6 +56,16 @@ public class CounterBuffersTests {
 		assertThat(this.value).isEqualTo(0);
 	}
 
+	@Test
+	public void incrementUpdatesTimestamp() {
+		long before = System.currentTimeMillis();
+		this.buffers.increment("foo", 1);
+		this.buffers.increment("foo", 1);
+		CounterBuffer buffer = this.buffers.find("foo");
+		assertThat(buffer.getValue()).isEqualTo(2);
+		assertThat(buffer.getTimestamp()).isGreaterThanOrEqualTo(before);
+	}
+
 	@Test
 	public void findNonExistent() {
 		assertThat(this.buffers.find("foo")).isNull();
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.dropwizard.DropwizardMetricServices;
+import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+import org.springframework.boot.actuate.metrics.writer.DefaultCounterService;
+
+/**
+ * Benchmark comparing {@link CounterService} implementations when all threads increment
+ * the same counter. Run from an IDE using the {@link #main(String[]) main} method.
+ *
+ * @author Jon Ellis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterServiceBenchmark {
+
+	@Param({ "buffer", "default", "dropwizard" })
+	private String serviceType;
+
+	private CounterService service;
+
+	@Setup
+	public void setup() {
+		if ("buffer".equals(this.serviceType)) {
+			this.service = new BufferCounterService(new CounterBuffers());
+		}
+		else if ("default".equals(this.serviceType)) {
+			this.service = new DefaultCounterService(new InMemoryMetricRepository());
+		}
+		else {
+			this.service = new DropwizardMetricServices(new MetricRegistry());
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void incrementSingleThread() {
+		this.service.increment("status.200.root");
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void incrementEightThreads() {
+		this.service.increment("status.200.root");
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void incrementSixtyFourThreads() {
+		this.service.increment("status.200.root");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(CounterServiceBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
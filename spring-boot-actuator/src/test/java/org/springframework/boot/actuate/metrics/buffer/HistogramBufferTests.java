@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Tests for {@link HistogramBuffer} and {@link HistogramSnapshot}.
+ *
+ * @author Jon Ellis
+ */
+public class HistogramBufferTests {
+
+	private final HistogramBuffer buffer = new HistogramBuffer(0L);
+
+	@Test
+	public void emptySnapshot() {
+		HistogramSnapshot snapshot = this.buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(0);
+		assertThat(snapshot.getMax()).isEqualTo(0.0);
+		assertThat(snapshot.getPercentile(0.99)).isEqualTo(0.0);
+	}
+
+	@Test
+	public void percentilesOfUniformValues() {
+		for (int i = 1; i <= 10000; i++) {
+			this.buffer.record(i);
+		}
+		HistogramSnapshot snapshot = this.buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(10000);
+		assertThat(snapshot.getMax()).isEqualTo(10000.0);
+		assertThat(snapshot.getPercentile(0.5)).isCloseTo(5000, offset(150.0));
+		assertThat(snapshot.getPercentile(0.9)).isCloseTo(9000, offset(270.0));
+		assertThat(snapshot.getPercentile(0.99)).isCloseTo(9900, offset(300.0));
+		assertThat(snapshot.getPercentile(0.999)).isCloseTo(9990, offset(300.0));
+		assertThat(snapshot.getPercentile(1.0)).isEqualTo(10000.0);
+	}
+
+	@Test
+	public void percentilesOfSkewedValues() {
+		Random random = new Random(0);
+		for (int i = 0; i < 9900; i++) {
+			this.buffer.record(1 + random.nextDouble());
+		}
+		for (int i = 0; i < 100; i++) {
+			this.buffer.record(1000 + random.nextDouble() * 1000);
+		}
+		HistogramSnapshot snapshot = this.buffer.getSnapshot();
+		assertThat(snapshot.getPercentile(0.5)).isBetween(1.0, 2.0);
+		assertThat(snapshot.getPercentile(0.999)).isBetween(1800.0, 2000.0);
+	}
+
+	@Test
+	public void smallAndLargeValuesAreClamped() {
+		this.buffer.record(0);
+		this.buffer.record(-5);
+		this.buffer.record(1e15);
+		this.buffer.record(1e15);
+		HistogramSnapshot snapshot = this.buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(4);
+		assertThat(snapshot.getPercentile(0.5)).isEqualTo(0.0);
+		// The top bucket covers [2^40 * 31/16, 2^41) and reports its midpoint
+		assertThat(snapshot.getPercentile(0.75)).isEqualTo(Math.scalb(63.0 / 32, 40));
+		assertThat(snapshot.getMax()).isEqualTo(1e15);
+		assertThat(snapshot.getPercentile(1.0)).isEqualTo(1e15);
+	}
+
+	@Test
+	public void windowedBufferForgetsOldValues() {
+		MutableClock clock = new MutableClock();
+		HistogramBuffer buffer = new HistogramBuffer(0L, 1000, clock);
+		buffer.record(100);
+		clock.advance(1000);
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(1);
+		buffer.record(10);
+		HistogramSnapshot snapshot = buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(2);
+		assertThat(snapshot.getMax()).isEqualTo(100.0);
+		clock.advance(1000);
+		snapshot = buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(1);
+		assertThat(snapshot.getMax()).isEqualTo(10.0);
+		clock.advance(1000);
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(0);
+		assertThat(buffer.getValue()).isEqualTo(10.0);
+	}
+
+	@Test
+	public void windowedBufferIsOnlyRotatedBySnapshots() {
+		MutableClock clock = new MutableClock();
+		HistogramBuffer buffer = new HistogramBuffer(0L, 1000, clock);
+		buffer.record(100);
+		clock.advance(60000);
+		buffer.record(10);
+		HistogramSnapshot snapshot = buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(2);
+		assertThat(snapshot.getMax()).isEqualTo(100.0);
+		clock.advance(1000);
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void mergeSnapshots() {
+		HistogramBuffer other = new HistogramBuffer(0L);
+		for (int i = 0; i < 100; i++) {
+			this.buffer.record(10);
+			other.record(1000);
+		}
+		HistogramSnapshot merged = this.buffer.getSnapshot().merge(other.getSnapshot());
+		assertThat(merged.getCount()).isEqualTo(200);
+		assertThat(merged.getMax()).isEqualTo(1000.0);
+		assertThat(merged.getPercentile(0.25)).isCloseTo(10, offset(0.5));
+		assertThat(merged.getPercentile(0.75)).isCloseTo(1000, offset(40.0));
+		this.buffer.merge(other.getSnapshot());
+		assertThat(this.buffer.getSnapshot().getCount()).isEqualTo(200);
+		assertThat(this.buffer.getSnapshot().getMax()).isEqualTo(1000.0);
+	}
+
+	@Test
+	public void concurrentRecording() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			final int thread = i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						HistogramBufferTests.this.buffer.record(thread * 10000 + j);
+					}
+				}
+
+			});
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		HistogramSnapshot snapshot = this.buffer.getSnapshot();
+		assertThat(snapshot.getCount()).isEqualTo(80000);
+		assertThat(snapshot.getMax()).isEqualTo(79999.0);
+	}
+
+	private static class MutableClock extends Clock {
+
+		private long millis = 1000000;
+
+		void advance(long millis) {
+			this.millis += millis;
+		}
+
+		@Override
+		public long millis() {
+			return this.millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(this.millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
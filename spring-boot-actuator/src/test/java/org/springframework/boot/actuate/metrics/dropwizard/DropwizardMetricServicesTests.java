@@ -29,6 +29,8 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import org.springframework.boot.actuate.metrics.BoundCounter;
+import org.springframework.boot.actuate.metrics.BoundGauge;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -130,6 +132,89 @@ public class DropwizardMetricServicesTests {
 				.getClass().equals(UniformReservoir.class)).isTrue();
 	}
 
+	@Test
+	public void boundCounterSharesServiceCounter() {
+		BoundCounter counter = this.writer.counter("foo");
+		assertThat(counter.getName()).isEqualTo("counter.foo");
+		counter.increment();
+		counter.increment(2);
+		this.writer.increment("foo");
+		counter.decrement();
+		assertThat(this.registry.counter("counter.foo").getCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void boundCounterReset() {
+		BoundCounter counter = this.writer.counter("foo");
+		counter.increment(5);
+		counter.reset();
+		counter.increment();
+		assertThat(this.registry.counter("counter.foo").getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void boundCounterAfterServiceReset() {
+		BoundCounter counter = this.writer.counter("foo");
+		counter.increment(5);
+		this.writer.reset("foo");
+		counter.increment();
+		assertThat(this.registry.counter("counter.foo").getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void boundCounterResetIsSeenByOtherHandles() {
+		BoundCounter first = this.writer.counter("foo");
+		BoundCounter second = this.writer.counter("foo");
+		first.increment(5);
+		first.reset();
+		second.increment();
+		first.increment();
+		assertThat(this.registry.counter("counter.foo").getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void boundMeterAfterServiceReset() {
+		BoundCounter meter = this.writer.counter("meter.foo");
+		meter.increment(5);
+		this.writer.reset("meter.foo");
+		meter.increment();
+		assertThat(this.registry.meter("meter.foo").getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void boundMeter() {
+		BoundCounter meter = this.writer.counter("meter.foo");
+		meter.increment();
+		meter.increment(2);
+		assertThat(this.registry.meter("meter.foo").getCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void boundGaugeRegisteredOnFirstSubmit() {
+		BoundGauge gauge = this.writer.gauge("foo");
+		assertThat(this.registry.getMetrics()).doesNotContainKey("gauge.foo");
+		gauge.submit(2.1);
+		@SuppressWarnings("unchecked")
+		Gauge<Double> registered = (Gauge<Double>) this.registry.getMetrics()
+				.get("gauge.foo");
+		assertThat(registered.getValue()).isEqualTo(new Double(2.1));
+		gauge.submit(2.3);
+		assertThat(registered.getValue()).isEqualTo(new Double(2.3));
+		this.writer.submit("foo", 2.5);
+		assertThat(registered.getValue()).isEqualTo(new Double(2.5));
+	}
+
+	@Test
+	public void boundTimerAndHistogram() {
+		BoundGauge timer = this.writer.gauge("timer.foo");
+		BoundGauge histogram = this.writer.gauge("histogram.foo");
+		timer.submit(200);
+		timer.submit(300);
+		histogram.submit(2.1);
+		assertThat(this.registry.timer("timer.foo").getCount()).isEqualTo(2);
+		assertThat(this.registry.histogram("histogram.foo").getCount()).isEqualTo(1);
+	}
+
 	/**
 	 * Test the case where a given writer is used amongst several threads where each
 	 * thread is updating the same set of metrics. This would be an example case of the
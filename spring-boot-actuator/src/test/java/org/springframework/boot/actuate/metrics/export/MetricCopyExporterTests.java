@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -120,6 +120,51 @@ public class MetricCopyExporterTests {
 		assertThat(this.writer.count()).isEqualTo(1);
 	}
 
+	@Test
+	public void exportOnlyMetricsWhoseTimestampChanged() {
+		long now = System.currentTimeMillis();
+		this.exporter.setEarliestTimestamp(new Date(0L));
+		this.reader.set(new Metric<Number>("foo", 2.3, new Date(now - 2000)));
+		this.reader.set(new Metric<Number>("bar", 2.4, new Date(now - 2000)));
+		this.exporter.export();
+		assertThat(this.exporter.getLastExportCount()).isEqualTo(2);
+		this.exporter.export();
+		assertThat(this.exporter.getLastExportCount()).isEqualTo(0);
+		this.reader.set(new Metric<Number>("foo", 2.5, new Date(now - 1000)));
+		this.exporter.export();
+		assertThat(this.exporter.getLastExportCount()).isEqualTo(1);
+		assertThat(this.writer.findOne("foo").getValue()).isEqualTo(2.5);
+	}
+
+	@Test
+	public void exportForgetsMetricsThatAreNoLongerRead() {
+		Date timestamp = new Date(System.currentTimeMillis() - 1000);
+		this.exporter.setEarliestTimestamp(new Date(0L));
+		this.reader.set(new Metric<Number>("foo", 2.3, timestamp));
+		this.exporter.export();
+		assertThat(this.exporter.getLastExportCount()).isEqualTo(1);
+		this.reader.reset("foo");
+		this.exporter.export();
+		this.reader.set(new Metric<Number>("foo", 2.4, timestamp));
+		this.exporter.export();
+		assertThat(this.exporter.getLastExportCount()).isEqualTo(1);
+		assertThat(this.writer.findOne("foo").getValue()).isEqualTo(2.4);
+	}
+
+	@Test
+	public void exportAfterChangingIncludes() {
+		this.exporter.setIncludes("foo");
+		this.reader.set(new Metric<Number>("foo", 2.3));
+		this.reader.set(new Metric<Number>("bar", 2.4));
+		this.exporter.export();
+		assertThat(this.writer.count()).isEqualTo(1);
+		this.exporter.setIncludes("bar");
+		this.exporter.setIgnoreTimestamps(true);
+		this.exporter.export();
+		assertThat(this.writer.count()).isEqualTo(2);
+		assertThat(this.exporter.getLastExportCount()).isEqualTo(1);
+	}
+
 	private static class SimpleGaugeWriter implements GaugeWriter {
 
 		private Metric<?> value;
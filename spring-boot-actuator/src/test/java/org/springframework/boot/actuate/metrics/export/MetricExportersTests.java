@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,20 @@
 
 package org.springframework.boot.actuate.metrics.export;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.writer.GaugeWriter;
 import org.springframework.boot.actuate.metrics.writer.MetricWriter;
+import org.springframework.scheduling.config.IntervalTask;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,6 +39,7 @@ import static org.mockito.Mockito.mock;
  * Tests for {@link MetricExporters}.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public class MetricExportersTests {
 
@@ -80,4 +86,94 @@ public class MetricExportersTests {
 		assertThat(this.exporters.getExporters()).hasSize(1);
 	}
 
+	@Test
+	public void slowExporterDoesNotDelayOthers() throws Exception {
+		this.export.setUpDefaults();
+		LatchExporter slow = new LatchExporter(new CountDownLatch(1));
+		LatchExporter fast = new LatchExporter(null);
+		Map<String, Exporter> exporters = new LinkedHashMap<String, Exporter>();
+		exporters.put("slow", slow);
+		exporters.put("fast", fast);
+		this.exporters = new MetricExporters(this.export);
+		this.exporters.setExporters(exporters);
+		ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+		this.exporters.configureTasks(registrar);
+		for (IntervalTask task : registrar.getFixedDelayTaskList()) {
+			task.getRunnable().run();
+		}
+		assertThat(fast.exported.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(slow.started.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(fast.thread).isNotEqualTo(Thread.currentThread());
+		for (IntervalTask task : registrar.getFixedDelayTaskList()) {
+			task.getRunnable().run();
+		}
+		slow.latch.countDown();
+		this.exporters.close();
+		assertThat(slow.count).isEqualTo(1);
+	}
+
+	@Test
+	public void exportOnSchedulerThreadWhenNotParallel() throws Exception {
+		this.export.setUpDefaults();
+		this.export.setParallel(false);
+		LatchExporter exporter = new LatchExporter(null);
+		this.exporters = new MetricExporters(this.export);
+		this.exporters.setExporters(
+				Collections.<String, Exporter>singletonMap("foo", exporter));
+		ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+		this.exporters.configureTasks(registrar);
+		registrar.getFixedDelayTaskList().get(0).getRunnable().run();
+		assertThat(exporter.thread).isEqualTo(Thread.currentThread());
+	}
+
+	@Test
+	public void statistics() throws Exception {
+		this.export.setUpDefaults();
+		this.export.setParallel(false);
+		this.exporters = new MetricExporters(this.export);
+		this.exporters.setExporters(Collections.<String, Exporter>singletonMap("foo",
+				new MetricCopyExporter(this.reader, this.writer)));
+		ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+		this.exporters.configureTasks(registrar);
+		assertThat(this.exporters.getStatistics()).isEmpty();
+		registrar.getFixedDelayTaskList().get(0).getRunnable().run();
+		Collection<Metric<?>> statistics = this.exporters.getStatistics();
+		assertThat(statistics).extracting("name").containsOnly(
+				"exporter.foo.duration", "exporter.foo.count");
+	}
+
+	private static class LatchExporter implements Exporter {
+
+		private final CountDownLatch latch;
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch exported = new CountDownLatch(1);
+
+		private volatile Thread thread;
+
+		private volatile int count;
+
+		LatchExporter(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void export() {
+			this.thread = Thread.currentThread();
+			this.count++;
+			this.started.countDown();
+			if (this.latch != null) {
+				try {
+					this.latch.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			this.exported.countDown();
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,27 +16,44 @@
 
 package org.springframework.boot.actuate.metrics.opentsdb;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestOperations;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link OpenTsdbGaugeWriter}.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public class OpenTsdbGaugeWriterTests {
 
@@ -68,6 +85,95 @@ public class OpenTsdbGaugeWriterTests {
 		verify(this.restTemplate).postForEntity(anyString(), any(Object.class), anyMap());
 	}
 
+	@Test
+	public void retryFailedPost() {
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willThrow(new ResourceAccessException("refused"))
+				.willReturn(emptyResponse());
+		this.writer.setMaxRetries(1);
+		this.writer.setRetryBackoff(1);
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.flush();
+		verify(this.restTemplate, times(2)).postForEntity(anyString(), any(Object.class),
+				anyMap());
+		assertThat(this.writer.findOne("opentsdb.sent").getValue()).isEqualTo(1L);
+		assertThat(this.writer.findOne("opentsdb.retries").getValue()).isEqualTo(1L);
+		assertThat(this.writer.findOne("opentsdb.dropped").getValue()).isEqualTo(0L);
+	}
+
+	@Test
+	public void dropAfterRetriesExhausted() {
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willThrow(new ResourceAccessException("refused"));
+		this.writer.setMaxRetries(2);
+		this.writer.setRetryBackoff(1);
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.set(new Metric<Double>("bar", 2.4));
+		this.writer.flush();
+		verify(this.restTemplate, times(3)).postForEntity(anyString(), any(Object.class),
+				anyMap());
+		assertThat(this.writer.findOne("opentsdb.dropped").getValue()).isEqualTo(2L);
+	}
+
+	@Test
+	public void dropWhenQueueIsFull() {
+		this.writer.setQueueCapacity(1);
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.set(new Metric<Double>("bar", 2.4));
+		assertThat(this.writer.findOne("opentsdb.dropped").getValue()).isEqualTo(1L);
+		assertThat(this.writer.count()).isEqualTo(3);
+	}
+
+	@Test
+	public void asyncPostsCompressedDataToServer() throws Exception {
+		final List<String> bodies = new CopyOnWriteArrayList<String>();
+		final CountDownLatch latch = new CountDownLatch(2);
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/api/put", new HttpHandler() {
+
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				InputStream body = exchange.getRequestBody();
+				if ("gzip".equals(
+						exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+					body = new GZIPInputStream(body);
+				}
+				bodies.add(StreamUtils.copyToString(body, StandardCharsets.UTF_8));
+				byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, response.length);
+				exchange.getResponseBody().write(response);
+				exchange.close();
+				latch.countDown();
+			}
+
+		});
+		server.start();
+		OpenTsdbGaugeWriter writer = new OpenTsdbGaugeWriter();
+		try {
+			writer.setUrl("http://localhost:" + server.getAddress().getPort()
+					+ "/api/put");
+			writer.setAsync(true);
+			writer.setCompress(true);
+			writer.setBufferSize(2);
+			writer.setLingerTime(50);
+			writer.set(new Metric<Double>("foo", 2.4));
+			writer.set(new Metric<Double>("bar", 2.5));
+			writer.set(new Metric<Double>("spam", 2.6));
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(bodies).hasSize(2);
+			assertThat(bodies.get(0)).contains("\"metric\":\"foo\"")
+					.contains("\"metric\":\"bar\"");
+			assertThat(bodies.get(1)).contains("\"metric\":\"spam\"");
+			writer.close();
+			assertThat(writer.findOne("opentsdb.sent").getValue()).isEqualTo(3L);
+		}
+		finally {
+			writer.close();
+			server.stop(0);
+		}
+	}
+
 	@SuppressWarnings("rawtypes")
 	private ResponseEntity<Map> emptyResponse() {
 		return new ResponseEntity<Map>(Collections.emptyMap(), HttpStatus.OK);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.boot.actuate.metrics.repository.redis;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -34,6 +38,7 @@ import static org.assertj.core.api.Assertions.offset;
  * Tests for {@link RedisMetricRepository}.
  *
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public class RedisMetricRepositoryTests {
 
@@ -105,4 +110,43 @@ public class RedisMetricRepositoryTests {
 		assertThat(this.repository.count()).isEqualTo(2);
 	}
 
+	@Test
+	public void batchedWritesAreSentOnFlush() {
+		this.repository.setBatchSize(100);
+		this.repository.set(new Metric<Number>("foo", 12.3));
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.increment(new Delta<Long>("bar", 2L));
+		assertThat(this.repository.findOne("foo")).isNull();
+		this.repository.flush();
+		assertThat(this.repository.findOne("foo").getValue().doubleValue()).isEqualTo(15.3,
+				offset(0.01));
+		assertThat(this.repository.findOne("bar").getValue().longValue()).isEqualTo(2);
+		assertThat(this.repository.count()).isEqualTo(2);
+	}
+
+	@Test
+	public void batchedWritesAreSentWhenBatchIsFull() {
+		this.repository.setBatchSize(2);
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		assertThat(this.repository.findOne("foo")).isNull();
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		assertThat(this.repository.findOne("foo").getValue().longValue()).isEqualTo(6);
+	}
+
+	@Test
+	public void findAllAfterBatchedWrites() {
+		this.repository.setBatchSize(100);
+		Date timestamp = new Date(123456789L);
+		this.repository.set(new Metric<Number>("foo", 1.0, timestamp));
+		this.repository.set(new Metric<Number>("bar", 2.0, timestamp));
+		this.repository.flush();
+		List<Metric<?>> metrics = new ArrayList<Metric<?>>(
+				Iterables.collection(this.repository.findAll()));
+		assertThat(metrics).hasSize(2);
+		assertThat(metrics.get(0).getName()).isEqualTo("foo");
+		assertThat(metrics.get(0).getValue().doubleValue()).isEqualTo(1.0, offset(0.01));
+		assertThat(metrics.get(0).getTimestamp()).isEqualTo(timestamp);
+		assertThat(metrics.get(1).getName()).isEqualTo("bar");
+	}
+
 }
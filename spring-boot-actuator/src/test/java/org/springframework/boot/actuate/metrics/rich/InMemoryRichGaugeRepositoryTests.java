@@ -16,6 +16,10 @@
 
 package org.springframework.boot.actuate.metrics.rich;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import org.springframework.boot.actuate.metrics.Metric;
@@ -50,6 +54,37 @@ public class InMemoryRichGaugeRepositoryTests {
 		assertThat(this.repository.findOne("foo").getValue()).isEqualTo(3d, offset(0.01));
 	}
 
+	@Test
+	public void setDoesNotModifyPreviouslyReadGauge() {
+		this.repository.set(new Metric<Double>("foo", 1d));
+		RichGauge gauge = this.repository.findOne("foo");
+		this.repository.set(new Metric<Double>("foo", 2d));
+		assertThat(gauge.getCount()).isEqualTo(1L);
+		assertThat(gauge.getValue()).isEqualTo(1d, offset(0.01));
+		assertThat(this.repository.findOne("foo").getMax()).isEqualTo(2d, offset(0.01));
+	}
+
+	@Test
+	public void concurrentIncrements() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 1000; i++) {
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					InMemoryRichGaugeRepositoryTests.this.repository
+							.increment(new Delta<Double>("foo", 1d));
+				}
+
+			});
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.repository.findOne("foo").getCount()).isEqualTo(1000L);
+		assertThat(this.repository.findOne("foo").getValue()).isEqualTo(1000d,
+				offset(0.01));
+	}
+
 	@Test
 	public void incrementNew() {
 		this.repository.increment(new Delta<Double>("foo", 2d));
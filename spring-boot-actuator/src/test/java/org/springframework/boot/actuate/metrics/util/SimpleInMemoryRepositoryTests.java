@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +70,20 @@ public class SimpleInMemoryRepositoryTests {
 		assertThat(this.repository.findOne("foo")).isEqualTo("bar");
 	}
 
+	@Test
+	public void updateAfterRemoveStartsFromNull() {
+		this.repository.set("foo", "spam");
+		this.repository.remove("foo");
+		assertThat(this.repository.count()).isEqualTo(0);
+		String value = this.repository.update("foo", new Callback<String>() {
+			@Override
+			public String modify(String current) {
+				return (current == null ? "bar" : current + "bar");
+			}
+		});
+		assertThat(value).isEqualTo("bar");
+	}
+
 	@Test
 	public void findWithPrefix() {
 		this.repository.set("foo", "bar");
@@ -101,20 +116,50 @@ public class SimpleInMemoryRepositoryTests {
 		assertThat(repository.findOne("foo")).isEqualTo(0);
 	}
 
+	@Test
+	public void updateConcurrentManyNames() throws Exception {
+		SimpleInMemoryRepository<Integer> repository = new SimpleInMemoryRepository<Integer>();
+		Collection<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+		for (int i = 0; i < 1000; i++) {
+			tasks.add(new RepositoryUpdate(repository, "foo." + (i % 10), 1));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(10);
+		try {
+			for (Future<Boolean> future : executor.invokeAll(tasks)) {
+				assertThat(future.get(1, TimeUnit.SECONDS)).isTrue();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(repository.count()).isEqualTo(10);
+		for (Integer value : repository.findAllWithPrefix("foo")) {
+			assertThat(value).isEqualTo(100);
+		}
+	}
+
 	private static class RepositoryUpdate implements Callable<Boolean> {
 
 		private final SimpleInMemoryRepository<Integer> repository;
 
+		private final String name;
+
 		private final int delta;
 
 		RepositoryUpdate(SimpleInMemoryRepository<Integer> repository, int delta) {
+			this(repository, "foo", delta);
+		}
+
+		RepositoryUpdate(SimpleInMemoryRepository<Integer> repository, String name,
+				int delta) {
 			this.repository = repository;
+			this.name = name;
 			this.delta = delta;
 		}
 
 		@Override
 		public Boolean call() throws Exception {
-			this.repository.update("foo", new Callback<Integer>() {
+			this.repository.update(this.name, new Callback<Integer>() {
 
 				@Override
 				public Integer modify(Integer current) {
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RingBufferTraceRepository}.
+ *
+ * @author Jon Ellis
+ */
+public class RingBufferTraceRepositoryTests {
+
+	private final RingBufferTraceRepository repository = new RingBufferTraceRepository();
+
+	@Test
+	public void capacityLimited() {
+		this.repository.setCapacity(2);
+		this.repository.add(Collections.<String, Object>singletonMap("foo", "bar"));
+		this.repository.add(Collections.<String, Object>singletonMap("bar", "foo"));
+		this.repository.add(Collections.<String, Object>singletonMap("bar", "bar"));
+		List<Trace> traces = this.repository.findAll();
+		assertThat(traces).hasSize(2);
+		assertThat(traces.get(0).getInfo().get("bar")).isEqualTo("bar");
+		assertThat(traces.get(1).getInfo().get("bar")).isEqualTo("foo");
+	}
+
+	@Test
+	public void reverseFalse() {
+		this.repository.setReverse(false);
+		this.repository.setCapacity(2);
+		this.repository.add(Collections.<String, Object>singletonMap("foo", "bar"));
+		this.repository.add(Collections.<String, Object>singletonMap("bar", "foo"));
+		this.repository.add(Collections.<String, Object>singletonMap("bar", "bar"));
+		List<Trace> traces = this.repository.findAll();
+		assertThat(traces).hasSize(2);
+		assertThat(traces.get(1).getInfo().get("bar")).isEqualTo("bar");
+		assertThat(traces.get(0).getInfo().get("bar")).isEqualTo("foo");
+	}
+
+	@Test
+	public void changingCapacityRetainsMostRecentTraces() {
+		this.repository.add(Collections.<String, Object>singletonMap("foo", "one"));
+		this.repository.add(Collections.<String, Object>singletonMap("foo", "two"));
+		this.repository.add(Collections.<String, Object>singletonMap("foo", "three"));
+		this.repository.setCapacity(2);
+		List<Trace> traces = this.repository.findAll();
+		assertThat(traces).hasSize(2);
+		assertThat(traces.get(0).getInfo().get("foo")).isEqualTo("three");
+		assertThat(traces.get(1).getInfo().get("foo")).isEqualTo("two");
+	}
+
+	@Test
+	public void concurrentWritersFillCapacityWithDistinctTraces() throws Exception {
+		int threads = 64;
+		int tracesPerThread = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < threads; i++) {
+			final int thread = i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						start.await();
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					for (int j = 0; j < tracesPerThread; j++) {
+						RingBufferTraceRepositoryTests.this.repository.add(Collections
+								.<String, Object>singletonMap("id", thread + ":" + j));
+					}
+				}
+
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+		List<Trace> traces = this.repository.findAll();
+		assertThat(traces).hasSize(100);
+		Set<Object> ids = new HashSet<Object>();
+		for (Trace trace : traces) {
+			ids.add(trace.getInfo().get("id"));
+		}
+		assertThat(ids).hasSize(100);
+	}
+
+	@Test
+	public void snapshotsTakenDuringConcurrentWritesHaveNoGaps() throws Exception {
+		int threads = 8;
+		final int tracesPerThread = 10000;
+		this.repository.setReverse(false);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			final int thread = i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < tracesPerThread; j++) {
+						RingBufferTraceRepositoryTests.this.repository.add(Collections
+								.<String, Object>singletonMap("id", thread + ":" + j));
+					}
+				}
+
+			});
+		}
+		executor.shutdown();
+		while (!executor.isTerminated()) {
+			List<Trace> traces = this.repository.findAll();
+			assertThat(traces.size()).isLessThanOrEqualTo(100);
+			Set<Object> ids = new HashSet<Object>();
+			for (Trace trace : traces) {
+				ids.add(trace.getInfo().get("id"));
+			}
+			assertThat(ids).hasSameSizeAs(traces);
+		}
+		assertThat(this.repository.findAll()).hasSize(100);
+	}
+
+	@Test
+	public void changingCapacityDuringConcurrentWritesLosesNoTraces() throws Exception {
+		int threads = 8;
+		final int tracesPerThread = 1000;
+		this.repository.setCapacity(threads * tracesPerThread);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			final int thread = i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < tracesPerThread; j++) {
+						RingBufferTraceRepositoryTests.this.repository.add(Collections
+								.<String, Object>singletonMap("id", thread + ":" + j));
+					}
+				}
+
+			});
+		}
+		executor.shutdown();
+		int capacity = threads * tracesPerThread;
+		while (!executor.isTerminated()) {
+			capacity = (capacity == threads * tracesPerThread ? capacity + 1
+					: capacity - 1);
+			this.repository.setCapacity(capacity);
+		}
+		this.repository.setCapacity(threads * tracesPerThread);
+		assertThat(this.repository.findAll()).hasSize(threads * tracesPerThread);
+	}
+
+	@Test
+	public void concurrentCapacityChangesLoseNoTraces() throws Exception {
+		int writers = 8;
+		final int tracesPerThread = 1000;
+		final int total = writers * tracesPerThread;
+		this.repository.setCapacity(total);
+		ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+		final CountDownLatch written = new CountDownLatch(writers);
+		for (int i = 0; i < writers; i++) {
+			final int thread = i;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < tracesPerThread; j++) {
+						RingBufferTraceRepositoryTests.this.repository.add(Collections
+								.<String, Object>singletonMap("id", thread + ":" + j));
+					}
+					written.countDown();
+				}
+
+			});
+		}
+		for (int i = 0; i < 2; i++) {
+			final int offset = i + 1;
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					while (written.getCount() > 0) {
+						RingBufferTraceRepositoryTests.this.repository
+								.setCapacity(total + offset);
+					}
+				}
+
+			});
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+		List<Trace> traces = this.repository.findAll();
+		assertThat(traces).hasSize(total);
+		Set<Object> ids = new HashSet<Object>();
+		for (Trace trace : traces) {
+			ids.add(trace.getInfo().get("id"));
+		}
+		assertThat(ids).hasSize(total);
+	}
+
+}
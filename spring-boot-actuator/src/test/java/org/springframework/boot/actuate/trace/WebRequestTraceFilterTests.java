@@ -20,19 +20,27 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.security.Principal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
 
 import org.springframework.boot.actuate.trace.TraceProperties.Include;
 import org.springframework.boot.autoconfigure.web.DefaultErrorAttributes;
+import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
@@ -52,6 +60,7 @@ import static org.mockito.Mockito.verify;
  * @author Venil Noronha
  * @author Stephane Nicoll
  * @author Madhura Bhave
+ * @author Jon Ellis
  */
 public class WebRequestTraceFilterTests {
 
@@ -287,6 +296,165 @@ public class WebRequestTraceFilterTests {
 		}
 	}
 
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void deferredTraceMatchesEagerTrace() throws Exception {
+		this.properties.setInclude(EnumSet.allOf(Include.class));
+		Map<String, Object> eager = filterTraceWithAllDetails();
+		this.properties.setDeferred(true);
+		Map<String, Object> deferred = filterTraceWithAllDetails();
+		assertThat(deferred).isNotInstanceOf(LinkedHashMap.class);
+		assertThat(deferred.toString()).isEqualTo(eager.toString());
+		assertThat(((Map) ((Map) deferred.get("headers")).get("request")).get("Accept"))
+				.isEqualTo(Arrays.asList("application/json", "text/plain"));
+	}
+
+	private Map<String, Object> filterTraceWithAllDetails() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", "application/json");
+		request.addHeader("Accept", "text/plain");
+		request.addHeader("Authorization", "my-auth-header");
+		request.setContextPath("some.context.path");
+		request.setRemoteAddr("some.remote.addr");
+		request.setQueryString("some.query.string");
+		request.setAuthType("authType");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.addHeader("Content-Type", "application/json");
+		response.addHeader("Set-Cookie", "a=b");
+		this.filter.doFilterInternal(request, response, new FilterChain() {
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response)
+					throws IOException, ServletException {
+				((HttpServletResponse) response).setStatus(201);
+			}
+
+		});
+		return this.repository.findAll().iterator().next().getInfo();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deferredTraceExcludesCookiesAndAuthorizationByDefault()
+			throws Exception {
+		this.properties.setDeferred(true);
+		this.properties.setInclude(
+				EnumSet.of(Include.REQUEST_HEADERS, Include.RESPONSE_HEADERS));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", "application/json");
+		request.addHeader("Cookie", "testCookie=testValue;");
+		request.addHeader("Authorization", "my-auth-header");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.addHeader("Set-Cookie", "testCookie=testValue;");
+		this.filter.doFilterInternal(request, response, new MockFilterChain());
+		Map<String, Object> info = this.repository.findAll().iterator().next().getInfo();
+		Map<String, Object> headers = (Map<String, Object>) info.get("headers");
+		assertThat(headers.get("request").toString())
+				.isEqualTo("{Accept=application/json}");
+		assertThat(headers.get("response").toString()).isEqualTo("{status=200}");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deferredTracePostProcessesRequestHeadersWhenRead() throws Exception {
+		this.properties.setDeferred(true);
+		this.filter = new WebRequestTraceFilter(this.repository, this.properties) {
+
+			@Override
+			protected void postProcessRequestHeaders(Map<String, Object> headers) {
+				headers.remove("Test");
+			}
+
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", "application/json");
+		request.addHeader("Test", "spring");
+		this.filter.doFilterInternal(request, new MockHttpServletResponse(),
+				new MockFilterChain());
+		Map<String, Object> info = this.repository.findAll().iterator().next().getInfo();
+		Map<String, Object> map = (Map<String, Object>) info.get("headers");
+		assertThat(map.get("request").toString()).isEqualTo("{Accept=application/json}");
+	}
+
+	@Test
+	public void samplingIntervalTracesOneInEveryNRequests() throws Exception {
+		this.properties.setSamplingInterval(3);
+		for (int i = 0; i < 7; i++) {
+			this.filter.doFilterInternal(new MockHttpServletRequest("GET", "/foo"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		assertThat(this.repository.findAll()).hasSize(3);
+	}
+
+	@Test
+	public void maxTracesPerSecondLimitsTracedRequests() throws Exception {
+		this.properties.setMaxTracesPerSecond(2);
+		this.filter.setClock(Clock.fixed(Instant.ofEpochSecond(1000), ZoneOffset.UTC));
+		for (int i = 0; i < 5; i++) {
+			this.filter.doFilterInternal(new MockHttpServletRequest("GET", "/foo"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		assertThat(this.repository.findAll()).hasSize(2);
+		this.filter.setClock(Clock.fixed(Instant.ofEpochSecond(1001), ZoneOffset.UTC));
+		for (int i = 0; i < 5; i++) {
+			this.filter.doFilterInternal(new MockHttpServletRequest("GET", "/foo"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		assertThat(this.repository.findAll()).hasSize(4);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deferredTraceCopiesParameters() throws Exception {
+		this.properties.setDeferred(true);
+		this.properties.setInclude(EnumSet.of(Include.PARAMETERS));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.setParameter("a", "b");
+		this.filter.doFilterInternal(request, new MockHttpServletResponse(),
+				new MockFilterChain());
+		request.setParameter("a", "c");
+		request.setParameter("d", "e");
+		Map<String, Object> info = this.repository.findAll().iterator().next().getInfo();
+		Map<String, String[]> parameters = (Map<String, String[]>) info
+				.get("parameters");
+		assertThat(parameters).containsOnlyKeys("a");
+		assertThat(parameters.get("a")).containsExactly("b");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deferredTraceIsCreatedAndEnhancedByOverridableMethods()
+			throws Exception {
+		this.properties.setDeferred(true);
+		this.filter = new WebRequestTraceFilter(this.repository, this.properties) {
+
+			@Override
+			protected Map<String, Object> getTrace(HttpServletRequest request) {
+				Map<String, Object> trace = super.getTrace(request);
+				trace.put("custom", request.getHeader("Custom"));
+				return trace;
+			}
+
+			@Override
+			protected void enhanceTrace(Map<String, Object> trace,
+					HttpServletResponse response) {
+				super.enhanceTrace(trace, response);
+				trace.put("customStatus", response.getStatus());
+			}
+
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Custom", "value");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setStatus(201);
+		this.filter.doFilterInternal(request, response, new MockFilterChain());
+		Map<String, Object> info = this.repository.findAll().iterator().next().getInfo();
+		assertThat(info.get("custom")).isEqualTo("value");
+		assertThat(info.get("customStatus")).isEqualTo(201);
+		Map<String, Object> headers = (Map<String, Object>) info.get("headers");
+		assertThat(headers.get("response").toString()).isEqualTo("{status=201}");
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void postProcessRequestHeaders() throws Exception {
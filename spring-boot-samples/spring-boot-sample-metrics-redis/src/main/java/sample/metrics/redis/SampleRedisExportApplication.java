@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,8 +40,10 @@ public class SampleRedisExportApplication {
 	@ExportMetricWriter
 	public RedisMetricRepository redisMetricWriter(
 			RedisConnectionFactory connectionFactory) {
-		return new RedisMetricRepository(connectionFactory,
+		RedisMetricRepository repository = new RedisMetricRepository(connectionFactory,
 				this.export.getRedis().getPrefix(), this.export.getRedis().getKey());
+		repository.setBatchSize(this.export.getRedis().getBatchSize());
+		return repository;
 	}
 
 	@Bean
@@ -46,6 +46,7 @@ import org.springframework.boot.loader.tools.Layouts;
  * @author Dave Syer
  * @author Stephane Nicoll
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class SpringBootPluginExtension {
 
@@ -108,6 +109,12 @@ public class SpringBootPluginExtension {
 	 */
 	boolean excludeDevtools = true;
 
+	/**
+	 * Whether a pre-built index should be written for each nested library so that it can
+	 * be opened without parsing its central directory.
+	 */
+	boolean indexNestedLibraries = false;
+
 	/**
 	 * Location of an agent jar to attach to the VM when running the application with
 	 * runJar task.
@@ -227,6 +234,14 @@ public class SpringBootPluginExtension {
 		this.excludeDevtools = excludeDevtools;
 	}
 
+	public boolean isIndexNestedLibraries() {
+		return this.indexNestedLibraries;
+	}
+
+	public void setIndexNestedLibraries(boolean indexNestedLibraries) {
+		this.indexNestedLibraries = indexNestedLibraries;
+	}
+
 	public File getAgent() {
 		return this.agent;
 	}
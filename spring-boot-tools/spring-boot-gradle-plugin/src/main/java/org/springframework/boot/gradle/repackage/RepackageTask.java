@@ -224,6 +224,7 @@ public class RepackageTask extends DefaultTask {
 				repackager.setLayout(layout);
 			}
 			repackager.setBackupSource(this.extension.isBackupSource());
+			repackager.setIndexNestedLibraries(this.extension.isIndexNestedLibraries());
 			try {
 				LaunchScript launchScript = getLaunchScript();
 				repackager.repackage(file, this.libraries, launchScript);
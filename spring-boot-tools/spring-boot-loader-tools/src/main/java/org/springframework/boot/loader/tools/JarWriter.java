@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -48,6 +48,7 @@ import java.util.zip.ZipEntry;
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class JarWriter implements LoaderClassesWriter {
 
@@ -132,10 +133,18 @@ public class JarWriter implements LoaderClassesWriter {
 					jarFile.getInputStream(entry));
 			try {
 				if (inputStream.hasZipHeader() && entry.getMethod() != ZipEntry.STORED) {
-					new CrcAndSize(inputStream).setupStoredEntry(entry);
-					inputStream.close();
-					inputStream = new ZipHeaderPeekInputStream(
-							jarFile.getInputStream(entry));
+					if (entry.getCrc() != -1 && entry.getSize() != -1) {
+						// The central directory already holds the CRC and size of the
+						// uncompressed data. The output stream verifies both.
+						CrcAndSize.setupStoredEntry(entry, entry.getCrc(),
+								entry.getSize());
+					}
+					else {
+						new CrcAndSize(inputStream).setupStoredEntry(entry);
+						inputStream.close();
+						inputStream = new ZipHeaderPeekInputStream(
+								jarFile.getInputStream(entry));
+					}
 				}
 				EntryWriter entryWriter = new InputStreamEntryWriter(inputStream, true);
 				JarEntry transformedEntry = entryTransformer.transform(entry);
@@ -169,6 +178,32 @@ public class JarWriter implements LoaderClassesWriter {
 	 */
 	public void writeNestedLibrary(String destination, Library library)
 			throws IOException {
+		writeNestedLibrary(createNestedLibraryEntry(destination, library), library);
+	}
+
+	/**
+	 * Write a nested library using an entry that was created by
+	 * {@link #createNestedLibraryEntry(String, Library)}.
+	 * @param entry the entry of the library
+	 * @param library the library
+	 * @throws IOException if the write fails
+	 */
+	void writeNestedLibrary(JarEntry entry, Library library) throws IOException {
+		writeEntry(entry,
+				new InputStreamEntryWriter(new FileInputStream(library.getFile()), true));
+	}
+
+	/**
+	 * Create the stored entry of a nested library. Creating the entry reads the whole
+	 * library to compute its CRC and does not change the writer, so entries can be
+	 * created ahead of the write, and concurrently.
+	 * @param destination the destination of the library
+	 * @param library the library
+	 * @return the entry
+	 * @throws IOException if the library cannot be read
+	 */
+	static JarEntry createNestedLibraryEntry(String destination, Library library)
+			throws IOException {
 		File file = library.getFile();
 		JarEntry entry = new JarEntry(destination + library.getName());
 		entry.setTime(getNestedLibraryTime(file));
@@ -176,10 +211,43 @@ public class JarWriter implements LoaderClassesWriter {
 			entry.setComment("UNPACK:" + FileUtils.sha1Hash(file));
 		}
 		new CrcAndSize(file).setupStoredEntry(entry);
-		writeEntry(entry, new InputStreamEntryWriter(new FileInputStream(file), true));
+		return entry;
+	}
+
+	/**
+	 * Write a pre-built index for a nested library that allows the loader to open the
+	 * library without parsing its central directory. Nothing is written if the library's
+	 * central directory cannot be read.
+	 * @param destination the destination of the library
+	 * @param library the library
+	 * @throws IOException if the write fails
+	 */
+	public void writeNestedLibraryIndex(String destination, Library library)
+			throws IOException {
+		writeNestedLibraryIndex(destination, library,
+				NestedJarIndexWriter.build(library.getFile()));
 	}
 
-	private long getNestedLibraryTime(File file) {
+	/**
+	 * Write a pre-built index for a nested library that was built by
+	 * {@link NestedJarIndexWriter#build(File)}.
+	 * @param destination the destination of the library
+	 * @param library the library
+	 * @param index the index or {@code null} if nothing should be written
+	 * @throws IOException if the write fails
+	 */
+	void writeNestedLibraryIndex(String destination, Library library, byte[] index)
+			throws IOException {
+		if (index != null) {
+			JarEntry entry = new JarEntry(
+					NestedJarIndexWriter.getEntryName(destination + library.getName()));
+			new CrcAndSize(new ByteArrayInputStream(index)).setupStoredEntry(entry);
+			writeEntry(entry,
+					new InputStreamEntryWriter(new ByteArrayInputStream(index), true));
+		}
+	}
+
+	private static long getNestedLibraryTime(File file) {
 		try {
 			JarFile jarFile = new JarFile(file);
 			try {
@@ -392,9 +460,13 @@ public class JarWriter implements LoaderClassesWriter {
 		}
 
 		public void setupStoredEntry(JarEntry entry) {
-			entry.setSize(this.size);
-			entry.setCompressedSize(this.size);
-			entry.setCrc(this.crc.getValue());
+			setupStoredEntry(entry, this.crc.getValue(), this.size);
+		}
+
+		static void setupStoredEntry(JarEntry entry, long crc, long size) {
+			entry.setSize(size);
+			entry.setCompressedSize(size);
+			entry.setCrc(crc);
 			entry.setMethod(ZipEntry.STORED);
 		}
 
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the pre-built index of a nested jar that allows the loader to open the jar
+ * without parsing and sorting its central directory. The index holds, for each entry,
+ * the hash code of its name, the offset of its record in the central directory and its
+ * position in the central directory, sorted by hash code. It must be kept in step with
+ * {@code org.springframework.boot.loader.jar.NestedJarIndex}.
+ *
+ * @author Jon Ellis
+ */
+final class NestedJarIndexWriter {
+
+	private static final String ENTRY_PREFIX = "META-INF/jar-index/";
+
+	private static final String ENTRY_SUFFIX = ".idx";
+
+	private static final int MAGIC = 0x424A4958;
+
+	private static final int VERSION = 1;
+
+	private static final int END_RECORD_SIGNATURE = 0x06054b50;
+
+	private static final int END_RECORD_MINIMUM_SIZE = 22;
+
+	private static final int END_RECORD_MAXIMUM_SIZE = END_RECORD_MINIMUM_SIZE + 0xFFFF;
+
+	private static final int FILE_HEADER_SIGNATURE = 0x02014b50;
+
+	private static final int FILE_HEADER_BASE_SIZE = 46;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private NestedJarIndexWriter() {
+	}
+
+	/**
+	 * Return the name of the entry that holds the index of the given nested jar.
+	 * @param nestedJarEntryName the name of the nested jar entry
+	 * @return the name of the index entry
+	 */
+	static String getEntryName(String nestedJarEntryName) {
+		return ENTRY_PREFIX + nestedJarEntryName + ENTRY_SUFFIX;
+	}
+
+	/**
+	 * Build the index of the given jar file.
+	 * @param file the jar file
+	 * @return the index bytes or {@code null} if the file's central directory cannot be
+	 * read
+	 * @throws IOException if the file cannot be read
+	 */
+	static byte[] build(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			Entries entries = readEntries(randomAccessFile);
+			if (entries == null) {
+				return null;
+			}
+			return write(crc(randomAccessFile), randomAccessFile.length(), entries);
+		}
+		finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private static Entries readEntries(RandomAccessFile file) throws IOException {
+		long length = file.length();
+		int blockSize = (int) Math.min(length, END_RECORD_MAXIMUM_SIZE);
+		byte[] block = new byte[blockSize];
+		file.seek(length - blockSize);
+		file.readFully(block);
+		for (int offset = blockSize - END_RECORD_MINIMUM_SIZE; offset >= 0; offset--) {
+			if (value(block, offset, 4) == END_RECORD_SIGNATURE && blockSize
+					- offset == END_RECORD_MINIMUM_SIZE + value(block, offset + 20, 2)) {
+				int numberOfRecords = (int) value(block, offset + 10, 2);
+				long centralDirectoryLength = value(block, offset + 12, 4);
+				long centralDirectoryOffset = length - (blockSize - offset)
+						- centralDirectoryLength;
+				if (centralDirectoryOffset < 0) {
+					return null;
+				}
+				byte[] centralDirectory = new byte[(int) centralDirectoryLength];
+				file.seek(centralDirectoryOffset);
+				file.readFully(centralDirectory);
+				return Entries.parse(centralDirectory, numberOfRecords);
+			}
+		}
+		return null;
+	}
+
+	private static long crc(RandomAccessFile file) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[32 * 1024];
+		file.seek(0);
+		int bytesRead;
+		while ((bytesRead = file.read(buffer)) != -1) {
+			crc.update(buffer, 0, bytesRead);
+		}
+		return crc.getValue();
+	}
+
+	private static byte[] write(long crc, long size, Entries entries)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				29 + entries.size * 12);
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeLong(crc);
+		output.writeLong(size);
+		output.writeBoolean(entries.signed);
+		output.writeInt(entries.size);
+		write(output, entries.hashCodes, entries.size);
+		write(output, entries.centralDirectoryOffsets, entries.size);
+		write(output, entries.positions, entries.size);
+		output.close();
+		return bytes.toByteArray();
+	}
+
+	private static void write(DataOutputStream output, int[] values, int size)
+			throws IOException {
+		for (int i = 0; i < size; i++) {
+			output.writeInt(values[i]);
+		}
+	}
+
+	private static long value(byte[] bytes, int offset, int length) {
+		long value = 0;
+		for (int i = length - 1; i >= 0; i--) {
+			value = ((value << 8) | (bytes[offset + i] & 0xFF));
+		}
+		return value;
+	}
+
+	/**
+	 * The entries of a central directory, sorted in the same way as the loader's
+	 * {@code JarFileEntries}.
+	 */
+	private static final class Entries {
+
+		private final int size;
+
+		private final int[] hashCodes;
+
+		private final int[] centralDirectoryOffsets;
+
+		private final int[] positions;
+
+		private boolean signed;
+
+		private Entries(int size) {
+			this.size = size;
+			this.hashCodes = new int[size];
+			this.centralDirectoryOffsets = new int[size];
+			this.positions = new int[size];
+		}
+
+		static Entries parse(byte[] centralDirectory, int numberOfRecords) {
+			Entries entries = new Entries(numberOfRecords);
+			int offset = 0;
+			for (int i = 0; i < numberOfRecords; i++) {
+				if (offset + FILE_HEADER_BASE_SIZE > centralDirectory.length || value(
+						centralDirectory, offset, 4) != FILE_HEADER_SIGNATURE) {
+					return null;
+				}
+				int nameOffset = offset + FILE_HEADER_BASE_SIZE;
+				int nameLength = (int) value(centralDirectory, offset + 28, 2);
+				if (nameOffset + nameLength > centralDirectory.length) {
+					return null;
+				}
+				String name = new String(centralDirectory, nameOffset, nameLength, UTF_8);
+				if (name.startsWith("META-INF/") && name.endsWith(".SF")) {
+					entries.signed = true;
+				}
+				entries.hashCodes[i] = hashCode(centralDirectory, nameOffset, nameLength);
+				entries.centralDirectoryOffsets[i] = offset;
+				entries.positions[i] = i;
+				offset += recordLength(centralDirectory, offset);
+			}
+			entries.sort(0, numberOfRecords - 1);
+			entries.invertPositions();
+			return entries;
+		}
+
+		private static int hashCode(byte[] bytes, int offset, int length) {
+			// Same as the loader's AsciiBytes so that malformed names hash identically
+			int hash = 0;
+			for (int i = offset; i < offset + length; i++) {
+				int b = bytes[i];
+				if (b < 0) {
+					b = b & 0x7F;
+					int limit;
+					int excess = 0x80;
+					if (b < 96) {
+						limit = 1;
+						excess += 0x40 << 6;
+					}
+					else if (b < 112) {
+						limit = 2;
+						excess += (0x60 << 12) + (0x80 << 6);
+					}
+					else {
+						limit = 3;
+						excess += (0x70 << 18) + (0x80 << 12) + (0x80 << 6);
+					}
+					for (int j = 0; j < limit && i + 1 < bytes.length; j++) {
+						b = (b << 6) + (bytes[++i] & 0xFF);
+					}
+					b -= excess;
+				}
+				if (b <= 0xFFFF) {
+					hash = 31 * hash + b;
+				}
+				else {
+					hash = 31 * hash + ((b >> 0xA) + 0xD7C0);
+					hash = 31 * hash + ((b & 0x3FF) + 0xDC00);
+				}
+			}
+			return hash;
+		}
+
+		private static int recordLength(byte[] centralDirectory, int offset) {
+			return FILE_HEADER_BASE_SIZE + (int) value(centralDirectory, offset + 28, 2)
+					+ (int) value(centralDirectory, offset + 30, 2)
+					+ (int) value(centralDirectory, offset + 32, 2);
+		}
+
+		private void sort(int left, int right) {
+			// Same quick sort as the loader so that equal hash codes keep the same order
+			if (left < right) {
+				int pivot = this.hashCodes[left + (right - left) / 2];
+				int i = left;
+				int j = right;
+				while (i <= j) {
+					while (this.hashCodes[i] < pivot) {
+						i++;
+					}
+					while (this.hashCodes[j] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						swap(i, j);
+						i++;
+						j--;
+					}
+				}
+				if (left < j) {
+					sort(left, j);
+				}
+				if (right > i) {
+					sort(i, right);
+				}
+			}
+		}
+
+		private void swap(int i, int j) {
+			swap(this.hashCodes, i, j);
+			swap(this.centralDirectoryOffsets, i, j);
+			swap(this.positions, i, j);
+		}
+
+		private void swap(int[] array, int i, int j) {
+			int temp = array[i];
+			array[i] = array[j];
+			array[j] = temp;
+		}
+
+		private void invertPositions() {
+			int[] positions = new int[this.size];
+			for (int i = 0; i < this.size; i++) {
+				positions[this.positions[i]] = i;
+			}
+			System.arraycopy(positions, 0, this.positions, 0, this.size);
+		}
+
+	}
+
+}
@@ -20,10 +20,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -41,6 +48,7 @@ import org.springframework.util.StringUtils;
  * @author Phillip Webb
  * @author Andy Wilkinson
  * @author Stephane Nicoll
+ * @author Jon Ellis
  */
 public class Repackager {
 
@@ -62,6 +70,8 @@ public class Repackager {
 
 	private List<MainClassTimeoutWarningListener> mainClassTimeoutListeners = new ArrayList<MainClassTimeoutWarningListener>();
 
+	private List<PhaseTimingListener> phaseTimingListeners = new ArrayList<PhaseTimingListener>();
+
 	private String mainClass;
 
 	private boolean backupSource = true;
@@ -72,6 +82,10 @@ public class Repackager {
 
 	private LayoutFactory layoutFactory;
 
+	private boolean indexNestedLibraries;
+
+	private boolean prepareLibrariesInParallel;
+
 	public Repackager(File source) {
 		this(source, null);
 	}
@@ -94,6 +108,15 @@ public class Repackager {
 		this.mainClassTimeoutListeners.add(listener);
 	}
 
+	/**
+	 * Add a listener that will be triggered with the time taken by each phase of the
+	 * repackaging.
+	 * @param listener the listener to add
+	 */
+	public void addPhaseTimingListener(PhaseTimingListener listener) {
+		this.phaseTimingListeners.add(listener);
+	}
+
 	/**
 	 * Sets the main class that should be run. If not specified the value from the
 	 * MANIFEST will be used, or if no manifest entry is found the archive will be
@@ -132,6 +155,27 @@ public class Repackager {
 		this.layoutFactory = layoutFactory;
 	}
 
+	/**
+	 * Sets if a pre-built index should be written for each nested library so that the
+	 * loader can open it without parsing its central directory. Defaults to
+	 * {@code false}.
+	 * @param indexNestedLibraries if nested libraries should be indexed
+	 */
+	public void setIndexNestedLibraries(boolean indexNestedLibraries) {
+		this.indexNestedLibraries = indexNestedLibraries;
+	}
+
+	/**
+	 * Sets if nested libraries should be prepared in parallel, using one thread per
+	 * available processor, before they are written. Preparing a library reads it to
+	 * compute its CRC and, if required, its index. Defaults to {@code false}, in which
+	 * case each library is prepared as it is written.
+	 * @param prepareLibrariesInParallel if libraries should be prepared in parallel
+	 */
+	public void setPrepareLibrariesInParallel(boolean prepareLibrariesInParallel) {
+		this.prepareLibrariesInParallel = prepareLibrariesInParallel;
+	}
+
 	/**
 	 * Repackage the source file so that it can be run using '{@literal java -jar}'.
 	 * @param libraries the libraries required to run the archive
@@ -269,22 +313,45 @@ public class Repackager {
 	private void repackage(JarFile sourceJar, JarWriter writer,
 			final List<Library> unpackLibraries, final List<Library> standardLibraries)
 					throws IOException {
+		long startTime = System.currentTimeMillis();
 		writer.writeManifest(buildManifest(sourceJar));
-		Set<String> seen = new HashSet<String>();
-		writeNestedLibraries(unpackLibraries, seen, writer);
-		if (this.layout instanceof RepackagingLayout) {
-			writer.writeEntries(sourceJar, new RenamingEntryTransformer(
-					((RepackagingLayout) this.layout).getRepackagedClassesLocation()));
+		startTime = phaseCompleted("manifest", startTime);
+		ExecutorService executor = (this.prepareLibrariesInParallel
+				? Executors.newFixedThreadPool(
+						Runtime.getRuntime().availableProcessors())
+				: null);
+		try {
+			Set<String> seen = new HashSet<String>();
+			List<NestedLibrary> unpackNestedLibraries = prepareNestedLibraries(
+					unpackLibraries, seen, executor);
+			List<NestedLibrary> standardNestedLibraries = prepareNestedLibraries(
+					standardLibraries, seen, executor);
+			writeNestedLibraries(unpackNestedLibraries, writer);
+			startTime = phaseCompleted("libraries requiring unpack", startTime);
+			if (this.layout instanceof RepackagingLayout) {
+				writer.writeEntries(sourceJar,
+						new RenamingEntryTransformer(((RepackagingLayout) this.layout)
+								.getRepackagedClassesLocation()));
+			}
+			else {
+				writer.writeEntries(sourceJar);
+			}
+			startTime = phaseCompleted("application entries", startTime);
+			writeNestedLibraries(standardNestedLibraries, writer);
+			startTime = phaseCompleted("libraries", startTime);
 		}
-		else {
-			writer.writeEntries(sourceJar);
+		finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
 		}
-		writeNestedLibraries(standardLibraries, seen, writer);
 		writeLoaderClasses(writer);
+		phaseCompleted("loader classes", startTime);
 	}
 
-	private void writeNestedLibraries(List<Library> libraries, Set<String> alreadySeen,
-			JarWriter writer) throws IOException {
+	private List<NestedLibrary> prepareNestedLibraries(List<Library> libraries,
+			Set<String> alreadySeen, Executor executor) {
+		List<NestedLibrary> nestedLibraries = new ArrayList<NestedLibrary>();
 		for (Library library : libraries) {
 			String destination = Repackager.this.layout
 					.getLibraryDestination(library.getName(), library.getScope());
@@ -293,9 +360,30 @@ public class Repackager {
 					throw new IllegalStateException(
 							"Duplicate library " + library.getName());
 				}
-				writer.writeNestedLibrary(destination, library);
+				NestedLibrary nestedLibrary = new NestedLibrary(destination, library,
+						this.indexNestedLibraries && !library.isUnpackRequired());
+				if (executor != null) {
+					nestedLibrary.prepare(executor);
+				}
+				nestedLibraries.add(nestedLibrary);
 			}
 		}
+		return nestedLibraries;
+	}
+
+	private void writeNestedLibraries(List<NestedLibrary> nestedLibraries,
+			JarWriter writer) throws IOException {
+		for (NestedLibrary nestedLibrary : nestedLibraries) {
+			nestedLibrary.write(writer);
+		}
+	}
+
+	private long phaseCompleted(String phase, long startTime) {
+		long endTime = System.currentTimeMillis();
+		for (PhaseTimingListener listener : this.phaseTimingListeners) {
+			listener.handlePhaseTiming(phase, endTime - startTime);
+		}
+		return endTime;
 	}
 
 	private void writeLoaderClasses(JarWriter writer) throws IOException {
@@ -416,6 +504,101 @@ public class Repackager {
 
 	}
 
+	/**
+	 * Callback interface used to report the time taken by each phase of the
+	 * repackaging.
+	 */
+	@FunctionalInterface
+	public interface PhaseTimingListener {
+
+		/**
+		 * Handle the timing of a phase.
+		 * @param phase a description of the phase
+		 * @param duration the amount of time, in milliseconds, that the phase took
+		 */
+		void handlePhaseTiming(String phase, long duration);
+
+	}
+
+	/**
+	 * A nested library whose entry and optional index are prepared, either ahead of time
+	 * by an executor or when the library is written.
+	 */
+	private static final class NestedLibrary {
+
+		private final String destination;
+
+		private final Library library;
+
+		private final FutureTask<JarEntry> entry;
+
+		private final FutureTask<byte[]> index;
+
+		private NestedLibrary(final String destination, final Library library,
+				boolean indexed) {
+			this.destination = destination;
+			this.library = library;
+			this.entry = new FutureTask<JarEntry>(new Callable<JarEntry>() {
+
+				@Override
+				public JarEntry call() throws Exception {
+					return JarWriter.createNestedLibraryEntry(destination, library);
+				}
+
+			});
+			this.index = (indexed ? new FutureTask<byte[]>(new Callable<byte[]>() {
+
+				@Override
+				public byte[] call() throws Exception {
+					return NestedJarIndexWriter.build(library.getFile());
+				}
+
+			}) : null);
+		}
+
+		void prepare(Executor executor) {
+			executor.execute(this.entry);
+			if (this.index != null) {
+				executor.execute(this.index);
+			}
+		}
+
+		void write(JarWriter writer) throws IOException {
+			writer.writeNestedLibrary(get(this.entry), this.library);
+			if (this.index != null) {
+				writer.writeNestedLibraryIndex(this.destination, this.library,
+						get(this.index));
+			}
+		}
+
+		private <T> T get(FutureTask<T> task) throws IOException {
+			// Runs the task here unless the executor has already started it
+			task.run();
+			try {
+				return task.get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(
+						"Interrupted while preparing " + this.library.getName());
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+
+	}
+
 	/**
 	 * An {@code EntryTransformer} that renames entries by applying a prefix.
 	 */
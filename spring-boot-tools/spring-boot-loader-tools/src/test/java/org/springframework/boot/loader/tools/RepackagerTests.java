@@ -21,11 +21,15 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 
 import org.junit.Before;
@@ -50,6 +54,7 @@ import static org.mockito.Mockito.mock;
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class RepackagerTests {
 
@@ -318,6 +323,142 @@ public class RepackagerTests {
 		assertThat(entry.getComment().length()).isEqualTo(47);
 	}
 
+	@Test
+	public void nestedLibrariesAreIndexed() throws Exception {
+		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
+		libJar.addClass("a/b/C.class", ClassWithoutMainMethod.class);
+		libJar.addClass("a/b/D.class", ClassWithoutMainMethod.class);
+		final File libJarFile = libJar.getFile();
+		final File libJarFileToUnpack = new TestJarFile(this.temporaryFolder).getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		repackager.setIndexNestedLibraries(true);
+		repackager.repackage(new Libraries() {
+			@Override
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+				callback.library(
+						new Library(libJarFileToUnpack, LibraryScope.COMPILE, true));
+			}
+		});
+		String nestedName = "BOOT-INF/lib/" + libJarFile.getName();
+		JarEntry index = getEntry(file, "META-INF/jar-index/" + nestedName + ".idx");
+		assertThat(index).isNotNull();
+		assertThat(index.getMethod()).isEqualTo(ZipEntry.STORED);
+		assertThat(hasEntry(file, "META-INF/jar-index/BOOT-INF/lib/"
+				+ libJarFileToUnpack.getName() + ".idx")).isFalse();
+		org.springframework.boot.loader.jar.JarFile jarFile = new org.springframework.boot.loader.jar.JarFile(
+				file);
+		try {
+			org.springframework.boot.loader.jar.JarFile nested = jarFile
+					.getNestedJarFile(jarFile.getEntry(nestedName));
+			assertThat(nested.getEntry("a/b/C.class")).isNotNull();
+			assertThat(nested.getEntry("a/b/D.class")).isNotNull();
+			assertThat(nested.getEntry("a/b")).isNotNull();
+			assertThat(nested.getEntry("a/b/E.class")).isNull();
+			JarFile libJarFileContent = new JarFile(libJarFile);
+			try {
+				List<String> names = new ArrayList<String>();
+				for (JarEntry libEntry : Collections.list(libJarFileContent.entries())) {
+					names.add(libEntry.getName());
+				}
+				assertThat(Collections.list(nested.entries())).extracting("name")
+						.containsExactlyElementsOf(names);
+			}
+			finally {
+				libJarFileContent.close();
+			}
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	@Test
+	public void nestedLibrariesAreNotIndexedByDefault() throws Exception {
+		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
+		libJar.addClass("a/b/C.class", ClassWithoutMainMethod.class);
+		final File libJarFile = libJar.getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		repackager.repackage(new Libraries() {
+			@Override
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+			}
+		});
+		assertThat(hasEntry(file, "META-INF/jar-index/BOOT-INF/lib/"
+				+ libJarFile.getName() + ".idx")).isFalse();
+	}
+
+	@Test
+	public void librariesPreparedInParallel() throws Exception {
+		final List<File> libJarFiles = new ArrayList<File>();
+		for (int i = 0; i < 8; i++) {
+			TestJarFile libJar = new TestJarFile(this.temporaryFolder);
+			libJar.addClass("a/b/C" + i + ".class", ClassWithoutMainMethod.class);
+			libJarFiles.add(libJar.getFile());
+		}
+		TestJarFile libJarToUnpack = new TestJarFile(this.temporaryFolder);
+		libJarToUnpack.addClass("a/b/D.class", ClassWithoutMainMethod.class);
+		final File libJarFileToUnpack = libJarToUnpack.getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		repackager.setPrepareLibrariesInParallel(true);
+		repackager.setIndexNestedLibraries(true);
+		repackager.repackage(new Libraries() {
+			@Override
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				for (File libJarFile : libJarFiles) {
+					callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+				}
+				callback.library(
+						new Library(libJarFileToUnpack, LibraryScope.COMPILE, true));
+			}
+		});
+		JarFile jarFile = new JarFile(file);
+		try {
+			for (File libJarFile : libJarFiles) {
+				String name = "BOOT-INF/lib/" + libJarFile.getName();
+				JarEntry entry = jarFile.getJarEntry(name);
+				assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+				assertThat(FileCopyUtils.copyToByteArray(jarFile.getInputStream(entry)))
+						.isEqualTo(FileCopyUtils.copyToByteArray(libJarFile));
+				assertThat(jarFile.getEntry("META-INF/jar-index/" + name + ".idx"))
+						.isNotNull();
+			}
+			assertThat(jarFile
+					.getJarEntry("BOOT-INF/lib/" + libJarFileToUnpack.getName())
+					.getComment()).startsWith("UNPACK:");
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	@Test
+	public void phaseTimingsAreReported() throws Exception {
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		final List<String> phases = new ArrayList<String>();
+		repackager.addPhaseTimingListener(new Repackager.PhaseTimingListener() {
+
+			@Override
+			public void handlePhaseTiming(String phase, long duration) {
+				assertThat(duration).isGreaterThanOrEqualTo(0);
+				phases.add(phase);
+			}
+
+		});
+		repackager.repackage(NO_LIBRARIES);
+		assertThat(phases).containsExactly("manifest", "libraries requiring unpack",
+				"application entries", "libraries", "loader classes");
+	}
+
 	@Test
 	public void duplicateLibraries() throws Exception {
 		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
@@ -468,6 +609,42 @@ public class RepackagerTests {
 		}
 	}
 
+	@Test
+	public void storedZipsKeepTheirContentAndCrc() throws Exception {
+		TestJarFile nested = new TestJarFile(this.temporaryFolder);
+		nested.addClass("a/b/C.class", ClassWithoutMainMethod.class);
+		File nestedFile = nested.getFile();
+		byte[] nestedBytes = FileCopyUtils.copyToByteArray(nestedFile);
+		CRC32 nestedCrc = new CRC32();
+		nestedCrc.update(nestedBytes);
+		this.testJarFile.addFile("test/nested.jar", nestedFile);
+		this.testJarFile.addClass("A.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		JarFile source = new JarFile(file);
+		try {
+			ZipEntry sourceEntry = source.getEntry("test/nested.jar");
+			assertThat(sourceEntry.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+			assertThat(sourceEntry.getCrc()).isEqualTo(nestedCrc.getValue());
+		}
+		finally {
+			source.close();
+		}
+		new Repackager(file).repackage(NO_LIBRARIES);
+		JarFile jarFile = new JarFile(file);
+		try {
+			ZipEntry entry = jarFile.getEntry("BOOT-INF/classes/test/nested.jar");
+			assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+			assertThat(entry.getSize()).isEqualTo(nestedBytes.length);
+			assertThat(entry.getCompressedSize()).isEqualTo(nestedBytes.length);
+			assertThat(entry.getCrc()).isEqualTo(nestedCrc.getValue());
+			assertThat(FileCopyUtils.copyToByteArray(jarFile.getInputStream(entry)))
+					.isEqualTo(nestedBytes);
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
 	@Test
 	public void addLauncherScript() throws Exception {
 		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
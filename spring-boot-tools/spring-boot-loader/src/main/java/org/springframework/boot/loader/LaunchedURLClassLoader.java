@@ -22,18 +22,32 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.security.AccessController;
+import java.security.CodeSigner;
+import java.security.CodeSource;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.jar.JarFile;
 
+import org.springframework.boot.loader.PackageIndex.Resource;
 import org.springframework.boot.loader.jar.Handler;
 
 /**
  * {@link ClassLoader} used by the {@link Launcher}.
+ * <p>
+ * When created with a package index, the entries of every URL are indexed by directory
+ * the first time that a class or resource is loaded. Classes, resources and packages are
+ * then found by only looking in the URLs that contain the directory rather than in every
+ * URL in turn. Directories that are split across several URLs are searched in class
+ * path order. If any of the URLs is neither a jar nor a directory, or a resource name
+ * cannot be used with the index, the standard {@link URLClassLoader} search is used.
  *
  * @author Phillip Webb
  * @author Dave Syer
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class LaunchedURLClassLoader extends URLClassLoader {
 
@@ -41,17 +55,44 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		ClassLoader.registerAsParallelCapable();
 	}
 
+	private static final Object NO_PACKAGE_INDEX = new Object();
+
+	private final boolean usePackageIndex;
+
+	private final Object packageIndexMonitor = new Object();
+
+	private volatile Object packageIndex;
+
 	/**
 	 * Create a new {@link LaunchedURLClassLoader} instance.
 	 * @param urls the URLs from which to load classes and resources
 	 * @param parent the parent class loader for delegation
 	 */
 	public LaunchedURLClassLoader(URL[] urls, ClassLoader parent) {
+		this(urls, parent, false);
+	}
+
+	/**
+	 * Create a new {@link LaunchedURLClassLoader} instance.
+	 * @param urls the URLs from which to load classes and resources
+	 * @param parent the parent class loader for delegation
+	 * @param usePackageIndex if classes and resources should be found using an index of
+	 * the packages of each URL
+	 * @since 2.0.0
+	 */
+	public LaunchedURLClassLoader(URL[] urls, ClassLoader parent,
+			boolean usePackageIndex) {
 		super(urls, parent);
+		this.usePackageIndex = usePackageIndex;
 	}
 
 	@Override
 	public URL findResource(String name) {
+		PackageIndex packageIndex = getPackageIndex(name);
+		if (packageIndex != null) {
+			Resource resource = packageIndex.getResource(name);
+			return (resource == null ? null : resource.getUrl());
+		}
 		Handler.setUseFastConnectionExceptions(true);
 		try {
 			return super.findResource(name);
@@ -63,6 +104,17 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
 	@Override
 	public Enumeration<URL> findResources(String name) throws IOException {
+		PackageIndex packageIndex = getPackageIndex(name);
+		if (packageIndex != null) {
+			List<URL> urls = new ArrayList<URL>();
+			for (Resource resource : packageIndex.getResources(name)) {
+				URL url = resource.getUrl();
+				if (url != null) {
+					urls.add(url);
+				}
+			}
+			return Collections.enumeration(urls);
+		}
 		Handler.setUseFastConnectionExceptions(true);
 		try {
 			return super.findResources(name);
@@ -72,6 +124,77 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	@Override
+	protected Class<?> findClass(final String name) throws ClassNotFoundException {
+		String path = name.replace('.', '/') + ".class";
+		PackageIndex packageIndex = getPackageIndex(path);
+		if (packageIndex == null) {
+			return super.findClass(name);
+		}
+		final Resource resource = packageIndex.getResource(path);
+		if (resource == null) {
+			throw new ClassNotFoundException(name);
+		}
+		try {
+			return AccessController.doPrivileged(
+					new PrivilegedExceptionAction<Class<?>>() {
+						@Override
+						public Class<?> run() throws IOException {
+							return defineClass(name, resource);
+						}
+					}, AccessController.getContext());
+		}
+		catch (java.security.PrivilegedActionException ex) {
+			throw new ClassNotFoundException(name, ex.getException());
+		}
+	}
+
+	private Class<?> defineClass(String name, Resource resource) throws IOException {
+		URL url = resource.getCodeSourceUrl();
+		int lastDot = name.lastIndexOf('.');
+		if (lastDot >= 0) {
+			String packageName = name.substring(0, lastDot);
+			Package pkg = getPackage(packageName);
+			if (pkg == null) {
+				try {
+					definePackage(packageName, null, null, null, null, null, null, null);
+				}
+				catch (IllegalArgumentException ex) {
+					// Tolerate race condition due to being parallel capable
+				}
+			}
+			else if (pkg.isSealed() && !pkg.isSealed(url)) {
+				throw new SecurityException(
+						"sealing violation: package " + packageName + " is sealed");
+			}
+		}
+		byte[] bytes = resource.getBytes();
+		return defineClass(name, bytes, 0, bytes.length,
+				new CodeSource(url, (CodeSigner[]) null));
+	}
+
+	private PackageIndex getPackageIndex(String name) {
+		if (!this.usePackageIndex || !PackageIndex.isIndexable(name)) {
+			return null;
+		}
+		Object packageIndex = this.packageIndex;
+		if (packageIndex == null) {
+			synchronized (this.packageIndexMonitor) {
+				packageIndex = this.packageIndex;
+				if (packageIndex == null) {
+					packageIndex = createPackageIndex();
+					this.packageIndex = packageIndex;
+				}
+			}
+		}
+		return (packageIndex == NO_PACKAGE_INDEX ? null : (PackageIndex) packageIndex);
+	}
+
+	private Object createPackageIndex() {
+		PackageIndex packageIndex = PackageIndex.create(getURLs());
+		return (packageIndex == null ? NO_PACKAGE_INDEX : packageIndex);
+	}
+
 	@Override
 	protected Class<?> loadClass(String name, boolean resolve)
 			throws ClassNotFoundException {
@@ -127,6 +250,12 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 	}
 
 	private void definePackage(final String className, final String packageName) {
+		final PackageIndex packageIndex = getPackageIndex(
+				className.replace('.', '/') + ".class");
+		if (packageIndex != null) {
+			definePackage(packageIndex, className, packageName);
+			return;
+		}
 		try {
 			AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
 				@Override
@@ -161,6 +290,32 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	private void definePackage(final PackageIndex packageIndex, final String className,
+			final String packageName) {
+		try {
+			AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+				@Override
+				public Object run() throws IOException {
+					String packageEntryName = packageName.replace('.', '/') + "/";
+					String classEntryName = className.replace('.', '/') + ".class";
+					for (Resource resource : packageIndex.getResources(classEntryName)) {
+						JarFile jarFile = resource.getJarFile();
+						if (jarFile != null && jarFile.getEntry(packageEntryName) != null
+								&& jarFile.getManifest() != null) {
+							definePackage(packageName, jarFile.getManifest(),
+									resource.getCodeSourceUrl());
+							return null;
+						}
+					}
+					return null;
+				}
+			}, AccessController.getContext());
+		}
+		catch (java.security.PrivilegedActionException ex) {
+			// Ignore
+		}
+	}
+
 	/**
 	 * Clear URL caches.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,9 +35,12 @@ import org.springframework.boot.loader.jar.JarFile;
  *
  * @author Phillip Webb
  * @author Dave Syer
+ * @author Jon Ellis
  */
 public abstract class Launcher {
 
+	private static final String PACKAGE_INDEX = "loader.packageIndex";
+
 	/**
 	 * Launch the application. This method is the initial entry point that should be
 	 * called by a subclass {@code public static void main(String[] args)} method.
@@ -65,13 +68,16 @@ public abstract class Launcher {
 	}
 
 	/**
-	 * Create a classloader for the specified URLs.
+	 * Create a classloader for the specified URLs. The classloader finds classes and
+	 * resources using a package index when the {@code loader.packageIndex} system
+	 * property is {@code true}.
 	 * @param urls the URLs
 	 * @return the classloader
 	 * @throws Exception if the classloader cannot be created
 	 */
 	protected ClassLoader createClassLoader(URL[] urls) throws Exception {
-		return new LaunchedURLClassLoader(urls, getClass().getClassLoader());
+		return new LaunchedURLClassLoader(urls, getClass().getClassLoader(),
+				Boolean.getBoolean(PACKAGE_INDEX));
 	}
 
 	/**
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Index of the URLs of a {@link LaunchedURLClassLoader} by the directory, and therefore
+ * the package, of their entries. Resources are found by only probing the URLs that have
+ * entries in the resource's directory rather than every URL. Directories that are split
+ * across several URLs list each of them in class path order.
+ *
+ * @author Jon Ellis
+ * @see LaunchedURLClassLoader
+ */
+final class PackageIndex {
+
+	private static final int BUFFER_SIZE = 4096;
+
+	private static final int[] NO_CANDIDATES = {};
+
+	private final Location[] locations;
+
+	private final Map<String, int[]> directories;
+
+	private PackageIndex(Location[] locations, Map<String, int[]> directories) {
+		this.locations = locations;
+		this.directories = directories;
+	}
+
+	/**
+	 * Return the first resource with the given name.
+	 * @param name the resource name
+	 * @return the resource or {@code null}
+	 */
+	Resource getResource(String name) {
+		for (int index : getCandidates(name)) {
+			if (this.locations[index].contains(name)) {
+				return new Resource(this.locations[index], name);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return all resources with the given name, in class path order.
+	 * @param name the resource name
+	 * @return the resources
+	 */
+	List<Resource> getResources(String name) {
+		List<Resource> resources = new ArrayList<Resource>();
+		for (int index : getCandidates(name)) {
+			if (this.locations[index].contains(name)) {
+				resources.add(new Resource(this.locations[index], name));
+			}
+		}
+		return resources;
+	}
+
+	private int[] getCandidates(String name) {
+		int[] candidates = this.directories.get(getDirectory(name));
+		return (candidates == null ? NO_CANDIDATES : candidates);
+	}
+
+	/**
+	 * Return if resources with the given name can be found using the index. Names that
+	 * would need to be encoded to form a URL, or that are not relative to the root of
+	 * the URLs, cannot be found.
+	 * @param name the resource name
+	 * @return if the resource can be found using the index
+	 */
+	static boolean isIndexable(String name) {
+		if (name.length() == 0 || name.startsWith("/") || name.contains("..")) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			char ch = name.charAt(i);
+			if (!((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')
+					|| (ch >= '0' && ch <= '9') || ch == '/' || ch == '.' || ch == '_'
+					|| ch == '-' || ch == '$')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String getDirectory(String name) {
+		int end = (name.endsWith("/") ? name.length() - 1 : name.length());
+		return name.substring(0, name.lastIndexOf('/', end - 1) + 1);
+	}
+
+	/**
+	 * Create an index of the given URLs.
+	 * @param urls the URLs to index
+	 * @return the index or {@code null} if any of the URLs is neither the root of a jar
+	 * file nor a directory
+	 */
+	static PackageIndex create(URL[] urls) {
+		Location[] locations = new Location[urls.length];
+		Map<String, int[]> directories = new HashMap<String, int[]>();
+		for (int i = 0; i < urls.length; i++) {
+			locations[i] = createLocation(urls[i]);
+			if (locations[i] == null) {
+				return null;
+			}
+			for (String name : locations[i].getNames()) {
+				add(directories, getDirectory(name), i);
+			}
+		}
+		for (Map.Entry<String, int[]> entry : directories.entrySet()) {
+			entry.setValue(trim(entry.getValue()));
+		}
+		return new PackageIndex(locations, directories);
+	}
+
+	private static Location createLocation(URL url) {
+		try {
+			if ("file".equals(url.getProtocol()) && url.getFile().endsWith("/")) {
+				File directory = new File(url.toURI());
+				return (directory.isDirectory() ? new DirectoryLocation(url, directory)
+						: null);
+			}
+			if (url.getFile().endsWith("!/")) {
+				URLConnection connection = url.openConnection();
+				if (connection instanceof JarURLConnection) {
+					return new JarLocation(url,
+							((JarURLConnection) connection).getJarFile());
+				}
+			}
+		}
+		catch (IOException ex) {
+			// Ignore
+		}
+		catch (URISyntaxException ex) {
+			// Ignore
+		}
+		catch (IllegalArgumentException ex) {
+			// Ignore
+		}
+		return null;
+	}
+
+	private static void add(Map<String, int[]> directories, String directory,
+			int index) {
+		// The first element of each array holds the number of indexes that follow
+		int[] indexes = directories.get(directory);
+		if (indexes == null) {
+			directories.put(directory, new int[] { 1, index, 0, 0 });
+			return;
+		}
+		int size = indexes[0];
+		if (indexes[size] == index) {
+			return;
+		}
+		if (size + 1 == indexes.length) {
+			int[] grown = new int[indexes.length * 2];
+			System.arraycopy(indexes, 0, grown, 0, indexes.length);
+			indexes = grown;
+			directories.put(directory, indexes);
+		}
+		indexes[size + 1] = index;
+		indexes[0] = size + 1;
+	}
+
+	private static int[] trim(int[] indexes) {
+		int[] trimmed = new int[indexes[0]];
+		System.arraycopy(indexes, 1, trimmed, 0, trimmed.length);
+		return trimmed;
+	}
+
+	/**
+	 * A resource found using the index.
+	 */
+	static final class Resource {
+
+		private final Location location;
+
+		private final String name;
+
+		private Resource(Location location, String name) {
+			this.location = location;
+			this.name = name;
+		}
+
+		/**
+		 * Return the URL of the class path entry that contains the resource.
+		 * @return the class path URL
+		 */
+		URL getCodeSourceUrl() {
+			return this.location.getUrl();
+		}
+
+		/**
+		 * Return the URL of the resource.
+		 * @return the resource URL
+		 */
+		URL getUrl() {
+			try {
+				return new URL(this.location.getUrl(), this.name);
+			}
+			catch (MalformedURLException ex) {
+				return null;
+			}
+		}
+
+		/**
+		 * Return the jar file that contains the resource.
+		 * @return the jar file or {@code null} if the resource is not in a jar file
+		 */
+		JarFile getJarFile() {
+			return this.location.getJarFile();
+		}
+
+		/**
+		 * Return the content of the resource.
+		 * @return the content
+		 * @throws IOException if the resource cannot be read
+		 */
+		byte[] getBytes() throws IOException {
+			InputStream inputStream = this.location.getInputStream(this.name);
+			try {
+				ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+						BUFFER_SIZE);
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int bytesRead;
+				while ((bytesRead = inputStream.read(buffer)) != -1) {
+					outputStream.write(buffer, 0, bytesRead);
+				}
+				return outputStream.toByteArray();
+			}
+			finally {
+				inputStream.close();
+			}
+		}
+
+	}
+
+	/**
+	 * A class path entry that can be indexed.
+	 */
+	private interface Location {
+
+		URL getUrl();
+
+		JarFile getJarFile();
+
+		Iterable<String> getNames();
+
+		boolean contains(String name);
+
+		InputStream getInputStream(String name) throws IOException;
+
+	}
+
+	/**
+	 * {@link Location} for the root of a jar file.
+	 */
+	private static final class JarLocation implements Location {
+
+		private final URL url;
+
+		private final JarFile jarFile;
+
+		JarLocation(URL url, JarFile jarFile) {
+			this.url = url;
+			this.jarFile = jarFile;
+		}
+
+		@Override
+		public URL getUrl() {
+			return this.url;
+		}
+
+		@Override
+		public JarFile getJarFile() {
+			return this.jarFile;
+		}
+
+		@Override
+		public Iterable<String> getNames() {
+			List<String> names = new ArrayList<String>();
+			Enumeration<? extends ZipEntry> entries = this.jarFile.entries();
+			while (entries.hasMoreElements()) {
+				names.add(entries.nextElement().getName());
+			}
+			return names;
+		}
+
+		@Override
+		public boolean contains(String name) {
+			return this.jarFile.getEntry(name) != null;
+		}
+
+		@Override
+		public InputStream getInputStream(String name) throws IOException {
+			ZipEntry entry = this.jarFile.getEntry(name);
+			if (entry == null) {
+				throw new IOException("Entry '" + name + "' not found");
+			}
+			return this.jarFile.getInputStream(entry);
+		}
+
+	}
+
+	/**
+	 * {@link Location} for a directory.
+	 */
+	private static final class DirectoryLocation implements Location {
+
+		private final URL url;
+
+		private final File root;
+
+		DirectoryLocation(URL url, File root) {
+			this.url = url;
+			this.root = root;
+		}
+
+		@Override
+		public URL getUrl() {
+			return this.url;
+		}
+
+		@Override
+		public JarFile getJarFile() {
+			return null;
+		}
+
+		@Override
+		public Iterable<String> getNames() {
+			List<String> names = new ArrayList<String>();
+			addNames(this.root, "", names);
+			return names;
+		}
+
+		private void addNames(File directory, String prefix, List<String> names) {
+			File[] files = directory.listFiles();
+			if (files == null) {
+				return;
+			}
+			for (File file : files) {
+				String name = prefix + file.getName();
+				if (file.isDirectory()) {
+					names.add(name + "/");
+					addNames(file, name + "/", names);
+				}
+				else {
+					names.add(name);
+				}
+			}
+		}
+
+		@Override
+		public boolean contains(String name) {
+			return getFile(name).exists();
+		}
+
+		@Override
+		public InputStream getInputStream(String name) throws IOException {
+			return new FileInputStream(getFile(name));
+		}
+
+		private File getFile(String name) {
+			return new File(this.root, name.replace('/', File.separatorChar));
+		}
+
+	}
+
+}
@@ -67,6 +67,7 @@ import org.springframework.boot.loader.util.SystemPropertyUtils;
  * @author Dave Syer
  * @author Janne Valkealahti
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class PropertiesLauncher extends Launcher {
 
@@ -119,6 +120,14 @@ public class PropertiesLauncher extends Launcher {
 	 */
 	public static final String SET_SYSTEM_PROPERTIES = "loader.system";
 
+	/**
+	 * Properties key for boolean flag (default false) which if set will cause jar files
+	 * to be mapped into memory rather than read through a pool of
+	 * {@link java.io.RandomAccessFile RandomAccessFiles}. As a manifest entry can also be
+	 * specified as {@code Loader-Mapped}.
+	 */
+	public static final String MAPPED = "loader.mapped";
+
 	private static final Pattern WORD_SEPARATOR = Pattern.compile("\\W+");
 
 	private final File home;
@@ -133,6 +142,7 @@ public class PropertiesLauncher extends Launcher {
 		try {
 			this.home = getHomeDirectory();
 			initializeProperties();
+			initializeMapped();
 			initializePaths();
 			this.parent = createArchive();
 		}
@@ -273,6 +283,15 @@ public class PropertiesLauncher extends Launcher {
 		}
 	}
 
+	private void initializeMapped() throws Exception {
+		String mapped = getProperty(MAPPED);
+		if (Boolean.parseBoolean(mapped)) {
+			// JarFile reads the System property when a jar is opened
+			System.setProperty(MAPPED, "true");
+			log("Mapping jar files into memory");
+		}
+	}
+
 	private void initializePaths() throws Exception {
 		String path = getProperty(PATH);
 		if (path != null) {
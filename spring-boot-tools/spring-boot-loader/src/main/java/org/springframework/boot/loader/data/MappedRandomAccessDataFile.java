@@ -0,0 +1,221 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * {@link RandomAccessDataFile} that maps the file into memory. Reads are served directly
+ * from the mapping, so concurrent reads neither block nor perform any system calls, and
+ * {@link #getSubsection(long, long) subsections} are views over the same mapping. Files
+ * larger than 1GB are mapped in several regions.
+ * <p>
+ * The mapping is released by the garbage collector rather than when the file is
+ * {@link #close() closed}. On some platforms the file cannot be deleted until then.
+ *
+ * @author Jon Ellis
+ * @since 2.0.0
+ */
+public class MappedRandomAccessDataFile extends RandomAccessDataFile {
+
+	private static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+	private final MappedData data;
+
+	/**
+	 * Create a new {@link MappedRandomAccessDataFile} backed by the specified file.
+	 * @param file the underlying file
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 */
+	public MappedRandomAccessDataFile(File file) throws IOException {
+		this(file, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Create a new {@link MappedRandomAccessDataFile} backed by the specified file.
+	 * @param file the underlying file
+	 * @param regionSize the maximum size of each mapped region
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 */
+	MappedRandomAccessDataFile(File file, int regionSize) throws IOException {
+		super(file, 1);
+		this.data = new MappedData(map(file, regionSize), regionSize, 0, getSize());
+	}
+
+	private static ByteBuffer[] map(File file, int regionSize) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			long size = channel.size();
+			int count = (int) ((size + regionSize - 1) / regionSize);
+			ByteBuffer[] regions = new ByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long position = (long) i * regionSize;
+				regions[i] = channel.map(MapMode.READ_ONLY, position,
+						Math.min(regionSize, size - position));
+			}
+			return regions;
+		}
+		finally {
+			randomAccessFile.close();
+		}
+	}
+
+	@Override
+	public InputStream getInputStream(ResourceAccess access) throws IOException {
+		return this.data.getInputStream(access);
+	}
+
+	@Override
+	public RandomAccessData getSubsection(long offset, long length) {
+		return this.data.getSubsection(offset, length);
+	}
+
+	/**
+	 * {@link RandomAccessData} for a section of the mapped regions.
+	 */
+	private static final class MappedData implements RandomAccessData {
+
+		private final ByteBuffer[] regions;
+
+		private final int regionSize;
+
+		private final long offset;
+
+		private final long length;
+
+		MappedData(ByteBuffer[] regions, int regionSize, long offset, long length) {
+			this.regions = regions;
+			this.regionSize = regionSize;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public InputStream getInputStream(ResourceAccess access) throws IOException {
+			return new MappedInputStream(this);
+		}
+
+		@Override
+		public RandomAccessData getSubsection(long offset, long length) {
+			if (offset < 0 || length < 0 || offset + length > this.length) {
+				throw new IndexOutOfBoundsException();
+			}
+			return new MappedData(this.regions, this.regionSize, this.offset + offset,
+					length);
+		}
+
+		@Override
+		public long getSize() {
+			return this.length;
+		}
+
+		int get(long position) {
+			long absolute = this.offset + position;
+			return this.regions[(int) (absolute / this.regionSize)]
+					.get((int) (absolute % this.regionSize)) & 0xFF;
+		}
+
+		void get(long position, byte[] b, int off, int len) {
+			long absolute = this.offset + position;
+			while (len > 0) {
+				ByteBuffer region = this.regions[(int) (absolute / this.regionSize)]
+						.duplicate();
+				region.position((int) (absolute % this.regionSize));
+				int amount = Math.min(len, region.remaining());
+				region.get(b, off, amount);
+				absolute += amount;
+				off += amount;
+				len -= amount;
+			}
+		}
+
+	}
+
+	/**
+	 * {@link InputStream} that reads from a {@link MappedData}.
+	 */
+	private static final class MappedInputStream extends InputStream {
+
+		private final MappedData data;
+
+		private long position;
+
+		MappedInputStream(MappedData data) {
+			this.data = data;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.position >= this.data.length) {
+				return -1;
+			}
+			return this.data.get(this.position++);
+		}
+
+		@Override
+		public int read(byte[] b) throws IOException {
+			return read(b, 0, b == null ? 0 : b.length);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (b == null) {
+				throw new NullPointerException("Bytes must not be null");
+			}
+			if (len == 0) {
+				return 0;
+			}
+			int amount = cap(len);
+			if (amount <= 0) {
+				return -1;
+			}
+			this.data.get(this.position, b, off, amount);
+			this.position += amount;
+			return amount;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			if (n <= 0) {
+				return 0;
+			}
+			long amount = Math.min(this.data.length - this.position, n);
+			this.position += amount;
+			return amount;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return cap(Integer.MAX_VALUE);
+		}
+
+		private int cap(long n) {
+			return (int) Math.min(this.data.length - this.position, n);
+		}
+
+	}
+
+}
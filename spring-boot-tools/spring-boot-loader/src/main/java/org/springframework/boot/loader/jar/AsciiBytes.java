@@ -24,6 +24,7 @@ import java.nio.charset.Charset;
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 final class AsciiBytes {
 
@@ -214,6 +215,38 @@ final class AsciiBytes {
 		return false;
 	}
 
+	/**
+	 * Return if the bytes are the UTF-8 encoding of the given name followed by the given
+	 * suffix. ASCII bytes are compared with the characters directly so that the common
+	 * case does not need to encode the name.
+	 * @param name the name to compare
+	 * @param suffix an additional suffix (or {@code null})
+	 * @return {@code true} if the bytes match
+	 */
+	boolean matches(String name, String suffix) {
+		suffix = (suffix == null ? "" : suffix);
+		int nameLength = name.length();
+		int totalLength = nameLength + suffix.length();
+		if (this.length < totalLength) {
+			// UTF-8 never needs fewer bytes than there are chars
+			return false;
+		}
+		for (int i = 0; i < this.length; i++) {
+			int b = this.bytes[this.offset + i];
+			if (b < 0) {
+				return equals(new AsciiBytes(name + suffix));
+			}
+			if (i >= totalLength) {
+				return false;
+			}
+			char ch = (i < nameLength ? name.charAt(i) : suffix.charAt(i - nameLength));
+			if (ch != b) {
+				return false;
+			}
+		}
+		return this.length == totalLength;
+	}
+
 	static String toString(byte[] bytes) {
 		return new String(bytes, UTF_8);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -73,7 +73,7 @@ class CentralDirectoryParser {
 		}
 	}
 
-	private RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord,
+	static RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord,
 			RandomAccessData data) {
 		long offset = endRecord.getStartOfArchive(data);
 		if (offset == 0) {
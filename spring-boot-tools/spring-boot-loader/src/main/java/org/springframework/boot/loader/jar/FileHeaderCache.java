@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free cache of the {@link FileHeader file headers} of a {@link JarFileEntries},
+ * keyed by entry index. Each index maps to a single slot so lookups neither lock nor
+ * allocate, and a header that is put replaces whichever header previously held its slot.
+ * A cache with a capacity of at least the number of entries never evicts. Hits and misses
+ * are counted in {@link LongAdder LongAdders} so that threads looking up entries at the
+ * same time do not contend on the counters.
+ *
+ * @author Jon Ellis
+ */
+final class FileHeaderCache {
+
+	private final AtomicReferenceArray<Slot> slots;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Create a new {@link FileHeaderCache} with the given capacity.
+	 * @param capacity the number of slots, may be zero to disable caching
+	 */
+	FileHeaderCache(int capacity) {
+		this.slots = new AtomicReferenceArray<Slot>(Math.max(capacity, 0));
+	}
+
+	/**
+	 * Return the cached header for the given entry index.
+	 * @param index the entry index
+	 * @return the header or {@code null}
+	 */
+	FileHeader get(int index) {
+		Slot slot = (this.slots.length() == 0 ? null
+				: this.slots.get(index % this.slots.length()));
+		if (slot != null && slot.index == index) {
+			this.hits.increment();
+			return slot.header;
+		}
+		this.misses.increment();
+		return null;
+	}
+
+	/**
+	 * Cache the header for the given entry index.
+	 * @param index the entry index
+	 * @param header the header
+	 */
+	void put(int index, FileHeader header) {
+		if (this.slots.length() > 0) {
+			this.slots.set(index % this.slots.length(), new Slot(index, header));
+		}
+	}
+
+	void clear() {
+		for (int i = 0; i < this.slots.length(); i++) {
+			this.slots.set(i, null);
+		}
+	}
+
+	int getCapacity() {
+		return this.slots.length();
+	}
+
+	long getHits() {
+		return this.hits.sum();
+	}
+
+	long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * A cached header and the index of its entry.
+	 */
+	private static final class Slot {
+
+		private final int index;
+
+		private final FileHeader header;
+
+		Slot(int index, FileHeader header) {
+			this.index = index;
+			this.header = header;
+		}
+
+	}
+
+}
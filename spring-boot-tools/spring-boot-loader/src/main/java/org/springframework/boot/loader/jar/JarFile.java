@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import org.springframework.boot.loader.data.MappedRandomAccessDataFile;
 import org.springframework.boot.loader.data.RandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
 import org.springframework.boot.loader.data.RandomAccessDataFile;
@@ -43,8 +44,14 @@ import org.springframework.boot.loader.data.RandomAccessDataFile;
  * <li>A nested {@link JarFile} can be {@link #getNestedJarFile(ZipEntry) obtained} for
  * embedded JAR files (as long as their entry is not compressed).</li>
  * </ul>
+ * When the {@code loader.mapped} system property is {@code true}, the root file is
+ * {@link MappedRandomAccessDataFile mapped into memory} rather than read through a pool
+ * of {@link java.io.RandomAccessFile RandomAccessFiles}. Nested jars that have a
+ * {@link NestedJarIndex pre-built index} are opened from the index without parsing their
+ * central directory.
  *
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 public class JarFile extends java.util.jar.JarFile {
 
@@ -54,6 +61,8 @@ public class JarFile extends java.util.jar.JarFile {
 
 	private static final String HANDLERS_PACKAGE = "org.springframework.boot.loader";
 
+	private static final String MAPPED = "loader.mapped";
+
 	private static final AsciiBytes META_INF = new AsciiBytes("META-INF/");
 
 	private static final AsciiBytes SIGNATURE_FILE_EXTENSION = new AsciiBytes(".SF");
@@ -80,7 +89,7 @@ public class JarFile extends java.util.jar.JarFile {
 	 * @throws IOException if the file cannot be read
 	 */
 	public JarFile(File file) throws IOException {
-		this(new RandomAccessDataFile(file));
+		this(createRootFile(file));
 	}
 
 	/**
@@ -119,6 +128,26 @@ public class JarFile extends java.util.jar.JarFile {
 		this.type = type;
 	}
 
+	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot,
+			RandomAccessData data, NestedJarIndex index) throws IOException {
+		super(rootFile.getFile());
+		this.rootFile = rootFile;
+		this.pathFromRoot = pathFromRoot;
+		CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(data);
+		this.data = CentralDirectoryParser.getArchiveData(endRecord, data);
+		this.entries = new JarFileEntries(this, null);
+		this.entries.load(endRecord.getCentralDirectory(this.data), index);
+		this.signed = index.isSigned();
+		this.type = JarFileType.NESTED_JAR;
+	}
+
+	private static RandomAccessDataFile createRootFile(File file) throws IOException {
+		if (Boolean.getBoolean(MAPPED)) {
+			return new MappedRandomAccessDataFile(file);
+		}
+		return new RandomAccessDataFile(file);
+	}
+
 	private CentralDirectoryVisitor centralDirectoryVisitor() {
 		return new CentralDirectoryVisitor() {
 
@@ -287,8 +316,22 @@ public class JarFile extends java.util.jar.JarFile {
 					+ "mechanism used to create your executable jar file");
 		}
 		RandomAccessData entryData = this.entries.getEntryData(entry.getName());
-		return new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName(),
-				entryData, JarFileType.NESTED_JAR);
+		String pathFromRoot = this.pathFromRoot + "!/" + entry.getName();
+		NestedJarIndex index = getNestedJarIndex(entry);
+		if (index != null) {
+			return new JarFile(this.rootFile, pathFromRoot, entryData, index);
+		}
+		return new JarFile(this.rootFile, pathFromRoot, entryData,
+				JarFileType.NESTED_JAR);
+	}
+
+	private NestedJarIndex getNestedJarIndex(JarEntry entry) throws IOException {
+		String name = NestedJarIndex.getEntryName(entry.getName());
+		JarEntry indexEntry = getJarEntry(name);
+		if (indexEntry == null || indexEntry.getMethod() != ZipEntry.STORED) {
+			return null;
+		}
+		return NestedJarIndex.load(this.entries.getEntryData(name), entry);
 	}
 
 	@Override
@@ -367,6 +410,22 @@ public class JarFile extends java.util.jar.JarFile {
 		this.entries.clearCache();
 	}
 
+	/**
+	 * Return the number of entry lookups that were served from the entry cache.
+	 * @return the number of cache hits
+	 */
+	long getEntryCacheHits() {
+		return this.entries.getCacheHits();
+	}
+
+	/**
+	 * Return the number of entry lookups that had to read the central directory.
+	 * @return the number of cache misses
+	 */
+	long getEntryCacheMisses() {
+		return this.entries.getCacheMisses();
+	}
+
 	protected String getPathFromRoot() {
 		return this.pathFromRoot;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,10 +19,7 @@ package org.springframework.boot.loader.jar;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.zip.ZipEntry;
 
@@ -39,8 +36,18 @@ import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
  * <p>
  * A typical Spring Boot application will have somewhere in the region of 10,500 entries
  * which should consume about 122K.
+ * <p>
+ * For nested jars that were repackaged with a {@link NestedJarIndex} the arrays are
+ * {@link #load(RandomAccessData, NestedJarIndex) loaded} from the index rather than
+ * being built by visiting the central directory.
+ * <p>
+ * Recently used entries are held in a lock-free {@link FileHeaderCache}. Its capacity
+ * defaults to {@value #DEFAULT_ENTRY_CACHE_SIZE} and can be changed with the
+ * {@code loader.entryCacheSize} system property. Entries of signed jars are always
+ * cached so that their certificates are retained.
  *
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
@@ -50,7 +57,9 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
 	private static final String NO_SUFFIX = "";
 
-	protected static final int ENTRY_CACHE_SIZE = 25;
+	private static final String ENTRY_CACHE_SIZE = "loader.entryCacheSize";
+
+	protected static final int DEFAULT_ENTRY_CACHE_SIZE = 64;
 
 	private final JarFile jarFile;
 
@@ -66,19 +75,7 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
 	private int[] positions;
 
-	private final Map<Integer, FileHeader> entriesCache = Collections
-			.synchronizedMap(new LinkedHashMap<Integer, FileHeader>(16, 0.75f, true) {
-
-				@Override
-				protected boolean removeEldestEntry(
-						Map.Entry<Integer, FileHeader> eldest) {
-					if (JarFileEntries.this.jarFile.isSigned()) {
-						return false;
-					}
-					return size() >= ENTRY_CACHE_SIZE;
-				}
-
-			});
+	private FileHeaderCache entriesCache = new FileHeaderCache(0);
 
 	JarFileEntries(JarFile jarFile, JarEntryFilter filter) {
 		this.jarFile = jarFile;
@@ -95,6 +92,21 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		this.positions = new int[maxSize];
 	}
 
+	/**
+	 * Load the entries from a pre-built index rather than visiting the central
+	 * directory.
+	 * @param centralDirectoryData the central directory data
+	 * @param index the index of the entries
+	 */
+	void load(RandomAccessData centralDirectoryData, NestedJarIndex index) {
+		this.centralDirectoryData = centralDirectoryData;
+		this.size = index.getSize();
+		this.hashCodes = index.getHashCodes();
+		this.centralDirectoryOffsets = index.getCentralDirectoryOffsets();
+		this.positions = index.getPositions();
+		this.entriesCache = createEntriesCache(index.isSigned());
+	}
+
 	@Override
 	public void visitFileHeader(CentralDirectoryFileHeader fileHeader, int dataOffset) {
 		AsciiBytes name = applyFilter(fileHeader.getName());
@@ -119,6 +131,15 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		for (int i = 0; i < this.size; i++) {
 			this.positions[positions[i]] = i;
 		}
+		this.entriesCache = createEntriesCache(this.jarFile.isSigned());
+	}
+
+	private FileHeaderCache createEntriesCache(boolean signed) {
+		if (signed) {
+			return new FileHeaderCache(this.size);
+		}
+		int capacity = Integer.getInteger(ENTRY_CACHE_SIZE, DEFAULT_ENTRY_CACHE_SIZE);
+		return new FileHeaderCache(Math.min(capacity, this.size));
 	}
 
 	private void sort(int left, int right) {
@@ -275,6 +296,14 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		this.entriesCache.clear();
 	}
 
+	long getCacheHits() {
+		return this.entriesCache.getHits();
+	}
+
+	long getCacheMisses() {
+		return this.entriesCache.getMisses();
+	}
+
 	private AsciiBytes applyFilter(AsciiBytes name) {
 		return (this.filter == null ? name : this.filter.apply(name));
 	}
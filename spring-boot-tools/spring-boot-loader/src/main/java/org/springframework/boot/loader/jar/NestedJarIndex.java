@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.springframework.boot.loader.data.RandomAccessData;
+
+/**
+ * A pre-built index of the entries of a nested jar, written alongside the jar when it is
+ * repackaged. The index holds the same hash codes, central directory offsets and
+ * positions that {@link JarFileEntries} would otherwise compute by parsing the central
+ * directory, already sorted in hash code order. The index is stored, uncompressed, in an
+ * entry named {@code META-INF/jar-index/<nested jar entry name>.idx} and has the
+ * following big-endian layout:
+ * <ul>
+ * <li>{@code int} magic ({@code 0x424A4958}) and {@code int} version ({@code 1})</li>
+ * <li>{@code long} CRC-32 and {@code long} size of the nested jar</li>
+ * <li>{@code byte} {@code 1} if the nested jar is signed, otherwise {@code 0}</li>
+ * <li>{@code int} number of entries followed by that many hash codes, central directory
+ * offsets and positions</li>
+ * </ul>
+ * An index is only used when the CRC and size match those of the nested jar entry.
+ *
+ * @author Jon Ellis
+ * @see JarFileEntries#load(RandomAccessData, NestedJarIndex)
+ */
+final class NestedJarIndex {
+
+	private static final String ENTRY_PREFIX = "META-INF/jar-index/";
+
+	private static final String ENTRY_SUFFIX = ".idx";
+
+	private static final int MAGIC = 0x424A4958;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 1 + 4;
+
+	private final boolean signed;
+
+	private final int size;
+
+	private final int[] hashCodes;
+
+	private final int[] centralDirectoryOffsets;
+
+	private final int[] positions;
+
+	private NestedJarIndex(boolean signed, int size, IntBuffer buffer) {
+		this.signed = signed;
+		this.size = size;
+		this.hashCodes = new int[size];
+		this.centralDirectoryOffsets = new int[size];
+		this.positions = new int[size];
+		buffer.get(this.hashCodes);
+		buffer.get(this.centralDirectoryOffsets);
+		buffer.get(this.positions);
+	}
+
+	boolean isSigned() {
+		return this.signed;
+	}
+
+	int getSize() {
+		return this.size;
+	}
+
+	int[] getHashCodes() {
+		return this.hashCodes;
+	}
+
+	int[] getCentralDirectoryOffsets() {
+		return this.centralDirectoryOffsets;
+	}
+
+	int[] getPositions() {
+		return this.positions;
+	}
+
+	/**
+	 * Return the name of the entry that holds the index of the given nested jar.
+	 * @param nestedJarEntryName the name of the nested jar entry
+	 * @return the name of the index entry
+	 */
+	static String getEntryName(String nestedJarEntryName) {
+		return ENTRY_PREFIX + nestedJarEntryName + ENTRY_SUFFIX;
+	}
+
+	/**
+	 * Load the index from the specified data if it is valid for the given nested jar
+	 * entry.
+	 * @param data the index data
+	 * @param nestedJarEntry the nested jar entry
+	 * @return the index or {@code null} if the data is not a valid index for the entry
+	 * @throws IOException if the data cannot be read
+	 */
+	static NestedJarIndex load(RandomAccessData data, JarEntry nestedJarEntry)
+			throws IOException {
+		if (data.getSize() < HEADER_SIZE) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(Bytes.get(data));
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+				|| buffer.getLong() != nestedJarEntry.getCrc()
+				|| buffer.getLong() != nestedJarEntry.getSize()) {
+			return null;
+		}
+		boolean signed = buffer.get() != 0;
+		int size = buffer.getInt();
+		if (size < 0 || buffer.remaining() != size * 12L) {
+			return null;
+		}
+		return new NestedJarIndex(signed, size, buffer.asIntBuffer());
+	}
+
+}
@@ -17,13 +17,22 @@
 package org.springframework.boot.loader;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import org.springframework.boot.loader.jar.JarFile;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,6 +42,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * @author Dave Syer
  * @author Phillip Webb
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 @SuppressWarnings("resource")
 public class LaunchedURLClassLoaderTests {
@@ -105,4 +115,90 @@ public class LaunchedURLClassLoaderTests {
 		}
 	}
 
+	@Test
+	public void resolveResourceWithPackageIndex() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(file);
+		URL url = new JarFile(file).getUrl();
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(new URL[] { url },
+				null, true);
+		URL resource = loader.getResource("d/9.dat");
+		assertThat(resource.toString()).isEqualTo(url + "d/9.dat");
+		assertThat(resource.openConnection().getInputStream().read()).isEqualTo(9);
+		assertThat(loader.getResource("d/")).isNotNull();
+		assertThat(loader.getResource("1.dat")).isNotNull();
+		assertThat(loader.getResource("d/missing.dat")).isNull();
+		assertThat(loader.getResource("missing/9.dat")).isNull();
+		assertThat(loader.getResource("nested.jar!/3.dat")).isNotNull();
+	}
+
+	@Test
+	public void resolveSplitPackageResourcesWithPackageIndex() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(file);
+		URL jarUrl = new JarFile(file).getUrl();
+		File directory = this.temporaryFolder.newFolder();
+		new File(directory, "d").mkdirs();
+		FileCopyUtils.copy(new byte[] { 10 }, new File(directory, "d/9.dat"));
+		FileCopyUtils.copy(new byte[] { 11 }, new File(directory, "d/10.dat"));
+		URL directoryUrl = directory.toURI().toURL();
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(
+				new URL[] { directoryUrl, jarUrl }, null, true);
+		assertThat(Collections.list(loader.getResources("d/9.dat"))).containsExactly(
+				new URL(directoryUrl, "d/9.dat"), new URL(jarUrl, "d/9.dat"));
+		assertThat(loader.getResource("d/9.dat").openStream().read()).isEqualTo(10);
+		assertThat(loader.getResource("d/10.dat").openStream().read()).isEqualTo(11);
+		assertThat(loader.getResource("1.dat").openStream().read()).isEqualTo(1);
+	}
+
+	@Test
+	public void loadClassWithPackageIndex() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		createClassJar(file);
+		URL url = new JarFile(file).getUrl();
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(new URL[] { url },
+				null, true);
+		Class<?> type = loader.loadClass(TestJarCreator.class.getName());
+		assertThat(type.getClassLoader()).isSameAs(loader);
+		assertThat(type.getProtectionDomain().getCodeSource().getLocation())
+				.isEqualTo(url);
+		assertThat(type.getPackage().getImplementationTitle()).isEqualTo("test");
+	}
+
+	@Test(expected = ClassNotFoundException.class)
+	public void loadMissingClassWithPackageIndex() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		createClassJar(file);
+		URL url = new JarFile(file).getUrl();
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(new URL[] { url },
+				null, true);
+		loader.loadClass("org.springframework.boot.loader.Missing");
+	}
+
+	private void createClassJar(File file) throws Exception {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, "test");
+		JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file),
+				manifest);
+		try {
+			String name = TestJarCreator.class.getName().replace('.', '/') + ".class";
+			String directory = name.substring(0, name.lastIndexOf('/') + 1);
+			jarOutputStream.putNextEntry(new JarEntry(directory));
+			jarOutputStream.closeEntry();
+			jarOutputStream.putNextEntry(new JarEntry(name));
+			InputStream inputStream = getClass().getResourceAsStream("/" + name);
+			try {
+				StreamUtils.copy(inputStream, jarOutputStream);
+			}
+			finally {
+				inputStream.close();
+			}
+			jarOutputStream.closeEntry();
+		}
+		finally {
+			jarOutputStream.close();
+		}
+	}
+
 }
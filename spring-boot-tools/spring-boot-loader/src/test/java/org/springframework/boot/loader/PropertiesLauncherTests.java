@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  *
  * @author Dave Syer
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class PropertiesLauncherTests {
 
@@ -68,6 +69,7 @@ public class PropertiesLauncherTests {
 		System.clearProperty("loader.config.name");
 		System.clearProperty("loader.config.location");
 		System.clearProperty("loader.system");
+		System.clearProperty("loader.mapped");
 	}
 
 	@Test
@@ -215,6 +217,27 @@ public class PropertiesLauncherTests {
 				.isEqualTo("[foo, bar]");
 	}
 
+	@Test
+	public void testNotMappedByDefault() throws Exception {
+		new PropertiesLauncher();
+		assertThat(System.getProperty("loader.mapped")).isNull();
+	}
+
+	@Test
+	public void testMappedCustomizedUsingManifest() throws Exception {
+		System.setProperty("loader.home",
+				this.temporaryFolder.getRoot().getAbsolutePath());
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().putValue("Loader-Mapped", "true");
+		File manifestFile = new File(this.temporaryFolder.getRoot(),
+				"META-INF/MANIFEST.MF");
+		manifestFile.getParentFile().mkdirs();
+		manifest.write(new FileOutputStream(manifestFile));
+		new PropertiesLauncher();
+		assertThat(System.getProperty("loader.mapped")).isEqualTo("true");
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testLoadPathCustomizedUsingManifest() throws Exception {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.boot.loader;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -31,6 +32,7 @@ import java.util.zip.ZipEntry;
  * Creates a simple test jar.
  *
  * @author Phillip Webb
+ * @author Jon Ellis
  */
 public abstract class TestJarCreator {
 
@@ -58,10 +60,83 @@ public abstract class TestJarCreator {
 		}
 	}
 
+	/**
+	 * Create a jar for benchmarks that contains {@code nestedJars} nested jars, named
+	 * {@code lib/lib<n>.jar}. Each nested jar contains {@code classesPerJar} empty
+	 * classes, named {@code bench.lib<n>.C<m>}.
+	 * @param file the file to create
+	 * @param nestedJars the number of nested jars
+	 * @param classesPerJar the number of classes in each nested jar
+	 * @throws Exception if the jar cannot be created
+	 */
+	public static void createBenchmarkJar(File file, int nestedJars, int classesPerJar)
+			throws Exception {
+		FileOutputStream fileOutputStream = new FileOutputStream(file);
+		JarOutputStream jarOutputStream = new JarOutputStream(fileOutputStream);
+		try {
+			writeManifest(jarOutputStream, "benchmark");
+			writeDirEntry(jarOutputStream, "lib/");
+			for (int i = 0; i < nestedJars; i++) {
+				writeNestedEntry("lib/lib" + i + ".jar", false, jarOutputStream,
+						getBenchmarkJarData("bench/lib" + i + "/", classesPerJar));
+			}
+		}
+		finally {
+			jarOutputStream.close();
+		}
+	}
+
+	private static byte[] getBenchmarkJarData(String packagePath, int classes)
+			throws Exception {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		JarOutputStream jarOutputStream = new JarOutputStream(byteArrayOutputStream);
+		writeManifest(jarOutputStream, packagePath);
+		writeDirEntry(jarOutputStream, packagePath);
+		for (int i = 0; i < classes; i++) {
+			String className = packagePath + "C" + i;
+			jarOutputStream.putNextEntry(new JarEntry(className + ".class"));
+			jarOutputStream.write(getClassData(className));
+			jarOutputStream.closeEntry();
+		}
+		jarOutputStream.close();
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	private static byte[] getClassData(String className) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(bytes);
+		data.writeInt(0xCAFEBABE);
+		data.writeShort(0); // Minor version
+		data.writeShort(50); // Java 6
+		data.writeShort(5); // Constant pool count
+		data.writeByte(7); // #1 Class #2
+		data.writeShort(2);
+		data.writeByte(1); // #2 Utf8
+		data.writeUTF(className);
+		data.writeByte(7); // #3 Class #4
+		data.writeShort(4);
+		data.writeByte(1); // #4 Utf8
+		data.writeUTF("java/lang/Object");
+		data.writeShort(0x0021); // public super
+		data.writeShort(1); // This class
+		data.writeShort(3); // Super class
+		data.writeShort(0); // Interfaces
+		data.writeShort(0); // Fields
+		data.writeShort(0); // Methods
+		data.writeShort(0); // Attributes
+		data.close();
+		return bytes.toByteArray();
+	}
+
 	private static void writeNestedEntry(String name, boolean unpackNested,
 			JarOutputStream jarOutputStream) throws Exception, IOException {
+		writeNestedEntry(name, unpackNested, jarOutputStream, getNestedJarData());
+	}
+
+	private static void writeNestedEntry(String name, boolean unpackNested,
+			JarOutputStream jarOutputStream, byte[] nestedJarData)
+					throws Exception, IOException {
 		JarEntry nestedEntry = new JarEntry(name);
-		byte[] nestedJarData = getNestedJarData();
 		nestedEntry.setSize(nestedJarData.length);
 		nestedEntry.setCompressedSize(nestedJarData.length);
 		if (unpackNested) {
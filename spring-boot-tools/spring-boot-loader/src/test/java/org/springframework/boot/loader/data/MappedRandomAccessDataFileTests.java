@@ -0,0 +1,232 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MappedRandomAccessDataFile}.
+ *
+ * @author Jon Ellis
+ */
+public class MappedRandomAccessDataFileTests {
+
+	private static final byte[] BYTES;
+
+	static {
+		BYTES = new byte[256];
+		for (int i = 0; i < BYTES.length; i++) {
+			BYTES[i] = (byte) i;
+		}
+	}
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File tempFile;
+
+	private MappedRandomAccessDataFile file;
+
+	private InputStream inputStream;
+
+	@Before
+	public void setup() throws Exception {
+		this.tempFile = this.temporaryFolder.newFile();
+		FileOutputStream outputStream = new FileOutputStream(this.tempFile);
+		outputStream.write(BYTES);
+		outputStream.close();
+		this.file = new MappedRandomAccessDataFile(this.tempFile, 100);
+		this.inputStream = this.file.getInputStream(ResourceAccess.PER_READ);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		this.inputStream.close();
+		this.file.close();
+	}
+
+	@Test
+	public void fileNotNull() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("File must not be null");
+		new MappedRandomAccessDataFile(null);
+	}
+
+	@Test
+	public void fileExists() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("File must exist");
+		new MappedRandomAccessDataFile(new File("/does/not/exist"));
+	}
+
+	@Test
+	public void emptyFile() throws Exception {
+		MappedRandomAccessDataFile file = new MappedRandomAccessDataFile(
+				this.temporaryFolder.newFile());
+		assertThat(file.getSize()).isEqualTo(0);
+		assertThat(file.getInputStream(ResourceAccess.PER_READ).read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void inputStreamRead() throws Exception {
+		for (int i = 0; i <= 255; i++) {
+			assertThat(this.inputStream.read()).isEqualTo(i);
+		}
+		assertThat(this.inputStream.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void inputStreamReadNullBytes() throws Exception {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("Bytes must not be null");
+		this.inputStream.read(null);
+	}
+
+	@Test
+	public void inputStreamReadBytesAcrossRegions() throws Exception {
+		byte[] b = new byte[256];
+		int amountRead = this.inputStream.read(b);
+		assertThat(b).isEqualTo(BYTES);
+		assertThat(amountRead).isEqualTo(256);
+	}
+
+	@Test
+	public void inputStreamReadOffsetBytes() throws Exception {
+		byte[] b = new byte[7];
+		this.inputStream.skip(1);
+		int amountRead = this.inputStream.read(b, 2, 3);
+		assertThat(b).isEqualTo(new byte[] { 0, 0, 1, 2, 3, 0, 0 });
+		assertThat(amountRead).isEqualTo(3);
+	}
+
+	@Test
+	public void inputStreamReadMoreBytesThanAvailable() throws Exception {
+		byte[] b = new byte[257];
+		int amountRead = this.inputStream.read(b);
+		assertThat(b).startsWith(BYTES);
+		assertThat(amountRead).isEqualTo(256);
+		assertThat(this.inputStream.read(b)).isEqualTo(-1);
+	}
+
+	@Test
+	public void inputStreamReadZeroLength() throws Exception {
+		byte[] b = new byte[] { 0x0F };
+		int amountRead = this.inputStream.read(b, 0, 0);
+		assertThat(b).isEqualTo(new byte[] { 0x0F });
+		assertThat(amountRead).isEqualTo(0);
+		assertThat(this.inputStream.read()).isEqualTo(0);
+	}
+
+	@Test
+	public void inputStreamSkip() throws Exception {
+		assertThat(this.inputStream.skip(-1)).isEqualTo(0L);
+		assertThat(this.inputStream.skip(4)).isEqualTo(4L);
+		assertThat(this.inputStream.read()).isEqualTo(4);
+		assertThat(this.inputStream.available()).isEqualTo(251);
+		assertThat(this.inputStream.skip(Long.MAX_VALUE)).isEqualTo(251L);
+		assertThat(this.inputStream.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void subsectionNegativeOffset() throws Exception {
+		this.thrown.expect(IndexOutOfBoundsException.class);
+		this.file.getSubsection(-1, 1);
+	}
+
+	@Test
+	public void subsectionTooBig() throws Exception {
+		this.file.getSubsection(1, 255);
+		this.thrown.expect(IndexOutOfBoundsException.class);
+		this.file.getSubsection(1, 256);
+	}
+
+	@Test
+	public void subsectionAcrossRegions() throws Exception {
+		RandomAccessData subsection = this.file.getSubsection(95, 10);
+		InputStream inputStream = subsection.getInputStream(ResourceAccess.PER_READ);
+		byte[] b = new byte[11];
+		assertThat(inputStream.read(b)).isEqualTo(10);
+		assertThat(b).startsWith(Arrays.copyOfRange(BYTES, 95, 105));
+		assertThat(inputStream.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void nestedSubsection() throws Exception {
+		RandomAccessData subsection = this.file.getSubsection(10, 200)
+				.getSubsection(100, 50);
+		assertThat(subsection.getSize()).isEqualTo(50);
+		InputStream inputStream = subsection.getInputStream(ResourceAccess.ONCE);
+		assertThat(inputStream.read()).isEqualTo(110);
+		assertThat(inputStream.skip(48)).isEqualTo(48L);
+		assertThat(inputStream.read()).isEqualTo(159);
+		assertThat(inputStream.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void getFile() throws Exception {
+		assertThat(this.file.getFile()).isEqualTo(this.tempFile);
+	}
+
+	@Test
+	public void concurrentReads() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(20);
+		List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+		for (int i = 0; i < 100; i++) {
+			results.add(executorService.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					InputStream subsectionInputStream = MappedRandomAccessDataFileTests.this.file
+							.getSubsection(0, 256)
+							.getInputStream(ResourceAccess.PER_READ);
+					byte[] b = new byte[256];
+					subsectionInputStream.read(b);
+					return Arrays.equals(b, BYTES);
+				}
+
+			}));
+		}
+		for (Future<Boolean> future : results) {
+			assertThat(future.get()).isTrue();
+		}
+		executorService.shutdown();
+	}
+
+}
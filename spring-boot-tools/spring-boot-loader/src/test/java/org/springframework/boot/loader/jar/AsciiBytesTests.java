@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class AsciiBytesTests {
 
@@ -159,6 +160,27 @@ public class AsciiBytesTests {
 		hashCodeSameAsString("\ud83d\udca9");
 	}
 
+	@Test
+	public void matches() throws Exception {
+		AsciiBytes bytes = new AsciiBytes(new byte[] { 65, 66, 67, 68 }).substring(1, 3);
+		assertThat(bytes.matches("BC", "")).isTrue();
+		assertThat(bytes.matches("BC", null)).isTrue();
+		assertThat(bytes.matches("B", "C")).isTrue();
+		assertThat(bytes.matches("B", "")).isFalse();
+		assertThat(bytes.matches("BCD", "")).isFalse();
+		assertThat(bytes.matches("BC", "/")).isFalse();
+		assertThat(bytes.matches("BX", "")).isFalse();
+	}
+
+	@Test
+	public void matchesWithSpecial() throws Exception {
+		AsciiBytes bytes = new AsciiBytes("special/\u00EB.dat");
+		assertThat(bytes.matches("special/\u00EB", ".dat")).isTrue();
+		assertThat(bytes.matches("special/e.dat", "")).isFalse();
+		assertThat(new AsciiBytes("special/e.dat").matches("special/\u00EB.dat", ""))
+				.isFalse();
+	}
+
 	private void hashCodeSameAsString(String input) {
 		assertThat(new AsciiBytes(input).hashCode()).isEqualTo(input.hashCode());
 	}
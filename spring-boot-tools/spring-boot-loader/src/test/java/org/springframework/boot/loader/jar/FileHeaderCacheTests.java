@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link FileHeaderCache}.
+ *
+ * @author Jon Ellis
+ */
+public class FileHeaderCacheTests {
+
+	@Test
+	public void getWhenEmpty() {
+		FileHeaderCache cache = new FileHeaderCache(4);
+		assertThat(cache.get(1)).isNull();
+		assertThat(cache.getHits()).isEqualTo(0);
+		assertThat(cache.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void getAfterPut() {
+		FileHeaderCache cache = new FileHeaderCache(4);
+		FileHeader header = mock(FileHeader.class);
+		cache.put(1, header);
+		assertThat(cache.get(1)).isSameAs(header);
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.getMisses()).isEqualTo(0);
+	}
+
+	@Test
+	public void putReplacesHeaderInSameSlot() {
+		FileHeaderCache cache = new FileHeaderCache(4);
+		FileHeader first = mock(FileHeader.class);
+		FileHeader second = mock(FileHeader.class);
+		cache.put(1, first);
+		cache.put(5, second);
+		assertThat(cache.get(1)).isNull();
+		assertThat(cache.get(5)).isSameAs(second);
+	}
+
+	@Test
+	public void clear() {
+		FileHeaderCache cache = new FileHeaderCache(4);
+		cache.put(1, mock(FileHeader.class));
+		cache.clear();
+		assertThat(cache.get(1)).isNull();
+	}
+
+	@Test
+	public void zeroCapacityDoesNotCache() {
+		FileHeaderCache cache = new FileHeaderCache(0);
+		cache.put(1, mock(FileHeader.class));
+		assertThat(cache.getCapacity()).isEqualTo(0);
+		assertThat(cache.get(1)).isNull();
+		assertThat(cache.getMisses()).isEqualTo(1);
+	}
+
+}
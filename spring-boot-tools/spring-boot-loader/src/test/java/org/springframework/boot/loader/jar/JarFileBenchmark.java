@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.boot.loader.TestJarCreator;
+import org.springframework.boot.loader.data.MappedRandomAccessDataFile;
+import org.springframework.boot.loader.data.RandomAccessDataFile;
+
+/**
+ * Benchmark comparing a {@link JarFile} backed by the pooled {@link RandomAccessDataFile}
+ * with one backed by a {@link MappedRandomAccessDataFile}. Measures opening a fat jar and
+ * reading every entry of its nested jars, and reading entries from many threads at once.
+ * Run from an IDE using the {@link #main(String[]) main} method.
+ *
+ * @author Jon Ellis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JarFileBenchmark {
+
+	private static final int NESTED_JARS = 50;
+
+	private static final int CLASSES_PER_JAR = 200;
+
+	@Param({ "pooled", "mapped" })
+	private String dataFile;
+
+	private File file;
+
+	private JarFile jarFile;
+
+	private List<JarFile> nestedJarFiles;
+
+	private List<JarEntry> nestedEntries;
+
+	private final AtomicInteger nextEntry = new AtomicInteger();
+
+	@Setup
+	public void createJar() throws Exception {
+		this.file = File.createTempFile("benchmark", ".jar");
+		TestJarCreator.createBenchmarkJar(this.file, NESTED_JARS, CLASSES_PER_JAR);
+	}
+
+	@Setup(Level.Iteration)
+	public void openJar() throws IOException {
+		this.jarFile = open();
+		this.nestedJarFiles = new ArrayList<JarFile>();
+		this.nestedEntries = new ArrayList<JarEntry>();
+		for (JarFile nested : getNestedJarFiles(this.jarFile)) {
+			Enumeration<java.util.jar.JarEntry> entries = nested.entries();
+			while (entries.hasMoreElements()) {
+				this.nestedJarFiles.add(nested);
+				this.nestedEntries.add((JarEntry) entries.nextElement());
+			}
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void closeJar() throws IOException {
+		this.jarFile.close();
+	}
+
+	@TearDown
+	public void deleteJar() {
+		this.file.delete();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public long openAndReadAll() throws IOException {
+		JarFile jarFile = open();
+		try {
+			long bytes = 0;
+			for (JarFile nested : getNestedJarFiles(jarFile)) {
+				Enumeration<java.util.jar.JarEntry> entries = nested.entries();
+				while (entries.hasMoreElements()) {
+					bytes += read(nested, entries.nextElement());
+				}
+			}
+			return bytes;
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public long readEntrySingleReader() throws IOException {
+		return readNextEntry();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long readEntryEightReaders() throws IOException {
+		return readNextEntry();
+	}
+
+	@Benchmark
+	@Threads(32)
+	public long readEntryThirtyTwoReaders() throws IOException {
+		return readNextEntry();
+	}
+
+	private JarFile open() throws IOException {
+		return new JarFile("mapped".equals(this.dataFile)
+				? new MappedRandomAccessDataFile(this.file)
+				: new RandomAccessDataFile(this.file));
+	}
+
+	private List<JarFile> getNestedJarFiles(JarFile jarFile) throws IOException {
+		List<JarFile> nestedJarFiles = new ArrayList<JarFile>();
+		Enumeration<java.util.jar.JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			JarEntry entry = (JarEntry) entries.nextElement();
+			if (entry.getName().endsWith(".jar")) {
+				nestedJarFiles.add(jarFile.getNestedJarFile(entry));
+			}
+		}
+		return nestedJarFiles;
+	}
+
+	private long readNextEntry() throws IOException {
+		int index = (this.nextEntry.getAndIncrement() & Integer.MAX_VALUE)
+				% this.nestedEntries.size();
+		return read(this.nestedJarFiles.get(index), this.nestedEntries.get(index));
+	}
+
+	private long read(JarFile jarFile, java.util.jar.JarEntry entry)
+			throws IOException {
+		InputStream inputStream = jarFile.getInputStream(entry);
+		try {
+			byte[] buffer = new byte[4096];
+			long bytes = 0;
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				bytes += read;
+			}
+			return bytes;
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JarFileBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.boot.loader.LaunchedURLClassLoader;
+import org.springframework.boot.loader.TestJarCreator;
+
+/**
+ * Benchmark that loads every class of a fat jar's nested jars through a new
+ * {@link LaunchedURLClassLoader}, using several threads at once as a parallel-capable
+ * application does during startup. Compares different sizes of the entry cache of each
+ * {@link JarFile} and prints the cache's hits and misses at the end of each trial. Run
+ * from an IDE using the {@link #main(String[]) main} method.
+ *
+ * @author Jon Ellis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JarFileClassLoadingBenchmark {
+
+	private static final int NESTED_JARS = 50;
+
+	private static final int CLASSES_PER_JAR = 200;
+
+	@Param({ "1", "8" })
+	private int threads;
+
+	@Param({ "0", "64", "1000" })
+	private int entryCacheSize;
+
+	private File file;
+
+	private JarFile jarFile;
+
+	private List<JarFile> nestedJarFiles;
+
+	private URL[] urls;
+
+	private List<String> classNames;
+
+	private ExecutorService executor;
+
+	@Setup
+	public void setup() throws Exception {
+		System.setProperty("loader.entryCacheSize", String.valueOf(this.entryCacheSize));
+		JarFile.registerUrlProtocolHandler();
+		this.file = File.createTempFile("benchmark", ".jar");
+		TestJarCreator.createBenchmarkJar(this.file, NESTED_JARS, CLASSES_PER_JAR);
+		this.jarFile = new JarFile(this.file);
+		this.nestedJarFiles = new ArrayList<JarFile>();
+		Enumeration<java.util.jar.JarEntry> entries = this.jarFile.entries();
+		while (entries.hasMoreElements()) {
+			java.util.jar.JarEntry entry = entries.nextElement();
+			if (entry.getName().endsWith(".jar")) {
+				this.nestedJarFiles.add(this.jarFile.getNestedJarFile(entry));
+			}
+		}
+		this.urls = new URL[this.nestedJarFiles.size()];
+		for (int i = 0; i < this.urls.length; i++) {
+			this.urls[i] = this.nestedJarFiles.get(i).getUrl();
+		}
+		this.classNames = new ArrayList<String>();
+		for (int i = 0; i < CLASSES_PER_JAR; i++) {
+			for (int j = 0; j < NESTED_JARS; j++) {
+				this.classNames.add("bench.lib" + j + ".C" + i);
+			}
+		}
+		this.executor = Executors.newFixedThreadPool(this.threads);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		long hits = 0;
+		long misses = 0;
+		for (JarFile nestedJarFile : this.nestedJarFiles) {
+			hits += nestedJarFile.getEntryCacheHits();
+			misses += nestedJarFile.getEntryCacheMisses();
+		}
+		System.out.println("Entry cache size " + this.entryCacheSize + ": " + hits
+				+ " hits, " + misses + " misses");
+		this.executor.shutdownNow();
+		this.jarFile.close();
+		this.file.delete();
+		System.clearProperty("loader.entryCacheSize");
+	}
+
+	@Benchmark
+	@SuppressWarnings("resource")
+	public int loadAllClasses() throws Exception {
+		final LaunchedURLClassLoader classLoader = new LaunchedURLClassLoader(this.urls,
+				getClass().getClassLoader());
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < this.threads; i++) {
+			final int first = i;
+			results.add(this.executor.submit(new Callable<Integer>() {
+
+				@Override
+				public Integer call() throws Exception {
+					return loadClasses(classLoader, first);
+				}
+
+			}));
+		}
+		int loaded = 0;
+		for (Future<Integer> result : results) {
+			loaded += result.get();
+		}
+		return loaded;
+	}
+
+	private int loadClasses(ClassLoader classLoader, int first) throws Exception {
+		int loaded = 0;
+		for (int i = first; i < this.classNames.size(); i += this.threads) {
+			classLoader.loadClass(this.classNames.get(i));
+			loaded++;
+		}
+		return loaded;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JarFileClassLoadingBenchmark.class.getSimpleName()).build())
+						.run();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2016 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,7 +26,13 @@ import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
@@ -39,6 +45,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
 import org.springframework.boot.loader.TestJarCreator;
+import org.springframework.boot.loader.data.MappedRandomAccessDataFile;
 import org.springframework.boot.loader.data.RandomAccessDataFile;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.util.StreamUtils;
@@ -53,6 +60,7 @@ import static org.mockito.Mockito.verify;
  * @author Phillip Webb
  * @author Martin Lau
  * @author Andy Wilkinson
+ * @author Jon Ellis
  */
 public class JarFileTests {
 
@@ -108,6 +116,88 @@ public class JarFileTests {
 		jarFile.close();
 	}
 
+	@Test
+	public void entryCacheCountsHitsAndMisses() throws Exception {
+		long misses = this.jarFile.getEntryCacheMisses();
+		assertThat(this.jarFile.getEntry("1.dat")).isNotNull();
+		assertThat(this.jarFile.getEntryCacheMisses()).isGreaterThan(misses);
+		long hits = this.jarFile.getEntryCacheHits();
+		assertThat(this.jarFile.getEntry("1.dat")).isNotNull();
+		assertThat(this.jarFile.getEntryCacheHits()).isEqualTo(hits + 1);
+	}
+
+	@Test
+	public void createMappedFromFile() throws Exception {
+		System.setProperty("loader.mapped", "true");
+		try {
+			JarFile jarFile = new JarFile(this.rootJarFile);
+			assertThat(jarFile.getRootJarFile())
+					.isInstanceOf(MappedRandomAccessDataFile.class);
+			JarFile nestedJarFile = jarFile
+					.getNestedJarFile(jarFile.getEntry("nested.jar"));
+			InputStream inputStream = nestedJarFile
+					.getInputStream(nestedJarFile.getEntry("3.dat"));
+			assertThat(inputStream.read()).isEqualTo(3);
+			assertThat(inputStream.read()).isEqualTo(-1);
+			assertThat(jarFile.getManifest().getMainAttributes().getValue("Built-By"))
+					.isEqualTo("j1");
+			jarFile.close();
+		}
+		finally {
+			System.clearProperty("loader.mapped");
+		}
+	}
+
+	@Test
+	public void getEntryWithCacheDisabled() throws Exception {
+		System.setProperty("loader.entryCacheSize", "0");
+		try {
+			JarFile jarFile = new JarFile(this.rootJarFile);
+			assertThat(jarFile.getEntry("1.dat")).isNotNull();
+			assertThat(jarFile.getEntry("1.dat").getName()).isEqualTo("1.dat");
+			assertThat(jarFile.getEntry("d").getName()).isEqualTo("d/");
+			assertThat(jarFile.getEntry("missing.dat")).isNull();
+			jarFile.close();
+		}
+		finally {
+			System.clearProperty("loader.entryCacheSize");
+		}
+	}
+
+	@Test
+	public void getEntryFromMultipleThreads() throws Exception {
+		final String[] names = { "1.dat", "2.dat", "d/9.dat", "special/\u00EB.dat",
+				"nested.jar", "missing.dat" };
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+
+					@Override
+					public Boolean call() throws Exception {
+						for (int i = 0; i < 1000; i++) {
+							String name = names[i % names.length];
+							ZipEntry entry = JarFileTests.this.jarFile.getEntry(name);
+							if (name.equals("missing.dat") ? entry != null
+									: !entry.getName().equals(name)) {
+								return false;
+							}
+						}
+						return true;
+					}
+
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get()).isTrue();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
 	@Test
 	public void getManifest() throws Exception {
 		assertThat(this.jarFile.getManifest().getMainAttributes().getValue("Built-By"))
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2012-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.boot.loader.TestJarCreator;
+import org.springframework.boot.loader.data.RandomAccessData;
+import org.springframework.boot.loader.data.RandomAccessDataFile;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NestedJarIndex}.
+ *
+ * @author Jon Ellis
+ */
+public class NestedJarIndexTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File nestedJarFile;
+
+	private byte[] nestedJarData;
+
+	@Before
+	public void setup() throws Exception {
+		this.nestedJarFile = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(this.nestedJarFile);
+		this.nestedJarData = FileCopyUtils.copyToByteArray(this.nestedJarFile);
+	}
+
+	@Test
+	public void getEntryName() {
+		assertThat(NestedJarIndex.getEntryName("BOOT-INF/lib/a.jar"))
+				.isEqualTo("META-INF/jar-index/BOOT-INF/lib/a.jar.idx");
+	}
+
+	@Test
+	public void nestedJarIsOpenedFromIndex() throws Exception {
+		// The index claims that the jar is signed so that its use can be detected
+		JarFile jarFile = new JarFile(createRootJar(createIndex(crc(), true)));
+		try {
+			JarFile nested = jarFile.getNestedJarFile(jarFile.getEntry("lib.jar"));
+			assertThat(nested.isSigned()).isTrue();
+			assertSameEntries(nested);
+			InputStream inputStream = nested.getInputStream(nested.getEntry("d/9.dat"));
+			assertThat(inputStream.read()).isEqualTo(9);
+			assertThat(inputStream.read()).isEqualTo(-1);
+			assertThat(nested.getEntry("special/\u00EB.dat")).isNotNull();
+			assertThat(nested.getEntry("d")).isNotNull();
+			assertThat(nested.getEntry("missing.dat")).isNull();
+			assertThat(nested.getNestedJarFile(nested.getEntry("nested.jar"))
+					.getEntry("3.dat")).isNotNull();
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	@Test
+	public void indexWithDifferentCrcIsIgnored() throws Exception {
+		JarFile jarFile = new JarFile(createRootJar(createIndex(crc() + 1, true)));
+		try {
+			JarFile nested = jarFile.getNestedJarFile(jarFile.getEntry("lib.jar"));
+			assertThat(nested.isSigned()).isFalse();
+			assertSameEntries(nested);
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	@Test
+	public void truncatedIndexIsIgnored() throws Exception {
+		byte[] index = createIndex(crc(), true);
+		byte[] truncated = new byte[index.length - 4];
+		System.arraycopy(index, 0, truncated, 0, truncated.length);
+		JarFile jarFile = new JarFile(createRootJar(truncated));
+		try {
+			JarFile nested = jarFile.getNestedJarFile(jarFile.getEntry("lib.jar"));
+			assertThat(nested.isSigned()).isFalse();
+			assertSameEntries(nested);
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	private void assertSameEntries(JarFile nested) throws Exception {
+		JarFile expected = new JarFile(this.nestedJarFile);
+		try {
+			Enumeration<java.util.jar.JarEntry> expectedEntries = expected.entries();
+			Enumeration<java.util.jar.JarEntry> actualEntries = nested.entries();
+			while (expectedEntries.hasMoreElements()) {
+				assertThat(actualEntries.nextElement().getName())
+						.isEqualTo(expectedEntries.nextElement().getName());
+			}
+			assertThat(actualEntries.hasMoreElements()).isFalse();
+		}
+		finally {
+			expected.close();
+		}
+	}
+
+	private long crc() {
+		CRC32 crc = new CRC32();
+		crc.update(this.nestedJarData);
+		return crc.getValue();
+	}
+
+	private File createRootJar(byte[] index) throws Exception {
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream jarOutputStream = new JarOutputStream(
+				new FileOutputStream(file));
+		try {
+			writeStoredEntry(jarOutputStream, "lib.jar", this.nestedJarData);
+			writeStoredEntry(jarOutputStream, NestedJarIndex.getEntryName("lib.jar"),
+					index);
+		}
+		finally {
+			jarOutputStream.close();
+		}
+		return file;
+	}
+
+	private void writeStoredEntry(JarOutputStream jarOutputStream, String name,
+			byte[] data) throws Exception {
+		ZipEntry entry = new ZipEntry(name);
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(data.length);
+		entry.setCompressedSize(data.length);
+		entry.setCrc(crc.getValue());
+		jarOutputStream.putNextEntry(entry);
+		jarOutputStream.write(data);
+		jarOutputStream.closeEntry();
+	}
+
+	private byte[] createIndex(long crc, boolean signed) throws Exception {
+		final List<int[]> records = new ArrayList<int[]>();
+		CentralDirectoryParser parser = new CentralDirectoryParser();
+		parser.addVisitor(new CentralDirectoryVisitor() {
+
+			@Override
+			public void visitStart(CentralDirectoryEndRecord endRecord,
+					RandomAccessData centralDirectoryData) {
+			}
+
+			@Override
+			public void visitFileHeader(CentralDirectoryFileHeader fileHeader,
+					int dataOffset) {
+				records.add(new int[] { fileHeader.getName().hashCode(), dataOffset,
+						records.size() });
+			}
+
+			@Override
+			public void visitEnd() {
+			}
+
+		});
+		RandomAccessDataFile data = new RandomAccessDataFile(this.nestedJarFile);
+		try {
+			parser.parse(data, true);
+		}
+		finally {
+			data.close();
+		}
+		List<int[]> sorted = new ArrayList<int[]>(records);
+		Collections.sort(sorted, new Comparator<int[]>() {
+
+			@Override
+			public int compare(int[] o1, int[] o2) {
+				return (o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1));
+			}
+
+		});
+		int[] positions = new int[sorted.size()];
+		for (int i = 0; i < sorted.size(); i++) {
+			positions[sorted.get(i)[2]] = i;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeInt(0x424A4958);
+		output.writeInt(1);
+		output.writeLong(crc);
+		output.writeLong(this.nestedJarData.length);
+		output.writeBoolean(signed);
+		output.writeInt(sorted.size());
+		for (int[] record : sorted) {
+			output.writeInt(record[0]);
+		}
+		for (int[] record : sorted) {
+			output.writeInt(record[1]);
+		}
+		for (int position : positions) {
+			output.writeInt(position);
+		}
+		output.close();
+		return bytes.toByteArray();
+	}
+
+}
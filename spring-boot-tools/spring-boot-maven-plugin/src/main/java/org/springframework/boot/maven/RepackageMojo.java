@@ -45,6 +45,7 @@ import org.springframework.boot.loader.tools.Layouts;
 import org.springframework.boot.loader.tools.Libraries;
 import org.springframework.boot.loader.tools.Repackager;
 import org.springframework.boot.loader.tools.Repackager.MainClassTimeoutWarningListener;
+import org.springframework.boot.loader.tools.Repackager.PhaseTimingListener;
 
 /**
  * Repackages existing JAR and WAR archives so that they can be executed from the command
@@ -186,6 +187,23 @@ public class RepackageMojo extends AbstractDependencyFilterMojo {
 	@Parameter(defaultValue = "false")
 	public boolean includeSystemScope;
 
+	/**
+	 * Write a pre-built index for each nested library so that it can be opened without
+	 * parsing its central directory.
+	 * @since 2.0
+	 */
+	@Parameter(defaultValue = "false")
+	private boolean indexNestedLibraries;
+
+	/**
+	 * Prepare nested libraries in parallel, using one thread per available processor,
+	 * before they are written. When enabled, the time taken by each phase of the
+	 * repackaging is logged at info level rather than debug level.
+	 * @since 2.0
+	 */
+	@Parameter(defaultValue = "false")
+	private boolean prepareLibrariesInParallel;
+
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException {
 		if (this.project.getPackaging().equals("pom")) {
@@ -233,7 +251,10 @@ public class RepackageMojo extends AbstractDependencyFilterMojo {
 		Repackager repackager = new Repackager(source, this.layoutFactory);
 		repackager.addMainClassTimeoutWarningListener(
 				new LoggingMainClassTimeoutWarningListener());
+		repackager.addPhaseTimingListener(new LoggingPhaseTimingListener());
 		repackager.setMainClass(this.mainClass);
+		repackager.setIndexNestedLibraries(this.indexNestedLibraries);
+		repackager.setPrepareLibrariesInParallel(this.prepareLibrariesInParallel);
 		if (this.layout != null) {
 			getLog().info("Layout: " + this.layout);
 			repackager.setLayout(this.layout.layout());
@@ -370,4 +391,19 @@ public class RepackageMojo extends AbstractDependencyFilterMojo {
 
 	}
 
+	private class LoggingPhaseTimingListener implements PhaseTimingListener {
+
+		@Override
+		public void handlePhaseTiming(String phase, long duration) {
+			String message = "Repackaging " + phase + " took " + duration + "ms";
+			if (RepackageMojo.this.prepareLibrariesInParallel) {
+				getLog().info(message);
+			}
+			else {
+				getLog().debug(message);
+			}
+		}
+
+	}
+
 }